@@ -0,0 +1,54 @@
+package com.sequenceiq.hbase.client;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import com.sequenceiq.hbase.model.HBaseRow;
+
+/**
+ * Rows of the requested width and value size shared by the benchmarks.
+ */
+final class BenchmarkRows {
+
+    static final String FAMILY = "cf";
+
+    private BenchmarkRows() {
+        throw new IllegalStateException();
+    }
+
+    static String column(int index) {
+        return "column" + index;
+    }
+
+    static String value(int valueSize) {
+        char[] value = new char[valueSize];
+        Arrays.fill(value, 'v');
+        return String.valueOf(value);
+    }
+
+    static HBaseRow createRow(String rowKey, int rowWidth, int valueSize) {
+        HBaseRow row = new HBaseRow();
+        row.setRowKey(rowKey);
+        String value = value(valueSize);
+        for (int i = 0; i < rowWidth; i++) {
+            row.addValue(FAMILY, column(i), value);
+        }
+        return row;
+    }
+
+    static Result createResult(String rowKey, int rowWidth, int valueSize) {
+        byte[] row = Bytes.toBytes(rowKey);
+        byte[] family = Bytes.toBytes(FAMILY);
+        byte[] value = Bytes.toBytes(value(valueSize));
+        Cell[] cells = new Cell[rowWidth];
+        for (int i = 0; i < rowWidth; i++) {
+            cells[i] = new KeyValue(row, family, Bytes.toBytes(column(i)), value);
+        }
+        Arrays.sort(cells, KeyValue.COMPARATOR);
+        return Result.create(cells);
+    }
+}
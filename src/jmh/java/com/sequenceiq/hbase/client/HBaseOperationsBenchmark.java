@@ -0,0 +1,86 @@
+package com.sequenceiq.hbase.client;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sequenceiq.hbase.memory.InMemoryHTableFactory;
+import com.sequenceiq.hbase.model.HBaseRow;
+
+/**
+ * Cost of {@link HBaseOperations} calls against an in-memory table, with and without releasing
+ * the table handle after the call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HBaseOperationsBenchmark {
+
+    private static final String TABLE_NAME = "benchmark";
+    private static final String ROW_KEY = "row";
+
+    @Param({"1", "10", "100" })
+    private int rowWidth;
+    @Param({"16", "1024" })
+    private int valueSize;
+    private HBaseTablePool tablePool;
+    private HBaseOperations operations;
+    private HBaseRow row;
+    private TableCallback<String> noop;
+
+    @Setup
+    public void setUp() {
+        tablePool = new HBaseTablePool(new Configuration(false), new InMemoryHTableFactory());
+        operations = new HBaseOperations(tablePool);
+        row = BenchmarkRows.createRow(ROW_KEY, rowWidth, valueSize);
+        operations.put(TABLE_NAME, row, false);
+        noop = new TableCallback<String>() {
+            @Override
+            public String doInTable(HTableInterface table) {
+                return ROW_KEY;
+            }
+        };
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        tablePool.releaseHTable(TABLE_NAME);
+        tablePool.close();
+    }
+
+    @Benchmark
+    public String execute() {
+        return operations.execute(TABLE_NAME, noop, false);
+    }
+
+    @Benchmark
+    public String executeAndRelease() {
+        return operations.execute(TABLE_NAME, noop, true);
+    }
+
+    @Benchmark
+    public void put() {
+        operations.put(TABLE_NAME, row, false);
+    }
+
+    @Benchmark
+    public HBaseRow get() {
+        return operations.get(TABLE_NAME, ROW_KEY, false);
+    }
+}
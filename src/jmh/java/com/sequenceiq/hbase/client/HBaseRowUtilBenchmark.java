@@ -0,0 +1,61 @@
+package com.sequenceiq.hbase.client;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sequenceiq.hbase.model.HBaseRow;
+
+/**
+ * Conversions between {@link HBaseRow} and the HBase client types done on every put and get.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HBaseRowUtilBenchmark {
+
+    private static final String ROW_KEY = "row";
+
+    @Param({"1", "10", "100" })
+    private int rowWidth;
+    @Param({"16", "1024" })
+    private int valueSize;
+    private HBaseRow row;
+    private Result result;
+
+    @Setup
+    public void setUp() {
+        row = BenchmarkRows.createRow(ROW_KEY, rowWidth, valueSize);
+        result = BenchmarkRows.createResult(ROW_KEY, rowWidth, valueSize);
+    }
+
+    @Benchmark
+    public Put convertRow() {
+        return HBaseRowUtil.convert(row);
+    }
+
+    @Benchmark
+    public HBaseRow convertResult() {
+        return HBaseRowUtil.convert(result);
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return HBaseRowUtil.isValid(row);
+    }
+}
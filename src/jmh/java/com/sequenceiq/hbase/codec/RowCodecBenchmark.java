@@ -0,0 +1,92 @@
+package com.sequenceiq.hbase.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sequenceiq.hbase.model.HBaseRow;
+
+/**
+ * Writes and reads a batch of rows with {@link RowCodec} and with Java serialization. Every cell has its own value
+ * instance, Java serialization would write a shared instance only once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowCodecBenchmark {
+
+    private static final String FAMILY = "cf";
+    private static final int ROWS = 100;
+
+    @Param({"1", "10", "100" })
+    private int rowWidth;
+    @Param({"16", "1024" })
+    private int valueSize;
+    private List<HBaseRow> rows;
+    private byte[] encoded;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() throws IOException {
+        char[] chars = new char[valueSize];
+        Arrays.fill(chars, 'v');
+        rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            HBaseRow row = new HBaseRow();
+            row.setRowKey("row" + i);
+            for (int j = 0; j < rowWidth; j++) {
+                row.addValue(FAMILY, "column" + j, String.valueOf(chars));
+            }
+            rows.add(row);
+        }
+        encoded = RowCodec.encode(rows);
+        serialized = serialize();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return RowCodec.encode(rows);
+    }
+
+    @Benchmark
+    public List<HBaseRow> decode() {
+        return RowCodec.decode(encoded);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(rows);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return input.readObject();
+        }
+    }
+}
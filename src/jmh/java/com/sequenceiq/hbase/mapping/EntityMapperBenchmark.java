@@ -0,0 +1,92 @@
+package com.sequenceiq.hbase.mapping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sequenceiq.hbase.client.HBaseRowUtil;
+import com.sequenceiq.hbase.model.HBaseRow;
+
+/**
+ * Entity mapping compared to the String based {@link HBaseRow} conversion of the same row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityMapperBenchmark {
+
+    private static final int COUNT = 42;
+    private static final double VALUE = 0.75;
+    private final EntityMapper<Metric> mapper = EntityMapper.of(Metric.class);
+    private Metric metric;
+    private Result result;
+
+    @Setup
+    public void setUp() {
+        metric = new Metric();
+        metric.id = "host1:cpu";
+        metric.host = "host1";
+        metric.timestamp = System.currentTimeMillis();
+        metric.count = COUNT;
+        metric.value = VALUE;
+        metric.valid = true;
+        List<Cell> cells = new ArrayList<>();
+        for (Map.Entry<byte[], List<Cell>> family : mapper.toPut(metric).getFamilyCellMap().entrySet()) {
+            cells.addAll(family.getValue());
+        }
+        Cell[] sorted = cells.toArray(new Cell[cells.size()]);
+        Arrays.sort(sorted, KeyValue.COMPARATOR);
+        result = Result.create(sorted);
+    }
+
+    @Benchmark
+    public Put toPut() {
+        return mapper.toPut(metric);
+    }
+
+    @Benchmark
+    public Metric mapRow() {
+        return mapper.mapRow(result);
+    }
+
+    @Benchmark
+    public HBaseRow convertResult() {
+        return HBaseRowUtil.convert(result);
+    }
+
+    @HBaseEntity(family = "m")
+    public static class Metric {
+        @RowKey
+        private String id;
+        @HBaseColumn
+        private String host;
+        @HBaseColumn
+        private long timestamp;
+        @HBaseColumn
+        private int count;
+        @HBaseColumn
+        private double value;
+        @HBaseColumn
+        private boolean valid;
+    }
+}
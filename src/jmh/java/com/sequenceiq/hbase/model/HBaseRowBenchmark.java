@@ -0,0 +1,57 @@
+package com.sequenceiq.hbase.model;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Builds a row column by column with {@link HBaseRow#addValue(String, String, String)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HBaseRowBenchmark {
+
+    private static final String FAMILY = "cf";
+
+    @Param({"1", "10", "100" })
+    private int rowWidth;
+    @Param({"16", "1024" })
+    private int valueSize;
+    private String[] columns;
+    private String value;
+
+    @Setup
+    public void setUp() {
+        columns = new String[rowWidth];
+        for (int i = 0; i < rowWidth; i++) {
+            columns[i] = "column" + i;
+        }
+        char[] chars = new char[valueSize];
+        Arrays.fill(chars, 'v');
+        value = String.valueOf(chars);
+    }
+
+    @Benchmark
+    public HBaseRow addValue() {
+        HBaseRow row = new HBaseRow();
+        for (String column : columns) {
+            row.addValue(FAMILY, column, value);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,93 @@
+package com.sequenceiq.hbase.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the interned qualifiers with the previous reflection based equals, hashCode and
+ * name encoding, as used by every map lookup of {@link HBaseRow} and every converted put.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QualifierBenchmark {
+
+    private static final int NAMES = 32;
+    private final String[] names = new String[NAMES];
+    private final Map<Column, String> values = new HashMap<>();
+    private final Map<ReflectiveQualifier, String> reflectiveValues = new HashMap<>();
+    private int index;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < NAMES; i++) {
+            names[i] = "column" + i;
+            values.put(Qualifier.valueOf(names[i]), names[i]);
+            reflectiveValues.put(new ReflectiveQualifier(names[i]), names[i]);
+        }
+    }
+
+    @Benchmark
+    public String lookupInterned() {
+        return values.get(Qualifier.valueOf(nextName()));
+    }
+
+    @Benchmark
+    public String lookupReflective() {
+        return reflectiveValues.get(new ReflectiveQualifier(nextName()));
+    }
+
+    @Benchmark
+    public byte[] nameBytesCached() {
+        return Qualifier.valueOf(nextName()).getNameBytes();
+    }
+
+    @Benchmark
+    public byte[] nameBytesEncoded() {
+        return new ReflectiveQualifier(nextName()).getNameBytes();
+    }
+
+    private String nextName() {
+        index = (index + 1) % NAMES;
+        return names[index];
+    }
+
+    private static final class ReflectiveQualifier {
+        private final String name;
+
+        private ReflectiveQualifier(String name) {
+            this.name = name;
+        }
+
+        private byte[] getNameBytes() {
+            return name.getBytes();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return EqualsBuilder.reflectionEquals(this, o);
+        }
+
+        @Override
+        public int hashCode() {
+            return HashCodeBuilder.reflectionHashCode(this);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.sequenceiq.hbase.admin;
+
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.io.compress.Compression;
+import org.apache.hadoop.hbase.io.encoding.DataBlockEncoding;
+import org.apache.hadoop.hbase.regionserver.BloomType;
+
+/**
+ * Storage settings of a column family, the defaults are the defaults of HBase.
+ */
+public class FamilyOptions {
+
+    private final String name;
+    private Compression.Algorithm compression = Compression.Algorithm.NONE;
+    private DataBlockEncoding dataBlockEncoding = DataBlockEncoding.NONE;
+    private BloomType bloomType = BloomType.valueOf(HColumnDescriptor.DEFAULT_BLOOMFILTER);
+    private int blockSize = HColumnDescriptor.DEFAULT_BLOCKSIZE;
+    private boolean inMemory = HColumnDescriptor.DEFAULT_IN_MEMORY;
+    private int timeToLive = HColumnDescriptor.DEFAULT_TTL;
+    private int maxVersions = HColumnDescriptor.DEFAULT_VERSIONS;
+
+    public FamilyOptions(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Compression.Algorithm getCompression() {
+        return compression;
+    }
+
+    /**
+     * Compression of the store files, the codec has to be installed on every region server.
+     */
+    public void setCompression(Compression.Algorithm compression) {
+        this.compression = compression;
+    }
+
+    public DataBlockEncoding getDataBlockEncoding() {
+        return dataBlockEncoding;
+    }
+
+    /**
+     * Encoding of the keys within a block, FAST_DIFF or PREFIX pay off for long row keys and many columns per row.
+     */
+    public void setDataBlockEncoding(DataBlockEncoding dataBlockEncoding) {
+        this.dataBlockEncoding = dataBlockEncoding;
+    }
+
+    public BloomType getBloomType() {
+        return bloomType;
+    }
+
+    /**
+     * ROW helps gets of whole rows, ROWCOL gets of single columns, NONE saves space for scan only tables.
+     */
+    public void setBloomType(BloomType bloomType) {
+        this.bloomType = bloomType;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Size of the blocks in bytes, smaller blocks favour random reads, larger ones scans.
+     */
+    public void setBlockSize(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.blockSize = blockSize;
+    }
+
+    public boolean isInMemory() {
+        return inMemory;
+    }
+
+    /**
+     * Gives the blocks of the family priority in the block cache.
+     */
+    public void setInMemory(boolean inMemory) {
+        this.inMemory = inMemory;
+    }
+
+    public int getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Cells older than this many seconds are dropped at compaction time.
+     */
+    public void setTimeToLive(int timeToLive) {
+        if (timeToLive < 1) {
+            throw new IllegalArgumentException("Time to live must be positive: " + timeToLive);
+        }
+        this.timeToLive = timeToLive;
+    }
+
+    public int getMaxVersions() {
+        return maxVersions;
+    }
+
+    public void setMaxVersions(int maxVersions) {
+        if (maxVersions < 1) {
+            throw new IllegalArgumentException("Max versions must be positive: " + maxVersions);
+        }
+        this.maxVersions = maxVersions;
+    }
+
+    HColumnDescriptor toDescriptor() {
+        HColumnDescriptor descriptor = new HColumnDescriptor(name);
+        descriptor.setCompressionType(compression);
+        descriptor.setDataBlockEncoding(dataBlockEncoding);
+        descriptor.setBloomFilterType(bloomType);
+        descriptor.setBlocksize(blockSize);
+        descriptor.setInMemory(inMemory);
+        descriptor.setTimeToLive(timeToLive);
+        descriptor.setMaxVersions(maxVersions);
+        return descriptor;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("FamilyOptions{");
+        sb.append("name='").append(name).append('\'');
+        sb.append(", compression=").append(compression);
+        sb.append(", dataBlockEncoding=").append(dataBlockEncoding);
+        sb.append(", bloomType=").append(bloomType);
+        sb.append(", blockSize=").append(blockSize);
+        sb.append(", inMemory=").append(inMemory);
+        sb.append(", timeToLive=").append(timeToLive);
+        sb.append(", maxVersions=").append(maxVersions);
+        sb.append('}');
+        return sb.toString();
+    }
+}
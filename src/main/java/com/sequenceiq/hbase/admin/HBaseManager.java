@@ -3,7 +3,6 @@ package com.sequenceiq.hbase.admin;
 import java.io.IOException;
 
 import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.hbase.HColumnDescriptor;
 import org.apache.hadoop.hbase.HTableDescriptor;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.HBaseAdmin;
@@ -46,18 +45,35 @@ public class HBaseManager {
     }
 
     public boolean create(String tableName, String... families) {
+        TableOptions options = new TableOptions();
+        if (families != null) {
+            for (String family : families) {
+                options.addFamily(family);
+            }
+        }
+        return createTable(tableName, options);
+    }
+
+    /**
+     * Creates the table with the families and pre-split into the regions of the options.
+     */
+    public boolean createTable(String tableName, TableOptions options) {
         boolean result = true;
         try {
             byte[] tableNameBytes = tableName.getBytes();
             TableName.isLegalTableQualifierName(tableNameBytes);
             TableName tableNameObject = TableName.valueOf(tableNameBytes);
             HTableDescriptor table = new HTableDescriptor(tableNameObject);
-            if (families != null) {
-                for (String family : families) {
-                    table.addFamily(new HColumnDescriptor(family));
-                }
+            for (FamilyOptions family : options.getFamilies()) {
+                table.addFamily(family.toDescriptor());
+            }
+            byte[][] splitKeys = options.getSplitKeys();
+            if (splitKeys.length > 0) {
+                hBaseAdmin.createTable(table, splitKeys);
+            } else {
+                hBaseAdmin.createTable(table);
             }
-            hBaseAdmin.createTable(table);
+            LOGGER.info("Created table {} with {} regions", tableName, splitKeys.length + 1);
         } catch (Exception e) {
             LOGGER.warn("Cannot create table: {}", tableName, e);
             result = false;
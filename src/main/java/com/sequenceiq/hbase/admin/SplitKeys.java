@@ -0,0 +1,133 @@
+package com.sequenceiq.hbase.admin;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Split keys to pre-split new tables with, see {@link TableOptions#setSplitKeys(byte[][])}. Every method returns
+ * the keys of regions - 1 boundaries in ascending order.
+ */
+public final class SplitKeys {
+
+    public static final int DEFAULT_MAX_SAMPLES = 100000;
+    private static final int HEX_RADIX = 16;
+    private static final int BYTE_RADIX = 256;
+    private static final int BITS_PER_BYTE = 8;
+    private static final int MAX_HEX_WIDTH = 15;
+    private static final int MAX_BYTE_WIDTH = 7;
+    private static final int BYTE_MASK = 0xFF;
+
+    private SplitKeys() {
+        throw new IllegalStateException();
+    }
+
+    /**
+     * Splits the space of lower case hex strings of the given width evenly, for row keys starting with a hash in hex.
+     */
+    public static byte[][] uniformHex(int regions, int width) {
+        long[] boundaries = boundaries(regions, width, MAX_HEX_WIDTH, HEX_RADIX);
+        byte[][] keys = new byte[boundaries.length][];
+        for (int i = 0; i < boundaries.length; i++) {
+            keys[i] = Bytes.toBytes(String.format("%0" + width + "x", boundaries[i]));
+        }
+        return keys;
+    }
+
+    /**
+     * Splits the space of the first width bytes of the row keys evenly, for binary keys like salts or hashes.
+     */
+    public static byte[][] uniformBytes(int regions, int width) {
+        long[] boundaries = boundaries(regions, width, MAX_BYTE_WIDTH, BYTE_RADIX);
+        byte[][] keys = new byte[boundaries.length][];
+        for (int i = 0; i < boundaries.length; i++) {
+            keys[i] = new byte[width];
+            long value = boundaries[i];
+            for (int j = width - 1; j >= 0; j--) {
+                keys[i][j] = (byte) (value & BYTE_MASK);
+                value >>>= BITS_PER_BYTE;
+            }
+        }
+        return keys;
+    }
+
+    public static byte[][] sample(Path keyFile, int regions) throws IOException {
+        return sample(keyFile, regions, DEFAULT_MAX_SAMPLES);
+    }
+
+    /**
+     * Splits at the quantiles of the row keys listed in the file, one key per line. At most maxSamples keys,
+     * picked uniformly at random, are held in memory so the file may be arbitrarily large.
+     */
+    public static byte[][] sample(Path keyFile, int regions, int maxSamples) throws IOException {
+        if (maxSamples < 1) {
+            throw new IllegalArgumentException("Max samples must be positive: " + maxSamples);
+        }
+        List<byte[]> samples = new ArrayList<>();
+        long seen = 0;
+        try (BufferedReader reader = Files.newBufferedReader(keyFile, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                seen++;
+                if (samples.size() < maxSamples) {
+                    samples.add(Bytes.toBytes(line));
+                } else {
+                    long index = ThreadLocalRandom.current().nextLong(seen);
+                    if (index < maxSamples) {
+                        samples.set((int) index, Bytes.toBytes(line));
+                    }
+                }
+            }
+        }
+        return fromSample(samples, regions);
+    }
+
+    /**
+     * Splits at the quantiles of the sampled row keys, duplicate boundaries are dropped so fewer regions may result.
+     */
+    public static byte[][] fromSample(List<byte[]> keys, int regions) {
+        if (regions < 1) {
+            throw new IllegalArgumentException("Number of regions must be positive: " + regions);
+        }
+        List<byte[]> sorted = new ArrayList<>(keys);
+        Collections.sort(sorted, Bytes.BYTES_COMPARATOR);
+        List<byte[]> splits = new ArrayList<>();
+        for (int i = 1; i < regions && !sorted.isEmpty(); i++) {
+            byte[] key = sorted.get((int) ((long) i * sorted.size() / regions));
+            if (key.length > 0 && (splits.isEmpty() || Bytes.compareTo(splits.get(splits.size() - 1), key) < 0)) {
+                splits.add(key);
+            }
+        }
+        return splits.toArray(new byte[splits.size()][]);
+    }
+
+    private static long[] boundaries(int regions, int width, int maxWidth, int radix) {
+        if (width < 1 || width > maxWidth) {
+            throw new IllegalArgumentException("Width must be between 1 and " + maxWidth + ": " + width);
+        }
+        long range = 1;
+        for (int i = 0; i < width; i++) {
+            range *= radix;
+        }
+        if (regions < 1 || regions > range) {
+            throw new IllegalArgumentException("Number of regions must be between 1 and " + range + ": " + regions);
+        }
+        long step = range / regions;
+        long remainder = range % regions;
+        long[] boundaries = new long[regions - 1];
+        for (int i = 1; i < regions; i++) {
+            boundaries[i - 1] = step * i + remainder * i / regions;
+        }
+        return boundaries;
+    }
+}
@@ -0,0 +1,72 @@
+package com.sequenceiq.hbase.admin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Layout of a new table: its column families and the row keys its key space is pre-split at, see {@link SplitKeys}.
+ */
+public class TableOptions {
+
+    private static final byte[][] NO_SPLIT_KEYS = new byte[0][];
+    private final List<FamilyOptions> families = new ArrayList<>();
+    private byte[][] splitKeys = NO_SPLIT_KEYS;
+
+    public List<FamilyOptions> getFamilies() {
+        return Collections.unmodifiableList(families);
+    }
+
+    public void addFamily(FamilyOptions family) {
+        families.add(family);
+    }
+
+    /**
+     * Adds a family with default settings and returns it to be customized.
+     */
+    public FamilyOptions addFamily(String name) {
+        FamilyOptions family = new FamilyOptions(name);
+        families.add(family);
+        return family;
+    }
+
+    public byte[][] getSplitKeys() {
+        return splitKeys;
+    }
+
+    /**
+     * The table is created with one region more than split keys, the keys are sorted and duplicates dropped.
+     */
+    public void setSplitKeys(byte[][] splitKeys) {
+        if (splitKeys == null || splitKeys.length == 0) {
+            this.splitKeys = NO_SPLIT_KEYS;
+            return;
+        }
+        for (byte[] key : splitKeys) {
+            if (key == null || key.length == 0) {
+                throw new IllegalArgumentException("Split keys must not be empty");
+            }
+        }
+        byte[][] sorted = splitKeys.clone();
+        Arrays.sort(sorted, Bytes.BYTES_COMPARATOR);
+        int size = 0;
+        for (byte[] key : sorted) {
+            if (size == 0 || !Bytes.equals(sorted[size - 1], key)) {
+                sorted[size++] = key;
+            }
+        }
+        this.splitKeys = Arrays.copyOf(sorted, size);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("TableOptions{");
+        sb.append("families=").append(families);
+        sb.append(", regions=").append(splitKeys.length + 1);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package com.sequenceiq.hbase.aggregate;
+
+import java.util.List;
+
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Pair;
+
+/**
+ * Aggregate computed from partial results, one partial per region scan. Partials are only accessed by one thread at a
+ * time and are merged once all region scans are done. Common aggregations are created with {@link Aggregations}.
+ *
+ * @param <A> the mutable partial result
+ * @param <R> the final result
+ */
+public interface Aggregation<A, R> {
+
+    /**
+     * Family and qualifier of the columns read from the rows, empty if only the row keys are needed.
+     */
+    List<Pair<byte[], byte[]>> getColumns();
+
+    A create();
+
+    void add(A partial, Result row);
+
+    /**
+     * Merges the right partial into the left one and returns the merged partial.
+     */
+    A merge(A left, A right);
+
+    R result(A partial);
+}
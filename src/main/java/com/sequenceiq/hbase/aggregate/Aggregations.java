@@ -0,0 +1,85 @@
+package com.sequenceiq.hbase.aggregate;
+
+import java.util.Map;
+
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Factories of the common aggregations for
+ * {@link com.sequenceiq.hbase.client.HBaseOperations#aggregate(String, org.apache.hadoop.hbase.client.Scan, Aggregation, int)}.
+ * Only the latest version of a column is aggregated.
+ */
+public final class Aggregations {
+
+    public static final int DEFAULT_TOP_K_CAPACITY_FACTOR = 10;
+    private static final int MIN_TOP_K_CAPACITY = 100;
+
+    private Aggregations() {
+    }
+
+    /**
+     * Number of rows, only the row keys are transferred.
+     */
+    public static Aggregation<?, Long> count() {
+        return new CountAggregation();
+    }
+
+    /**
+     * Sum of the column, zero if no row has a numeric value. The aggregation fails if the sum overflows a long.
+     */
+    public static Aggregation<?, Long> sum(String family, String qualifier, ValueEncoding encoding) {
+        return new LongColumnAggregation(Bytes.toBytes(family), Bytes.toBytes(qualifier), encoding, LongColumnAggregation.Operator.SUM);
+    }
+
+    /**
+     * Minimum of the column, null if no row has a numeric value.
+     */
+    public static Aggregation<?, Long> min(String family, String qualifier, ValueEncoding encoding) {
+        return new LongColumnAggregation(Bytes.toBytes(family), Bytes.toBytes(qualifier), encoding, LongColumnAggregation.Operator.MIN);
+    }
+
+    /**
+     * Maximum of the column, null if no row has a numeric value.
+     */
+    public static Aggregation<?, Long> max(String family, String qualifier, ValueEncoding encoding) {
+        return new LongColumnAggregation(Bytes.toBytes(family), Bytes.toBytes(qualifier), encoding, LongColumnAggregation.Operator.MAX);
+    }
+
+    /**
+     * Estimated number of distinct values of the column, see {@link HyperLogLog}.
+     */
+    public static Aggregation<?, Long> distinctCount(String family, String qualifier) {
+        return distinctCount(family, qualifier, HyperLogLog.DEFAULT_PRECISION);
+    }
+
+    public static Aggregation<?, Long> distinctCount(String family, String qualifier, int precision) {
+        HyperLogLog.checkPrecision(precision);
+        return new DistinctCountAggregation(Bytes.toBytes(family), Bytes.toBytes(qualifier), precision);
+    }
+
+    /**
+     * Estimated number of distinct row keys, mostly useful per group of a {@link #groupBy(GroupKey, Aggregation) group-by}.
+     */
+    public static Aggregation<?, Long> distinctRowKeys(int precision) {
+        HyperLogLog.checkPrecision(precision);
+        return new DistinctCountAggregation(null, null, precision);
+    }
+
+    /**
+     * The k most frequent values of the column with their counts in descending order. Every partial tracks at most
+     * {@value #DEFAULT_TOP_K_CAPACITY_FACTOR} times k values, the counts are approximate above that.
+     */
+    public static Aggregation<?, Map<String, Long>> topK(String family, String qualifier, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("K must be positive: " + k);
+        }
+        return new TopKAggregation(Bytes.toBytes(family), Bytes.toBytes(qualifier), k, Math.max(MIN_TOP_K_CAPACITY, k * DEFAULT_TOP_K_CAPACITY_FACTOR));
+    }
+
+    /**
+     * Runs the aggregation for every group of rows, the result is sorted by the group keys.
+     */
+    public static <A, R> Aggregation<?, Map<String, R>> groupBy(GroupKey groupKey, Aggregation<A, R> aggregation) {
+        return new GroupByAggregation<>(groupKey, aggregation);
+    }
+}
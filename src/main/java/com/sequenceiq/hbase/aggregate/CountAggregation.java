@@ -0,0 +1,36 @@
+package com.sequenceiq.hbase.aggregate;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Pair;
+
+final class CountAggregation implements Aggregation<LongState, Long> {
+
+    @Override
+    public List<Pair<byte[], byte[]>> getColumns() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public LongState create() {
+        return new LongState();
+    }
+
+    @Override
+    public void add(LongState partial, Result row) {
+        partial.set(partial.getValue() + 1);
+    }
+
+    @Override
+    public LongState merge(LongState left, LongState right) {
+        left.set(left.getValue() + right.getValue());
+        return left;
+    }
+
+    @Override
+    public Long result(LongState partial) {
+        return partial.getValue();
+    }
+}
@@ -0,0 +1,63 @@
+package com.sequenceiq.hbase.aggregate;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Pair;
+
+/**
+ * Estimated number of distinct values of a column, or of distinct row keys if the family is null.
+ */
+final class DistinctCountAggregation implements Aggregation<HyperLogLog, Long> {
+
+    private final byte[] family;
+    private final byte[] qualifier;
+    private final int precision;
+
+    DistinctCountAggregation(byte[] family, byte[] qualifier, int precision) {
+        this.family = family;
+        this.qualifier = qualifier;
+        this.precision = precision;
+    }
+
+    @Override
+    public List<Pair<byte[], byte[]>> getColumns() {
+        if (family == null) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(new Pair<>(family, qualifier));
+    }
+
+    @Override
+    public HyperLogLog create() {
+        return new HyperLogLog(precision);
+    }
+
+    @Override
+    public void add(HyperLogLog partial, Result row) {
+        if (family == null) {
+            byte[] rowKey = row.getRow();
+            if (rowKey != null) {
+                partial.add(rowKey);
+            }
+            return;
+        }
+        Cell cell = row.getColumnLatestCell(family, qualifier);
+        if (cell != null) {
+            partial.add(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+        }
+    }
+
+    @Override
+    public HyperLogLog merge(HyperLogLog left, HyperLogLog right) {
+        left.merge(right);
+        return left;
+    }
+
+    @Override
+    public Long result(HyperLogLog partial) {
+        return partial.estimate();
+    }
+}
@@ -0,0 +1,74 @@
+package com.sequenceiq.hbase.aggregate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the values and keeps only the most frequent ones once more than twice the capacity are tracked, so the
+ * memory stays bounded. The counts are exact as long as there are fewer distinct values than the capacity,
+ * otherwise values can be undercounted by at most the largest dropped count.
+ */
+final class FrequentValues {
+
+    private static final Comparator<Map.Entry<String, long[]>> BY_COUNT = new Comparator<Map.Entry<String, long[]>>() {
+        @Override
+        public int compare(Map.Entry<String, long[]> o1, Map.Entry<String, long[]> o2) {
+            int result = Long.compare(o2.getValue()[0], o1.getValue()[0]);
+            return result == 0 ? o1.getKey().compareTo(o2.getKey()) : result;
+        }
+    };
+    private final Map<String, long[]> counts = new HashMap<>();
+    private final int capacity;
+
+    FrequentValues(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void add(String value, long count) {
+        long[] current = counts.get(value);
+        if (current == null) {
+            counts.put(value, new long[]{count});
+            if (counts.size() > 2 * capacity) {
+                prune();
+            }
+        } else {
+            current[0] += count;
+        }
+    }
+
+    void merge(FrequentValues other) {
+        for (Map.Entry<String, long[]> entry : other.counts.entrySet()) {
+            add(entry.getKey(), entry.getValue()[0]);
+        }
+    }
+
+    /**
+     * The most frequent values with their counts in descending order of the counts.
+     */
+    Map<String, Long> top(int k) {
+        List<Map.Entry<String, long[]>> entries = sorted();
+        Map<String, Long> top = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(k, entries.size()); i++) {
+            top.put(entries.get(i).getKey(), entries.get(i).getValue()[0]);
+        }
+        return Collections.unmodifiableMap(top);
+    }
+
+    private void prune() {
+        List<Map.Entry<String, long[]>> entries = sorted();
+        for (Map.Entry<String, long[]> entry : entries.subList(capacity, entries.size())) {
+            counts.remove(entry.getKey());
+        }
+    }
+
+    private List<Map.Entry<String, long[]>> sorted() {
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(counts.entrySet());
+        Collections.sort(entries, BY_COUNT);
+        return entries;
+    }
+}
@@ -0,0 +1,69 @@
+package com.sequenceiq.hbase.aggregate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Pair;
+
+/**
+ * Runs the aggregation per group, the result is sorted by the group keys.
+ */
+final class GroupByAggregation<A, R> implements Aggregation<Map<String, A>, Map<String, R>> {
+
+    private final GroupKey groupKey;
+    private final Aggregation<A, R> aggregation;
+
+    GroupByAggregation(GroupKey groupKey, Aggregation<A, R> aggregation) {
+        this.groupKey = groupKey;
+        this.aggregation = aggregation;
+    }
+
+    @Override
+    public List<Pair<byte[], byte[]>> getColumns() {
+        List<Pair<byte[], byte[]>> columns = new ArrayList<>(groupKey.getColumns());
+        columns.addAll(aggregation.getColumns());
+        return columns;
+    }
+
+    @Override
+    public Map<String, A> create() {
+        return new HashMap<>();
+    }
+
+    @Override
+    public void add(Map<String, A> partial, Result row) {
+        String key = groupKey.keyOf(row);
+        if (key == null) {
+            return;
+        }
+        A group = partial.get(key);
+        if (group == null) {
+            group = aggregation.create();
+            partial.put(key, group);
+        }
+        aggregation.add(group, row);
+    }
+
+    @Override
+    public Map<String, A> merge(Map<String, A> left, Map<String, A> right) {
+        for (Map.Entry<String, A> entry : right.entrySet()) {
+            A group = left.get(entry.getKey());
+            left.put(entry.getKey(), group == null ? entry.getValue() : aggregation.merge(group, entry.getValue()));
+        }
+        return left;
+    }
+
+    @Override
+    public Map<String, R> result(Map<String, A> partial) {
+        Map<String, R> result = new TreeMap<>();
+        for (Map.Entry<String, A> entry : partial.entrySet()) {
+            result.put(entry.getKey(), aggregation.result(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+}
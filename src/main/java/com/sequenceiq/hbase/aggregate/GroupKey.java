@@ -0,0 +1,22 @@
+package com.sequenceiq.hbase.aggregate;
+
+import java.util.List;
+
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Pair;
+
+/**
+ * Group of a row in a {@link Aggregations#groupBy(GroupKey, Aggregation) group-by}, created with {@link GroupKeys}.
+ */
+public interface GroupKey {
+
+    /**
+     * Family and qualifier of the columns the key is read from, empty if it is derived from the row key.
+     */
+    List<Pair<byte[], byte[]>> getColumns();
+
+    /**
+     * The group of the row, or null to leave the row out.
+     */
+    String keyOf(Result row);
+}
@@ -0,0 +1,85 @@
+package com.sequenceiq.hbase.aggregate;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+
+/**
+ * Factories of the common {@link GroupKey group keys}.
+ */
+public final class GroupKeys {
+
+    private GroupKeys() {
+    }
+
+    /**
+     * Groups by the first bytes of the row key, shorter row keys are a group of their own.
+     */
+    public static GroupKey rowKeyPrefix(final int length) {
+        if (length < 1) {
+            throw new IllegalArgumentException("Prefix length must be positive: " + length);
+        }
+        return new GroupKey() {
+            @Override
+            public List<Pair<byte[], byte[]>> getColumns() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public String keyOf(Result row) {
+                byte[] rowKey = row.getRow();
+                return rowKey == null ? null : Bytes.toString(rowKey, 0, Math.min(length, rowKey.length));
+            }
+        };
+    }
+
+    /**
+     * Groups by the part of the row key before the first delimiter, row keys without the delimiter are a group of their own.
+     */
+    public static GroupKey rowKeyPrefix(final String delimiter) {
+        if (delimiter == null || delimiter.isEmpty()) {
+            throw new IllegalArgumentException("Delimiter must not be empty");
+        }
+        return new GroupKey() {
+            @Override
+            public List<Pair<byte[], byte[]>> getColumns() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public String keyOf(Result row) {
+                byte[] rowKey = row.getRow();
+                if (rowKey == null) {
+                    return null;
+                }
+                String key = Bytes.toString(rowKey);
+                int index = key.indexOf(delimiter);
+                return index < 0 ? key : key.substring(0, index);
+            }
+        };
+    }
+
+    /**
+     * Groups by the value of the column, rows without the column are left out.
+     */
+    public static GroupKey column(String family, String qualifier) {
+        final byte[] familyBytes = Bytes.toBytes(family);
+        final byte[] qualifierBytes = Bytes.toBytes(qualifier);
+        return new GroupKey() {
+            @Override
+            public List<Pair<byte[], byte[]>> getColumns() {
+                return Collections.singletonList(new Pair<>(familyBytes, qualifierBytes));
+            }
+
+            @Override
+            public String keyOf(Result row) {
+                Cell cell = row.getColumnLatestCell(familyBytes, qualifierBytes);
+                return cell == null ? null : Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+            }
+        };
+    }
+}
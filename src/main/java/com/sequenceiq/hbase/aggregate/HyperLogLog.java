@@ -0,0 +1,112 @@
+package com.sequenceiq.hbase.aggregate;
+
+/**
+ * Distinct count sketch with a standard error of about {@code 1.04 / sqrt(2^precision)} in {@code 2^precision} bytes.
+ * Sketches of the same precision are merged by keeping the larger register, so partial sketches of the regions
+ * give the same estimate as one sketch over all rows.
+ */
+public final class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 14;
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long MIX_1 = 0xff51afd7ed558ccdL;
+    private static final long MIX_2 = 0xc4ceb9fe1a85ec53L;
+    private static final int MIX_SHIFT = 33;
+    private static final int HASH_BITS = 64;
+    private static final int BYTE_MASK = 0xFF;
+    private static final double ALPHA = 0.7213;
+    private static final double ALPHA_CORRECTION = 1.079;
+    private static final double LINEAR_COUNTING_LIMIT = 2.5;
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        checkPrecision(precision);
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public void add(byte[] value) {
+        add(value, 0, value.length);
+    }
+
+    public void add(byte[] bytes, int offset, int length) {
+        long hash = hash(bytes, offset, length);
+        int index = (int) (hash >>> (HASH_BITS - precision));
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of precision " + precision + " and " + other.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA / (1 + ALPHA_CORRECTION / m) * m * m / sum;
+        if (estimate <= LINEAR_COUNTING_LIMIT * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    static void checkPrecision(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION + ": " + precision);
+        }
+    }
+
+    /**
+     * 64 bit FNV-1a with the MurmurHash3 finalizer to spread the bits of short keys.
+     */
+    private static long hash(byte[] bytes, int offset, int length) {
+        long hash = FNV_OFFSET;
+        for (int i = offset; i < offset + length; i++) {
+            hash ^= bytes[i] & BYTE_MASK;
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> MIX_SHIFT;
+        hash *= MIX_1;
+        hash ^= hash >>> MIX_SHIFT;
+        hash *= MIX_2;
+        hash ^= hash >>> MIX_SHIFT;
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("HyperLogLog{");
+        sb.append("precision=").append(precision);
+        sb.append(", estimate=").append(estimate());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package com.sequenceiq.hbase.aggregate;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Pair;
+
+/**
+ * Sum, minimum or maximum of a numeric column, rows without the column or with a value that is not a number
+ * of the encoding are left out. A sum that does not fit in a long fails with an {@link ArithmeticException}
+ * instead of wrapping around.
+ */
+final class LongColumnAggregation implements Aggregation<LongState, Long> {
+
+    private final byte[] family;
+    private final byte[] qualifier;
+    private final ValueEncoding encoding;
+    private final Operator operator;
+
+    LongColumnAggregation(byte[] family, byte[] qualifier, ValueEncoding encoding, Operator operator) {
+        this.family = family;
+        this.qualifier = qualifier;
+        this.encoding = encoding;
+        this.operator = operator;
+    }
+
+    @Override
+    public List<Pair<byte[], byte[]>> getColumns() {
+        return Collections.singletonList(new Pair<>(family, qualifier));
+    }
+
+    @Override
+    public LongState create() {
+        return new LongState();
+    }
+
+    @Override
+    public void add(LongState partial, Result row) {
+        Cell cell = row.getColumnLatestCell(family, qualifier);
+        if (cell == null) {
+            return;
+        }
+        long value;
+        try {
+            value = encoding.decode(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+        } catch (NumberFormatException e) {
+            return;
+        }
+        combine(partial, value);
+    }
+
+    @Override
+    public LongState merge(LongState left, LongState right) {
+        if (right.isPresent()) {
+            combine(left, right.getValue());
+        }
+        return left;
+    }
+
+    @Override
+    public Long result(LongState partial) {
+        if (partial.isPresent()) {
+            return partial.getValue();
+        }
+        return operator == Operator.SUM ? Long.valueOf(0) : null;
+    }
+
+    private void combine(LongState partial, long value) {
+        partial.set(partial.isPresent() ? operator.apply(partial.getValue(), value) : value);
+    }
+
+    enum Operator {
+        SUM {
+            @Override
+            long apply(long current, long value) {
+                return Math.addExact(current, value);
+            }
+        },
+        MIN {
+            @Override
+            long apply(long current, long value) {
+                return Math.min(current, value);
+            }
+        },
+        MAX {
+            @Override
+            long apply(long current, long value) {
+                return Math.max(current, value);
+            }
+        };
+
+        abstract long apply(long current, long value);
+    }
+}
@@ -0,0 +1,23 @@
+package com.sequenceiq.hbase.aggregate;
+
+/**
+ * Mutable partial result of the numeric aggregations.
+ */
+final class LongState {
+
+    private long value;
+    private boolean present;
+
+    long getValue() {
+        return value;
+    }
+
+    boolean isPresent() {
+        return present;
+    }
+
+    void set(long value) {
+        this.value = value;
+        this.present = true;
+    }
+}
@@ -0,0 +1,57 @@
+package com.sequenceiq.hbase.aggregate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+
+/**
+ * The most frequent values of a column.
+ */
+final class TopKAggregation implements Aggregation<FrequentValues, Map<String, Long>> {
+
+    private final byte[] family;
+    private final byte[] qualifier;
+    private final int k;
+    private final int capacity;
+
+    TopKAggregation(byte[] family, byte[] qualifier, int k, int capacity) {
+        this.family = family;
+        this.qualifier = qualifier;
+        this.k = k;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public List<Pair<byte[], byte[]>> getColumns() {
+        return Collections.singletonList(new Pair<>(family, qualifier));
+    }
+
+    @Override
+    public FrequentValues create() {
+        return new FrequentValues(capacity);
+    }
+
+    @Override
+    public void add(FrequentValues partial, Result row) {
+        Cell cell = row.getColumnLatestCell(family, qualifier);
+        if (cell != null) {
+            partial.add(Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength()), 1);
+        }
+    }
+
+    @Override
+    public FrequentValues merge(FrequentValues left, FrequentValues right) {
+        left.merge(right);
+        return left;
+    }
+
+    @Override
+    public Map<String, Long> result(FrequentValues partial) {
+        return partial.top(k);
+    }
+}
@@ -0,0 +1,66 @@
+package com.sequenceiq.hbase.aggregate;
+
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * How numeric column values are stored.
+ */
+public enum ValueEncoding {
+
+    /**
+     * Decimal digits, as written by {@link com.sequenceiq.hbase.model.HBaseRow}.
+     */
+    STRING {
+        @Override
+        long decode(byte[] bytes, int offset, int length) {
+            boolean signed = length > 0 && (bytes[offset] == '-' || bytes[offset] == '+');
+            boolean negative = signed && bytes[offset] == '-';
+            long value = negativeDigits(bytes, signed ? offset + 1 : offset, signed ? length - 1 : length, negative ? Long.MIN_VALUE : -Long.MAX_VALUE);
+            return negative ? value : -value;
+        }
+    },
+
+    /**
+     * Eight bytes big-endian, as written by increments.
+     */
+    LONG {
+        @Override
+        long decode(byte[] bytes, int offset, int length) {
+            if (length != Bytes.SIZEOF_LONG) {
+                throw new NumberFormatException("Not a long: " + Bytes.toStringBinary(bytes, offset, length));
+            }
+            return Bytes.toLong(bytes, offset);
+        }
+    };
+
+    private static final int RADIX = 10;
+    private static final int MAX_DIGIT = 9;
+    private static final int MAX_DIGITS = 19;
+
+    /**
+     * Throws {@link NumberFormatException} if the bytes are not a value of this encoding.
+     */
+    abstract long decode(byte[] bytes, int offset, int length);
+
+    /**
+     * Accumulates the digits negatively, the range of negative longs is the larger one. Digits taking the value
+     * below the limit are rejected, so every long is accepted and nothing wraps around.
+     */
+    private static long negativeDigits(byte[] bytes, int offset, int length, long limit) {
+        if (length == 0 || length > MAX_DIGITS) {
+            throw new NumberFormatException("Not a long: " + Bytes.toStringBinary(bytes, offset, length));
+        }
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > MAX_DIGIT) {
+                throw new NumberFormatException("Not a long: " + Bytes.toStringBinary(bytes, offset, length));
+            }
+            if (value < limit / RADIX || value * RADIX < limit + digit) {
+                throw new NumberFormatException("Out of the range of longs: " + Bytes.toStringBinary(bytes, offset, length));
+            }
+            value = value * RADIX - digit;
+        }
+        return value;
+    }
+}
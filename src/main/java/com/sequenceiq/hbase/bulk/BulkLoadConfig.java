@@ -0,0 +1,58 @@
+package com.sequenceiq.hbase.bulk;
+
+public class BulkLoadConfig {
+
+    public static final String DEFAULT_STAGING_DIR = "/tmp/hbase-bulkload";
+    public static final long DEFAULT_BUFFER_BYTES = 128L * 1024 * 1024;
+
+    private String stagingDir = DEFAULT_STAGING_DIR;
+    private long bufferBytes = DEFAULT_BUFFER_BYTES;
+    private boolean deleteStagingDir = true;
+
+    public String getStagingDir() {
+        return stagingDir;
+    }
+
+    /**
+     * Directory the HFiles are written to before they are handed to the region servers, resolved against the
+     * default file system of the configuration. It has to be on the file system of the cluster.
+     */
+    public void setStagingDir(String stagingDir) {
+        this.stagingDir = stagingDir;
+    }
+
+    public long getBufferBytes() {
+        return bufferBytes;
+    }
+
+    /**
+     * Cells are sorted in memory in chunks of this size, every chunk becomes at most one HFile per region and family.
+     */
+    public void setBufferBytes(long bufferBytes) {
+        if (bufferBytes < 1) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferBytes);
+        }
+        this.bufferBytes = bufferBytes;
+    }
+
+    public boolean isDeleteStagingDir() {
+        return deleteStagingDir;
+    }
+
+    /**
+     * Whether the staging directory of a load is removed afterwards, also when the load fails.
+     */
+    public void setDeleteStagingDir(boolean deleteStagingDir) {
+        this.deleteStagingDir = deleteStagingDir;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BulkLoadConfig{");
+        sb.append("stagingDir='").append(stagingDir).append('\'');
+        sb.append(", bufferBytes=").append(bufferBytes);
+        sb.append(", deleteStagingDir=").append(deleteStagingDir);
+        sb.append('}');
+        return sb.toString();
+    }
+}
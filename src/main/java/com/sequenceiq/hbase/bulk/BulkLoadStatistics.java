@@ -0,0 +1,63 @@
+package com.sequenceiq.hbase.bulk;
+
+public class BulkLoadStatistics {
+
+    private final long cells;
+    private final long bytes;
+    private final int files;
+    private final int regions;
+    private final long writeMillis;
+    private final long loadMillis;
+
+    public BulkLoadStatistics(long cells, long bytes, int files, int regions, long writeMillis, long loadMillis) {
+        this.cells = cells;
+        this.bytes = bytes;
+        this.files = files;
+        this.regions = regions;
+        this.writeMillis = writeMillis;
+        this.loadMillis = loadMillis;
+    }
+
+    public long getCells() {
+        return cells;
+    }
+
+    /**
+     * Serialized size of the written cells.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public int getFiles() {
+        return files;
+    }
+
+    /**
+     * Number of regions that received at least one file.
+     */
+    public int getRegions() {
+        return regions;
+    }
+
+    public long getWriteMillis() {
+        return writeMillis;
+    }
+
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BulkLoadStatistics{");
+        sb.append("cells=").append(cells);
+        sb.append(", bytes=").append(bytes);
+        sb.append(", files=").append(files);
+        sb.append(", regions=").append(regions);
+        sb.append(", writeMillis=").append(writeMillis);
+        sb.append(", loadMillis=").append(loadMillis);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,122 @@
+package com.sequenceiq.hbase.bulk;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.mapreduce.LoadIncrementalHFiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.hbase.client.HBaseOperationException;
+import com.sequenceiq.hbase.model.HBaseRow;
+
+/**
+ * Imports large amounts of rows by writing HFiles partitioned by the current regions of the table and handing
+ * them to the region servers with LoadIncrementalHFiles, the rows bypass the write ahead log and the memstores.
+ * Files of regions split in the meantime are split by LoadIncrementalHFiles. Rows of a bulk load are not visible
+ * to readers until the whole load is done and the row cache of {@link com.sequenceiq.hbase.client.HBaseOperations}
+ * is not invalidated.
+ */
+public class BulkLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkLoader.class);
+    private static final int DEFAULT_MAX_FILES_PER_REGION_PER_FAMILY = 32;
+    private final Configuration configuration;
+    private final BulkLoadConfig config;
+
+    public BulkLoader(Configuration configuration) {
+        this(configuration, new BulkLoadConfig());
+    }
+
+    public BulkLoader(Configuration configuration, BulkLoadConfig config) {
+        this.configuration = configuration;
+        this.config = config;
+    }
+
+    public BulkLoadStatistics load(String tableName, Stream<HBaseRow> rows) {
+        return load(tableName, rows.iterator());
+    }
+
+    /**
+     * Loads the valid rows with the time of the load as timestamp, invalid rows are skipped like by put.
+     */
+    public BulkLoadStatistics load(String tableName, final Iterator<HBaseRow> rows) {
+        return load(tableName, new CellSource() {
+            @Override
+            public void writeTo(HFilePartitioner partitioner) throws IOException {
+                while (rows.hasNext()) {
+                    partitioner.add(rows.next());
+                }
+            }
+        });
+    }
+
+    /**
+     * Loads the cells as they are, cells without timestamp get the time of the load.
+     */
+    public BulkLoadStatistics loadCells(String tableName, final Iterator<? extends Cell> cells) {
+        return load(tableName, new CellSource() {
+            @Override
+            public void writeTo(HFilePartitioner partitioner) throws IOException {
+                while (cells.hasNext()) {
+                    partitioner.add(cells.next());
+                }
+            }
+        });
+    }
+
+    private BulkLoadStatistics load(String tableName, CellSource source) {
+        Path directory = new Path(config.getStagingDir(), tableName.replace(':', '_') + "-" + System.currentTimeMillis());
+        FileSystem fileSystem = null;
+        try (HTable table = new HTable(configuration, tableName)) {
+            fileSystem = directory.getFileSystem(configuration);
+            long start = System.currentTimeMillis();
+            HFilePartitioner partitioner = new HFilePartitioner(configuration, fileSystem, directory, table.getStartKeys(),
+                    table.getTableDescriptor(), config.getBufferBytes());
+            source.writeTo(partitioner);
+            partitioner.flush();
+            long written = System.currentTimeMillis();
+            LOGGER.info("Written {} cells of table {} into {} HFiles in {}ms", partitioner.getCells(), tableName, partitioner.getFiles(),
+                    written - start);
+            if (partitioner.getFiles() > 0) {
+                createLoader(partitioner.getFlushes()).doBulkLoad(directory, table);
+            }
+            long loaded = System.currentTimeMillis();
+            LOGGER.info("Bulk loaded {} HFiles into table {} in {}ms", partitioner.getFiles(), tableName, loaded - written);
+            return new BulkLoadStatistics(partitioner.getCells(), partitioner.getBytes(), partitioner.getFiles(), partitioner.getRegions(),
+                    written - start, loaded - written);
+        } catch (Exception e) {
+            LOGGER.error("Error during HBASE bulk load", e);
+            throw new HBaseOperationException(e);
+        } finally {
+            deleteStagingDirectory(fileSystem, directory);
+        }
+    }
+
+    private LoadIncrementalHFiles createLoader(int filesPerRegionAndFamily) throws Exception {
+        Configuration loaderConfiguration = new Configuration(configuration);
+        int maxFiles = loaderConfiguration.getInt(LoadIncrementalHFiles.MAX_FILES_PER_REGION_PER_FAMILY, DEFAULT_MAX_FILES_PER_REGION_PER_FAMILY);
+        loaderConfiguration.setInt(LoadIncrementalHFiles.MAX_FILES_PER_REGION_PER_FAMILY, Math.max(maxFiles, filesPerRegionAndFamily));
+        return new LoadIncrementalHFiles(loaderConfiguration);
+    }
+
+    private void deleteStagingDirectory(FileSystem fileSystem, Path directory) {
+        if (fileSystem != null && config.isDeleteStagingDir()) {
+            try {
+                fileSystem.delete(directory, true);
+            } catch (IOException e) {
+                LOGGER.warn("Cannot delete bulk load staging directory {}", directory, e);
+            }
+        }
+    }
+
+    private interface CellSource {
+        void writeTo(HFilePartitioner partitioner) throws IOException;
+    }
+}
@@ -0,0 +1,231 @@
+package com.sequenceiq.hbase.bulk;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.KeyValueUtil;
+import org.apache.hadoop.hbase.io.hfile.CacheConfig;
+import org.apache.hadoop.hbase.io.hfile.HFileContext;
+import org.apache.hadoop.hbase.io.hfile.HFileContextBuilder;
+import org.apache.hadoop.hbase.regionserver.StoreFile;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.hbase.client.HBaseRowUtil;
+import com.sequenceiq.hbase.model.Column;
+import com.sequenceiq.hbase.model.Family;
+import com.sequenceiq.hbase.model.HBaseRow;
+
+/**
+ * Writes cells into HFiles that never cross a region boundary, laid out as LoadIncrementalHFiles expects it:
+ * one directory per family. Cells are buffered and sorted in memory up to the configured size, then every
+ * region touched by the buffer gets one HFile per family, written with the compression, block size, encoding
+ * and bloom filter of the family.
+ */
+class HFilePartitioner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HFilePartitioner.class);
+    private static final byte[] BULKLOAD_TASK = Bytes.toBytes("hbase-client");
+    private final Configuration configuration;
+    private final FileSystem fileSystem;
+    private final Path directory;
+    private final byte[][] startKeys;
+    private final Map<byte[], HColumnDescriptor> families = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    private final Map<byte[], StoreFile.Writer> writers = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    private final CacheConfig cacheConfig;
+    private final long bufferBytes;
+    private final long timestamp;
+    private final List<KeyValue> buffer = new ArrayList<>();
+    private final BitSet regions = new BitSet();
+    private long bufferedBytes;
+    private long cells;
+    private long bytes;
+    private int files;
+    private int flushes;
+
+    HFilePartitioner(Configuration configuration, FileSystem fileSystem, Path directory, byte[][] startKeys, HTableDescriptor descriptor,
+            long bufferBytes) {
+        this.configuration = new Configuration(configuration);
+        this.configuration.setFloat(HConstants.HFILE_BLOCK_CACHE_SIZE_KEY, 0f);
+        this.cacheConfig = new CacheConfig(this.configuration);
+        this.fileSystem = fileSystem;
+        this.directory = directory;
+        this.startKeys = startKeys == null || startKeys.length == 0 ? new byte[][]{HConstants.EMPTY_START_ROW} : startKeys;
+        this.bufferBytes = bufferBytes;
+        this.timestamp = System.currentTimeMillis();
+        for (HColumnDescriptor family : descriptor.getColumnFamilies()) {
+            families.put(family.getName(), family);
+        }
+    }
+
+    /**
+     * Adds the valid columns of the row with the time of the load as timestamp, invalid rows are skipped.
+     */
+    void add(HBaseRow row) throws IOException {
+        if (!HBaseRowUtil.isValid(row)) {
+            return;
+        }
+        byte[] rowKey = row.getRowKeyBytes();
+        for (Map.Entry<Family, Map<Column, String>> family : row.getColumnFamilies().entrySet()) {
+            byte[] familyBytes = family.getKey().getNameBytes();
+            for (Map.Entry<Column, String> column : family.getValue().entrySet()) {
+                buffer(new KeyValue(rowKey, familyBytes, column.getKey().getNameBytes(), timestamp, Bytes.toBytes(column.getValue())));
+            }
+        }
+    }
+
+    /**
+     * Adds a copy of the cell, a cell without timestamp gets the time of the load.
+     */
+    void add(Cell cell) throws IOException {
+        KeyValue keyValue = KeyValueUtil.copyToNewKeyValue(cell);
+        keyValue.updateLatestStamp(Bytes.toBytes(timestamp));
+        buffer(keyValue);
+    }
+
+    /**
+     * Sorts the buffered cells and writes them into new HFiles.
+     */
+    void flush() throws IOException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        Collections.sort(buffer, KeyValue.COMPARATOR);
+        int region = -1;
+        try {
+            for (KeyValue keyValue : buffer) {
+                if (region < 0 || region + 1 < startKeys.length && compareRow(keyValue, startKeys[region + 1]) >= 0) {
+                    closeWriters();
+                    region = regionOf(keyValue);
+                    regions.set(region);
+                }
+                getWriter(CellUtil.cloneFamily(keyValue), region).append(keyValue);
+                cells++;
+                bytes += keyValue.getLength();
+            }
+            closeWriters();
+        } finally {
+            abortWriters();
+        }
+        buffer.clear();
+        bufferedBytes = 0;
+        flushes++;
+    }
+
+    long getCells() {
+        return cells;
+    }
+
+    long getBytes() {
+        return bytes;
+    }
+
+    int getFiles() {
+        return files;
+    }
+
+    int getRegions() {
+        return regions.cardinality();
+    }
+
+    /**
+     * Number of flushes so far, the most HFiles a region and family received.
+     */
+    int getFlushes() {
+        return flushes;
+    }
+
+    private void buffer(KeyValue keyValue) throws IOException {
+        byte[] family = CellUtil.cloneFamily(keyValue);
+        if (!families.containsKey(family)) {
+            throw new IllegalArgumentException("Unknown column family: " + Bytes.toString(family));
+        }
+        buffer.add(keyValue);
+        bufferedBytes += keyValue.heapSize();
+        if (bufferedBytes >= bufferBytes) {
+            flush();
+        }
+    }
+
+    private int regionOf(KeyValue keyValue) {
+        int low = 0;
+        int high = startKeys.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (compareRow(keyValue, startKeys[mid]) >= 0) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private StoreFile.Writer getWriter(byte[] family, int region) throws IOException {
+        StoreFile.Writer writer = writers.get(family);
+        if (writer == null) {
+            HColumnDescriptor descriptor = families.get(family);
+            Path familyDirectory = new Path(directory, descriptor.getNameAsString());
+            fileSystem.mkdirs(familyDirectory);
+            HFileContext context = new HFileContextBuilder()
+                    .withCompression(descriptor.getCompression())
+                    .withBlockSize(descriptor.getBlocksize())
+                    .withDataBlockEncoding(descriptor.getDataBlockEncoding())
+                    .build();
+            writer = new StoreFile.WriterBuilder(configuration, cacheConfig, fileSystem)
+                    .withFilePath(new Path(familyDirectory, "region" + region + "-" + flushes))
+                    .withComparator(KeyValue.COMPARATOR)
+                    .withBloomType(descriptor.getBloomFilterType())
+                    .withFileContext(context)
+                    .build();
+            writers.put(family, writer);
+        }
+        return writer;
+    }
+
+    private void closeWriters() throws IOException {
+        Iterator<StoreFile.Writer> iterator = writers.values().iterator();
+        while (iterator.hasNext()) {
+            StoreFile.Writer writer = iterator.next();
+            iterator.remove();
+            writer.appendFileInfo(StoreFile.BULKLOAD_TIME_KEY, Bytes.toBytes(timestamp));
+            writer.appendFileInfo(StoreFile.BULKLOAD_TASK_KEY, BULKLOAD_TASK);
+            writer.appendFileInfo(StoreFile.MAJOR_COMPACTION_KEY, Bytes.toBytes(false));
+            writer.appendFileInfo(StoreFile.EXCLUDE_FROM_MINOR_COMPACTION_KEY, Bytes.toBytes(false));
+            writer.appendTrackedTimestampsToMetadata();
+            writer.close();
+            files++;
+        }
+    }
+
+    private void abortWriters() {
+        for (StoreFile.Writer writer : writers.values()) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                LOGGER.warn("Cannot close HFile {}", writer.getPath(), e);
+            }
+        }
+        writers.clear();
+    }
+
+    private static int compareRow(KeyValue keyValue, byte[] row) {
+        return Bytes.compareTo(keyValue.getRowArray(), keyValue.getRowOffset(), keyValue.getRowLength(), row, 0, row.length);
+    }
+}
@@ -0,0 +1,72 @@
+package com.sequenceiq.hbase.cache;
+
+import java.util.Objects;
+
+/**
+ * Identifies a cached read, the key without family and qualifier identifies the whole row.
+ */
+final class CacheKey {
+
+    private static final int OVERHEAD = 64;
+    private final String tableName;
+    private final String rowKey;
+    private final String family;
+    private final String qualifier;
+    private final int hash;
+
+    CacheKey(String tableName, String rowKey, String family, String qualifier) {
+        this.tableName = tableName;
+        this.rowKey = rowKey;
+        this.family = family;
+        this.qualifier = qualifier;
+        this.hash = Objects.hash(tableName, rowKey, family, qualifier);
+    }
+
+    CacheKey getRow() {
+        return family == null && qualifier == null ? this : new CacheKey(tableName, rowKey, null, null);
+    }
+
+    /**
+     * Hash of the table and row only, so every read of a row falls into the same segment.
+     */
+    int getRowHash() {
+        return Objects.hash(tableName, rowKey, null, null);
+    }
+
+    long getSize() {
+        return OVERHEAD + 2L * (length(tableName) + length(rowKey) + length(family) + length(qualifier));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheKey)) {
+            return false;
+        }
+        CacheKey other = (CacheKey) o;
+        return hash == other.hash && Objects.equals(tableName, other.tableName) && Objects.equals(rowKey, other.rowKey)
+                && Objects.equals(family, other.family) && Objects.equals(qualifier, other.qualifier);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("CacheKey{");
+        sb.append("tableName='").append(tableName).append('\'');
+        sb.append(", rowKey='").append(rowKey).append('\'');
+        sb.append(", family='").append(family).append('\'');
+        sb.append(", qualifier='").append(qualifier).append('\'');
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
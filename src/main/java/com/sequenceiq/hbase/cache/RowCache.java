@@ -0,0 +1,309 @@
+package com.sequenceiq.hbase.cache;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hadoop.hbase.client.Result;
+
+import com.sequenceiq.hbase.client.HBaseOperationException;
+import com.sequenceiq.hbase.client.HBaseRowUtil;
+
+/**
+ * Client side cache of read results, bounded by the estimated size of the cached cells. The
+ * entries are spread over independently locked segments by table and row key, every segment
+ * evicts its least recently used entries when it grows over its share of the bytes. Concurrent
+ * misses of the same key are coalesced into one read.
+ * <p>
+ * {@link #invalidate(String, String)} drops every cached read of the row and keeps reads already
+ * in flight from filling the cache with the old values.
+ */
+public class RowCache {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    private final RowCacheConfig config;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public RowCache(RowCacheConfig config) {
+        this.config = config;
+        segments = new Segment[Math.max(1, config.getSegments())];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(config.getMaxBytes() / segments.length);
+        }
+    }
+
+    public boolean isCached(String tableName) {
+        return config.getTtlMillis(tableName) > 0;
+    }
+
+    /**
+     * Returns the cached result of the read or loads it with the loader. The returned result is
+     * shared between the callers and must not be modified.
+     */
+    public Result get(String tableName, String rowKey, String family, String qualifier, Callable<Result> loader) {
+        CacheKey key = new CacheKey(tableName, rowKey, family, qualifier);
+        Segment segment = segmentFor(key);
+        Result cached = segment.get(key, System.currentTimeMillis());
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        return load(tableName, key, segment, loader);
+    }
+
+    public void invalidate(String tableName, String rowKey) {
+        CacheKey row = new CacheKey(tableName, rowKey, null, null);
+        segmentFor(row).invalidate(row);
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public RowCacheStatistics getStatistics() {
+        long size = 0;
+        long bytes = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+                bytes += segment.bytes;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return new RowCacheStatistics(hits.sum(), misses.sum(), loads.sum(), evictions.sum(), expirations.sum(), size, bytes);
+    }
+
+    private Result load(String tableName, CacheKey key, Segment segment, Callable<Result> loader) {
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        CompletableFuture<Result> inFlight = segment.startLoad(key, future);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+        try {
+            long generation = segment.getGeneration();
+            loads.increment();
+            Result result = loader.call();
+            if (result != null) {
+                long size = key.getSize() + HBaseRowUtil.sizeOf(result);
+                segment.put(key, new CacheEntry(result, size, System.currentTimeMillis() + config.getTtlMillis(tableName)), generation);
+            }
+            future.complete(result);
+            return result;
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            throw e instanceof HBaseOperationException ? (HBaseOperationException) e : new HBaseOperationException(e);
+        } finally {
+            segment.finishLoad(key, future);
+        }
+    }
+
+    private Result await(CompletableFuture<Result> inFlight) {
+        try {
+            return inFlight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HBaseOperationException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof HBaseOperationException ? (HBaseOperationException) cause : new HBaseOperationException(cause);
+        }
+    }
+
+    private Segment segmentFor(CacheKey key) {
+        return segments[(key.getRowHash() & Integer.MAX_VALUE) % segments.length];
+    }
+
+    private static final class CacheEntry {
+
+        private final Result result;
+        private final long size;
+        private final long expiresAt;
+
+        private CacheEntry(Result result, long size, long expiresAt) {
+            this.result = result;
+            this.size = size;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<CacheKey, CacheEntry> entries = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+        private final Map<CacheKey, Set<CacheKey>> rows = new HashMap<>();
+        private final Map<CacheKey, Map<CacheKey, CompletableFuture<Result>>> loading = new HashMap<>();
+        private final long maxBytes;
+        private long bytes;
+        private long generation;
+
+        private Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        private Result get(CacheKey key, long now) {
+            lock.lock();
+            try {
+                CacheEntry entry = entries.get(key);
+                if (entry == null) {
+                    return null;
+                }
+                if (entry.expiresAt <= now) {
+                    remove(key);
+                    expirations.increment();
+                    return null;
+                }
+                return entry.result;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Registers the load of the key, or returns the load of the key already in flight. The loads are indexed
+         * by row like the entries, so invalidating a row drops its loads with one removal.
+         */
+        private CompletableFuture<Result> startLoad(CacheKey key, CompletableFuture<Result> future) {
+            lock.lock();
+            try {
+                CacheKey row = key.getRow();
+                Map<CacheKey, CompletableFuture<Result>> loads = loading.get(row);
+                if (loads == null) {
+                    loads = new HashMap<>();
+                    loading.put(row, loads);
+                }
+                CompletableFuture<Result> inFlight = loads.get(key);
+                if (inFlight == null) {
+                    loads.put(key, future);
+                }
+                return inFlight;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void finishLoad(CacheKey key, CompletableFuture<Result> future) {
+            lock.lock();
+            try {
+                CacheKey row = key.getRow();
+                Map<CacheKey, CompletableFuture<Result>> loads = loading.get(row);
+                if (loads != null && loads.get(key) == future) {
+                    loads.remove(key);
+                    if (loads.isEmpty()) {
+                        loading.remove(row);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private long getGeneration() {
+            lock.lock();
+            try {
+                return generation;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void put(CacheKey key, CacheEntry entry, long expectedGeneration) {
+            lock.lock();
+            try {
+                if (generation != expectedGeneration || entry.size > maxBytes) {
+                    return;
+                }
+                remove(key);
+                entries.put(key, entry);
+                CacheKey row = key.getRow();
+                Set<CacheKey> keys = rows.get(row);
+                if (keys == null) {
+                    keys = new HashSet<>();
+                    rows.put(row, keys);
+                }
+                keys.add(key);
+                bytes += entry.size;
+                evict();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void invalidate(CacheKey row) {
+            lock.lock();
+            try {
+                generation++;
+                loading.remove(row);
+                Set<CacheKey> keys = rows.remove(row);
+                if (keys != null) {
+                    for (CacheKey key : keys) {
+                        bytes -= entries.remove(key).size;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void clear() {
+            lock.lock();
+            try {
+                generation++;
+                entries.clear();
+                rows.clear();
+                loading.clear();
+                bytes = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void evict() {
+            Iterator<Map.Entry<CacheKey, CacheEntry>> iterator = entries.entrySet().iterator();
+            while (bytes > maxBytes && iterator.hasNext()) {
+                Map.Entry<CacheKey, CacheEntry> eldest = iterator.next();
+                iterator.remove();
+                bytes -= eldest.getValue().size;
+                unindex(eldest.getKey());
+                evictions.increment();
+            }
+        }
+
+        private void remove(CacheKey key) {
+            CacheEntry entry = entries.remove(key);
+            if (entry != null) {
+                bytes -= entry.size;
+                unindex(key);
+            }
+        }
+
+        private void unindex(CacheKey key) {
+            CacheKey row = key.getRow();
+            Set<CacheKey> keys = rows.get(row);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    rows.remove(row);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.sequenceiq.hbase.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class RowCacheConfig {
+
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    public static final int DEFAULT_SEGMENTS = 16;
+
+    private long maxBytes = DEFAULT_MAX_BYTES;
+    private int segments = DEFAULT_SEGMENTS;
+    private long defaultTtlMillis;
+    private final Map<String, Long> tableTtlMillis = new ConcurrentHashMap<>();
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Upper bound of the estimated size of the cached rows, least recently used rows are evicted above it.
+     */
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public int getSegments() {
+        return segments;
+    }
+
+    /**
+     * Number of independently locked segments, each one holds an equal share of the bytes.
+     */
+    public void setSegments(int segments) {
+        this.segments = segments;
+    }
+
+    public long getDefaultTtlMillis() {
+        return defaultTtlMillis;
+    }
+
+    /**
+     * Time to live of the rows of tables without their own TTL, a non positive value disables caching of those tables.
+     */
+    public void setDefaultTtlMillis(long defaultTtlMillis) {
+        this.defaultTtlMillis = defaultTtlMillis;
+    }
+
+    public long getTtlMillis(String tableName) {
+        Long ttl = tableTtlMillis.get(tableName);
+        return ttl == null ? defaultTtlMillis : ttl;
+    }
+
+    /**
+     * Time to live of the rows of the table, a non positive value disables caching of the table.
+     */
+    public void setTtlMillis(String tableName, long ttlMillis) {
+        tableTtlMillis.put(tableName, ttlMillis);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("RowCacheConfig{");
+        sb.append("maxBytes=").append(maxBytes);
+        sb.append(", segments=").append(segments);
+        sb.append(", defaultTtlMillis=").append(defaultTtlMillis);
+        sb.append(", tableTtlMillis=").append(tableTtlMillis);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package com.sequenceiq.hbase.cache;
+
+public class RowCacheStatistics {
+
+    private final long hits;
+    private final long misses;
+    private final long loads;
+    private final long evictions;
+    private final long expirations;
+    private final long size;
+    private final long bytes;
+
+    public RowCacheStatistics(long hits, long misses, long loads, long evictions, long expirations, long size, long bytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.loads = loads;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.size = size;
+        this.bytes = bytes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Number of reads sent to the table, lower than the misses when concurrent misses were coalesced.
+     */
+    public long getLoads() {
+        return loads;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getExpirations() {
+        return expirations;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("RowCacheStatistics{");
+        sb.append("hits=").append(hits);
+        sb.append(", misses=").append(misses);
+        sb.append(", loads=").append(loads);
+        sb.append(", evictions=").append(evictions);
+        sb.append(", expirations=").append(expirations);
+        sb.append(", size=").append(size);
+        sb.append(", bytes=").append(bytes);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,166 @@
+package com.sequenceiq.hbase.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.hbase.model.HBaseRow;
+
+/**
+ * Future returning variant of {@link HBaseOperations}. The table work runs on the given executor
+ * instead of the calling thread, table handles are released after every call by default because
+ * they are bound to the executing thread.
+ */
+public class AsyncHBaseOperations {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncHBaseOperations.class);
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+    private final HBaseOperations operations;
+    private final Executor executor;
+    private final boolean release;
+
+    public AsyncHBaseOperations(HBaseOperations operations, Executor executor) {
+        this(operations, executor, true);
+    }
+
+    public AsyncHBaseOperations(HBaseOperations operations, Executor executor, boolean release) {
+        this.operations = operations;
+        this.executor = executor;
+        this.release = release;
+    }
+
+    public static ExecutorService newBoundedExecutor(int threads, int queueSize) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize), Threads.newDaemonThreadFactory("hbase-async"));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Returns a virtual thread per task executor when the running JVM supports it,
+     * otherwise falls back to a bounded executor with the given size.
+     */
+    public static ExecutorService newVirtualThreadExecutor(int fallbackThreads, int fallbackQueueSize) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.info("Virtual threads are not available, using a bounded executor with {} threads", fallbackThreads);
+            return newBoundedExecutor(fallbackThreads, fallbackQueueSize);
+        }
+    }
+
+    public CompletableFuture<Void> put(final String table, final HBaseRow row) {
+        return supply(new Supplier<Void>() {
+            @Override
+            public Void get() {
+                operations.put(table, row, release);
+                return null;
+            }
+        });
+    }
+
+    public CompletableFuture<Void> put(final String table, final Collection<HBaseRow> rows) {
+        return supply(new Supplier<Void>() {
+            @Override
+            public Void get() {
+                operations.put(table, rows, release);
+                return null;
+            }
+        });
+    }
+
+    public CompletableFuture<HBaseRow> get(final String table, final String rowKey) {
+        return supply(new Supplier<HBaseRow>() {
+            @Override
+            public HBaseRow get() {
+                return operations.get(table, rowKey, release);
+            }
+        });
+    }
+
+    public <T> CompletableFuture<T> get(String table, String rowKey, RowMapper<T> mapper) {
+        return get(table, rowKey, null, null, mapper);
+    }
+
+    public <T> CompletableFuture<T> get(final String table, final String rowKey, final String family, final String qualifier,
+            final RowMapper<T> mapper) {
+        return supply(new Supplier<T>() {
+            @Override
+            public T get() {
+                return operations.get(table, rowKey, family, qualifier, mapper, release);
+            }
+        });
+    }
+
+    public <T> CompletableFuture<MultiGetResult<T>> get(final String table, final Collection<String> rowKeys, final String family,
+            final String qualifier, final RowMapper<T> mapper) {
+        return supply(new Supplier<MultiGetResult<T>>() {
+            @Override
+            public MultiGetResult<T> get() {
+                return operations.get(table, rowKeys, family, qualifier, mapper, release);
+            }
+        });
+    }
+
+    /**
+     * Fetches the rows with batched multi-gets instead of one task per row key. The results keep the order
+     * of the row keys, missing rows are represented by null.
+     */
+    public <T> CompletableFuture<List<T>> getAll(String table, final Collection<String> rowKeys, String family, String qualifier,
+            RowMapper<T> mapper) {
+        return get(table, rowKeys, family, qualifier, mapper).thenApply(new Function<MultiGetResult<T>, List<T>>() {
+            @Override
+            public List<T> apply(MultiGetResult<T> multiGetResult) {
+                List<T> results = new ArrayList<>(rowKeys.size());
+                for (String rowKey : rowKeys) {
+                    results.add(multiGetResult.get(rowKey));
+                }
+                return results;
+            }
+        });
+    }
+
+    public <T> CompletableFuture<T> scan(final String table, final Scan scan, final ResultExtractor<T> extractor) {
+        return supply(new Supplier<T>() {
+            @Override
+            public T get() {
+                return operations.scan(table, scan, extractor, release);
+            }
+        });
+    }
+
+    public <T> CompletableFuture<T> execute(final String table, final TableCallback<T> action) {
+        return supply(new Supplier<T>() {
+            @Override
+            public T get() {
+                return operations.execute(table, action, release);
+            }
+        });
+    }
+
+    private <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(new HBaseOperationException(e));
+            return future;
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.sequenceiq.hbase.client;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import com.sequenceiq.hbase.model.HBaseRow;
+
+/**
+ * A put or a delete of one row sent with {@link HBaseOperations#batch(String, java.util.List, boolean)}. Deletes
+ * remove the whole row, a family, every version of a column or a single version of a column.
+ */
+public final class BatchMutation {
+
+    private final String rowKey;
+    private final HBaseRow row;
+    private final String family;
+    private final String qualifier;
+    private final long timestamp;
+
+    private BatchMutation(String rowKey, HBaseRow row, String family, String qualifier, long timestamp) {
+        this.rowKey = rowKey;
+        this.row = row;
+        this.family = family;
+        this.qualifier = qualifier;
+        this.timestamp = timestamp;
+    }
+
+    public static BatchMutation put(HBaseRow row) {
+        return new BatchMutation(row == null ? null : row.getRowKey(), row, null, null, HConstants.LATEST_TIMESTAMP);
+    }
+
+    public static BatchMutation delete(String rowKey) {
+        return new BatchMutation(rowKey, null, null, null, HConstants.LATEST_TIMESTAMP);
+    }
+
+    public static BatchMutation delete(String rowKey, String family) {
+        return new BatchMutation(rowKey, null, family, null, HConstants.LATEST_TIMESTAMP);
+    }
+
+    public static BatchMutation delete(String rowKey, String family, String qualifier) {
+        return new BatchMutation(rowKey, null, family, qualifier, HConstants.LATEST_TIMESTAMP);
+    }
+
+    /**
+     * Deletes only the version of the column with the timestamp.
+     */
+    public static BatchMutation deleteVersion(String rowKey, String family, String qualifier, long timestamp) {
+        return new BatchMutation(rowKey, null, family, qualifier, timestamp);
+    }
+
+    public String getRowKey() {
+        return rowKey;
+    }
+
+    public boolean isPut() {
+        return row != null;
+    }
+
+    /**
+     * The mutation with the physical row key of the strategy, or null if the mutation is invalid.
+     */
+    Mutation toMutation(RowKeyStrategy strategy) {
+        if (row != null) {
+            return HBaseRowUtil.convert(row, strategy);
+        }
+        if (rowKey == null) {
+            return null;
+        }
+        Delete delete = new Delete(strategy == null ? Bytes.toBytes(rowKey) : strategy.toRowKey(Bytes.toBytes(rowKey)));
+        if (family != null && qualifier == null) {
+            delete.deleteFamily(Bytes.toBytes(family));
+        } else if (family != null && timestamp == HConstants.LATEST_TIMESTAMP) {
+            delete.deleteColumns(Bytes.toBytes(family), Bytes.toBytes(qualifier));
+        } else if (family != null) {
+            delete.deleteColumn(Bytes.toBytes(family), Bytes.toBytes(qualifier), timestamp);
+        }
+        return delete;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BatchMutation{");
+        sb.append(isPut() ? "put" : "delete");
+        sb.append(", rowKey='").append(rowKey).append('\'');
+        if (family != null) {
+            sb.append(", family='").append(family).append('\'');
+        }
+        if (qualifier != null) {
+            sb.append(", qualifier='").append(qualifier).append('\'');
+        }
+        if (timestamp != HConstants.LATEST_TIMESTAMP) {
+            sb.append(", timestamp=").append(timestamp);
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+}
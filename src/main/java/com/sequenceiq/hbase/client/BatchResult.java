@@ -0,0 +1,86 @@
+package com.sequenceiq.hbase.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of every mutation of a {@link HBaseOperations#batch(String, List, boolean) batch}, in the order of the mutations.
+ */
+public class BatchResult {
+
+    private final List<BatchMutation> mutations;
+    private final Throwable[] failures;
+    private int failed;
+    private int batches;
+
+    BatchResult(List<BatchMutation> mutations) {
+        this.mutations = mutations;
+        this.failures = new Throwable[mutations.size()];
+    }
+
+    public int size() {
+        return mutations.size();
+    }
+
+    public boolean isSuccess(int index) {
+        return failures[index] == null;
+    }
+
+    /**
+     * The cause of the failure of the mutation, null if it was applied.
+     */
+    public Throwable getFailure(int index) {
+        return failures[index];
+    }
+
+    public List<BatchMutation> getFailedMutations() {
+        List<BatchMutation> result = new ArrayList<>(failed);
+        for (int i = 0; i < failures.length; i++) {
+            if (failures[i] != null) {
+                result.add(mutations.get(i));
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    public int getSuccessCount() {
+        return mutations.size() - failed;
+    }
+
+    public boolean hasFailures() {
+        return failed > 0;
+    }
+
+    /**
+     * Number of round trips the mutations were sent with.
+     */
+    public int getBatches() {
+        return batches;
+    }
+
+    BatchMutation getMutation(int index) {
+        return mutations.get(index);
+    }
+
+    void fail(int index, Throwable cause) {
+        if (failures[index] == null) {
+            failed++;
+        }
+        failures[index] = cause;
+    }
+
+    void addBatch() {
+        batches++;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BatchResult{");
+        sb.append("mutations=").append(mutations.size());
+        sb.append(", failed=").append(failed);
+        sb.append(", batches=").append(batches);
+        sb.append('}');
+        return sb.toString();
+    }
+}
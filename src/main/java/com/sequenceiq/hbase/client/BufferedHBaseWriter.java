@@ -0,0 +1,287 @@
+package com.sequenceiq.hbase.client;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Row;
+import org.apache.hadoop.hbase.util.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.hbase.metrics.OperationType;
+import com.sequenceiq.hbase.model.HBaseRow;
+
+/**
+ * Accumulates rows on the client and sends them as one batch when the size, row count or latency
+ * limit of the {@link BufferedWriterConfig} is reached. Only one batch is in flight at a time, writers
+ * block while the buffer is full and the previous batch is still being sent.
+ */
+public class BufferedHBaseWriter implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BufferedHBaseWriter.class);
+    private static final long CLOSE_TIMEOUT_SECONDS = 30L;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition flushDone = lock.newCondition();
+    private final AtomicLong writtenRows = new AtomicLong();
+    private final AtomicLong failedRows = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final HBaseOperations operations;
+    private final String tableName;
+    private final BufferedWriterConfig config;
+    private final WriteFailureListener failureListener;
+    private final ScheduledExecutorService timer;
+    private List<HBaseRow> rows = new ArrayList<>();
+    private List<Put> puts = new ArrayList<>();
+    private long bufferedBytes;
+    private long oldestWrite;
+    private boolean flushing;
+    private boolean closed;
+
+    BufferedHBaseWriter(HBaseOperations operations, String tableName, BufferedWriterConfig config, WriteFailureListener failureListener) {
+        this.operations = operations;
+        this.tableName = tableName;
+        this.config = config;
+        this.failureListener = failureListener;
+        if (config.getMaxLatencyMillis() > 0) {
+            timer = Executors.newSingleThreadScheduledExecutor(Threads.newDaemonThreadFactory("hbase-writer-" + tableName));
+            long period = Math.max(1, config.getMaxLatencyMillis() / 2);
+            timer.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    flushIfExpired();
+                }
+            }, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            timer = null;
+        }
+    }
+
+    public void write(HBaseRow row) {
+        Put put = HBaseRowUtil.convert(row, operations.getRowKeyStrategy(tableName));
+        if (put == null) {
+            LOGGER.debug("Skipping invalid row: {}", row);
+            return;
+        }
+        long size = put.heapSize();
+        boolean flush;
+        lock.lock();
+        try {
+            checkOpen();
+            while (!closed && flushing && !puts.isEmpty() && bufferedBytes + size > config.getMaxBufferedBytes()) {
+                notFull.awaitUninterruptibly();
+            }
+            checkOpen();
+            if (puts.isEmpty()) {
+                oldestWrite = System.currentTimeMillis();
+            }
+            rows.add(row);
+            puts.add(put);
+            bufferedBytes += size;
+            flush = bufferedBytes >= config.getFlushBytes() || puts.size() >= config.getFlushRows();
+        } finally {
+            lock.unlock();
+        }
+        if (flush) {
+            flush();
+        }
+    }
+
+    public void write(Collection<HBaseRow> hBaseRows) {
+        for (HBaseRow row : hBaseRows) {
+            write(row);
+        }
+    }
+
+    /**
+     * Sends the buffered rows and waits until the batch is acknowledged or failed.
+     */
+    public void flush() {
+        List<HBaseRow> batchRows;
+        List<Put> batchPuts;
+        lock.lock();
+        try {
+            while (flushing) {
+                flushDone.awaitUninterruptibly();
+            }
+            if (puts.isEmpty()) {
+                return;
+            }
+            batchRows = rows;
+            batchPuts = puts;
+            rows = new ArrayList<>();
+            puts = new ArrayList<>();
+            bufferedBytes = 0;
+            flushing = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            send(batchRows, batchPuts);
+        } finally {
+            lock.lock();
+            try {
+                flushing = false;
+                flushDone.signalAll();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public int getBufferedRows() {
+        lock.lock();
+        try {
+            return puts.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBufferedBytes() {
+        lock.lock();
+        try {
+            return bufferedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getWrittenRows() {
+        return writtenRows.get();
+    }
+
+    public long getFailedRows() {
+        return failedRows.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (timer != null) {
+            stopTimer();
+        }
+        flush();
+    }
+
+    /**
+     * Lets a running timer flush finish its batch instead of interrupting the RPC.
+     */
+    private void stopTimer() {
+        timer.shutdown();
+        try {
+            if (!timer.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.warn("Timed flush of table {} did not finish in {} seconds", tableName, CLOSE_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flushIfExpired() {
+        boolean expired;
+        lock.lock();
+        try {
+            expired = !puts.isEmpty() && System.currentTimeMillis() - oldestWrite >= config.getMaxLatencyMillis();
+        } finally {
+            lock.unlock();
+        }
+        if (expired) {
+            flush();
+        }
+    }
+
+    private void send(final List<HBaseRow> batchRows, final List<Put> batchPuts) {
+        try {
+            operations.execute(tableName, OperationType.PUT, new TableCallback<Void>() {
+                @Override
+                public Void doInTable(HTableInterface table) throws Exception {
+                    try {
+                        table.put(batchPuts);
+                        table.flushCommits();
+                    } finally {
+                        operations.invalidateCachedRows(tableName, batchRows);
+                    }
+                    long bytes = 0;
+                    for (Put put : batchPuts) {
+                        bytes += HBaseRowUtil.sizeOf(put);
+                    }
+                    operations.recordTransfer(tableName, OperationType.PUT, batchPuts.size(), bytes);
+                    return null;
+                }
+            }, true);
+            batches.incrementAndGet();
+            writtenRows.addAndGet(batchRows.size());
+        } catch (HBaseOperationException e) {
+            List<HBaseRow> failed = getFailedRows(batchRows, batchPuts, e.getCause());
+            failedRows.addAndGet(failed.size());
+            writtenRows.addAndGet(batchRows.size() - failed.size());
+            notifyFailure(failed, e);
+        }
+    }
+
+    private List<HBaseRow> getFailedRows(List<HBaseRow> batchRows, List<Put> batchPuts, Throwable cause) {
+        if (!(cause instanceof RetriesExhaustedWithDetailsException)) {
+            return batchRows;
+        }
+        Map<Row, HBaseRow> rowsByPut = new IdentityHashMap<>(batchPuts.size());
+        for (int i = 0; i < batchPuts.size(); i++) {
+            rowsByPut.put(batchPuts.get(i), batchRows.get(i));
+        }
+        RetriesExhaustedWithDetailsException details = (RetriesExhaustedWithDetailsException) cause;
+        List<HBaseRow> failed = new ArrayList<>(details.getNumExceptions());
+        for (int i = 0; i < details.getNumExceptions(); i++) {
+            HBaseRow row = rowsByPut.get(details.getRow(i));
+            if (row != null) {
+                failed.add(row);
+            }
+        }
+        return failed.isEmpty() ? batchRows : failed;
+    }
+
+    private void notifyFailure(List<HBaseRow> failed, Exception cause) {
+        if (failureListener == null) {
+            LOGGER.error("Failed to write {} rows into table {}", failed.size(), tableName, cause);
+        } else {
+            try {
+                failureListener.onFailure(tableName, failed, cause);
+            } catch (RuntimeException e) {
+                LOGGER.error("Write failure listener failed", e);
+            }
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new HBaseOperationException("Writer is closed for table: " + tableName);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.sequenceiq.hbase.client;
+
+public class BufferedWriterConfig {
+
+    public static final long DEFAULT_FLUSH_BYTES = 2L * 1024 * 1024;
+    public static final int DEFAULT_FLUSH_ROWS = 1000;
+    public static final long DEFAULT_MAX_LATENCY_MILLIS = 1000L;
+    public static final long DEFAULT_MAX_BUFFERED_BYTES = 8L * 1024 * 1024;
+
+    private long flushBytes = DEFAULT_FLUSH_BYTES;
+    private int flushRows = DEFAULT_FLUSH_ROWS;
+    private long maxLatencyMillis = DEFAULT_MAX_LATENCY_MILLIS;
+    private long maxBufferedBytes = DEFAULT_MAX_BUFFERED_BYTES;
+
+    public long getFlushBytes() {
+        return flushBytes;
+    }
+
+    /**
+     * The buffer is flushed when the estimated heap size of the buffered mutations reaches this many bytes.
+     */
+    public void setFlushBytes(long flushBytes) {
+        this.flushBytes = flushBytes;
+    }
+
+    public int getFlushRows() {
+        return flushRows;
+    }
+
+    /**
+     * The buffer is flushed when this many rows are buffered.
+     */
+    public void setFlushRows(int flushRows) {
+        this.flushRows = flushRows;
+    }
+
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis;
+    }
+
+    /**
+     * A buffered row is sent at the latest after this much time, a non positive value disables the timed flush.
+     */
+    public void setMaxLatencyMillis(long maxLatencyMillis) {
+        this.maxLatencyMillis = maxLatencyMillis;
+    }
+
+    public long getMaxBufferedBytes() {
+        return maxBufferedBytes;
+    }
+
+    /**
+     * Writers block when the buffer grows over this size while a flush is in progress.
+     */
+    public void setMaxBufferedBytes(long maxBufferedBytes) {
+        this.maxBufferedBytes = maxBufferedBytes;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BufferedWriterConfig{");
+        sb.append("flushBytes=").append(flushBytes);
+        sb.append(", flushRows=").append(flushRows);
+        sb.append(", maxLatencyMillis=").append(maxLatencyMillis);
+        sb.append(", maxBufferedBytes=").append(maxBufferedBytes);
+        sb.append('}');
+        return sb.toString();
+    }
+}
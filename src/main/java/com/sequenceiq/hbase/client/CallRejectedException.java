@@ -0,0 +1,13 @@
+package com.sequenceiq.hbase.client;
+
+/**
+ * Thrown without calling HBASE when the bulkhead of the table is full or its circuit is open.
+ */
+public class CallRejectedException extends HBaseOperationException {
+
+    private static final long serialVersionUID = -3815236927412054163L;
+
+    public CallRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.sequenceiq.hbase.client;
+
+/**
+ * Thrown when a callback of the caller, e.g. a row mapper or row handler, fails inside an operation. The operation
+ * itself did not fail, so it is never retried.
+ */
+public class CallbackFailedException extends HBaseOperationException {
+
+    private static final long serialVersionUID = 6407718873582391165L;
+
+    public CallbackFailedException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,105 @@
+package com.sequenceiq.hbase.client;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Count based circuit breaker: keeps the outcome of the last calls in a ring buffer and opens when the
+ * failure or slow call rate of the window reaches its threshold. After the open period a few trial calls
+ * decide whether it closes again. The state is guarded by the monitor, which is held only for a few
+ * field updates per call.
+ */
+class CircuitBreaker {
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+    private final IsolationConfig config;
+    private final byte[] outcomes;
+    private final long openNanos;
+    private State state = State.CLOSED;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+    private long openedAt;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    CircuitBreaker(IsolationConfig config) {
+        this.config = config;
+        this.outcomes = new byte[config.getWindowSize()];
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(config.getOpenMillis());
+    }
+
+    synchronized boolean tryAcquire(long now) {
+        if (state == State.OPEN) {
+            if (now - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= config.getHalfOpenCalls()) {
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    synchronized void record(boolean failed, boolean slow, long now) {
+        if (state == State.HALF_OPEN) {
+            if (failed || slow) {
+                open(now);
+            } else if (++trialsSucceeded >= config.getHalfOpenCalls()) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            add((byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0)));
+            if (recorded >= config.getMinimumCalls() && exceedsThresholds()) {
+                open(now);
+            }
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    private void add(byte outcome) {
+        if (recorded == outcomes.length) {
+            byte evicted = outcomes[next];
+            failures -= evicted & FAILED;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = outcome;
+        failures += outcome & FAILED;
+        slowCalls += (outcome & SLOW) >> 1;
+        next = (next + 1) % outcomes.length;
+    }
+
+    private boolean exceedsThresholds() {
+        return failures >= config.getFailureRateThreshold() * recorded
+                || config.getSlowCallMillis() > 0 && slowCalls >= config.getSlowCallRateThreshold() * recorded;
+    }
+
+    private void open(long now) {
+        state = State.OPEN;
+        openedAt = now;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+}
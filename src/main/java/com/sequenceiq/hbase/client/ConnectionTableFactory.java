@@ -0,0 +1,58 @@
+package com.sequenceiq.hbase.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.HConnection;
+import org.apache.hadoop.hbase.client.HConnectionManager;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.HTableInterfaceFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates lightweight table handles on top of one shared {@link HConnection}, so
+ * every handle shares the same region cache and RPC connections.
+ */
+public class ConnectionTableFactory implements HTableInterfaceFactory, Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionTableFactory.class);
+    private final HConnection connection;
+
+    public ConnectionTableFactory(Configuration configuration) {
+        try {
+            connection = HConnectionManager.createConnection(configuration);
+        } catch (IOException e) {
+            throw new HBaseOperationException(e);
+        }
+    }
+
+    public ConnectionTableFactory(HConnection connection) {
+        this.connection = connection;
+    }
+
+    public HConnection getConnection() {
+        return connection;
+    }
+
+    @Override
+    public HTableInterface createHTableInterface(Configuration config, byte[] tableName) {
+        try {
+            return connection.getTable(tableName);
+        } catch (IOException e) {
+            throw new HBaseOperationException(e);
+        }
+    }
+
+    @Override
+    public void releaseHTableInterface(HTableInterface table) throws IOException {
+        table.close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        LOGGER.info("Closing shared HBASE connection");
+        connection.close();
+    }
+}
@@ -0,0 +1,245 @@
+package com.sequenceiq.hbase.client;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.hbase.metrics.OperationType;
+
+/**
+ * Sums the increments of the same cells on the client and sends them as one {@link Increment} per row when the
+ * window of the {@link CounterAggregatorConfig} ends, so a hot counter costs one call per window instead of one per
+ * event. The increments of a window are sent in one batch and are not repeated on failure because a failed increment
+ * may have been applied, the failed ones are counted and logged. Pending increments are lost if the process dies.
+ */
+public class CounterAggregator implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CounterAggregator.class);
+    private static final long CLOSE_TIMEOUT_SECONDS = 30L;
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicLong sentIncrements = new AtomicLong();
+    private final AtomicLong failedIncrements = new AtomicLong();
+    private final HBaseOperations operations;
+    private final String tableName;
+    private final CounterAggregatorConfig config;
+    private final ScheduledExecutorService timer;
+    private volatile ConcurrentMap<Counter, LongAdder> counters = new ConcurrentHashMap<>();
+    private boolean closed;
+
+    CounterAggregator(HBaseOperations operations, String tableName, CounterAggregatorConfig config) {
+        this.operations = operations;
+        this.tableName = tableName;
+        this.config = config;
+        if (config.getWindowMillis() > 0) {
+            timer = Executors.newSingleThreadScheduledExecutor(Threads.newDaemonThreadFactory("hbase-counters-" + tableName));
+            timer.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            }, config.getWindowMillis(), config.getWindowMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            timer = null;
+        }
+    }
+
+    public void increment(String rowKey, String family, String qualifier, long amount) {
+        Counter counter = new Counter(rowKey, family, qualifier);
+        int pending;
+        swapLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new HBaseOperationException("Counter aggregator is closed for table: " + tableName);
+            }
+            ConcurrentMap<Counter, LongAdder> current = counters;
+            LongAdder sum = current.get(counter);
+            if (sum == null) {
+                LongAdder created = new LongAdder();
+                sum = current.putIfAbsent(counter, created);
+                if (sum == null) {
+                    sum = created;
+                }
+            }
+            sum.add(amount);
+            pending = current.size();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        events.incrementAndGet();
+        if (pending >= config.getMaxCounters()) {
+            flush();
+        }
+    }
+
+    /**
+     * Sends the pending increments and waits until they are acknowledged or failed.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            ConcurrentMap<Counter, LongAdder> pending;
+            swapLock.writeLock().lock();
+            try {
+                pending = counters;
+                if (pending.isEmpty()) {
+                    return;
+                }
+                counters = new ConcurrentHashMap<>();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            send(toIncrements(pending));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int getPendingCounters() {
+        return counters.size();
+    }
+
+    public long getEvents() {
+        return events.get();
+    }
+
+    public long getSentIncrements() {
+        return sentIncrements.get();
+    }
+
+    public long getFailedIncrements() {
+        return failedIncrements.get();
+    }
+
+    /**
+     * Stops accepting increments and sends the pending ones. Taking the swap lock exclusively makes sure no
+     * increment started before close is left in a window that is never flushed.
+     */
+    @Override
+    public void close() {
+        swapLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        if (timer != null) {
+            stopTimer();
+        }
+        flush();
+    }
+
+    private void stopTimer() {
+        timer.shutdown();
+        try {
+            if (!timer.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.warn("Timed flush of counters of table {} did not finish in {} seconds", tableName, CLOSE_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, Increment> toIncrements(Map<Counter, LongAdder> pending) {
+        Map<String, Increment> increments = new LinkedHashMap<>();
+        for (Map.Entry<Counter, LongAdder> entry : pending.entrySet()) {
+            long amount = entry.getValue().sum();
+            if (amount == 0) {
+                continue;
+            }
+            Counter counter = entry.getKey();
+            Increment increment = increments.get(counter.rowKey);
+            if (increment == null) {
+                increment = new Increment(operations.toRowKey(tableName, counter.rowKey));
+                increments.put(counter.rowKey, increment);
+            }
+            increment.addColumn(Bytes.toBytes(counter.family), Bytes.toBytes(counter.qualifier), amount);
+        }
+        return increments;
+    }
+
+    private void send(final Map<String, Increment> increments) {
+        if (increments.isEmpty()) {
+            return;
+        }
+        final List<Increment> batch = new ArrayList<>(increments.values());
+        try {
+            operations.executeInternal(tableName, OperationType.INCREMENT, new TableCallback<Void>() {
+                @Override
+                public Void doInTable(HTableInterface table) throws Exception {
+                    try {
+                        table.batch(batch, new Object[batch.size()]);
+                    } finally {
+                        for (String rowKey : increments.keySet()) {
+                            operations.invalidateCachedRow(tableName, rowKey);
+                        }
+                    }
+                    return null;
+                }
+            });
+            sentIncrements.addAndGet(batch.size());
+        } catch (HBaseOperationException e) {
+            int failed = e.getCause() instanceof RetriesExhaustedWithDetailsException
+                    ? ((RetriesExhaustedWithDetailsException) e.getCause()).getNumExceptions() : batch.size();
+            failedIncrements.addAndGet(failed);
+            sentIncrements.addAndGet(batch.size() - failed);
+            LOGGER.error("Failed to increment {} rows of table {}", failed, tableName, e);
+        }
+    }
+
+    private static final class Counter {
+
+        private final String rowKey;
+        private final String family;
+        private final String qualifier;
+        private final int hash;
+
+        private Counter(String rowKey, String family, String qualifier) {
+            this.rowKey = rowKey;
+            this.family = family;
+            this.qualifier = qualifier;
+            this.hash = Objects.hash(rowKey, family, qualifier);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Counter)) {
+                return false;
+            }
+            Counter other = (Counter) o;
+            return hash == other.hash && rowKey.equals(other.rowKey) && family.equals(other.family) && qualifier.equals(other.qualifier);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.sequenceiq.hbase.client;
+
+public class CounterAggregatorConfig {
+
+    public static final long DEFAULT_WINDOW_MILLIS = 1000L;
+    public static final int DEFAULT_MAX_COUNTERS = 10000;
+
+    private long windowMillis = DEFAULT_WINDOW_MILLIS;
+    private int maxCounters = DEFAULT_MAX_COUNTERS;
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * The aggregated increments are sent once per window, a non positive value disables the timed flush.
+     */
+    public void setWindowMillis(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    public int getMaxCounters() {
+        return maxCounters;
+    }
+
+    /**
+     * The increments are sent before the end of the window when this many distinct cells are pending.
+     */
+    public void setMaxCounters(int maxCounters) {
+        this.maxCounters = maxCounters;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("CounterAggregatorConfig{");
+        sb.append("windowMillis=").append(windowMillis);
+        sb.append(", maxCounters=").append(maxCounters);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.sequenceiq.hbase.client;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of equally sized direct buffers shared by the off-heap scans. Allocating direct memory is expensive and it
+ * is only freed when the buffer is garbage collected, so released buffers are kept for reuse up to a limit.
+ */
+public class DirectBufferPool {
+
+    public static final int DEFAULT_CHUNK_BYTES = 1024 * 1024;
+    public static final long DEFAULT_MAX_POOLED_BYTES = 64L * 1024 * 1024;
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final AtomicLong allocations = new AtomicLong();
+    private final int chunkBytes;
+    private final long maxPooledBytes;
+
+    public DirectBufferPool() {
+        this(DEFAULT_CHUNK_BYTES, DEFAULT_MAX_POOLED_BYTES);
+    }
+
+    public DirectBufferPool(int chunkBytes, long maxPooledBytes) {
+        if (chunkBytes < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkBytes);
+        }
+        this.chunkBytes = chunkBytes;
+        this.maxPooledBytes = maxPooledBytes;
+    }
+
+    /**
+     * A cleared buffer of the chunk size, pooled if one is available.
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            allocations.incrementAndGet();
+            return ByteBuffer.allocateDirect(chunkBytes);
+        }
+        pooledBytes.addAndGet(-chunkBytes);
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns the buffer to the pool, buffers of other sizes and buffers over the pool limit are dropped.
+     */
+    public void release(ByteBuffer buffer) {
+        if (!buffer.isDirect() || buffer.capacity() != chunkBytes) {
+            return;
+        }
+        if (pooledBytes.addAndGet(chunkBytes) <= maxPooledBytes) {
+            free.offer(buffer);
+        } else {
+            pooledBytes.addAndGet(-chunkBytes);
+        }
+    }
+
+    public int getChunkBytes() {
+        return chunkBytes;
+    }
+
+    public long getPooledBytes() {
+        return pooledBytes.get();
+    }
+
+    public long getAllocations() {
+        return allocations.get();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DirectBufferPool{");
+        sb.append("chunkBytes=").append(chunkBytes);
+        sb.append(", maxPooledBytes=").append(maxPooledBytes);
+        sb.append(", pooledBytes=").append(pooledBytes);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,178 @@
+package com.sequenceiq.hbase.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.hbase.metrics.OperationType;
+
+/**
+ * Coalesces concurrent single row gets of a table into one multi get. The caller opening a batch waits
+ * for the window of the {@link GetBatchingConfig} or until the batch is full, then sends the gets of every
+ * caller that joined in the meantime with one request on its own table handle and hands out the results.
+ * No background thread is involved, a caller arriving alone pays at most the window.
+ */
+class GetBatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GetBatcher.class);
+    private final ConcurrentMap<String, Batch> openBatches = new ConcurrentHashMap<>();
+    private final HBaseOperations operations;
+    private final GetBatchingConfig config;
+
+    GetBatcher(HBaseOperations operations, GetBatchingConfig config) {
+        this.operations = operations;
+        this.config = config;
+    }
+
+    Result get(String tableName, Get get, boolean release) {
+        Batch batch;
+        int index;
+        do {
+            batch = openBatches.get(tableName);
+            if (batch == null) {
+                Batch created = new Batch(config.getMaxBatchSize());
+                batch = openBatches.putIfAbsent(tableName, created);
+                if (batch == null) {
+                    batch = created;
+                }
+            }
+            index = batch.add(get);
+            if (index < 0) {
+                openBatches.remove(tableName, batch);
+            }
+        } while (index < 0);
+        if (index == 0) {
+            batch.awaitClose(TimeUnit.MICROSECONDS.toNanos(config.getWindowMicros()));
+            openBatches.remove(tableName, batch);
+            send(tableName, batch, release);
+        }
+        return batch.getResult(index);
+    }
+
+    private void send(final String tableName, final Batch batch, boolean release) {
+        final List<Get> gets = batch.gets;
+        LOGGER.debug("Sending batch of {} gets to table {}", gets.size(), tableName);
+        Result[] results = null;
+        HBaseOperationException failure = null;
+        try {
+            results = operations.execute(tableName, OperationType.BATCHED_GET, new TableCallback<Result[]>() {
+                @Override
+                public Result[] doInTable(HTableInterface table) throws Exception {
+                    Result[] results = table.get(gets);
+                    long rows = 0;
+                    long bytes = 0;
+                    for (Result result : results) {
+                        if (result != null && !result.isEmpty()) {
+                            rows++;
+                            bytes += HBaseRowUtil.sizeOf(result);
+                        }
+                    }
+                    operations.recordTransfer(tableName, OperationType.BATCHED_GET, rows, bytes);
+                    return results;
+                }
+            }, release);
+        } catch (HBaseOperationException e) {
+            failure = e;
+        } catch (RuntimeException | Error e) {
+            failure = new HBaseOperationException(e);
+            throw e;
+        } finally {
+            batch.complete(results, failure);
+            operations.getMetrics().getOperationMetrics(tableName, OperationType.BATCHED_GET).recordBatch(gets.size());
+        }
+    }
+
+    private static final class Batch {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition full = lock.newCondition();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final List<Get> gets;
+        private final int maxSize;
+        private boolean closed;
+        private Result[] results;
+        private HBaseOperationException failure;
+
+        private Batch(int maxSize) {
+            this.maxSize = maxSize;
+            this.gets = new ArrayList<>(maxSize);
+        }
+
+        private int add(Get get) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return -1;
+                }
+                gets.add(get);
+                if (gets.size() >= maxSize) {
+                    closed = true;
+                    full.signal();
+                }
+                return gets.size() - 1;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void awaitClose(long windowNanos) {
+            boolean interrupted = false;
+            lock.lock();
+            try {
+                long remaining = windowNanos;
+                while (!closed && remaining > 0) {
+                    try {
+                        remaining = full.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                        remaining = 0;
+                    }
+                }
+                closed = true;
+            } finally {
+                lock.unlock();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void complete(Result[] batchResults, HBaseOperationException batchFailure) {
+            results = batchResults;
+            failure = batchFailure;
+            done.countDown();
+        }
+
+        private Result getResult(int index) {
+            if (done.getCount() > 0) {
+                try {
+                    done.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new HBaseOperationException(e);
+                }
+            }
+            if (failure != null) {
+                if (index == 0) {
+                    throw failure;
+                }
+                if (failure instanceof CallRejectedException) {
+                    throw new CallRejectedException(failure.getMessage());
+                }
+                throw new HBaseOperationException(failure.getMessage(), failure.getCause());
+            }
+            return results[index];
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.sequenceiq.hbase.client;
+
+public class GetBatchingConfig {
+
+    public static final long DEFAULT_WINDOW_MICROS = 500L;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    private long windowMicros = DEFAULT_WINDOW_MICROS;
+    private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+    public long getWindowMicros() {
+        return windowMicros;
+    }
+
+    /**
+     * Gets arriving within this time after the first get of a batch are sent together with it,
+     * this is the latency a single get may gain at most.
+     */
+    public void setWindowMicros(long windowMicros) {
+        this.windowMicros = windowMicros;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * A batch is sent right away when this many gets joined it.
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + maxBatchSize);
+        }
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("GetBatchingConfig{");
+        sb.append("windowMicros=").append(windowMicros);
+        sb.append(", maxBatchSize=").append(maxBatchSize);
+        sb.append('}');
+        return sb.toString();
+    }
+}
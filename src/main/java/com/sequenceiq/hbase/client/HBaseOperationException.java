@@ -2,7 +2,15 @@ package com.sequenceiq.hbase.client;
 
 public class HBaseOperationException extends RuntimeException {
 
+    public HBaseOperationException(String message) {
+        super(message);
+    }
+
     public HBaseOperationException(Throwable cause) {
         super(cause);
     }
+
+    public HBaseOperationException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
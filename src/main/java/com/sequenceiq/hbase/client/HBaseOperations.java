@@ -4,26 +4,263 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.client.Append;
+import org.apache.hadoop.hbase.client.Delete;
 import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.HTable;
 import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Mutation;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.RowMutations;
 import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Threads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.sequenceiq.hbase.aggregate.Aggregation;
+import com.sequenceiq.hbase.aggregate.Aggregations;
+import com.sequenceiq.hbase.cache.RowCache;
+import com.sequenceiq.hbase.mapping.EntityMapper;
+import com.sequenceiq.hbase.metrics.HBaseMetrics;
+import com.sequenceiq.hbase.metrics.OperationType;
 import com.sequenceiq.hbase.model.HBaseRow;
 
 public class HBaseOperations {
 
+    public static final int DEFAULT_MULTI_GET_BATCH_SIZE = 100;
+    public static final int DEFAULT_MUTATION_BATCH_SIZE = 1000;
+    public static final long DEFAULT_MUTATION_BATCH_BYTES = 2L * 1024 * 1024;
+    public static final int DEFAULT_MAX_SCAN_THREADS = 32;
     private static final Logger LOGGER = LoggerFactory.getLogger(HBaseOperations.class);
+    private static final long SCAN_THREAD_KEEP_ALIVE_SECONDS = 60L;
+    private static final RowMapper<Result> IDENTITY_MAPPER = new RowMapper<Result>() {
+        @Override
+        public Result mapRow(Result result) {
+            return result;
+        }
+    };
+    private final ConcurrentMap<OperationType, OperationPolicy> policies = new ConcurrentHashMap<>();
+    private final PolicyExecutor policyExecutor = new PolicyExecutor(this);
+    private final ConcurrentMap<String, IsolationConfig> tableIsolation = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, TableGuard> guards = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, RowKeyStrategy> rowKeyStrategies = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor scanExecutor = new ThreadPoolExecutor(0, DEFAULT_MAX_SCAN_THREADS, SCAN_THREAD_KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), Threads.newDaemonThreadFactory("hbase-scan"));
     private HBaseTablePool tablePool;
+    private ExecutorService executor;
+    private int multiGetBatchSize = DEFAULT_MULTI_GET_BATCH_SIZE;
+    private int mutationBatchSize = DEFAULT_MUTATION_BATCH_SIZE;
+    private long mutationBatchBytes = DEFAULT_MUTATION_BATCH_BYTES;
+    private HBaseMetrics metrics = new HBaseMetrics();
+    private DirectBufferPool directBufferPool = new DirectBufferPool();
+    private RowCache rowCache;
+    private GetBatcher getBatcher;
+    private volatile IsolationConfig defaultIsolation;
 
     public HBaseOperations(HBaseTablePool tablePool) {
         this.tablePool = tablePool;
+        tablePool.setMetrics(metrics);
+    }
+
+    public HBaseMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Replaces the metrics of this instance and of its table pool, e.g. to share them between several instances.
+     */
+    public void setMetrics(HBaseMetrics metrics) {
+        this.metrics = metrics;
+        tablePool.setMetrics(metrics);
+    }
+
+    /**
+     * Executor used to dispatch independent chunks of work in parallel, without it everything runs on the calling thread.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Maximum number of threads reading ahead for the open scan iterators, a scan iterator opened above the
+     * limit reads its batches on the calling thread.
+     */
+    public void setMaxScanThreads(int maxScanThreads) {
+        if (maxScanThreads < 1) {
+            throw new IllegalArgumentException("Max scan threads must be positive: " + maxScanThreads);
+        }
+        scanExecutor.setMaximumPoolSize(maxScanThreads);
+    }
+
+    public void setMultiGetBatchSize(int multiGetBatchSize) {
+        if (multiGetBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + multiGetBatchSize);
+        }
+        this.multiGetBatchSize = multiGetBatchSize;
+    }
+
+    /**
+     * Mutation batches and range deletes are sent in chunks of at most this many rows.
+     */
+    public void setMutationBatchSize(int mutationBatchSize) {
+        if (mutationBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + mutationBatchSize);
+        }
+        this.mutationBatchSize = mutationBatchSize;
+    }
+
+    /**
+     * Mutation batches are sent in chunks of at most about this many bytes.
+     */
+    public void setMutationBatchBytes(long mutationBatchBytes) {
+        if (mutationBatchBytes < 1) {
+            throw new IllegalArgumentException("Batch bytes must be positive: " + mutationBatchBytes);
+        }
+        this.mutationBatchBytes = mutationBatchBytes;
+    }
+
+    public DirectBufferPool getDirectBufferPool() {
+        return directBufferPool;
+    }
+
+    /**
+     * Pool of the direct buffers the off-heap scans copy their rows into.
+     */
+    public void setDirectBufferPool(DirectBufferPool directBufferPool) {
+        this.directBufferPool = directBufferPool;
+    }
+
+    public RowCache getRowCache() {
+        return rowCache;
+    }
+
+    /**
+     * Serves single row gets of the tables with a TTL in the cache configuration from the cache, puts
+     * through this instance invalidate the written rows.
+     */
+    public void setRowCache(RowCache rowCache) {
+        this.rowCache = rowCache;
+    }
+
+    /**
+     * Enables micro-batching: concurrent single row gets of the same table are collected and sent as one
+     * multi get. Trades at most the configured window of latency for fewer round trips, null disables it.
+     */
+    public void setGetBatching(GetBatchingConfig config) {
+        this.getBatcher = config == null ? null : new GetBatcher(this, config);
+    }
+
+    /**
+     * Applies the policy to every operation type.
+     */
+    public void setOperationPolicy(OperationPolicy policy) {
+        for (OperationType operation : OperationType.values()) {
+            setOperationPolicy(operation, policy);
+        }
+    }
+
+    /**
+     * Deadline, retries and hedging of the operation type, null restores the default of one attempt without deadline.
+     */
+    public void setOperationPolicy(OperationType operation, OperationPolicy policy) {
+        if (policy == null) {
+            policies.remove(operation);
+        } else {
+            policies.put(operation, policy);
+        }
+    }
+
+    public OperationPolicy getOperationPolicy(OperationType operation) {
+        return policies.get(operation);
+    }
+
+    /**
+     * Bulkhead and circuit breaker of the tables without an isolation config of their own, null disables them.
+     */
+    public void setIsolation(IsolationConfig config) {
+        defaultIsolation = config;
+        guards.clear();
+    }
+
+    /**
+     * Bulkhead and circuit breaker of the table: calls over the concurrency limit and calls while the circuit
+     * is open fail fast with a {@link CallRejectedException} instead of blocking on a sick table.
+     */
+    public void setIsolation(String tableName, IsolationConfig config) {
+        if (config == null) {
+            tableIsolation.remove(tableName);
+        } else {
+            tableIsolation.put(tableName, config);
+        }
+        guards.remove(tableName);
+    }
+
+    /**
+     * Translates the row keys of the table in puts, gets and scans, null stores the keys as they are. Scans run
+     * once per row range of the strategy and are merged back into key order. Parallel scans and aggregations take
+     * logical start and stop rows as well, scan every region once per stored row range and hand logical keys on.
+     */
+    public void setRowKeyStrategy(String tableName, RowKeyStrategy strategy) {
+        if (strategy == null) {
+            rowKeyStrategies.remove(tableName);
+        } else {
+            rowKeyStrategies.put(tableName, strategy);
+        }
+    }
+
+    public RowKeyStrategy getRowKeyStrategy(String tableName) {
+        return rowKeyStrategies.get(tableName);
+    }
+
+    /**
+     * Salts the row keys of a table pre-split with {@link SaltedKeyStrategy#splitKeys(int)}, one bucket per initial
+     * region. The delegate transforms the keys before salting and may be null.
+     */
+    public SaltedKeyStrategy enableSalting(String tableName, RowKeyStrategy delegate) {
+        byte[][] startKeys = executeInternal(tableName, OperationType.EXECUTE, new TableCallback<byte[][]>() {
+            @Override
+            public byte[][] doInTable(HTableInterface table) throws Exception {
+                return table instanceof HTable ? ((HTable) table).getStartKeys() : new byte[][]{HConstants.EMPTY_START_ROW};
+            }
+        });
+        SaltedKeyStrategy strategy = SaltedKeyStrategy.forRegions(startKeys, delegate);
+        LOGGER.info("Salting row keys of table {} into {} buckets", tableName, strategy.getBuckets());
+        setRowKeyStrategy(tableName, strategy);
+        return strategy;
     }
 
     public void put(String table, final String rowKey, final String family, final String qualifier, final String value, boolean release) {
@@ -34,24 +271,294 @@ public class HBaseOperations {
         put(table, Collections.singletonList(row), release);
     }
 
-    public void put(String table, final Collection<HBaseRow> rows, boolean release) {
-        LOGGER.info("Execute put request: {}", rows);
-        execute(table, new TableCallback<Void>() {
+    public void put(final String table, final Collection<HBaseRow> rows, boolean release) {
+        LOGGER.debug("Execute put request of {} rows on table {}", rows.size(), table);
+        execute(table, OperationType.PUT, new TableCallback<Void>() {
             @Override
-            public Void doInTable(HTableInterface table) throws Exception {
+            public Void doInTable(HTableInterface hTable) throws Exception {
                 List<Put> puts = new ArrayList<>(rows.size());
+                RowKeyStrategy strategy = rowKeyStrategies.get(table);
+                long bytes = 0;
                 for (HBaseRow row : rows) {
-                    Put put = HBaseRowUtil.convert(row);
+                    Put put = HBaseRowUtil.convert(row, strategy);
                     if (put != null) {
                         puts.add(put);
+                        bytes += HBaseRowUtil.sizeOf(put);
                     }
                 }
-                table.put(puts);
+                try {
+                    hTable.put(puts);
+                } finally {
+                    invalidateCachedRows(table, rows);
+                }
+                recordTransfer(table, OperationType.PUT, puts.size(), bytes);
                 return null;
             }
         }, release);
     }
 
+    /**
+     * Writes the entities with the {@link EntityMapper} of the type, entities without a row key are skipped.
+     */
+    public <T> void putEntities(final String table, Class<T> type, final Collection<T> entities, boolean release) {
+        LOGGER.debug("Execute put request of {} entities on table {}", entities.size(), table);
+        final EntityMapper<T> mapper = EntityMapper.of(type);
+        execute(table, OperationType.PUT, new TableCallback<Void>() {
+            @Override
+            public Void doInTable(HTableInterface hTable) throws Exception {
+                List<Put> puts = new ArrayList<>(entities.size());
+                RowKeyStrategy strategy = rowKeyStrategies.get(table);
+                long bytes = 0;
+                for (T entity : entities) {
+                    Put put = entity == null ? null : mapper.toPut(entity, strategy);
+                    if (put != null) {
+                        puts.add(put);
+                        bytes += HBaseRowUtil.sizeOf(put);
+                    }
+                }
+                try {
+                    hTable.put(puts);
+                } finally {
+                    invalidateCachedPuts(table, puts);
+                }
+                recordTransfer(table, OperationType.PUT, puts.size(), bytes);
+                return null;
+            }
+        }, release);
+    }
+
+    public BufferedHBaseWriter createBufferedWriter(String table) {
+        return createBufferedWriter(table, new BufferedWriterConfig(), null);
+    }
+
+    public BufferedHBaseWriter createBufferedWriter(String table, BufferedWriterConfig config, WriteFailureListener failureListener) {
+        return new BufferedHBaseWriter(this, table, config, failureListener);
+    }
+
+    /**
+     * Aggregates increments of the same cells on the client and sends them once per window, see {@link CounterAggregator}.
+     */
+    public CounterAggregator createCounterAggregator(String table, CounterAggregatorConfig config) {
+        return new CounterAggregator(this, table, config);
+    }
+
+    /**
+     * Adds the amount to the counter atomically on the server and returns the new value. Increments are not retried
+     * by the operation policy, see {@link OperationPolicy}.
+     */
+    public long incrementColumnValue(String table, String rowKey, String family, String qualifier, long amount, boolean release) {
+        return increment(table, rowKey, family, Collections.singletonMap(qualifier, amount), release).get(qualifier);
+    }
+
+    /**
+     * Adds the amounts to the counters of the family in one atomic operation and returns the new values by qualifier.
+     */
+    public Map<String, Long> increment(final String table, final String rowKey, final String family, final Map<String, Long> amounts,
+            boolean release) {
+        final Increment increment = new Increment(toRowKey(table, rowKey));
+        for (Map.Entry<String, Long> amount : amounts.entrySet()) {
+            increment.addColumn(Bytes.toBytes(family), Bytes.toBytes(amount.getKey()), amount.getValue());
+        }
+        return execute(table, OperationType.INCREMENT, new TableCallback<Map<String, Long>>() {
+            @Override
+            public Map<String, Long> doInTable(HTableInterface hTable) throws Exception {
+                Result result;
+                try {
+                    result = hTable.increment(increment);
+                } finally {
+                    invalidateCachedRow(table, rowKey);
+                }
+                Map<String, Long> values = new HashMap<>(amounts.size());
+                for (Cell cell : result.rawCells()) {
+                    values.put(Bytes.toString(CellUtil.cloneQualifier(cell)), Bytes.toLong(CellUtil.cloneValue(cell)));
+                }
+                return values;
+            }
+        }, release);
+    }
+
+    /**
+     * Appends the value to the cell atomically on the server and returns the new value. Appends are not retried
+     * by the operation policy.
+     */
+    public String append(final String table, final String rowKey, String family, String qualifier, String value, boolean release) {
+        final byte[] familyBytes = Bytes.toBytes(family);
+        final byte[] qualifierBytes = Bytes.toBytes(qualifier);
+        final Append append = new Append(toRowKey(table, rowKey));
+        append.add(familyBytes, qualifierBytes, Bytes.toBytes(value));
+        return execute(table, OperationType.APPEND, new TableCallback<String>() {
+            @Override
+            public String doInTable(HTableInterface hTable) throws Exception {
+                Result result;
+                try {
+                    result = hTable.append(append);
+                } finally {
+                    invalidateCachedRow(table, rowKey);
+                }
+                return result == null ? null : Bytes.toString(result.getValue(familyBytes, qualifierBytes));
+            }
+        }, release);
+    }
+
+    /**
+     * Writes the row only if the cell has the expected value, a null expected value means the cell must not exist.
+     * Returns whether the row was written. Not retried, a repeated check would fail against the applied put.
+     */
+    public boolean checkAndPut(final String table, final String family, final String qualifier, final String expectedValue, final HBaseRow row,
+            boolean release) {
+        final Put put = HBaseRowUtil.convert(row, rowKeyStrategies.get(table));
+        if (put == null) {
+            throw new IllegalArgumentException("Invalid row: " + row);
+        }
+        return execute(table, OperationType.CHECK_AND_MUTATE, new TableCallback<Boolean>() {
+            @Override
+            public Boolean doInTable(HTableInterface hTable) throws Exception {
+                try {
+                    return hTable.checkAndPut(put.getRow(), Bytes.toBytes(family), Bytes.toBytes(qualifier), toBytes(expectedValue), put);
+                } finally {
+                    invalidateCachedRow(table, row.getRowKey());
+                }
+            }
+        }, release);
+    }
+
+    /**
+     * Deletes the whole row only if the cell has the expected value, a null expected value means the cell must not exist.
+     * Returns whether the row was deleted.
+     */
+    public boolean checkAndDelete(final String table, final String rowKey, final String family, final String qualifier, final String expectedValue,
+            boolean release) {
+        final Delete delete = new Delete(toRowKey(table, rowKey));
+        return execute(table, OperationType.CHECK_AND_MUTATE, new TableCallback<Boolean>() {
+            @Override
+            public Boolean doInTable(HTableInterface hTable) throws Exception {
+                try {
+                    return hTable.checkAndDelete(delete.getRow(), Bytes.toBytes(family), Bytes.toBytes(qualifier), toBytes(expectedValue), delete);
+                } finally {
+                    invalidateCachedRow(table, rowKey);
+                }
+            }
+        }, release);
+    }
+
+    /**
+     * Applies the puts and deletes of the mutation to the row atomically.
+     */
+    public void mutateRow(final String table, final String rowKey, RowMutation mutation, boolean release) {
+        if (mutation.isEmpty()) {
+            return;
+        }
+        final RowMutations mutations;
+        try {
+            mutations = mutation.toRowMutations(toRowKey(table, rowKey));
+        } catch (IOException e) {
+            throw new HBaseOperationException(e);
+        }
+        execute(table, OperationType.MUTATE_ROW, new TableCallback<Void>() {
+            @Override
+            public Void doInTable(HTableInterface hTable) throws Exception {
+                try {
+                    hTable.mutateRow(mutations);
+                } finally {
+                    invalidateCachedRow(table, rowKey);
+                }
+                return null;
+            }
+        }, release);
+    }
+
+    public void delete(String table, String rowKey, boolean release) {
+        delete(table, BatchMutation.delete(rowKey), release);
+    }
+
+    public void delete(String table, String rowKey, String family, boolean release) {
+        delete(table, BatchMutation.delete(rowKey, family), release);
+    }
+
+    public void delete(String table, String rowKey, String family, String qualifier, boolean release) {
+        delete(table, BatchMutation.delete(rowKey, family, qualifier), release);
+    }
+
+    public void delete(String table, String rowKey, String family, String qualifier, long timestamp, boolean release) {
+        delete(table, BatchMutation.deleteVersion(rowKey, family, qualifier, timestamp), release);
+    }
+
+    /**
+     * Sends the puts and deletes in chunks of {@link #setMutationBatchSize(int) rows} and {@link #setMutationBatchBytes(long) bytes},
+     * one round trip per chunk. Failed mutations do not stop the batch, the result tells which mutations failed and why.
+     */
+    public BatchResult batch(String table, List<BatchMutation> mutations, boolean release) {
+        LOGGER.debug("Execute batch of {} mutations on table {}", mutations.size(), table);
+        RowKeyStrategy strategy = rowKeyStrategies.get(table);
+        BatchResult result = new BatchResult(mutations);
+        List<Mutation> chunk = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        long bytes = 0;
+        for (int i = 0; i < mutations.size(); i++) {
+            BatchMutation mutation = mutations.get(i);
+            Mutation hMutation = mutation == null ? null : mutation.toMutation(strategy);
+            if (hMutation == null) {
+                result.fail(i, new IllegalArgumentException("Invalid mutation: " + mutation));
+                continue;
+            }
+            chunk.add(hMutation);
+            indexes.add(i);
+            bytes += hMutation.heapSize();
+            if (chunk.size() >= mutationBatchSize || bytes >= mutationBatchBytes) {
+                sendBatch(table, chunk, indexes, result, false);
+                chunk = new ArrayList<>();
+                indexes = new ArrayList<>();
+                bytes = 0;
+            }
+        }
+        if (!chunk.isEmpty()) {
+            sendBatch(table, chunk, indexes, result, release);
+        } else if (release) {
+            releaseHBaseTable(table);
+        }
+        return result;
+    }
+
+    /**
+     * Deletes every row from the start row inclusive to the stop row exclusive, null bounds are unbounded. Only the
+     * row keys are scanned, the rows are deleted in chunks of {@link #setMutationBatchSize(int) rows}. Returns the
+     * number of deleted rows.
+     */
+    public long deleteRange(final String table, String startRow, String stopRow, boolean release) {
+        final Scan scan = new Scan();
+        if (startRow != null) {
+            scan.setStartRow(Bytes.toBytes(startRow));
+        }
+        if (stopRow != null) {
+            scan.setStopRow(Bytes.toBytes(stopRow));
+        }
+        scan.setFilter(new FilterList(new FirstKeyOnlyFilter(), new KeyOnlyFilter()));
+        scan.setCaching(mutationBatchSize);
+        scan.setCacheBlocks(false);
+        final RowKeyStrategy strategy = rowKeyStrategies.get(table);
+        final AtomicLong deleted = new AtomicLong();
+        execute(table, OperationType.DELETE, new TableCallback<Void>() {
+            @Override
+            public Void doInTable(HTableInterface hTable) throws Exception {
+                List<Delete> deletes = new ArrayList<>(mutationBatchSize);
+                List<String> rowKeys = new ArrayList<>(mutationBatchSize);
+                try (ResultScanner scanner = openScanner(hTable, table, scan)) {
+                    for (Result result = scanner.next(); result != null; result = scanner.next()) {
+                        byte[] row = result.getRow();
+                        deletes.add(new Delete(strategy == null ? row : strategy.toRowKey(row)));
+                        rowKeys.add(Bytes.toString(row));
+                        if (deletes.size() >= mutationBatchSize) {
+                            deleteRows(hTable, table, deletes, rowKeys, deleted);
+                        }
+                    }
+                }
+                deleteRows(hTable, table, deletes, rowKeys, deleted);
+                return null;
+            }
+        }, release);
+        return deleted.get();
+    }
+
     public HBaseRow get(String table, final String rowKey, boolean release) {
         return get(table, rowKey, new RowMapper<HBaseRow>() {
                     @Override
@@ -70,56 +577,593 @@ public class HBaseOperations {
         return get(table, rowKey, family, null, mapper, release);
     }
 
-    public <T> T get(String table, final String rowKey, final String familyName, final String qualifier, final RowMapper<T> mapper, boolean release) {
-        return execute(table, new TableCallback<T>() {
-            @Override
-            public T doInTable(HTableInterface table) throws Exception {
-                Get get = new Get(rowKey.getBytes());
-                if (familyName != null) {
-                    byte[] family = familyName.getBytes();
-                    if (qualifier != null) {
-                        get.addColumn(family, qualifier.getBytes());
-                    } else {
-                        get.addFamily(family);
-                    }
+    public <T> T get(final String table, final String rowKey, final String familyName, final String qualifier, final RowMapper<T> mapper,
+            final boolean release) {
+        if (rowCache != null && rowCache.isCached(table)) {
+            Result result = rowCache.get(table, rowKey, familyName, qualifier, new Callable<Result>() {
+                @Override
+                public Result call() {
+                    return load(table, createGet(toRowKey(table, rowKey), familyName, qualifier), IDENTITY_MAPPER, release);
                 }
-                Result result = table.get(get);
+            });
+            try {
                 return mapper.mapRow(result);
+            } catch (Exception e) {
+                LOGGER.error("Error during HBASE operation", e);
+                throw new HBaseOperationException(e);
             }
-        }, release);
+        }
+        return load(table, createGet(toRowKey(table, rowKey), familyName, qualifier), mapper, release);
+    }
+
+    /**
+     * Fetches the rows with one round trip per {@link #setMultiGetBatchSize(int) batch}. When an executor is set
+     * the batches are sent in parallel, each on its own table handle. Duplicate row keys are fetched once and
+     * the result holds one entry per distinct row key.
+     */
+    public <T> MultiGetResult<T> get(String table, Collection<String> rowKeys, final String familyName, final String qualifier,
+            RowMapper<T> rowMapper, boolean release) {
+        final List<String> keys = new ArrayList<>(new LinkedHashSet<>(rowKeys));
+        final List<Get> gets = new ArrayList<>(keys.size());
+        for (String rowKey : keys) {
+            gets.add(createGet(toRowKey(table, rowKey), familyName, qualifier));
+        }
+        RowMapper<T> mapper = withLogicalKeys(table, rowMapper);
+        Result[] results;
+        if (executor == null || keys.size() <= multiGetBatchSize) {
+            results = execute(table, OperationType.MULTI_GET, new TableCallback<Result[]>() {
+                @Override
+                public Result[] doInTable(HTableInterface table) throws Exception {
+                    return multiGet(table, gets);
+                }
+            }, release);
+        } else {
+            results = parallelMultiGet(table, gets, release);
+        }
+        MultiGetResult<T> multiGetResult = new MultiGetResult<>(keys.size());
+        long bytes = 0;
+        try {
+            for (int i = 0; i < keys.size(); i++) {
+                Result result = results[i];
+                if (result == null || result.isEmpty()) {
+                    multiGetResult.addMissing(keys.get(i));
+                } else {
+                    multiGetResult.addResult(keys.get(i), mapper.mapRow(result));
+                    bytes += HBaseRowUtil.sizeOf(result);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.error("Error during HBASE operation", e);
+            throw new HBaseOperationException(e);
+        }
+        recordTransfer(table, OperationType.MULTI_GET, multiGetResult.getResults().size(), bytes);
+        return multiGetResult;
     }
 
     public <T> T scan(String tableName, String family, String column, final ResultExtractor<T> extractor, boolean release) {
         Scan scan = new Scan();
-        scan.addColumn(family.getBytes(), column.getBytes());
+        scan.addColumn(Bytes.toBytes(family), Bytes.toBytes(column));
         return scan(tableName, scan, extractor, release);
     }
 
-    public <T> T scan(String tableName, final Scan scan, final ResultExtractor<T> extractor, boolean release) {
-        return execute(tableName, new TableCallback<T>() {
+    public <T> T scan(final String tableName, final Scan scan, final ResultExtractor<T> extractor, boolean release) {
+        return execute(tableName, OperationType.SCAN, new TableCallback<T>() {
             @Override
             public T doInTable(HTableInterface table) throws Exception {
-                try (ResultScanner scanner = table.getScanner(scan)) {
+                try (ResultScanner scanner = openScanner(table, tableName, scan)) {
                     return extractor.extractData(scanner);
                 }
             }
         }, release);
     }
 
+    /**
+     * Scans the regions of the table concurrently and returns the mapped rows in row key order. With a row key
+     * strategy every region is scanned once per stored row range and the mapper sees the logical row keys.
+     */
+    public <T> ParallelScanResult<T> parallelScan(String tableName, Scan scan, RowMapper<T> mapper, int parallelism) {
+        return new ParallelScanExecutor(this, executor).scan(tableName, scan, mapper, parallelism);
+    }
+
+    /**
+     * Scans the regions of the table concurrently and hands the mapped rows to the handler as they arrive,
+     * the handler is called from several threads and has to be thread safe.
+     */
+    public <T> List<RegionScanStatistics> parallelScan(String tableName, Scan scan, RowMapper<T> mapper, RowHandler<T> handler,
+            int parallelism) {
+        return new ParallelScanExecutor(this, executor).scan(tableName, scan, mapper, handler, parallelism);
+    }
+
+    /**
+     * Runs the aggregation over the regions of the table concurrently. Every region scan computes a partial result,
+     * and unless the scan selects columns itself it only fetches the columns the aggregation reads, or only the row
+     * keys if it reads none. With a row key strategy the start and stop rows of the scan are logical keys and the
+     * aggregation sees the logical row keys.
+     */
+    public <R> R aggregate(String tableName, Scan scan, Aggregation<?, R> aggregation, int parallelism) {
+        return new ParallelScanExecutor(this, executor).aggregate(tableName, scan, aggregation, parallelism);
+    }
+
+    /**
+     * Counts the rows of the scan with one region scan per core in flight, only the row keys are transferred.
+     */
+    public long count(String tableName, Scan scan) {
+        return aggregate(tableName, scan, Aggregations.count(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Opens a scanner whose rows are mapped lazily. The iterator uses a table handle of its own, so operations of the
+     * calling thread on the table do not interfere with it. The caller must close the returned iterator, that is when
+     * the handle is released.
+     */
+    public <T> ScanIterator<T> iterate(String tableName, Scan scan, RowMapper<T> mapper, ScanOptions options) {
+        HTableInterface table = tablePool.createHTable(tableName);
+        try {
+            return new ScanIterator<>(tablePool, tableName, table, openScanner(table, tableName, withOptions(scan, options)), mapper,
+                    options, scanExecutor, metrics.getOperationMetrics(tableName, OperationType.SCAN));
+        } catch (IOException e) {
+            LOGGER.error("Error during HBASE operation", e);
+            releaseHBaseTable(tableName, table);
+            throw new HBaseOperationException(e);
+        }
+    }
+
+    /**
+     * Opens a scanner that reads ahead into direct memory, and into a memory-mapped spill file once the off-heap
+     * budget of the options is used up, so large scans keep only the batch being fetched on the heap. The returned
+     * rows are views that are only valid until the iterator advances. The caller must close the returned iterator.
+     */
+    public OffHeapScanIterator iterateOffHeap(String tableName, Scan scan, ScanOptions options) {
+        HTableInterface table = tablePool.createHTable(tableName);
+        ResultScanner scanner;
+        try {
+            scanner = openScanner(table, tableName, withOptions(scan, options));
+        } catch (IOException e) {
+            LOGGER.error("Error during HBASE operation", e);
+            releaseHBaseTable(tableName, table);
+            throw new HBaseOperationException(e);
+        }
+        OffHeapScanIterator iterator = new OffHeapScanIterator(tablePool, tableName, table, scanner, directBufferPool, options, scanExecutor,
+                metrics.getOperationMetrics(tableName, OperationType.SCAN));
+        iterator.start();
+        return iterator;
+    }
+
+    /**
+     * Same as {@link #iterate(String, Scan, RowMapper, ScanOptions)}, the table is released when the stream is closed.
+     */
+    public <T> Stream<T> stream(String tableName, Scan scan, RowMapper<T> mapper, ScanOptions options) {
+        final ScanIterator<T> iterator = iterate(tableName, scan, mapper, options);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false).onClose(new Runnable() {
+            @Override
+            public void run() {
+                iterator.close();
+            }
+        });
+    }
+
+    /**
+     * Starts a query whose row range, columns and filters are evaluated on the region servers.
+     */
+    public Query query(String tableName) {
+        return new Query(this, tableName);
+    }
+
+    /**
+     * Runs the callback with a handle of the table. Not retried, the callback is not known to be idempotent.
+     */
     public <T> T execute(String tableName, TableCallback<T> action, boolean release) {
+        return execute(tableName, OperationType.EXECUTE, action, release);
+    }
+
+    <T> T execute(final String tableName, OperationType operation, final TableCallback<T> action, final boolean release) {
+        OperationPolicy policy = policies.get(operation);
+        TableGuard guard = acquireGuard(tableName);
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            if (policy == null) {
+                return attempt(tableName, action, release, PolicyExecutor.NO_DEADLINE);
+            }
+            return policyExecutor.call(tableName, operation, policy, new PolicyExecutor.Attempt<T>() {
+                @Override
+                public T run(long deadline) {
+                    return attempt(tableName, action, release, deadline);
+                }
+            });
+        } catch (HBaseOperationException e) {
+            failure = e.getCause() == null || e instanceof CallbackFailedException ? e : e.getCause();
+            LOGGER.error("Error during HBASE operation", failure);
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            metrics.getOperationMetrics(tableName, operation).record(elapsed, failure != null);
+            if (guard != null) {
+                guard.release(metrics, elapsed, failure);
+            }
+        }
+    }
+
+    /**
+     * Runs an action of the library itself on the calling thread. The handle is released afterwards unless the thread
+     * already held one, which belongs to the caller.
+     */
+    <T> T executeInternal(String tableName, OperationType operation, TableCallback<T> action) {
+        return execute(tableName, operation, action, !tablePool.isHeld(tableName));
+    }
+
+    /**
+     * Runs the action once without recording metrics, the operation timeout of the table is limited to the deadline.
+     * Handles of a shared pool are returned afterwards even without release, unless the thread held one before,
+     * otherwise every thread that ever touched the table would keep one of the pooled handles.
+     */
+    <T> T attempt(String tableName, TableCallback<T> action, boolean release, long deadline) {
+        boolean held = tablePool.isHeld(tableName);
         HTableInterface table = tablePool.getHTable(tableName);
-        T result = null;
+        int previousTimeout = PolicyExecutor.limitTimeout(table, deadline);
         try {
-            result = action.doInTable(table);
+            return action.doInTable(table);
+        } catch (CallbackFailedException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new HBaseOperationException(e);
+        } finally {
+            PolicyExecutor.restoreTimeout(table, previousTimeout);
+            if (release || tablePool.isShared() && !held) {
+                releaseHBaseTable(tableName);
+            }
+        }
+    }
+
+    private void delete(final String table, final BatchMutation mutation, boolean release) {
+        final Mutation delete = mutation.toMutation(rowKeyStrategies.get(table));
+        if (delete == null) {
+            throw new IllegalArgumentException("Invalid delete: " + mutation);
+        }
+        execute(table, OperationType.DELETE, new TableCallback<Void>() {
+            @Override
+            public Void doInTable(HTableInterface hTable) throws Exception {
+                try {
+                    hTable.delete((Delete) delete);
+                } finally {
+                    invalidateCachedRow(table, mutation.getRowKey());
+                }
+                return null;
+            }
+        }, release);
+    }
+
+    private void sendBatch(final String table, final List<Mutation> chunk, List<Integer> indexes, final BatchResult result, boolean release) {
+        final Object[] results = new Object[chunk.size()];
+        final List<String> rowKeys = new ArrayList<>(chunk.size());
+        for (Integer index : indexes) {
+            rowKeys.add(result.getMutation(index).getRowKey());
+        }
+        Throwable failure = null;
+        try {
+            execute(table, OperationType.BATCH, new TableCallback<Void>() {
+                @Override
+                public Void doInTable(HTableInterface hTable) throws Exception {
+                    try {
+                        hTable.batch(chunk, results);
+                    } catch (RetriesExhaustedWithDetailsException e) {
+                        LOGGER.warn("{} of {} mutations failed on table {}", e.getNumExceptions(), chunk.size(), table);
+                    } finally {
+                        invalidateCachedRowKeys(table, rowKeys);
+                    }
+                    long bytes = 0;
+                    for (Mutation mutation : chunk) {
+                        bytes += HBaseRowUtil.sizeOf(mutation);
+                    }
+                    recordTransfer(table, OperationType.BATCH, chunk.size(), bytes);
+                    return null;
+                }
+            }, release);
+        } catch (HBaseOperationException e) {
+            failure = e.getCause() == null || e instanceof CallbackFailedException ? e : e.getCause();
+        }
+        result.addBatch();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] instanceof Throwable) {
+                result.fail(indexes.get(i), (Throwable) results[i]);
+            } else if (results[i] == null && failure != null) {
+                result.fail(indexes.get(i), failure);
+            }
+        }
+    }
+
+    /**
+     * Adds the rows deleted by the chunk to the count of the range delete, also those deleted before the chunk failed.
+     * A retried attempt does not scan them again, so the count has to outlive the attempt.
+     */
+    private void deleteRows(HTableInterface hTable, String table, List<Delete> deletes, List<String> rowKeys, AtomicLong deleted)
+            throws IOException, InterruptedException {
+        if (deletes.isEmpty()) {
+            return;
+        }
+        int count = 0;
+        try {
+            hTable.batch(deletes, new Object[deletes.size()]);
+            count = deletes.size();
+        } catch (RetriesExhaustedWithDetailsException e) {
+            count = deletes.size() - e.getNumExceptions();
+            throw e;
+        } finally {
+            invalidateCachedRowKeys(table, rowKeys);
+            deletes.clear();
+            rowKeys.clear();
+            deleted.addAndGet(count);
+            recordTransfer(table, OperationType.DELETE, count, 0);
+        }
+    }
+
+    byte[] toRowKey(String tableName, String rowKey) {
+        RowKeyStrategy strategy = rowKeyStrategies.get(tableName);
+        return strategy == null ? Bytes.toBytes(rowKey) : strategy.toRowKey(Bytes.toBytes(rowKey));
+    }
+
+    void recordTransfer(String tableName, OperationType operation, long rows, long bytes) {
+        metrics.getOperationMetrics(tableName, operation).recordTransfer(rows, bytes);
+    }
+
+    void invalidateCachedRows(String tableName, Collection<HBaseRow> rows) {
+        RowCache cache = rowCache;
+        if (cache != null) {
+            for (HBaseRow row : rows) {
+                if (row != null && row.getRowKey() != null) {
+                    cache.invalidate(tableName, row.getRowKey());
+                }
+            }
+        }
+    }
+
+    private void invalidateCachedRowKeys(String tableName, List<String> rowKeys) {
+        RowCache cache = rowCache;
+        if (cache != null) {
+            for (String rowKey : rowKeys) {
+                if (rowKey != null) {
+                    cache.invalidate(tableName, rowKey);
+                }
+            }
+        }
+    }
+
+    void invalidateCachedRow(String tableName, String rowKey) {
+        RowCache cache = rowCache;
+        if (cache != null) {
+            cache.invalidate(tableName, rowKey);
+        }
+    }
+
+    private void invalidateCachedPuts(String tableName, List<Put> puts) {
+        RowCache cache = rowCache;
+        if (cache != null) {
+            RowKeyStrategy strategy = rowKeyStrategies.get(tableName);
+            for (Put put : puts) {
+                cache.invalidate(tableName, Bytes.toString(strategy == null ? put.getRow() : strategy.toLogicalKey(put.getRow())));
+            }
+        }
+    }
+
+    /**
+     * Fetches one row bypassing the row cache, through the get batcher or a hedged get when either is configured.
+     */
+    <T> T load(final String table, final Get get, RowMapper<T> rowMapper, final boolean release) {
+        final RowMapper<T> mapper = withLogicalKeys(table, rowMapper);
+        final GetBatcher batcher = getBatcher;
+        if (batcher != null) {
+            return timedLoad(table, new Callable<Result>() {
+                @Override
+                public Result call() {
+                    return batcher.get(table, get, release);
+                }
+            }, mapper);
+        }
+        final OperationPolicy policy = policies.get(OperationType.GET);
+        if (policy != null && policy.getHedgePercentile() > 0 && executor != null) {
+            return timedLoad(table, new Callable<Result>() {
+                @Override
+                public Result call() {
+                    return hedgedGet(table, get, policy);
+                }
+            }, mapper);
+        }
+        return execute(table, OperationType.GET, new TableCallback<T>() {
+            @Override
+            public T doInTable(HTableInterface hTable) throws Exception {
+                Result result = hTable.get(get);
+                recordTransfer(table, OperationType.GET, result == null || result.isEmpty() ? 0 : 1, HBaseRowUtil.sizeOf(result));
+                return mapper.mapRow(result);
+            }
+        }, release);
+    }
+
+    private ResultScanner openScanner(HTableInterface table, String tableName, Scan scan) throws IOException {
+        RowKeyStrategy strategy = rowKeyStrategies.get(tableName);
+        if (strategy == null) {
+            return table.getScanner(scan);
+        }
+        List<byte[][]> ranges = strategy.toRowRanges(scan.getStartRow(), scan.getStopRow());
+        List<ResultScanner> scanners = new ArrayList<>(ranges.size());
+        try {
+            for (byte[][] range : ranges) {
+                Scan rangeScan = new Scan(scan);
+                rangeScan.setStartRow(range[0]);
+                rangeScan.setStopRow(range[1]);
+                scanners.add(table.getScanner(rangeScan));
+            }
+            return new MergingResultScanner(scanners, strategy);
+        } catch (IOException | RuntimeException e) {
+            for (ResultScanner scanner : scanners) {
+                scanner.close();
+            }
+            throw e;
+        }
+    }
+
+    private <T> RowMapper<T> withLogicalKeys(String tableName, final RowMapper<T> mapper) {
+        final RowKeyStrategy strategy = rowKeyStrategies.get(tableName);
+        if (strategy == null) {
+            return mapper;
+        }
+        return new RowMapper<T>() {
+            @Override
+            public T mapRow(Result result) throws Exception {
+                return mapper.mapRow(HBaseRowUtil.toLogical(result, strategy));
+            }
+        };
+    }
+
+    private Result hedgedGet(final String table, final Get get, final OperationPolicy policy) {
+        TableGuard guard = acquireGuard(table);
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return policyExecutor.call(table, OperationType.GET, policy, new PolicyExecutor.Attempt<Result>() {
+                @Override
+                public Result run(long deadline) {
+                    return policyExecutor.hedge(table, get, policy, deadline);
+                }
+            });
+        } catch (HBaseOperationException e) {
+            failure = e.getCause() == null || e instanceof CallbackFailedException ? e : e.getCause();
+            throw e;
+        } finally {
+            if (guard != null) {
+                guard.release(metrics, System.nanoTime() - start, failure);
+            }
+        }
+    }
+
+    private TableGuard acquireGuard(String tableName) {
+        IsolationConfig config = tableIsolation.get(tableName);
+        if (config == null) {
+            config = defaultIsolation;
+            if (config == null) {
+                return null;
+            }
+        }
+        TableGuard guard = guards.get(tableName);
+        if (guard == null) {
+            TableGuard created = new TableGuard(tableName, config);
+            guard = guards.putIfAbsent(tableName, created);
+            if (guard == null) {
+                guard = created;
+            }
+        }
+        guard.acquire(metrics);
+        return guard;
+    }
+
+    private <T> T timedLoad(String table, Callable<Result> fetch, RowMapper<T> mapper) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Result result = fetch.call();
+            recordTransfer(table, OperationType.GET, result == null || result.isEmpty() ? 0 : 1, HBaseRowUtil.sizeOf(result));
+            T mapped = mapper.mapRow(result);
+            failed = false;
+            return mapped;
+        } catch (CallRejectedException e) {
+            throw e;
+        } catch (HBaseOperationException e) {
+            LOGGER.error("Error during HBASE operation", e.getCause());
+            throw e;
         } catch (Exception e) {
             LOGGER.error("Error during HBASE operation", e);
             throw new HBaseOperationException(e);
         } finally {
+            metrics.getOperationMetrics(table, OperationType.GET).record(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Every chunk is fetched on its own table handle, with release the handle the calling thread holds is released
+     * afterwards like on the sequential path. When a chunk fails the chunks still in flight are cancelled.
+     */
+    private Result[] parallelMultiGet(final String tableName, final List<Get> gets, boolean release) {
+        List<Future<Result[]>> futures = new ArrayList<>();
+        for (int from = 0; from < gets.size(); from += multiGetBatchSize) {
+            final int start = from;
+            final int end = Math.min(from + multiGetBatchSize, gets.size());
+            futures.add(executor.submit(new Callable<Result[]>() {
+                @Override
+                public Result[] call() {
+                    return execute(tableName, OperationType.MULTI_GET, new TableCallback<Result[]>() {
+                        @Override
+                        public Result[] doInTable(HTableInterface table) throws Exception {
+                            return table.get(gets.subList(start, end));
+                        }
+                    }, true);
+                }
+            }));
+        }
+        Result[] results = new Result[gets.size()];
+        int position = 0;
+        try {
+            for (Future<Result[]> future : futures) {
+                Result[] chunk = future.get();
+                System.arraycopy(chunk, 0, results, position, chunk.length);
+                position += chunk.length;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HBaseOperationException(e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } finally {
+            for (Future<Result[]> future : futures) {
+                future.cancel(true);
+            }
             if (release) {
                 releaseHBaseTable(tableName);
             }
         }
-        return result;
+        return results;
+    }
+
+    private Result[] multiGet(HTableInterface table, List<Get> gets) throws IOException {
+        Result[] results = new Result[gets.size()];
+        for (int start = 0; start < gets.size(); start += multiGetBatchSize) {
+            int end = Math.min(start + multiGetBatchSize, gets.size());
+            Result[] chunk = table.get(gets.subList(start, end));
+            System.arraycopy(chunk, 0, results, start, chunk.length);
+        }
+        return results;
+    }
+
+    private static HBaseOperationException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        return cause instanceof HBaseOperationException ? (HBaseOperationException) cause : new HBaseOperationException(cause);
+    }
+
+    private static byte[] toBytes(String value) {
+        return value == null ? null : Bytes.toBytes(value);
+    }
+
+    /**
+     * Copy of the scan with the caching and batch of the options, the scan of the caller is left untouched.
+     */
+    private static Scan withOptions(Scan scan, ScanOptions options) throws IOException {
+        Scan copy = new Scan(scan);
+        copy.setCaching(options.getCaching());
+        if (options.getBatch() > 0) {
+            copy.setBatch(options.getBatch());
+        }
+        return copy;
+    }
+
+    private static Get createGet(byte[] rowKey, String familyName, String qualifier) {
+        Get get = new Get(rowKey);
+        if (familyName != null) {
+            byte[] family = Bytes.toBytes(familyName);
+            if (qualifier != null) {
+                get.addColumn(family, Bytes.toBytes(qualifier));
+            } else {
+                get.addFamily(family);
+            }
+        }
+        return get;
     }
 
     private void releaseHBaseTable(String tableName) {
@@ -130,4 +1174,12 @@ public class HBaseOperations {
         }
     }
 
+    private void releaseHBaseTable(String tableName, HTableInterface table) {
+        try {
+            tablePool.releaseHTable(tableName, table);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to release a handle of table {}", tableName, e);
+        }
+    }
+
 }
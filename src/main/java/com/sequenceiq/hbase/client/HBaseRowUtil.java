@@ -3,26 +3,49 @@ package com.sequenceiq.hbase.client;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.KeyValueUtil;
+import org.apache.hadoop.hbase.client.Mutation;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.util.Bytes;
 
 import com.sequenceiq.hbase.model.Column;
+import com.sequenceiq.hbase.model.HBaseByteRow;
 import com.sequenceiq.hbase.model.Family;
 import com.sequenceiq.hbase.model.HBaseRow;
 import com.sequenceiq.hbase.model.Qualifier;
 
 public final class HBaseRowUtil {
 
+    public static final RowMapper<HBaseByteRow> BYTE_ROW_MAPPER = new RowMapper<HBaseByteRow>() {
+        @Override
+        public HBaseByteRow mapRow(Result result) {
+            return toByteRow(result);
+        }
+    };
+
     private HBaseRowUtil() {
         throw new IllegalStateException();
     }
 
     public static Put convert(HBaseRow hBaseRow) {
-        return isValid(hBaseRow) ? convert0(hBaseRow) : null;
+        return isValid(hBaseRow) ? convert0(hBaseRow, hBaseRow.getRowKeyBytes()) : null;
+    }
+
+    /**
+     * Put of the row stored under the row key of the strategy, the strategy may be null.
+     */
+    public static Put convert(HBaseRow hBaseRow, RowKeyStrategy strategy) {
+        if (strategy == null || !isValid(hBaseRow)) {
+            return convert(hBaseRow);
+        }
+        return convert0(hBaseRow, strategy.toRowKey(hBaseRow.getRowKeyBytes()));
     }
 
     public static boolean isValid(HBaseRow row) {
@@ -50,8 +73,61 @@ public final class HBaseRowUtil {
         return result != null && result.getMap() != null ? convert0(result) : null;
     }
 
-    private static Put convert0(HBaseRow hBaseRow) {
-        Put put = new Put(hBaseRow.getRowKeyBytes());
+    /**
+     * Wraps the cells of the result without copying or decoding them.
+     */
+    public static HBaseByteRow toByteRow(Result result) {
+        return result == null || result.isEmpty() ? null : HBaseByteRow.of(result);
+    }
+
+    /**
+     * Serialized size of the cells of the result.
+     */
+    public static long sizeOf(Result result) {
+        long size = 0;
+        Cell[] cells = result == null ? null : result.rawCells();
+        if (cells != null) {
+            for (Cell cell : cells) {
+                size += KeyValueUtil.length(cell);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Serialized size of the cells of the mutation.
+     */
+    public static long sizeOf(Mutation mutation) {
+        long size = 0;
+        for (List<Cell> cells : mutation.getFamilyCellMap().values()) {
+            for (Cell cell : cells) {
+                size += KeyValueUtil.length(cell);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Copy of the result with the logical row key of the strategy, the values are copied as well.
+     */
+    public static Result toLogical(Result result, RowKeyStrategy strategy) {
+        if (result == null || result.isEmpty()) {
+            return result;
+        }
+        Cell[] cells = result.rawCells();
+        byte[] row = strategy.toLogicalKey(result.getRow());
+        Cell[] logical = new Cell[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            Cell cell = cells[i];
+            logical[i] = new KeyValue(row, 0, row.length, cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength(),
+                    cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength(), cell.getTimestamp(),
+                    KeyValue.Type.codeToType(cell.getTypeByte()), cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+        }
+        return Result.create(logical);
+    }
+
+    private static Put convert0(HBaseRow hBaseRow, byte[] rowKey) {
+        Put put = new Put(rowKey);
         for (Map.Entry<Family, Map<Column, String>> family : hBaseRow.getColumnFamilies().entrySet()) {
             byte[] familyBytes = family.getKey().getNameBytes();
             for (Map.Entry<Column, String> qualifier : family.getValue().entrySet()) {
@@ -69,9 +145,9 @@ public final class HBaseRowUtil {
             for (Map.Entry<byte[], NavigableMap<Long, byte[]>> qualifier : family.getValue().entrySet()) {
                 String columnName = Bytes.toString(qualifier.getKey());
                 String value = Bytes.toString(qualifier.getValue().lastEntry().getValue());
-                values.put(new Qualifier(columnName), value);
+                values.put(Qualifier.valueOf(columnName), value);
             }
-            families.put(new Qualifier(familyName), values);
+            families.put(Qualifier.valueOf(familyName), values);
         }
         return new HBaseRow(Bytes.toString(result.getRow()), families);
     }
@@ -1,7 +1,10 @@
 package com.sequenceiq.hbase.client;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.hadoop.conf.Configuration;
@@ -12,22 +15,54 @@ import org.apache.hadoop.hbase.client.HTableInterfaceFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class HBaseTablePool {
+import com.sequenceiq.hbase.metrics.HBaseMetrics;
+
+/**
+ * Hands out table handles bound to the calling thread. By default every thread creates its own
+ * {@link org.apache.hadoop.hbase.client.HTable}, with a {@link TablePoolConfig} the handles are
+ * borrowed from a bounded pool backed by one shared connection and returned on release.
+ * {@link HBaseOperations} returns pooled handles after every operation unless the thread already held one.
+ */
+public class HBaseTablePool implements Closeable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HBaseTablePool.class);
-    private static ThreadLocal<Map<String, HTableInterface>> resources = new ThreadLocal<>();
-    private HBaseTableFactory tableFactory;
+    private final ThreadLocal<Map<String, HTableInterface>> resources = new ThreadLocal<>();
+    private final HBaseTableFactory tableFactory;
+    private final PooledTableFactory pooledFactory;
+    private volatile HBaseMetrics metrics;
 
     public HBaseTablePool(Configuration hbaseConfiguration) {
-        tableFactory = new HBaseTableFactory(hbaseConfiguration);
+        tableFactory = new HBaseTableFactory(hbaseConfiguration, new HTableFactory());
+        pooledFactory = null;
+    }
+
+    /**
+     * Creates the table handles with the given factory instead of connecting to the cluster.
+     */
+    public HBaseTablePool(Configuration hbaseConfiguration, HTableInterfaceFactory tableInterfaceFactory) {
+        tableFactory = new HBaseTableFactory(hbaseConfiguration, tableInterfaceFactory);
+        pooledFactory = null;
+    }
+
+    public HBaseTablePool(Configuration hbaseConfiguration, TablePoolConfig poolConfig) {
+        Configuration configuration = HBaseConfiguration.create(hbaseConfiguration);
+        pooledFactory = new PooledTableFactory(new ConnectionTableFactory(configuration), poolConfig);
+        tableFactory = new HBaseTableFactory(configuration, pooledFactory);
+        LOGGER.info("Using shared HBASE table pool: {}", poolConfig);
+    }
+
+    public HBaseTablePool(Configuration hbaseConfiguration, HTableInterfaceFactory tableInterfaceFactory, TablePoolConfig poolConfig) {
+        pooledFactory = new PooledTableFactory(tableInterfaceFactory, poolConfig);
+        tableFactory = new HBaseTableFactory(hbaseConfiguration, pooledFactory);
+        LOGGER.info("Using shared HBASE table pool: {}", poolConfig);
     }
 
     public HTableInterface getHTable(String tableName) {
-        LOGGER.info("Get HBASE table: {}", tableName);
+        LOGGER.debug("Get HBASE table: {}", tableName);
         Map<String, HTableInterface> tables = getResource();
         HTableInterface table = tables.get(tableName);
         if (table == null) {
-            table = tableFactory.createHTable(tableName);
+            table = createHTable(tableName);
             tables.put(tableName, table);
         }
         return table;
@@ -35,10 +70,65 @@ public class HBaseTablePool {
 
     public void releaseHTable(String tableName) throws IOException {
         Map<String, HTableInterface> tables = getResource();
-        HTableInterface table = tables.get(tableName);
+        HTableInterface table = tables.remove(tableName);
         if (table != null) {
-            tableFactory.releaseHTable(table);
-            tables.remove(tableName);
+            releaseHTable(tableName, table);
+        }
+    }
+
+    /**
+     * Hands out a handle that is not bound to the calling thread, e.g. for a scan iterator that stays open while
+     * the thread runs other operations on the table. Those operations never release it, the handle has to be
+     * returned with {@link #releaseHTable(String, HTableInterface)}.
+     */
+    public HTableInterface createHTable(String tableName) {
+        HTableInterface table = tableFactory.createHTable(tableName);
+        HBaseMetrics current = metrics;
+        if (current != null) {
+            current.recordTableCreated(tableName);
+        }
+        return table;
+    }
+
+    public void releaseHTable(String tableName, HTableInterface table) throws IOException {
+        tableFactory.releaseHTable(table);
+        HBaseMetrics current = metrics;
+        if (current != null) {
+            current.recordTableReleased(tableName);
+        }
+    }
+
+    /**
+     * Whether the calling thread holds a handle of the table.
+     */
+    public boolean isHeld(String tableName) {
+        Map<String, HTableInterface> tables = resources.get();
+        return tables != null && tables.containsKey(tableName);
+    }
+
+    /**
+     * Metrics recording the created and released table handles, set by {@link HBaseOperations}.
+     */
+    public void setMetrics(HBaseMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public boolean isShared() {
+        return pooledFactory != null;
+    }
+
+    public TablePoolStatistics getStatistics(String tableName) {
+        return pooledFactory == null ? new TablePoolStatistics(tableName, 0, 0, 0, 0, 0, 0) : pooledFactory.getStatistics(tableName);
+    }
+
+    public List<TablePoolStatistics> getStatistics() {
+        return pooledFactory == null ? Collections.<TablePoolStatistics>emptyList() : pooledFactory.getStatistics();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (pooledFactory != null) {
+            pooledFactory.close();
         }
     }
 
@@ -47,7 +137,7 @@ public class HBaseTablePool {
         if (map == null) {
             map = new LinkedHashMap<>();
             resources.set(map);
-            LOGGER.info("Adding new table map for thread: {}", Thread.currentThread().getName());
+            LOGGER.debug("Adding new table map for thread: {}", Thread.currentThread().getName());
         }
         return map;
     }
@@ -57,18 +147,18 @@ public class HBaseTablePool {
         private Configuration hbaseConfiguration;
         private HTableInterfaceFactory tableFactory;
 
-        private HBaseTableFactory(Configuration configuration) {
+        private HBaseTableFactory(Configuration configuration, HTableInterfaceFactory tableFactory) {
             hbaseConfiguration = HBaseConfiguration.create(configuration);
-            tableFactory = new HTableFactory();
+            this.tableFactory = tableFactory;
         }
 
         private HTableInterface createHTable(String tableName) {
-            LOGGER.info("Create HBASE table: {}", tableName);
+            LOGGER.debug("Create HBASE table: {}", tableName);
             return tableFactory.createHTableInterface(hbaseConfiguration, tableName.getBytes());
         }
 
         private void releaseHTable(HTableInterface table) throws IOException {
-            LOGGER.info("Releasing HBASE table: {}", table.getName().getNameAsString());
+            LOGGER.debug("Releasing HBASE table: {}", table.getName());
             tableFactory.releaseHTableInterface(table);
         }
     }
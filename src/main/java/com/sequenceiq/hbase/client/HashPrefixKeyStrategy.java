@@ -0,0 +1,69 @@
+package com.sequenceiq.hbase.client;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Prefixes the row keys with the first bytes of their MD5 hash, which spreads the keys uniformly over the whole
+ * key space, e.g. of a table pre-split with uniform byte splits. The order of the keys is lost, so only whole
+ * tables can be scanned and the rows come in hash order.
+ */
+public class HashPrefixKeyStrategy implements RowKeyStrategy {
+
+    private static final int MD5_LENGTH = 16;
+    private static final ThreadLocal<MessageDigest> DIGESTS = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+    private final int prefixLength;
+
+    public HashPrefixKeyStrategy(int prefixLength) {
+        if (prefixLength < 1 || prefixLength > MD5_LENGTH) {
+            throw new IllegalArgumentException("Prefix length must be between 1 and " + MD5_LENGTH + ": " + prefixLength);
+        }
+        this.prefixLength = prefixLength;
+    }
+
+    @Override
+    public byte[] toRowKey(byte[] logicalKey) {
+        byte[] hash = DIGESTS.get().digest(logicalKey);
+        byte[] rowKey = new byte[prefixLength + logicalKey.length];
+        System.arraycopy(hash, 0, rowKey, 0, prefixLength);
+        System.arraycopy(logicalKey, 0, rowKey, prefixLength, logicalKey.length);
+        return rowKey;
+    }
+
+    @Override
+    public byte[] toLogicalKey(byte[] rowKey) {
+        return Bytes.tail(rowKey, rowKey.length - prefixLength);
+    }
+
+    @Override
+    public List<byte[][]> toRowRanges(byte[] logicalStart, byte[] logicalStop) {
+        if (logicalStart != null && logicalStart.length > 0 || logicalStop != null && logicalStop.length > 0) {
+            throw new IllegalArgumentException("Row ranges of hash prefixed keys cannot be scanned");
+        }
+        return Collections.singletonList(new byte[][]{HConstants.EMPTY_START_ROW, HConstants.EMPTY_END_ROW});
+    }
+
+    @Override
+    public int getPrefixLength() {
+        return prefixLength;
+    }
+
+    @Override
+    public String toString() {
+        return "HashPrefixKeyStrategy{prefixLength=" + prefixLength + '}';
+    }
+}
@@ -0,0 +1,142 @@
+package com.sequenceiq.hbase.client;
+
+/**
+ * Bulkhead and circuit breaker settings of a table, see {@link HBaseOperations#setIsolation(String, IsolationConfig)}.
+ */
+public class IsolationConfig {
+
+    public static final int DEFAULT_MAX_CONCURRENT_CALLS = 0;
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 0L;
+    public static final int DEFAULT_WINDOW_SIZE = 100;
+    public static final int DEFAULT_MINIMUM_CALLS = 20;
+    public static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5;
+    public static final long DEFAULT_SLOW_CALL_MILLIS = 0L;
+    public static final double DEFAULT_SLOW_CALL_RATE_THRESHOLD = 0.8;
+    public static final long DEFAULT_OPEN_MILLIS = 5000L;
+    public static final int DEFAULT_HALF_OPEN_CALLS = 5;
+
+    private int maxConcurrentCalls = DEFAULT_MAX_CONCURRENT_CALLS;
+    private long maxWaitMillis = DEFAULT_MAX_WAIT_MILLIS;
+    private int windowSize = DEFAULT_WINDOW_SIZE;
+    private int minimumCalls = DEFAULT_MINIMUM_CALLS;
+    private double failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+    private long slowCallMillis = DEFAULT_SLOW_CALL_MILLIS;
+    private double slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+    private long openMillis = DEFAULT_OPEN_MILLIS;
+    private int halfOpenCalls = DEFAULT_HALF_OPEN_CALLS;
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    /**
+     * Calls of the table running at the same time, further calls are rejected. A non positive value disables the bulkhead.
+     */
+    public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    /**
+     * Time a call waits for a free slot of the bulkhead before it is rejected, 0 rejects right away.
+     */
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Number of most recent calls the failure and slow call rates are computed from, 0 disables the circuit breaker.
+     */
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    /**
+     * The circuit does not open before the window holds this many calls.
+     */
+    public void setMinimumCalls(int minimumCalls) {
+        this.minimumCalls = minimumCalls;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    /**
+     * The circuit opens when this ratio (0-1) of the calls in the window failed with an IO error or timeout.
+     */
+    public void setFailureRateThreshold(double failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public long getSlowCallMillis() {
+        return slowCallMillis;
+    }
+
+    /**
+     * Calls taking at least this long count as slow, a non positive value disables the slow call rate.
+     */
+    public void setSlowCallMillis(long slowCallMillis) {
+        this.slowCallMillis = slowCallMillis;
+    }
+
+    public double getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    /**
+     * The circuit opens when this ratio (0-1) of the calls in the window were slow.
+     */
+    public void setSlowCallRateThreshold(double slowCallRateThreshold) {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+    }
+
+    public long getOpenMillis() {
+        return openMillis;
+    }
+
+    /**
+     * Time an open circuit rejects every call before trial calls are let through.
+     */
+    public void setOpenMillis(long openMillis) {
+        this.openMillis = openMillis;
+    }
+
+    public int getHalfOpenCalls() {
+        return halfOpenCalls;
+    }
+
+    /**
+     * Trial calls that have to succeed to close the circuit again, a failed or slow trial call opens it.
+     */
+    public void setHalfOpenCalls(int halfOpenCalls) {
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("IsolationConfig{");
+        sb.append("maxConcurrentCalls=").append(maxConcurrentCalls);
+        sb.append(", maxWaitMillis=").append(maxWaitMillis);
+        sb.append(", windowSize=").append(windowSize);
+        sb.append(", minimumCalls=").append(minimumCalls);
+        sb.append(", failureRateThreshold=").append(failureRateThreshold);
+        sb.append(", slowCallMillis=").append(slowCallMillis);
+        sb.append(", slowCallRateThreshold=").append(slowCallRateThreshold);
+        sb.append(", openMillis=").append(openMillis);
+        sb.append(", halfOpenCalls=").append(halfOpenCalls);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,132 @@
+package com.sequenceiq.hbase.client;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Merges the scanners of the row ranges of a {@link RowKeyStrategy} into one scanner with a k-way merge on the
+ * row keys without their bucket prefix, the returned results carry the logical row keys. Every scanner holds at
+ * most one result in the merge, the scanners fetch their batches independently.
+ */
+class MergingResultScanner implements ResultScanner {
+
+    private final List<ResultScanner> scanners;
+    private final RowKeyStrategy strategy;
+    private final PriorityQueue<Head> heads;
+
+    MergingResultScanner(List<ResultScanner> scanners, RowKeyStrategy strategy) throws IOException {
+        this.scanners = scanners;
+        this.strategy = strategy;
+        this.heads = new PriorityQueue<>(Math.max(1, scanners.size()));
+        int prefixLength = strategy.getPrefixLength();
+        for (int i = 0; i < scanners.size(); i++) {
+            Head head = new Head(scanners.get(i), i, prefixLength);
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+    }
+
+    @Override
+    public Result next() throws IOException {
+        Head head = heads.poll();
+        if (head == null) {
+            return null;
+        }
+        Result result = head.result;
+        if (head.advance()) {
+            heads.add(head);
+        }
+        return HBaseRowUtil.toLogical(result, strategy);
+    }
+
+    @Override
+    public Result[] next(int rows) throws IOException {
+        List<Result> results = new ArrayList<>(rows);
+        while (results.size() < rows) {
+            Result result = next();
+            if (result == null) {
+                break;
+            }
+            results.add(result);
+        }
+        return results.toArray(new Result[results.size()]);
+    }
+
+    @Override
+    public void close() {
+        for (ResultScanner scanner : scanners) {
+            scanner.close();
+        }
+    }
+
+    @Override
+    public Iterator<Result> iterator() {
+        return new Iterator<Result>() {
+            private Result next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = MergingResultScanner.this.next();
+                    } catch (IOException e) {
+                        throw new HBaseOperationException(e);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Result next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Result result = next;
+                next = null;
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static final class Head implements Comparable<Head> {
+
+        private final ResultScanner scanner;
+        private final int index;
+        private final int prefixLength;
+        private Result result;
+        private byte[] row;
+
+        private Head(ResultScanner scanner, int index, int prefixLength) {
+            this.scanner = scanner;
+            this.index = index;
+            this.prefixLength = prefixLength;
+        }
+
+        private boolean advance() throws IOException {
+            result = scanner.next();
+            row = result == null ? null : result.getRow();
+            return result != null;
+        }
+
+        @Override
+        public int compareTo(Head other) {
+            int comparison = Bytes.compareTo(row, prefixLength, row.length - prefixLength, other.row, prefixLength,
+                    other.row.length - prefixLength);
+            return comparison == 0 ? Integer.compare(index, other.index) : comparison;
+        }
+    }
+}
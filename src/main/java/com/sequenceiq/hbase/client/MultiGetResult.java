@@ -0,0 +1,58 @@
+package com.sequenceiq.hbase.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MultiGetResult<T> {
+
+    private final Map<String, T> results;
+    private final List<String> missingRowKeys;
+
+    public MultiGetResult(int expectedSize) {
+        results = new LinkedHashMap<>(expectedSize);
+        missingRowKeys = new ArrayList<>();
+    }
+
+    /**
+     * Mapped rows in the order of the first occurrence of the requested row keys, a row key requested more than
+     * once has one entry. Missing rows are not included.
+     */
+    public Map<String, T> getResults() {
+        return Collections.unmodifiableMap(results);
+    }
+
+    public T get(String rowKey) {
+        return results.get(rowKey);
+    }
+
+    /**
+     * Distinct requested row keys without a row, in the order of their first occurrence.
+     */
+    public List<String> getMissingRowKeys() {
+        return Collections.unmodifiableList(missingRowKeys);
+    }
+
+    public boolean hasMissingRows() {
+        return !missingRowKeys.isEmpty();
+    }
+
+    void addResult(String rowKey, T result) {
+        results.put(rowKey, result);
+    }
+
+    void addMissing(String rowKey) {
+        missingRowKeys.add(rowKey);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MultiGetResult{");
+        sb.append("results=").append(results);
+        sb.append(", missingRowKeys=").append(missingRowKeys);
+        sb.append('}');
+        return sb.toString();
+    }
+}
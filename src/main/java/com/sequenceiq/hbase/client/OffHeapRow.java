@@ -0,0 +1,210 @@
+package com.sequenceiq.hbase.client;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import com.sequenceiq.hbase.model.HBaseByteRow;
+
+/**
+ * Read-only view of a row whose cells are stored off-heap in the {@link KeyValue} layout, returned by
+ * {@link OffHeapScanIterator}. Only the offsets of the cells are kept on the heap, values are decoded on access.
+ * The view is only valid until the iterator advances, {@link #toByteRow()} copies the row to the heap.
+ */
+public final class OffHeapRow {
+
+    private static final int LENGTHS_SIZE = 2 * Bytes.SIZEOF_INT;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int SHORT_MASK = 0xFFFF;
+    private final ByteBuffer buffer;
+    private final int[] cells;
+
+    OffHeapRow(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        int count = 0;
+        for (int position = offset; position < offset + length; position = next(position)) {
+            count++;
+        }
+        cells = new int[count];
+        int position = offset;
+        for (int i = 0; i < count; i++) {
+            cells[i] = position;
+            position = next(position);
+        }
+    }
+
+    public boolean isEmpty() {
+        return cells.length == 0;
+    }
+
+    public int size() {
+        return cells.length;
+    }
+
+    public byte[] getRowKey() {
+        return isEmpty() ? null : copy(rowOffset(cells[0]), rowLength(cells[0]));
+    }
+
+    public String getRowKeyString() {
+        return isEmpty() ? null : Bytes.toString(getRowKey());
+    }
+
+    public boolean contains(byte[] family, byte[] qualifier) {
+        return find(family, qualifier) >= 0;
+    }
+
+    /**
+     * Zero-copy view of the latest value of the column, or null if the row does not contain the column.
+     */
+    public ByteBuffer getValueBuffer(byte[] family, byte[] qualifier) {
+        int cell = find(family, qualifier);
+        if (cell < 0) {
+            return null;
+        }
+        ByteBuffer value = buffer.duplicate();
+        value.limit(valueOffset(cell) + valueLength(cell)).position(valueOffset(cell));
+        return value.slice();
+    }
+
+    public byte[] getValue(byte[] family, byte[] qualifier) {
+        int cell = find(family, qualifier);
+        return cell < 0 ? null : copy(valueOffset(cell), valueLength(cell));
+    }
+
+    public String getString(byte[] family, byte[] qualifier) {
+        byte[] value = getValue(family, qualifier);
+        return value == null ? null : Bytes.toString(value);
+    }
+
+    public long getLong(byte[] family, byte[] qualifier, long defaultValue) {
+        int cell = find(family, qualifier);
+        return cell < 0 ? defaultValue : buffer.getLong(valueOffset(cell));
+    }
+
+    public int getInt(byte[] family, byte[] qualifier, int defaultValue) {
+        int cell = find(family, qualifier);
+        return cell < 0 ? defaultValue : buffer.getInt(valueOffset(cell));
+    }
+
+    /**
+     * Copies the cells to the heap.
+     */
+    public HBaseByteRow toByteRow() {
+        Cell[] result = new Cell[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            int length = LENGTHS_SIZE + buffer.getInt(cells[i]) + buffer.getInt(cells[i] + Bytes.SIZEOF_INT);
+            result[i] = new KeyValue(copy(cells[i], length), 0, length);
+        }
+        return new HBaseByteRow(result);
+    }
+
+    /**
+     * Serialized size of the cell in the layout read by this view.
+     */
+    static int sizeOf(Cell cell) {
+        return LENGTHS_SIZE + keyLength(cell) + cell.getValueLength();
+    }
+
+    /**
+     * Writes the cell in the {@link KeyValue} layout without tags.
+     */
+    static void write(ByteBuffer target, Cell cell) {
+        target.putInt(keyLength(cell));
+        target.putInt(cell.getValueLength());
+        target.putShort(cell.getRowLength());
+        target.put(cell.getRowArray(), cell.getRowOffset(), cell.getRowLength());
+        target.put(cell.getFamilyLength());
+        target.put(cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength());
+        target.put(cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
+        target.putLong(cell.getTimestamp());
+        target.put(cell.getTypeByte());
+        target.put(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+    }
+
+    private static int keyLength(Cell cell) {
+        return (int) KeyValue.getKeyDataStructureSize(cell.getRowLength(), cell.getFamilyLength(), cell.getQualifierLength());
+    }
+
+    /**
+     * Offset of the latest version of the column found with a binary search, the cells are sorted by family and qualifier.
+     */
+    private int find(byte[] family, byte[] qualifier) {
+        int low = 0;
+        int high = cells.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(cells[mid], family, qualifier) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < cells.length && compare(cells[low], family, qualifier) == 0 ? cells[low] : -1;
+    }
+
+    private int compare(int cell, byte[] family, byte[] qualifier) {
+        int familyOffset = familyOffset(cell);
+        int familyLength = buffer.get(familyOffset - 1) & BYTE_MASK;
+        int result = compare(familyOffset, familyLength, family);
+        if (result == 0) {
+            int qualifierLength = buffer.getInt(cell) - (KeyValue.ROW_LENGTH_SIZE + rowLength(cell) + KeyValue.FAMILY_LENGTH_SIZE + familyLength
+                    + KeyValue.TIMESTAMP_TYPE_SIZE);
+            result = compare(familyOffset + familyLength, qualifierLength, qualifier);
+        }
+        return result;
+    }
+
+    private int compare(int offset, int length, byte[] other) {
+        int common = Math.min(length, other.length);
+        for (int i = 0; i < common; i++) {
+            int difference = (buffer.get(offset + i) & BYTE_MASK) - (other[i] & BYTE_MASK);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - other.length;
+    }
+
+    private int next(int cell) {
+        return cell + LENGTHS_SIZE + buffer.getInt(cell) + buffer.getInt(cell + Bytes.SIZEOF_INT);
+    }
+
+    private int rowLength(int cell) {
+        return buffer.getShort(cell + LENGTHS_SIZE) & SHORT_MASK;
+    }
+
+    private int rowOffset(int cell) {
+        return cell + LENGTHS_SIZE + KeyValue.ROW_LENGTH_SIZE;
+    }
+
+    private int familyOffset(int cell) {
+        return rowOffset(cell) + rowLength(cell) + KeyValue.FAMILY_LENGTH_SIZE;
+    }
+
+    private int valueOffset(int cell) {
+        return cell + LENGTHS_SIZE + buffer.getInt(cell);
+    }
+
+    private int valueLength(int cell) {
+        return buffer.getInt(cell + Bytes.SIZEOF_INT);
+    }
+
+    private byte[] copy(int offset, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(offset);
+        source.get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("OffHeapRow{");
+        sb.append("rowKey='").append(isEmpty() ? null : Bytes.toStringBinary(getRowKey())).append('\'');
+        sb.append(", cells=").append(cells.length);
+        sb.append('}');
+        return sb.toString();
+    }
+}
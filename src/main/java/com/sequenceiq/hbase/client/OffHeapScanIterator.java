@@ -0,0 +1,433 @@
+package com.sequenceiq.hbase.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.hbase.metrics.OperationMetrics;
+
+/**
+ * Scans ahead of the caller on a scan thread of {@link HBaseOperations} and copies the cells of every fetched batch into chunks of
+ * direct memory taken from a {@link DirectBufferPool}, so besides the batch being copied no results stay on the
+ * heap. The chunks are bounded by {@link ScanOptions#getOffHeapBytes()}, when they are used up the rows spill to a
+ * memory-mapped file if a spill directory is set, otherwise the scanner waits for the caller. A chunk is recycled
+ * once the caller has advanced past all of its rows, so an {@link OffHeapRow} is only valid until the next call of
+ * {@link #hasNext()} or {@link #next()}. The iterator owns its table handle, it is released on {@link #close()}.
+ */
+public class OffHeapScanIterator implements Iterator<OffHeapRow>, Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapScanIterator.class);
+    private static final Segment END = new Segment(null, new int[0], new int[0], 0);
+    private final BlockingQueue<Segment> segments = new LinkedBlockingQueue<>();
+    private final CountDownLatch producerDone = new CountDownLatch(1);
+    private final AtomicBoolean producerClaimed = new AtomicBoolean();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final List<Chunk> freeMapped = new ArrayList<>();
+    private final HBaseTablePool tablePool;
+    private final String tableName;
+    private final HTableInterface table;
+    private final ResultScanner scanner;
+    private final DirectBufferPool pool;
+    private final int caching;
+    private final long offHeapBytes;
+    private final String spillDirectory;
+    private final long maxSpillBytes;
+    private final ExecutorService producers;
+    private final OperationMetrics metrics;
+    private final long start = System.nanoTime();
+    private Future<?> producer;
+    private Chunk writing;
+    private long directBytes;
+    private long spillBytes;
+    private FileChannel spill;
+    private long rows;
+    private long bytes;
+    private volatile Throwable failure;
+    private volatile boolean closed;
+    private Segment current;
+    private int index;
+    private boolean finished;
+    private boolean failed;
+
+    OffHeapScanIterator(HBaseTablePool tablePool, String tableName, HTableInterface table, ResultScanner scanner, DirectBufferPool pool,
+            ScanOptions options, ExecutorService producers, OperationMetrics metrics) {
+        this.tablePool = tablePool;
+        this.tableName = tableName;
+        this.table = table;
+        this.scanner = scanner;
+        this.pool = pool;
+        this.caching = options.getCaching();
+        this.offHeapBytes = options.getOffHeapBytes();
+        this.spillDirectory = options.getSpillDirectory();
+        this.maxSpillBytes = options.getMaxSpillBytes();
+        this.producers = producers;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Starts the scanner on a scan thread of {@link HBaseOperations}, if every thread is busy the iterator is
+     * closed and the scan fails.
+     */
+    void start() {
+        try {
+            producer = producers.submit(new Runnable() {
+                @Override
+                public void run() {
+                    produce();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            failed = true;
+            close();
+            throw new HBaseOperationException("Every scan thread is busy, cannot scan table " + tableName + " off-heap", e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (current == null || index >= current.count) {
+            if (current != null) {
+                current.release();
+                current = null;
+            }
+            if (finished || closed) {
+                return false;
+            }
+            Segment segment = take();
+            if (segment == END) {
+                finished = true;
+                if (failure != null) {
+                    failed = true;
+                    throw new HBaseOperationException(failure);
+                }
+                return false;
+            }
+            current = segment;
+            index = 0;
+        }
+        return true;
+    }
+
+    @Override
+    public OffHeapRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        OffHeapRow row = new OffHeapRow(current.chunk.reader, current.offsets[index], current.lengths[index]);
+        index++;
+        return row;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Direct memory held by the scan, including chunks waiting to be reused.
+     */
+    public long getDirectBytes() {
+        lock.lock();
+        try {
+            return directBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSpillBytes() {
+        lock.lock();
+        try {
+            return spillBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            stopProducer();
+            if (current != null) {
+                current.release();
+                current = null;
+            }
+            for (Segment segment = segments.poll(); segment != null; segment = segments.poll()) {
+                segment.release();
+            }
+            closeSpill();
+        } finally {
+            scanner.close();
+            metrics.recordTransfer(rows, bytes);
+            metrics.record(System.nanoTime() - start, failed);
+            releaseTable();
+        }
+    }
+
+    private void produce() {
+        if (!producerClaimed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (Result[] batch = scanner.next(caching); batch.length > 0 && !closed; batch = scanner.next(caching)) {
+                if (!copy(batch)) {
+                    break;
+                }
+            }
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            if (!closed) {
+                failure = e;
+            }
+        } finally {
+            if (writing != null) {
+                writing.release();
+                writing = null;
+            }
+            segments.add(END);
+            producerDone.countDown();
+        }
+    }
+
+    /**
+     * Copies the rows of the batch off-heap and hands them to the caller, returns false if the scan was closed.
+     */
+    private boolean copy(Result[] batch) throws IOException, InterruptedException {
+        int[] offsets = new int[batch.length];
+        int[] lengths = new int[batch.length];
+        int count = 0;
+        for (Result result : batch) {
+            Cell[] cells = result.rawCells();
+            int size = 0;
+            for (Cell cell : cells) {
+                size += OffHeapRow.sizeOf(cell);
+            }
+            if (writing == null || writing.buffer.remaining() < size) {
+                if (count > 0) {
+                    publish(offsets, lengths, count);
+                    offsets = new int[batch.length];
+                    lengths = new int[batch.length];
+                    count = 0;
+                }
+                if (writing != null) {
+                    writing.release();
+                }
+                writing = acquire(size);
+                if (writing == null) {
+                    return false;
+                }
+            }
+            offsets[count] = writing.buffer.position();
+            lengths[count++] = size;
+            for (Cell cell : cells) {
+                OffHeapRow.write(writing.buffer, cell);
+            }
+            rows++;
+            bytes += size;
+        }
+        if (count > 0) {
+            publish(offsets, lengths, count);
+        }
+        return true;
+    }
+
+    private void publish(int[] offsets, int[] lengths, int count) {
+        writing.refs.incrementAndGet();
+        segments.add(new Segment(writing, offsets, lengths, count));
+    }
+
+    /**
+     * A chunk with room for at least the given bytes, waits until the caller releases one if the direct memory
+     * and the spill file are used up. Returns null if the scan is closed while waiting.
+     */
+    private Chunk acquire(int size) throws IOException, InterruptedException {
+        int capacity = Math.max(size, pool.getChunkBytes());
+        lock.lock();
+        try {
+            while (!closed) {
+                Chunk chunk = directChunk(capacity);
+                if (chunk == null) {
+                    chunk = mappedChunk(capacity);
+                }
+                if (chunk != null) {
+                    return chunk;
+                }
+                released.await();
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Chunk directChunk(int capacity) {
+        if (directBytes > 0 && directBytes + capacity > offHeapBytes) {
+            return null;
+        }
+        directBytes += capacity;
+        return new Chunk(capacity == pool.getChunkBytes() ? pool.acquire() : ByteBuffer.allocateDirect(capacity), false);
+    }
+
+    private Chunk mappedChunk(int capacity) throws IOException {
+        if (capacity == pool.getChunkBytes() && !freeMapped.isEmpty()) {
+            Chunk chunk = freeMapped.remove(freeMapped.size() - 1);
+            chunk.buffer.clear();
+            chunk.refs.set(1);
+            return chunk;
+        }
+        if (spillDirectory == null || spillBytes + capacity > maxSpillBytes) {
+            return null;
+        }
+        if (spill == null) {
+            Path path = Files.createTempFile(Paths.get(spillDirectory), "hbase-scan-", ".spill");
+            spill = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+            LOGGER.debug("Scan of table {} spills to {}", tableName, path);
+        }
+        ByteBuffer buffer = spill.map(FileChannel.MapMode.READ_WRITE, spillBytes, capacity);
+        spillBytes += capacity;
+        return new Chunk(buffer, true);
+    }
+
+    private void recycle(Chunk chunk) {
+        lock.lock();
+        try {
+            if (!chunk.mapped) {
+                directBytes -= chunk.buffer.capacity();
+                pool.release(chunk.buffer);
+            } else if (chunk.buffer.capacity() == pool.getChunkBytes()) {
+                freeMapped.add(chunk);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Segment take() {
+        try {
+            return segments.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HBaseOperationException(e);
+        }
+    }
+
+    /**
+     * Waits for a running producer to stop, a producer that has not started yet is cancelled and never runs.
+     */
+    private void stopProducer() {
+        if (producer == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (producerClaimed.compareAndSet(false, true)) {
+            producer.cancel(false);
+            return;
+        }
+        producer.cancel(true);
+        try {
+            producerDone.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HBaseOperationException(e);
+        }
+    }
+
+    private void closeSpill() {
+        lock.lock();
+        try {
+            freeMapped.clear();
+            if (spill != null) {
+                spill.close();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete the spill file of the scan of table {}", tableName, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseTable() {
+        try {
+            tablePool.releaseHTable(tableName, table);
+        } catch (IOException e) {
+            throw new HBaseOperationException(e);
+        }
+    }
+
+    private final class Chunk {
+
+        private final ByteBuffer buffer;
+        private final ByteBuffer reader;
+        private final boolean mapped;
+        private final AtomicInteger refs = new AtomicInteger(1);
+
+        private Chunk(ByteBuffer buffer, boolean mapped) {
+            this.buffer = buffer;
+            this.reader = buffer.duplicate();
+            this.mapped = mapped;
+        }
+
+        private void release() {
+            if (refs.decrementAndGet() == 0) {
+                recycle(this);
+            }
+        }
+    }
+
+    private static final class Segment {
+
+        private final Chunk chunk;
+        private final int[] offsets;
+        private final int[] lengths;
+        private final int count;
+
+        private Segment(Chunk chunk, int[] offsets, int[] lengths, int count) {
+            this.chunk = chunk;
+            this.offsets = offsets;
+            this.lengths = lengths;
+            this.count = count;
+        }
+
+        private void release() {
+            if (chunk != null) {
+                chunk.release();
+            }
+        }
+    }
+}
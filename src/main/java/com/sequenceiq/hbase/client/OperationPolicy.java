@@ -0,0 +1,125 @@
+package com.sequenceiq.hbase.client;
+
+/**
+ * Deadline, retry and hedging settings applied by {@link HBaseOperations} to the operations of one type.
+ */
+public class OperationPolicy {
+
+    public static final long DEFAULT_TIMEOUT_MILLIS = 0L;
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 20L;
+    public static final long DEFAULT_MAX_BACKOFF_MILLIS = 1000L;
+    public static final double DEFAULT_RETRY_BUDGET_RATIO = 0.1;
+    public static final int DEFAULT_MIN_RETRIES_PER_SECOND = 10;
+    public static final double DEFAULT_HEDGE_PERCENTILE = 0;
+    public static final long DEFAULT_MIN_HEDGE_DELAY_MILLIS = 5L;
+
+    private long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private long initialBackoffMillis = DEFAULT_INITIAL_BACKOFF_MILLIS;
+    private long maxBackoffMillis = DEFAULT_MAX_BACKOFF_MILLIS;
+    private double retryBudgetRatio = DEFAULT_RETRY_BUDGET_RATIO;
+    private int minRetriesPerSecond = DEFAULT_MIN_RETRIES_PER_SECOND;
+    private double hedgePercentile = DEFAULT_HEDGE_PERCENTILE;
+    private long minHedgeDelayMillis = DEFAULT_MIN_HEDGE_DELAY_MILLIS;
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Deadline of a call including its retries and hedged requests, a non positive value disables it.
+     * The remaining time is also set as operation timeout on {@link org.apache.hadoop.hbase.client.HTable} handles.
+     */
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Attempts of a call failing with a retriable IOException, 1 disables the retries.
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Attempts must be positive: " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getInitialBackoffMillis() {
+        return initialBackoffMillis;
+    }
+
+    /**
+     * The backoff doubles with every attempt, the actual wait is chosen randomly below it.
+     */
+    public void setInitialBackoffMillis(long initialBackoffMillis) {
+        this.initialBackoffMillis = initialBackoffMillis;
+    }
+
+    public long getMaxBackoffMillis() {
+        return maxBackoffMillis;
+    }
+
+    public void setMaxBackoffMillis(long maxBackoffMillis) {
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public double getRetryBudgetRatio() {
+        return retryBudgetRatio;
+    }
+
+    /**
+     * Retries of a table may make up at most this ratio of its calls on top of the minimum retry rate,
+     * over the budget failures are not retried.
+     */
+    public void setRetryBudgetRatio(double retryBudgetRatio) {
+        this.retryBudgetRatio = retryBudgetRatio;
+    }
+
+    public int getMinRetriesPerSecond() {
+        return minRetriesPerSecond;
+    }
+
+    public void setMinRetriesPerSecond(int minRetriesPerSecond) {
+        this.minRetriesPerSecond = minRetriesPerSecond;
+    }
+
+    public double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    /**
+     * Single row gets not answered within this latency percentile (0-100) of the table are sent a second
+     * time and the first answer wins, 0 disables hedging. Hedging needs the executor of {@link HBaseOperations}.
+     */
+    public void setHedgePercentile(double hedgePercentile) {
+        this.hedgePercentile = hedgePercentile;
+    }
+
+    public long getMinHedgeDelayMillis() {
+        return minHedgeDelayMillis;
+    }
+
+    public void setMinHedgeDelayMillis(long minHedgeDelayMillis) {
+        this.minHedgeDelayMillis = minHedgeDelayMillis;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("OperationPolicy{");
+        sb.append("timeoutMillis=").append(timeoutMillis);
+        sb.append(", maxAttempts=").append(maxAttempts);
+        sb.append(", initialBackoffMillis=").append(initialBackoffMillis);
+        sb.append(", maxBackoffMillis=").append(maxBackoffMillis);
+        sb.append(", retryBudgetRatio=").append(retryBudgetRatio);
+        sb.append(", minRetriesPerSecond=").append(minRetriesPerSecond);
+        sb.append(", hedgePercentile=").append(hedgePercentile);
+        sb.append(", minHedgeDelayMillis=").append(minHedgeDelayMillis);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,373 @@
+package com.sequenceiq.hbase.client;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.DoNotRetryIOException;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+import org.apache.hadoop.hbase.util.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.hbase.aggregate.Aggregation;
+import com.sequenceiq.hbase.metrics.OperationType;
+
+/**
+ * Splits a scan along the region boundaries of the table and runs the sub-scans concurrently,
+ * every sub-scan on its own table handle. At most {@code parallelism} sub-scans are in flight.
+ * A sub-scan retried by the scan policy resumes after the last row it delivered.
+ */
+class ParallelScanExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelScanExecutor.class);
+    private static final int AGGREGATION_CACHING = 1000;
+    private final HBaseOperations operations;
+    private final ExecutorService executor;
+
+    ParallelScanExecutor(HBaseOperations operations, ExecutorService executor) {
+        this.operations = operations;
+        this.executor = executor;
+    }
+
+    /**
+     * With a row key strategy the rows of the row ranges are merged like {@link MergingResultScanner} does, so they
+     * come in the order of the stored keys without their bucket prefix.
+     */
+    <T> ParallelScanResult<T> scan(String tableName, Scan scan, final RowMapper<T> mapper, int parallelism) {
+        final RowKeyStrategy strategy = operations.getRowKeyStrategy(tableName);
+        List<Scan> regionScans = split(tableName, scan);
+        final List<List<T>> regionRows = new ArrayList<>(regionScans.size());
+        final List<List<byte[]>> regionKeys = new ArrayList<>(regionScans.size());
+        List<RowHandler<Result>> sinks = new ArrayList<>(regionScans.size());
+        for (int i = 0; i < regionScans.size(); i++) {
+            final List<T> rows = new ArrayList<>();
+            final List<byte[]> keys = new ArrayList<>();
+            regionRows.add(rows);
+            regionKeys.add(keys);
+            sinks.add(new RowHandler<Result>() {
+                @Override
+                public void handleRow(Result row) throws Exception {
+                    rows.add(mapper.mapRow(toLogical(row, strategy)));
+                    if (strategy != null) {
+                        keys.add(row.getRow());
+                    }
+                }
+            });
+        }
+        List<RegionScanStatistics> statistics = run(tableName, regionScans, sinks, parallelism);
+        if (strategy != null) {
+            return new ParallelScanResult<>(merge(regionRows, regionKeys, strategy.getPrefixLength()), statistics);
+        }
+        int size = 0;
+        for (List<T> rows : regionRows) {
+            size += rows.size();
+        }
+        List<T> result = new ArrayList<>(size);
+        for (List<T> rows : regionRows) {
+            result.addAll(rows);
+        }
+        return new ParallelScanResult<>(result, statistics);
+    }
+
+    <T> List<RegionScanStatistics> scan(String tableName, Scan scan, final RowMapper<T> mapper, final RowHandler<T> handler, int parallelism) {
+        final RowKeyStrategy strategy = operations.getRowKeyStrategy(tableName);
+        List<Scan> regionScans = split(tableName, scan);
+        RowHandler<Result> sink = new RowHandler<Result>() {
+            @Override
+            public void handleRow(Result row) throws Exception {
+                handler.handleRow(mapper.mapRow(toLogical(row, strategy)));
+            }
+        };
+        return run(tableName, regionScans, Collections.nCopies(regionScans.size(), sink), parallelism);
+    }
+
+    /**
+     * Every region scan adds its rows to its own partial, the partials are merged once all region scans are done.
+     * An arithmetic failure of a partial or of the merge, e.g. an overflowing sum, fails the aggregation.
+     * With a row key strategy the scan range is translated to the stored row ranges and the rows carry logical keys.
+     */
+    <A, R> R aggregate(String tableName, Scan scan, final Aggregation<A, R> aggregation, int parallelism) {
+        final RowKeyStrategy strategy = operations.getRowKeyStrategy(tableName);
+        List<Scan> regionScans = split(tableName, project(scan, aggregation.getColumns()));
+        List<A> partials = new ArrayList<>(regionScans.size());
+        List<RowHandler<Result>> sinks = new ArrayList<>(regionScans.size());
+        for (int i = 0; i < regionScans.size(); i++) {
+            final A partial = aggregation.create();
+            partials.add(partial);
+            sinks.add(new RowHandler<Result>() {
+                @Override
+                public void handleRow(Result row) {
+                    aggregation.add(partial, toLogical(row, strategy));
+                }
+            });
+        }
+        run(tableName, regionScans, sinks, parallelism);
+        A total = aggregation.create();
+        try {
+            for (A partial : partials) {
+                total = aggregation.merge(total, partial);
+            }
+        } catch (ArithmeticException e) {
+            throw new HBaseOperationException(e);
+        }
+        return aggregation.result(total);
+    }
+
+    /**
+     * One scan per region and stored row range, the ranges come from the row key strategy of the table if it has one.
+     */
+    List<Scan> split(String tableName, Scan scan) {
+        Pair<byte[][], byte[][]> boundaries = operations.executeInternal(tableName, OperationType.EXECUTE, new TableCallback<Pair<byte[][], byte[][]>>() {
+            @Override
+            public Pair<byte[][], byte[][]> doInTable(HTableInterface table) throws Exception {
+                if (table instanceof HTable) {
+                    return ((HTable) table).getStartEndKeys();
+                }
+                return new Pair<>(new byte[][]{HConstants.EMPTY_START_ROW}, new byte[][]{HConstants.EMPTY_END_ROW});
+            }
+        });
+        RowKeyStrategy strategy = operations.getRowKeyStrategy(tableName);
+        List<byte[][]> ranges = strategy == null ? Collections.singletonList(new byte[][]{scan.getStartRow(), scan.getStopRow()})
+                : strategy.toRowRanges(scan.getStartRow(), scan.getStopRow());
+        List<Scan> scans = new ArrayList<>(boundaries.getFirst().length * ranges.size());
+        try {
+            for (int i = 0; i < boundaries.getFirst().length; i++) {
+                for (byte[][] range : ranges) {
+                    addRegionScan(scans, scan, max(boundaries.getFirst()[i], bound(range[0])), min(boundaries.getSecond()[i], bound(range[1])));
+                }
+            }
+        } catch (IOException e) {
+            throw new HBaseOperationException(e);
+        }
+        LOGGER.debug("Split scan of table {} into {} region scans", tableName, scans.size());
+        return scans;
+    }
+
+    /**
+     * Unless the scan selects columns itself only the columns of the aggregation are fetched, and only the first
+     * key of every row if it reads no columns and the scan has no filter that could need the values.
+     */
+    private static Scan project(Scan scan, List<Pair<byte[], byte[]>> columns) {
+        Scan projected;
+        try {
+            projected = new Scan(scan);
+        } catch (IOException e) {
+            throw new HBaseOperationException(e);
+        }
+        projected.setCacheBlocks(false);
+        if (projected.getCaching() <= 0) {
+            projected.setCaching(AGGREGATION_CACHING);
+        }
+        if (!scan.hasFamilies()) {
+            for (Pair<byte[], byte[]> column : columns) {
+                projected.addColumn(column.getFirst(), column.getSecond());
+            }
+            if (columns.isEmpty() && scan.getFilter() == null) {
+                projected.setFilter(new FilterList(new FirstKeyOnlyFilter(), new KeyOnlyFilter()));
+            }
+        }
+        return projected;
+    }
+
+    private List<RegionScanStatistics> run(String tableName, List<Scan> scans, List<RowHandler<Result>> sinks, int parallelism) {
+        ExecutorService pool = executor == null
+                ? Executors.newFixedThreadPool(Math.max(1, parallelism), Threads.newDaemonThreadFactory("hbase-parallel-scan")) : executor;
+        RegionScanStatistics[] statistics = new RegionScanStatistics[scans.size()];
+        List<Future<Void>> futures = new ArrayList<>(scans.size());
+        try {
+            runBounded(new ExecutorCompletionService<Void>(pool), futures, tableName, scans, sinks, statistics, parallelism);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HBaseOperationException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof HBaseOperationException ? (HBaseOperationException) cause : new HBaseOperationException(cause);
+        } finally {
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+            if (pool != executor) {
+                pool.shutdownNow();
+            }
+        }
+        return Arrays.asList(statistics);
+    }
+
+    private void runBounded(CompletionService<Void> completionService, List<Future<Void>> futures, String tableName, List<Scan> scans,
+            List<RowHandler<Result>> sinks, RegionScanStatistics[] statistics, int parallelism) throws InterruptedException, ExecutionException {
+        int submitted = 0;
+        while (submitted < scans.size() && submitted < parallelism) {
+            futures.add(completionService.submit(createTask(tableName, scans.get(submitted), sinks.get(submitted), statistics, submitted)));
+            submitted++;
+        }
+        for (int completed = 0; completed < scans.size(); completed++) {
+            completionService.take().get();
+            if (submitted < scans.size()) {
+                futures.add(completionService.submit(createTask(tableName, scans.get(submitted), sinks.get(submitted), statistics, submitted)));
+                submitted++;
+            }
+        }
+    }
+
+    private Callable<Void> createTask(final String tableName, final Scan scan, final RowHandler<Result> sink,
+            final RegionScanStatistics[] statistics, final int index) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() {
+                final RegionScan regionScan = new RegionScan(scan, sink);
+                operations.executeInternal(tableName, OperationType.SCAN, new TableCallback<Void>() {
+                    @Override
+                    public Void doInTable(HTableInterface table) throws IOException {
+                        regionScan.read(table);
+                        return null;
+                    }
+                });
+                operations.recordTransfer(tableName, OperationType.SCAN, regionScan.rows, regionScan.bytes);
+                statistics[index] = new RegionScanStatistics(scan.getStartRow(), scan.getStopRow(), regionScan.rows,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - regionScan.start));
+                return null;
+            }
+        };
+    }
+
+    private static void addRegionScan(List<Scan> scans, Scan scan, byte[] start, byte[] stop) throws IOException {
+        if (stop.length == 0 || Bytes.compareTo(start, stop) < 0) {
+            Scan regionScan = new Scan(scan);
+            regionScan.setStartRow(start);
+            regionScan.setStopRow(stop);
+            scans.add(regionScan);
+        }
+    }
+
+    private static Result toLogical(Result row, RowKeyStrategy strategy) {
+        return strategy == null ? row : HBaseRowUtil.toLogical(row, strategy);
+    }
+
+    /**
+     * K-way merge of the rows of the region scans on their stored keys without the bucket prefix.
+     */
+    private static <T> List<T> merge(final List<List<T>> regionRows, final List<List<byte[]>> regionKeys, final int prefixLength) {
+        final int[] positions = new int[regionRows.size()];
+        PriorityQueue<Integer> heads = new PriorityQueue<>(Math.max(1, regionRows.size()), new Comparator<Integer>() {
+            @Override
+            public int compare(Integer left, Integer right) {
+                byte[] leftKey = regionKeys.get(left).get(positions[left]);
+                byte[] rightKey = regionKeys.get(right).get(positions[right]);
+                int comparison = Bytes.compareTo(leftKey, prefixLength, leftKey.length - prefixLength, rightKey, prefixLength,
+                        rightKey.length - prefixLength);
+                return comparison == 0 ? Integer.compare(left, right) : comparison;
+            }
+        });
+        int size = 0;
+        for (int i = 0; i < regionRows.size(); i++) {
+            size += regionRows.get(i).size();
+            if (!regionRows.get(i).isEmpty()) {
+                heads.add(i);
+            }
+        }
+        List<T> result = new ArrayList<>(size);
+        while (!heads.isEmpty()) {
+            int head = heads.poll();
+            result.add(regionRows.get(head).get(positions[head]++));
+            if (positions[head] < regionRows.get(head).size()) {
+                heads.add(head);
+            }
+        }
+        return result;
+    }
+
+    private static byte[] bound(byte[] key) {
+        return key == null ? HConstants.EMPTY_BYTE_ARRAY : key;
+    }
+
+    private static byte[] max(byte[] regionStart, byte[] scanStart) {
+        return Bytes.compareTo(regionStart, scanStart) >= 0 ? regionStart : scanStart;
+    }
+
+    private static byte[] min(byte[] regionEnd, byte[] scanStop) {
+        if (regionEnd.length == 0) {
+            return scanStop;
+        }
+        if (scanStop.length == 0) {
+            return regionEnd;
+        }
+        return Bytes.compareTo(regionEnd, scanStop) <= 0 ? regionEnd : scanStop;
+    }
+
+    /**
+     * Progress of a region scan across the attempts of the scan policy. A retried attempt resumes after the last row
+     * handed to the sink, so no row reaches the sink twice. Scans returning partial rows or scanning backwards cannot
+     * resume and are only retried before their first row. Failures of the sink are not retried.
+     */
+    private static final class RegionScan {
+
+        private static final byte[] NEXT_ROW = {0};
+        private final Scan scan;
+        private final RowHandler<Result> sink;
+        private final long start = System.nanoTime();
+        private byte[] lastRow;
+        private long rows;
+        private long bytes;
+
+        private RegionScan(Scan scan, RowHandler<Result> sink) {
+            this.scan = scan;
+            this.sink = sink;
+        }
+
+        private void read(HTableInterface table) throws IOException {
+            try (ResultScanner scanner = table.getScanner(remaining())) {
+                for (Result result = scanner.next(); result != null; result = scanner.next()) {
+                    bytes += HBaseRowUtil.sizeOf(result);
+                    try {
+                        sink.handleRow(result);
+                    } catch (Exception e) {
+                        throw new CallbackFailedException(e);
+                    }
+                    lastRow = result.getRow();
+                    rows++;
+                }
+            } catch (IOException e) {
+                if (lastRow != null && !isResumable()) {
+                    throw new DoNotRetryIOException("Region scan failed after row " + Bytes.toStringBinary(lastRow), e);
+                }
+                throw e;
+            }
+        }
+
+        private Scan remaining() throws IOException {
+            if (lastRow == null) {
+                return scan;
+            }
+            Scan rest = new Scan(scan);
+            rest.setStartRow(Bytes.add(lastRow, NEXT_ROW));
+            return rest;
+        }
+
+        private boolean isResumable() {
+            return scan.getBatch() <= 0 && !scan.isReversed();
+        }
+    }
+}
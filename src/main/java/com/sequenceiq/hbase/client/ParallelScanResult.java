@@ -0,0 +1,39 @@
+package com.sequenceiq.hbase.client;
+
+import java.util.Collections;
+import java.util.List;
+
+public class ParallelScanResult<T> {
+
+    private final List<T> rows;
+    private final List<RegionScanStatistics> regionStatistics;
+
+    public ParallelScanResult(List<T> rows, List<RegionScanStatistics> regionStatistics) {
+        this.rows = rows;
+        this.regionStatistics = regionStatistics;
+    }
+
+    /**
+     * Mapped rows in row key order.
+     */
+    public List<T> getRows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * Timing of the sub-scans in region order.
+     */
+    public List<RegionScanStatistics> getRegionStatistics() {
+        return Collections.unmodifiableList(regionStatistics);
+    }
+
+    public RegionScanStatistics getSlowestRegion() {
+        RegionScanStatistics slowest = null;
+        for (RegionScanStatistics statistics : regionStatistics) {
+            if (slowest == null || statistics.getElapsedMillis() > slowest.getElapsedMillis()) {
+                slowest = statistics;
+            }
+        }
+        return slowest;
+    }
+}
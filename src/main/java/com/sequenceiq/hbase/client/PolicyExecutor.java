@@ -0,0 +1,250 @@
+package com.sequenceiq.hbase.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.hadoop.hbase.DoNotRetryIOException;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.hbase.metrics.OperationMetrics;
+import com.sequenceiq.hbase.metrics.OperationType;
+
+/**
+ * Applies the {@link OperationPolicy} of an operation: retries retriable IOExceptions with exponential
+ * backoff and full jitter within the deadline and the retry budget of the operation on the table, and hedges single
+ * row gets. Hedged requests are taken from the same budget as the retries of gets, so a burst of failing scans does
+ * not use up the retries of gets of the same table. Increments and appends are never retried, a failed
+ * attempt may have been applied on the server and repeating it would count twice. Neither are check-and-mutates,
+ * a repeated check fails against the applied mutation and reports a wrong result, nor arbitrary table callbacks.
+ */
+class PolicyExecutor {
+
+    static final long NO_DEADLINE = Long.MAX_VALUE;
+    private static final Logger LOGGER = LoggerFactory.getLogger(PolicyExecutor.class);
+    private static final long HEDGE_DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int MAX_BACKOFF_SHIFT = 30;
+    private static final int OPERATIONS = OperationType.values().length;
+    private final ConcurrentMap<String, AtomicReferenceArray<RetryBudget>> budgets = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, HedgeDelay> hedgeDelays = new ConcurrentHashMap<>();
+    private final HBaseOperations operations;
+
+    PolicyExecutor(HBaseOperations operations) {
+        this.operations = operations;
+    }
+
+    <T> T call(String tableName, OperationType operation, OperationPolicy policy, Attempt<T> attempt) {
+        long deadline = policy.getTimeoutMillis() > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(policy.getTimeoutMillis()) : NO_DEADLINE;
+        RetryBudget budget = getBudget(tableName, operation, policy);
+        budget.deposit();
+        for (int attemptNumber = 1;; attemptNumber++) {
+            try {
+                return attempt.run(deadline);
+            } catch (HBaseOperationException e) {
+                long backoff = backoffNanos(policy, attemptNumber);
+                if (!isIdempotent(operation) || !shouldRetry(e, policy, attemptNumber, remainingNanos(deadline) - backoff)) {
+                    throw e;
+                }
+                OperationMetrics metrics = operations.getMetrics().getOperationMetrics(tableName, operation);
+                if (!budget.tryWithdraw()) {
+                    metrics.recordRejectedRetry();
+                    throw e;
+                }
+                metrics.recordRetry();
+                LOGGER.warn("Retrying {} on table {} in {} ms, attempt {} failed: {}", operation, tableName, TimeUnit.NANOSECONDS.toMillis(backoff),
+                        attemptNumber, e.getCause());
+                sleep(backoff, e);
+            }
+        }
+    }
+
+    /**
+     * Sends the get on a thread of the executor and a second time if no answer arrived within the hedge delay,
+     * the first successful answer is returned. Both requests use their own table handle.
+     */
+    Result hedge(final String tableName, final Get get, OperationPolicy policy, final long deadline) {
+        CompletionService<Result> completion = new ExecutorCompletionService<>(operations.getExecutor());
+        Callable<Result> fetch = new Callable<Result>() {
+            @Override
+            public Result call() {
+                return operations.attempt(tableName, new TableCallback<Result>() {
+                    @Override
+                    public Result doInTable(HTableInterface table) throws Exception {
+                        return table.get(get);
+                    }
+                }, true, deadline);
+            }
+        };
+        List<Future<Result>> futures = new ArrayList<>(2);
+        futures.add(completion.submit(fetch));
+        try {
+            Future<Result> done = completion.poll(Math.min(getHedgeDelayNanos(tableName, policy), remainingNanos(deadline)), TimeUnit.NANOSECONDS);
+            if (done == null && remainingNanos(deadline) > 0 && getBudget(tableName, OperationType.GET, policy).tryWithdraw()) {
+                operations.getMetrics().getOperationMetrics(tableName, OperationType.GET).recordHedge();
+                futures.add(completion.submit(fetch));
+            }
+            return awaitFirst(completion, done, futures.size(), deadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HBaseOperationException(e);
+        } finally {
+            for (Future<Result> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * IO errors that may go away when the call is repeated, e.g. region moves or server timeouts.
+     */
+    static boolean isTransient(Throwable cause) {
+        return cause instanceof IOException && !(cause instanceof DoNotRetryIOException) && !(cause instanceof InterruptedIOException);
+    }
+
+    static boolean isIdempotent(OperationType operation) {
+        switch (operation) {
+            case INCREMENT:
+            case APPEND:
+            case CHECK_AND_MUTATE:
+            case EXECUTE:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    static long remainingNanos(long deadline) {
+        return deadline == NO_DEADLINE ? Long.MAX_VALUE : deadline - System.nanoTime();
+    }
+
+    /**
+     * Limits the operation timeout of HTable handles to the time left until the deadline and returns
+     * the previous timeout, or -1 if the timeout was not changed.
+     */
+    static int limitTimeout(HTableInterface table, long deadline) {
+        if (deadline == NO_DEADLINE || !(table instanceof HTable)) {
+            return -1;
+        }
+        HTable hTable = (HTable) table;
+        int previous = hTable.getOperationTimeout();
+        long remaining = Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos(deadline)));
+        if (remaining < previous) {
+            hTable.setOperationTimeout((int) remaining);
+        }
+        return previous;
+    }
+
+    static void restoreTimeout(HTableInterface table, int previous) {
+        if (previous >= 0) {
+            ((HTable) table).setOperationTimeout(previous);
+        }
+    }
+
+    private Result awaitFirst(CompletionService<Result> completion, Future<Result> first, int pending, long deadline)
+            throws InterruptedException {
+        Future<Result> done = first;
+        HBaseOperationException failure = null;
+        for (int i = 0; i < pending; i++) {
+            if (done == null) {
+                done = completion.poll(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+            }
+            if (done == null) {
+                throw new HBaseOperationException(new TimeoutException("No answer within the deadline"));
+            }
+            try {
+                return done.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                failure = cause instanceof HBaseOperationException ? (HBaseOperationException) cause : new HBaseOperationException(cause);
+            }
+            done = null;
+        }
+        throw failure;
+    }
+
+    private RetryBudget getBudget(String tableName, OperationType operation, OperationPolicy policy) {
+        AtomicReferenceArray<RetryBudget> tableBudgets = budgets.get(tableName);
+        if (tableBudgets == null) {
+            AtomicReferenceArray<RetryBudget> created = new AtomicReferenceArray<>(OPERATIONS);
+            tableBudgets = budgets.putIfAbsent(tableName, created);
+            if (tableBudgets == null) {
+                tableBudgets = created;
+            }
+        }
+        RetryBudget budget = tableBudgets.get(operation.ordinal());
+        if (budget == null) {
+            RetryBudget created = new RetryBudget(policy.getRetryBudgetRatio(), policy.getMinRetriesPerSecond());
+            if (tableBudgets.compareAndSet(operation.ordinal(), null, created)) {
+                budget = created;
+            } else {
+                budget = tableBudgets.get(operation.ordinal());
+            }
+        }
+        return budget;
+    }
+
+    private long getHedgeDelayNanos(String tableName, OperationPolicy policy) {
+        HedgeDelay delay = hedgeDelays.get(tableName);
+        long now = System.nanoTime();
+        if (delay == null || now - delay.refreshed > HEDGE_DELAY_REFRESH_NANOS) {
+            long percentile = operations.getMetrics().getOperationMetrics(tableName, OperationType.GET).getLatency()
+                    .getPercentile(policy.getHedgePercentile());
+            delay = new HedgeDelay(percentile, now);
+            hedgeDelays.put(tableName, delay);
+        }
+        return Math.max(TimeUnit.MILLISECONDS.toNanos(policy.getMinHedgeDelayMillis()), delay.nanos);
+    }
+
+    private static boolean shouldRetry(HBaseOperationException e, OperationPolicy policy, int attemptNumber, long remainingAfterBackoff) {
+        return !(e instanceof CallbackFailedException) && isTransient(e.getCause()) && attemptNumber < policy.getMaxAttempts() && remainingAfterBackoff > 0;
+    }
+
+    private static long backoffNanos(OperationPolicy policy, int attemptNumber) {
+        long ceiling = Math.min(policy.getMaxBackoffMillis(), policy.getInitialBackoffMillis() << Math.min(attemptNumber - 1, MAX_BACKOFF_SHIFT));
+        return TimeUnit.MILLISECONDS.toNanos(ThreadLocalRandom.current().nextLong(Math.max(0, ceiling) + 1));
+    }
+
+    private static void sleep(long nanos, HBaseOperationException failure) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+    }
+
+    /**
+     * One attempt of an operation, the deadline is a {@link System#nanoTime()} value or {@link #NO_DEADLINE}.
+     */
+    interface Attempt<T> {
+        T run(long deadline);
+    }
+
+    private static final class HedgeDelay {
+
+        private final long nanos;
+        private final long refreshed;
+
+        private HedgeDelay(long nanos, long refreshed) {
+            this.nanos = nanos;
+            this.refreshed = refreshed;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.sequenceiq.hbase.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.HTableInterfaceFactory;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded pool of table handles in front of another factory. Checkout and return are
+ * lock-free in the uncontended case: a semaphore bounds the handles of a table and
+ * idle handles are kept in a LIFO deque so the least recently used ones are evicted first.
+ */
+class PooledTableFactory implements HTableInterfaceFactory, Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PooledTableFactory.class);
+    private final ConcurrentMap<String, TableSlots> pools = new ConcurrentHashMap<>();
+    private final HTableInterfaceFactory delegate;
+    private final TablePoolConfig config;
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    PooledTableFactory(HTableInterfaceFactory delegate, TablePoolConfig config) {
+        this.delegate = delegate;
+        this.config = config;
+        if (config.getIdleTimeoutMillis() > 0) {
+            evictor = Executors.newSingleThreadScheduledExecutor(Threads.newDaemonThreadFactory("hbase-table-pool-evictor"));
+            evictor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    evictIdle();
+                }
+            }, config.getEvictionIntervalMillis(), config.getEvictionIntervalMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            evictor = null;
+        }
+    }
+
+    @Override
+    public HTableInterface createHTableInterface(Configuration configuration, byte[] tableName) {
+        if (closed) {
+            throw new HBaseOperationException("Table pool is closed");
+        }
+        String name = Bytes.toString(tableName);
+        TableSlots slots = getSlots(name);
+        slots.acquire();
+        IdleTable idle = slots.idle.pollFirst();
+        if (idle != null) {
+            slots.idleCount.decrementAndGet();
+            return idle.table;
+        }
+        try {
+            LOGGER.debug("Create pooled HBASE table: {}", name);
+            return delegate.createHTableInterface(configuration, tableName);
+        } catch (RuntimeException e) {
+            slots.permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void releaseHTableInterface(HTableInterface table) throws IOException {
+        TableSlots slots = pools.get(table.getName().getNameAsString());
+        if (slots == null || closed) {
+            delegate.releaseHTableInterface(table);
+        } else {
+            slots.idle.offerFirst(new IdleTable(table, System.currentTimeMillis()));
+            slots.idleCount.incrementAndGet();
+            slots.permits.release();
+        }
+    }
+
+    public TablePoolStatistics getStatistics(String tableName) {
+        TableSlots slots = pools.get(tableName);
+        return slots == null ? new TablePoolStatistics(tableName, 0, 0, 0, 0, 0, 0) : slots.statistics(tableName);
+    }
+
+    public List<TablePoolStatistics> getStatistics() {
+        List<TablePoolStatistics> statistics = new ArrayList<>(pools.size());
+        for (Map.Entry<String, TableSlots> entry : pools.entrySet()) {
+            statistics.add(entry.getValue().statistics(entry.getKey()));
+        }
+        return statistics;
+    }
+
+    void evictIdle() {
+        long deadline = System.currentTimeMillis() - config.getIdleTimeoutMillis();
+        for (TableSlots slots : pools.values()) {
+            IdleTable oldest = slots.idle.peekLast();
+            while (oldest != null && oldest.since < deadline) {
+                if (slots.idle.removeLastOccurrence(oldest)) {
+                    slots.idleCount.decrementAndGet();
+                    releaseQuietly(oldest.table);
+                }
+                oldest = slots.idle.peekLast();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        for (TableSlots slots : pools.values()) {
+            IdleTable idle = slots.idle.pollFirst();
+            while (idle != null) {
+                slots.idleCount.decrementAndGet();
+                releaseQuietly(idle.table);
+                idle = slots.idle.pollFirst();
+            }
+        }
+        if (delegate instanceof Closeable) {
+            ((Closeable) delegate).close();
+        }
+    }
+
+    private TableSlots getSlots(String tableName) {
+        TableSlots slots = pools.get(tableName);
+        if (slots == null) {
+            TableSlots newSlots = new TableSlots(config.getMaxSize());
+            slots = pools.putIfAbsent(tableName, newSlots);
+            if (slots == null) {
+                slots = newSlots;
+            }
+        }
+        return slots;
+    }
+
+    private void releaseQuietly(HTableInterface table) {
+        try {
+            delegate.releaseHTableInterface(table);
+        } catch (IOException e) {
+            LOGGER.warn("Cannot release idle HBASE table", e);
+        }
+    }
+
+    private static final class IdleTable {
+        private final HTableInterface table;
+        private final long since;
+
+        private IdleTable(HTableInterface table, long since) {
+            this.table = table;
+            this.since = since;
+        }
+    }
+
+    private final class TableSlots {
+        private final ConcurrentLinkedDeque<IdleTable> idle = new ConcurrentLinkedDeque<>();
+        private final AtomicInteger idleCount = new AtomicInteger();
+        private final AtomicInteger waiters = new AtomicInteger();
+        private final AtomicLong waitCount = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final Semaphore permits;
+        private final int maxSize;
+
+        private TableSlots(int maxSize) {
+            this.maxSize = maxSize;
+            this.permits = new Semaphore(maxSize);
+        }
+
+        private void acquire() {
+            if (permits.tryAcquire()) {
+                return;
+            }
+            waiters.incrementAndGet();
+            long start = System.nanoTime();
+            boolean acquired = false;
+            try {
+                acquired = permits.tryAcquire(config.getMaxWaitMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new HBaseOperationException(e);
+            } finally {
+                waiters.decrementAndGet();
+                recordWait(System.nanoTime() - start);
+            }
+            if (!acquired) {
+                throw new HBaseOperationException("Timed out waiting for a table handle after " + config.getMaxWaitMillis() + " ms");
+            }
+        }
+
+        private void recordWait(long nanos) {
+            waitCount.incrementAndGet();
+            totalWaitNanos.addAndGet(nanos);
+            long max = maxWaitNanos.get();
+            while (nanos > max && !maxWaitNanos.compareAndSet(max, nanos)) {
+                max = maxWaitNanos.get();
+            }
+        }
+
+        private TablePoolStatistics statistics(String tableName) {
+            return new TablePoolStatistics(tableName, maxSize - permits.availablePermits(), idleCount.get(), waiters.get(),
+                    waitCount.get(), totalWaitNanos.get(), maxWaitNanos.get());
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package com.sequenceiq.hbase.client;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.BinaryComparator;
+import org.apache.hadoop.hbase.filter.ColumnPaginationFilter;
+import org.apache.hadoop.hbase.filter.CompareFilter.CompareOp;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.PageFilter;
+import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
+import org.apache.hadoop.hbase.filter.ValueFilter;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Fluent description of a scan or a get whose row range, projection and filters are evaluated by the region
+ * servers, only the selected cells are sent over the wire. Filters are combined so that a row has to pass all
+ * of them. A query is not thread safe but can be executed any number of times, every execution builds a new
+ * {@link Scan} or {@link Get}.
+ */
+public class Query {
+
+    private static final byte MAX_BYTE = (byte) 0xFF;
+
+    private final HBaseOperations operations;
+    private final String tableName;
+    private final List<byte[][]> columns = new ArrayList<>();
+    private final List<byte[][]> whereColumns = new ArrayList<>();
+    private final List<Filter> filters = new ArrayList<>();
+    private byte[] startRow = HConstants.EMPTY_START_ROW;
+    private byte[] stopRow = HConstants.EMPTY_END_ROW;
+    private long minTimestamp;
+    private long maxTimestamp = Long.MAX_VALUE;
+    private int maxVersions = 1;
+    private int limit;
+    private int caching = ScanOptions.DEFAULT_CACHING;
+    private boolean cacheBlocks = true;
+
+    Query(HBaseOperations operations, String tableName) {
+        this.operations = operations;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Rows from the start row inclusive to the stop row exclusive, null means unbounded.
+     */
+    public Query range(String start, String stop) {
+        return range(start == null ? null : Bytes.toBytes(start), stop == null ? null : Bytes.toBytes(stop));
+    }
+
+    public Query range(byte[] start, byte[] stop) {
+        this.startRow = start == null ? HConstants.EMPTY_START_ROW : start;
+        this.stopRow = stop == null ? HConstants.EMPTY_END_ROW : stop;
+        return this;
+    }
+
+    /**
+     * Rows whose key starts with the prefix, translated to a row range so no region outside of it is touched.
+     */
+    public Query prefix(String prefix) {
+        return prefix(Bytes.toBytes(prefix));
+    }
+
+    public Query prefix(byte[] prefix) {
+        return range(prefix, stopRowOf(prefix));
+    }
+
+    public Query family(String family) {
+        columns.add(new byte[][]{Bytes.toBytes(family), null});
+        return this;
+    }
+
+    public Query column(String family, String qualifier) {
+        columns.add(new byte[][]{Bytes.toBytes(family), Bytes.toBytes(qualifier)});
+        return this;
+    }
+
+    public Query columns(String family, String... qualifiers) {
+        for (String qualifier : qualifiers) {
+            column(family, qualifier);
+        }
+        return this;
+    }
+
+    /**
+     * Returns at most limit columns of every row starting with the offset-th column, to page through wide rows.
+     */
+    public Query columnPage(int limit, int offset) {
+        if (limit < 1 || offset < 0) {
+            throw new IllegalArgumentException("Invalid column page, limit: " + limit + ", offset: " + offset);
+        }
+        return filter(new ColumnPaginationFilter(limit, offset));
+    }
+
+    /**
+     * Keeps only the rows whose latest value of the column compares to the value, rows without the column are
+     * dropped. The region servers can only test a column that is read, so a column outside of the selected ones
+     * is added to the projection of the built scan or get and stripped from the results before they are mapped.
+     */
+    public Query where(String family, String qualifier, CompareOp op, byte[] value) {
+        byte[][] column = new byte[][]{Bytes.toBytes(family), Bytes.toBytes(qualifier)};
+        whereColumns.add(column);
+        SingleColumnValueFilter filter = new SingleColumnValueFilter(column[0], column[1], op, value);
+        filter.setFilterIfMissing(true);
+        filter.setLatestVersionOnly(true);
+        return filter(filter);
+    }
+
+    public Query whereEquals(String family, String qualifier, String value) {
+        return where(family, qualifier, CompareOp.EQUAL, Bytes.toBytes(value));
+    }
+
+    /**
+     * Keeps only the cells whose value compares to the given one.
+     */
+    public Query value(CompareOp op, byte[] value) {
+        return filter(new ValueFilter(op, new BinaryComparator(value)));
+    }
+
+    /**
+     * Strips the values, only the keys of the cells are returned.
+     */
+    public Query keyOnly() {
+        return filter(new KeyOnlyFilter());
+    }
+
+    /**
+     * Returns only the first cell of every row, the cheapest way to list or count row keys.
+     */
+    public Query firstKeyOnly() {
+        return filter(new FirstKeyOnlyFilter());
+    }
+
+    /**
+     * Cells with a timestamp from min inclusive to max exclusive.
+     */
+    public Query timeRange(long min, long max) {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException("Invalid time range: [" + min + ", " + max + ")");
+        }
+        this.minTimestamp = min;
+        this.maxTimestamp = max;
+        return this;
+    }
+
+    public Query maxVersions(int versions) {
+        if (versions < 1) {
+            throw new IllegalArgumentException("Max versions must be positive: " + versions);
+        }
+        this.maxVersions = versions;
+        return this;
+    }
+
+    /**
+     * At most this many rows are returned, every region server stops after the limit as well.
+     */
+    public Query limit(int rows) {
+        if (rows < 1) {
+            throw new IllegalArgumentException("Limit must be positive: " + rows);
+        }
+        this.limit = rows;
+        return this;
+    }
+
+    public Query caching(int rows) {
+        if (rows < 1) {
+            throw new IllegalArgumentException("Caching must be positive: " + rows);
+        }
+        this.caching = rows;
+        return this;
+    }
+
+    /**
+     * Whether the scanned blocks are put into the block cache of the region servers, worth disabling for large scans.
+     */
+    public Query cacheBlocks(boolean cache) {
+        this.cacheBlocks = cache;
+        return this;
+    }
+
+    public Query filter(Filter filter) {
+        filters.add(filter);
+        return this;
+    }
+
+    public Scan toScan() {
+        Scan scan = new Scan(startRow, stopRow);
+        for (byte[][] column : columns) {
+            if (column[1] == null) {
+                scan.addFamily(column[0]);
+            } else {
+                scan.addColumn(column[0], column[1]);
+            }
+        }
+        for (byte[][] column : getHiddenColumns()) {
+            scan.addColumn(column[0], column[1]);
+        }
+        try {
+            scan.setTimeRange(minTimestamp, maxTimestamp);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+        scan.setMaxVersions(maxVersions);
+        scan.setCaching(limit > 0 ? Math.min(caching, limit) : caching);
+        scan.setCacheBlocks(cacheBlocks);
+        Filter filter = limit > 0 ? combine(new PageFilter(limit)) : combine(null);
+        if (filter != null) {
+            scan.setFilter(filter);
+        }
+        return scan;
+    }
+
+    /**
+     * Get of the row with the projection, filters, time range and versions of the query, the row range and
+     * the limit do not apply.
+     */
+    public Get toGet(String rowKey) {
+        return toGet(Bytes.toBytes(rowKey));
+    }
+
+    /**
+     * Fetches one row, the row cache is bypassed as the cached rows are not filtered.
+     */
+    public <T> T get(String rowKey, RowMapper<T> mapper) {
+        return operations.load(tableName, toGet(operations.toRowKey(tableName, rowKey)), project(mapper), true);
+    }
+
+    /**
+     * Scans the matching rows into a list.
+     */
+    public <T> List<T> list(RowMapper<T> rowMapper) {
+        final RowMapper<T> mapper = project(rowMapper);
+        return operations.scan(tableName, toScan(), new ResultExtractor<List<T>>() {
+            @Override
+            public List<T> extractData(ResultScanner scanner) throws Exception {
+                List<T> rows = new ArrayList<>();
+                for (Result result = scanner.next(); result != null; result = scanner.next()) {
+                    rows.add(mapper.mapRow(result));
+                    if (rows.size() == limit) {
+                        break;
+                    }
+                }
+                return rows;
+            }
+        }, true);
+    }
+
+    /**
+     * Opens a scanner over the matching rows, the caller must close the returned iterator. The limit is only
+     * applied per region here, the caller stops iterating when it has enough.
+     */
+    public <T> ScanIterator<T> iterate(RowMapper<T> mapper) {
+        return operations.iterate(tableName, toScan(), project(mapper), scanOptions());
+    }
+
+    public <T> Stream<T> stream(RowMapper<T> mapper) {
+        Stream<T> stream = operations.stream(tableName, toScan(), project(mapper), scanOptions());
+        return limit > 0 ? stream.limit(limit) : stream;
+    }
+
+    public <T> ParallelScanResult<T> parallelScan(RowMapper<T> mapper, int parallelism) {
+        return operations.parallelScan(tableName, toScan(), project(mapper), parallelism);
+    }
+
+    private Get toGet(byte[] row) {
+        Get get = new Get(row);
+        for (byte[][] column : columns) {
+            if (column[1] == null) {
+                get.addFamily(column[0]);
+            } else {
+                get.addColumn(column[0], column[1]);
+            }
+        }
+        for (byte[][] column : getHiddenColumns()) {
+            get.addColumn(column[0], column[1]);
+        }
+        try {
+            get.setTimeRange(minTimestamp, maxTimestamp);
+            get.setMaxVersions(maxVersions);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+        get.setCacheBlocks(cacheBlocks);
+        Filter filter = combine(null);
+        if (filter != null) {
+            get.setFilter(filter);
+        }
+        return get;
+    }
+
+    /**
+     * Columns only read to evaluate a where clause: none if the whole row is read, otherwise the where columns
+     * not covered by a selected family or column.
+     */
+    private List<byte[][]> getHiddenColumns() {
+        List<byte[][]> hidden = new ArrayList<>();
+        if (columns.isEmpty()) {
+            return hidden;
+        }
+        for (byte[][] column : whereColumns) {
+            if (!isSelected(column)) {
+                hidden.add(column);
+            }
+        }
+        return hidden;
+    }
+
+    private boolean isSelected(byte[][] column) {
+        for (byte[][] selected : columns) {
+            if (Bytes.equals(selected[0], column[0]) && (selected[1] == null || Bytes.equals(selected[1], column[1]))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private <T> RowMapper<T> project(final RowMapper<T> mapper) {
+        final List<byte[][]> hidden = getHiddenColumns();
+        if (hidden.isEmpty()) {
+            return mapper;
+        }
+        return new RowMapper<T>() {
+            @Override
+            public T mapRow(Result result) throws Exception {
+                return mapper.mapRow(strip(result, hidden));
+            }
+        };
+    }
+
+    private ScanOptions scanOptions() {
+        ScanOptions options = new ScanOptions();
+        options.setCaching(limit > 0 ? Math.min(caching, limit) : caching);
+        return options;
+    }
+
+    private Filter combine(Filter extra) {
+        List<Filter> all = new ArrayList<>(filters);
+        if (extra != null) {
+            all.add(extra);
+        }
+        if (all.isEmpty()) {
+            return null;
+        }
+        return all.size() == 1 ? all.get(0) : new FilterList(FilterList.Operator.MUST_PASS_ALL, all);
+    }
+
+    private static Result strip(Result result, List<byte[][]> hidden) {
+        Cell[] cells = result.rawCells();
+        if (cells == null) {
+            return result;
+        }
+        List<Cell> kept = new ArrayList<>(cells.length);
+        for (Cell cell : cells) {
+            if (!isHidden(cell, hidden)) {
+                kept.add(cell);
+            }
+        }
+        return kept.size() == cells.length ? result : Result.create(kept);
+    }
+
+    private static boolean isHidden(Cell cell, List<byte[][]> hidden) {
+        for (byte[][] column : hidden) {
+            if (CellUtil.matchingFamily(cell, column[0]) && CellUtil.matchingQualifier(cell, column[1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * First row key after every key starting with the prefix: the prefix with its last byte below 0xFF
+     * incremented and the rest cut off, the end of the table if every byte is 0xFF.
+     */
+    static byte[] stopRowOf(byte[] prefix) {
+        for (int i = prefix.length - 1; i >= 0; i--) {
+            if (prefix[i] != MAX_BYTE) {
+                byte[] stop = Arrays.copyOf(prefix, i + 1);
+                stop[i]++;
+                return stop;
+            }
+        }
+        return HConstants.EMPTY_END_ROW;
+    }
+}
@@ -0,0 +1,45 @@
+package com.sequenceiq.hbase.client;
+
+import org.apache.hadoop.hbase.util.Bytes;
+
+public class RegionScanStatistics {
+
+    private final byte[] startKey;
+    private final byte[] endKey;
+    private final long rows;
+    private final long elapsedMillis;
+
+    public RegionScanStatistics(byte[] startKey, byte[] endKey, long rows, long elapsedMillis) {
+        this.startKey = startKey;
+        this.endKey = endKey;
+        this.rows = rows;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public byte[] getStartKey() {
+        return startKey;
+    }
+
+    public byte[] getEndKey() {
+        return endKey;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("RegionScanStatistics{");
+        sb.append("startKey='").append(Bytes.toStringBinary(startKey)).append('\'');
+        sb.append(", endKey='").append(Bytes.toStringBinary(endKey)).append('\'');
+        sb.append(", rows=").append(rows);
+        sb.append(", elapsedMillis=").append(elapsedMillis);
+        sb.append('}');
+        return sb.toString();
+    }
+}
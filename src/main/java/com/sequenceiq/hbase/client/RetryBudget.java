@@ -0,0 +1,60 @@
+package com.sequenceiq.hbase.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket limiting the retries of an operation on a table: every call deposits a fraction of a token, every
+ * retry takes a whole one and the bucket is refilled with the minimum retry rate over time.
+ * Keeps a failing cluster from being hit with a multiple of the regular load.
+ */
+class RetryBudget {
+
+    private static final long SCALE = 1000;
+    private static final long BUFFERED_SECONDS = 10;
+    private final long depositPerCall;
+    private final long refillPerSecond;
+    private final long capacity;
+    private final AtomicLong balance;
+    private final AtomicLong lastRefill;
+
+    RetryBudget(double ratio, int minRetriesPerSecond) {
+        depositPerCall = (long) (ratio * SCALE);
+        refillPerSecond = minRetriesPerSecond * SCALE;
+        capacity = Math.max(SCALE, refillPerSecond * BUFFERED_SECONDS);
+        balance = new AtomicLong(refillPerSecond);
+        lastRefill = new AtomicLong(System.nanoTime());
+    }
+
+    void deposit() {
+        add(depositPerCall);
+    }
+
+    boolean tryWithdraw() {
+        refill();
+        long current = balance.get();
+        while (current >= SCALE) {
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+            current = balance.get();
+        }
+        return false;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        long last = lastRefill.get();
+        long elapsed = now - last;
+        if (elapsed >= TimeUnit.MILLISECONDS.toNanos(1) && lastRefill.compareAndSet(last, now)) {
+            add(refillPerSecond * TimeUnit.NANOSECONDS.toMillis(elapsed) / TimeUnit.SECONDS.toMillis(1));
+        }
+    }
+
+    private void add(long tokens) {
+        long current = balance.get();
+        while (current < capacity && !balance.compareAndSet(current, Math.min(capacity, current + tokens))) {
+            current = balance.get();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.sequenceiq.hbase.client;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hbase.HConstants;
+
+/**
+ * Inverts every bit of the fixed width timestamp the row keys start with, so the newest rows come first. Works
+ * for binary timestamps as well as zero padded decimal strings. The timestamps stay monotonic, so this is usually
+ * combined with a {@link SaltedKeyStrategy} to avoid a hot region. The bounds of range scans must be timestamps of
+ * the same width: the rows from the start timestamp inclusive to the stop timestamp exclusive are returned, newest first.
+ */
+public class ReversedTimestampKeyStrategy implements RowKeyStrategy {
+
+    public static final int LONG_WIDTH = 8;
+    private final int width;
+
+    public ReversedTimestampKeyStrategy() {
+        this(LONG_WIDTH);
+    }
+
+    public ReversedTimestampKeyStrategy(int width) {
+        if (width < 1) {
+            throw new IllegalArgumentException("Timestamp width must be positive: " + width);
+        }
+        this.width = width;
+    }
+
+    @Override
+    public byte[] toRowKey(byte[] logicalKey) {
+        if (logicalKey.length < width) {
+            throw new IllegalArgumentException("Row key is shorter than the timestamp width " + width);
+        }
+        return invert(logicalKey);
+    }
+
+    @Override
+    public byte[] toLogicalKey(byte[] rowKey) {
+        return invert(rowKey);
+    }
+
+    @Override
+    public List<byte[][]> toRowRanges(byte[] logicalStart, byte[] logicalStop) {
+        byte[] start = isEmpty(logicalStop) ? HConstants.EMPTY_START_ROW : Query.stopRowOf(invert(checkWidth(logicalStop)));
+        byte[] stop = isEmpty(logicalStart) ? HConstants.EMPTY_END_ROW : Query.stopRowOf(invert(checkWidth(logicalStart)));
+        return Collections.singletonList(new byte[][]{start, stop});
+    }
+
+    @Override
+    public int getPrefixLength() {
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ReversedTimestampKeyStrategy{width=" + width + '}';
+    }
+
+    private byte[] invert(byte[] key) {
+        byte[] inverted = key.clone();
+        for (int i = 0; i < width && i < inverted.length; i++) {
+            inverted[i] = (byte) ~inverted[i];
+        }
+        return inverted;
+    }
+
+    private byte[] checkWidth(byte[] bound) {
+        if (bound.length != width) {
+            throw new IllegalArgumentException("Scan bounds must be timestamps of width " + width);
+        }
+        return bound;
+    }
+
+    private static boolean isEmpty(byte[] key) {
+        return key == null || key.length == 0;
+    }
+}
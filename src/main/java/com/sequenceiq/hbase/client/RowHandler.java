@@ -0,0 +1,5 @@
+package com.sequenceiq.hbase.client;
+
+public interface RowHandler<T> {
+    void handleRow(T row) throws Exception;
+}
@@ -0,0 +1,27 @@
+package com.sequenceiq.hbase.client;
+
+import java.util.List;
+
+/**
+ * Maps the row keys seen by the application to the row keys stored in the table, e.g. to spread monotonic keys
+ * over the regions. Set per table with {@link HBaseOperations#setRowKeyStrategy(String, RowKeyStrategy)}, puts and
+ * gets are translated and results carry the logical keys again.
+ */
+public interface RowKeyStrategy {
+
+    byte[] toRowKey(byte[] logicalKey);
+
+    byte[] toLogicalKey(byte[] rowKey);
+
+    /**
+     * Stored row ranges, start inclusive and stop exclusive, that together contain the rows of the logical range.
+     * Null or empty bounds are unbounded. Every range is scanned separately and the ranges are merged by comparing
+     * the stored row keys after the {@link #getPrefixLength() prefix}.
+     */
+    List<byte[][]> toRowRanges(byte[] logicalStart, byte[] logicalStop);
+
+    /**
+     * Length of the bucket prefix the stored row keys start with, zero if the stored keys are not bucketed.
+     */
+    int getPrefixLength();
+}
@@ -0,0 +1,72 @@
+package com.sequenceiq.hbase.client;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.RowMutations;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Puts and deletes of one row applied atomically by {@link HBaseOperations#mutateRow(String, String, RowMutation, boolean)}.
+ * The deletes remove every version of the cells. Puts and deletes get the same server timestamp, so a cell must not be
+ * deleted and put in the same mutation.
+ */
+public class RowMutation {
+
+    private final List<String[]> puts = new ArrayList<>();
+    private final List<String[]> deletes = new ArrayList<>();
+
+    public RowMutation put(String family, String qualifier, String value) {
+        puts.add(new String[]{family, qualifier, value});
+        return this;
+    }
+
+    public RowMutation delete(String family, String qualifier) {
+        deletes.add(new String[]{family, qualifier});
+        return this;
+    }
+
+    public RowMutation deleteFamily(String family) {
+        deletes.add(new String[]{family, null});
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return puts.isEmpty() && deletes.isEmpty();
+    }
+
+    RowMutations toRowMutations(byte[] row) throws IOException {
+        RowMutations mutations = new RowMutations(row);
+        if (!deletes.isEmpty()) {
+            Delete delete = new Delete(row);
+            for (String[] column : deletes) {
+                if (column[1] == null) {
+                    delete.deleteFamily(Bytes.toBytes(column[0]));
+                } else {
+                    delete.deleteColumns(Bytes.toBytes(column[0]), Bytes.toBytes(column[1]));
+                }
+            }
+            mutations.add(delete);
+        }
+        if (!puts.isEmpty()) {
+            Put put = new Put(row);
+            for (String[] cell : puts) {
+                put.add(Bytes.toBytes(cell[0]), Bytes.toBytes(cell[1]), Bytes.toBytes(cell[2]));
+            }
+            mutations.add(put);
+        }
+        return mutations;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("RowMutation{");
+        sb.append("puts=").append(puts.size());
+        sb.append(", deletes=").append(deletes.size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,130 @@
+package com.sequenceiq.hbase.client;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Hash;
+import org.apache.hadoop.hbase.util.MurmurHash3;
+
+/**
+ * Prefixes the row keys with a one byte salt, the murmur hash of the key modulo the number of buckets. Consecutive
+ * keys land in different buckets and so on different regions if the table is pre-split at the salts, see
+ * {@link #splitKeys(int)}. A range scan runs once per bucket, the rows are merged back into key order. The keys
+ * can be transformed by a delegate before they are salted, e.g. a {@link ReversedTimestampKeyStrategy}.
+ */
+public class SaltedKeyStrategy implements RowKeyStrategy {
+
+    public static final int MAX_BUCKETS = 256;
+    private static final Hash HASH = MurmurHash3.getInstance();
+    private static final int BYTE_MASK = 0xFF;
+    private final int buckets;
+    private final RowKeyStrategy delegate;
+
+    public SaltedKeyStrategy(int buckets) {
+        this(buckets, null);
+    }
+
+    public SaltedKeyStrategy(int buckets, RowKeyStrategy delegate) {
+        if (buckets < 1 || buckets > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Number of buckets must be between 1 and " + MAX_BUCKETS + ": " + buckets);
+        }
+        this.buckets = buckets;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Strategy for a table pre-split with {@link #splitKeys(int)}, the number of buckets is derived from the first byte
+     * of the region start keys so later region splits do not change it. Fails if a bucket does not start a region
+     * of its own, the table was then not pre-split for salting.
+     */
+    public static SaltedKeyStrategy forRegions(byte[][] startKeys, RowKeyStrategy delegate) {
+        int buckets = 1;
+        BitSet splits = new BitSet(MAX_BUCKETS);
+        for (byte[] startKey : startKeys) {
+            if (startKey.length > 0) {
+                int salt = startKey[0] & BYTE_MASK;
+                buckets = Math.max(buckets, salt + 1);
+                if (startKey.length == 1) {
+                    splits.set(salt);
+                }
+            }
+        }
+        int missing = splits.nextClearBit(1);
+        if (missing < buckets) {
+            throw new IllegalArgumentException("Table is not pre-split for " + buckets + " salt buckets, no region starts at bucket " + missing);
+        }
+        return new SaltedKeyStrategy(buckets, delegate);
+    }
+
+    /**
+     * Split keys giving every bucket its own region.
+     */
+    public static byte[][] splitKeys(int buckets) {
+        byte[][] keys = new byte[buckets - 1][];
+        for (int i = 1; i < buckets; i++) {
+            keys[i - 1] = new byte[]{(byte) i};
+        }
+        return keys;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    @Override
+    public byte[] toRowKey(byte[] logicalKey) {
+        byte[] key = delegate == null ? logicalKey : delegate.toRowKey(logicalKey);
+        byte[] rowKey = new byte[key.length + 1];
+        rowKey[0] = (byte) ((HASH.hash(key, 0, key.length, 0) & Integer.MAX_VALUE) % buckets);
+        System.arraycopy(key, 0, rowKey, 1, key.length);
+        return rowKey;
+    }
+
+    @Override
+    public byte[] toLogicalKey(byte[] rowKey) {
+        byte[] key = Bytes.tail(rowKey, rowKey.length - 1);
+        return delegate == null ? key : delegate.toLogicalKey(key);
+    }
+
+    @Override
+    public List<byte[][]> toRowRanges(byte[] logicalStart, byte[] logicalStop) {
+        List<byte[][]> keyRanges = delegate == null
+                ? Collections.singletonList(new byte[][]{logicalStart, logicalStop}) : delegate.toRowRanges(logicalStart, logicalStop);
+        List<byte[][]> ranges = new ArrayList<>(buckets * keyRanges.size());
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            byte[] salt = {(byte) bucket};
+            for (byte[][] range : keyRanges) {
+                byte[] start = isEmpty(range[0]) ? salt : Bytes.add(salt, range[0]);
+                byte[] stop = isEmpty(range[1]) ? endOf(bucket) : Bytes.add(salt, range[1]);
+                ranges.add(new byte[][]{start, stop});
+            }
+        }
+        return ranges;
+    }
+
+    @Override
+    public int getPrefixLength() {
+        return 1 + (delegate == null ? 0 : delegate.getPrefixLength());
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SaltedKeyStrategy{");
+        sb.append("buckets=").append(buckets);
+        sb.append(", delegate=").append(delegate);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static byte[] endOf(int bucket) {
+        return bucket + 1 < MAX_BUCKETS ? new byte[]{(byte) (bucket + 1)} : HConstants.EMPTY_END_ROW;
+    }
+
+    private static boolean isEmpty(byte[] key) {
+        return key == null || key.length == 0;
+    }
+}
@@ -0,0 +1,171 @@
+package com.sequenceiq.hbase.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.hbase.metrics.OperationMetrics;
+
+/**
+ * Lazily maps the rows of a scanner batch by batch. With prefetching the next batch is read by a scan thread
+ * of {@link HBaseOperations} while the current one is consumed. The iterator owns its table handle, it is released
+ * on {@link #close()}.
+ */
+public class ScanIterator<T> implements Iterator<T>, Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScanIterator.class);
+    private static final Result[] EMPTY = new Result[0];
+    private final HBaseTablePool tablePool;
+    private final String tableName;
+    private final HTableInterface table;
+    private final ResultScanner scanner;
+    private final RowMapper<T> mapper;
+    private final int caching;
+    private final boolean prefetch;
+    private final ExecutorService prefetcher;
+    private final OperationMetrics metrics;
+    private final long start = System.nanoTime();
+    private long rows;
+    private long bytes;
+    private boolean failed;
+    private Result[] current = EMPTY;
+    private int index;
+    private Future<Result[]> pending;
+    private boolean exhausted;
+    private boolean closed;
+
+    ScanIterator(HBaseTablePool tablePool, String tableName, HTableInterface table, ResultScanner scanner, RowMapper<T> mapper,
+            ScanOptions options, ExecutorService prefetcher, OperationMetrics metrics) {
+        this.tablePool = tablePool;
+        this.tableName = tableName;
+        this.table = table;
+        this.scanner = scanner;
+        this.mapper = mapper;
+        this.caching = options.getCaching();
+        this.prefetch = options.isPrefetch();
+        this.prefetcher = prefetcher;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (index < current.length) {
+            return true;
+        }
+        if (exhausted || closed) {
+            return false;
+        }
+        current = nextBatch();
+        index = 0;
+        if (current.length == 0) {
+            exhausted = true;
+            return false;
+        }
+        if (prefetch) {
+            prefetch();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Result result = current[index];
+        current[index++] = null;
+        rows++;
+        bytes += HBaseRowUtil.sizeOf(result);
+        try {
+            return mapper.mapRow(result);
+        } catch (Exception e) {
+            failed = true;
+            throw new HBaseOperationException(e);
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        current = EMPTY;
+        try {
+            awaitPending();
+        } catch (HBaseOperationException e) {
+            LOGGER.debug("Prefetch failed while closing the scanner", e);
+        } finally {
+            scanner.close();
+            metrics.recordTransfer(rows, bytes);
+            metrics.record(System.nanoTime() - start, failed);
+            releaseTable();
+        }
+    }
+
+    private void prefetch() {
+        try {
+            pending = prefetcher.submit(new Callable<Result[]>() {
+                @Override
+                public Result[] call() throws IOException {
+                    return scanner.next(caching);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Every scan thread is busy, reading the next batch of table {} on the calling thread", tableName);
+        }
+    }
+
+    private Result[] nextBatch() {
+        try {
+            return pending == null ? scanner.next(caching) : awaitPending();
+        } catch (IOException e) {
+            failed = true;
+            throw new HBaseOperationException(e);
+        } catch (HBaseOperationException e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    private Result[] awaitPending() {
+        if (pending == null) {
+            return EMPTY;
+        }
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HBaseOperationException(e);
+        } catch (ExecutionException e) {
+            throw new HBaseOperationException(e.getCause());
+        } finally {
+            pending = null;
+        }
+    }
+
+    private void releaseTable() {
+        try {
+            tablePool.releaseHTable(tableName, table);
+        } catch (IOException e) {
+            throw new HBaseOperationException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.sequenceiq.hbase.client;
+
+public class ScanOptions {
+
+    public static final int DEFAULT_CACHING = 100;
+    public static final long DEFAULT_OFF_HEAP_BYTES = 64L * 1024 * 1024;
+    public static final long DEFAULT_MAX_SPILL_BYTES = 1024L * 1024 * 1024;
+
+    private int caching = DEFAULT_CACHING;
+    private int batch;
+    private boolean prefetch = true;
+    private long offHeapBytes = DEFAULT_OFF_HEAP_BYTES;
+    private String spillDirectory;
+    private long maxSpillBytes = DEFAULT_MAX_SPILL_BYTES;
+
+    public int getCaching() {
+        return caching;
+    }
+
+    /**
+     * Number of rows fetched from the region server with one RPC, also the size of the client side batches.
+     */
+    public void setCaching(int caching) {
+        if (caching < 1) {
+            throw new IllegalArgumentException("Caching must be positive: " + caching);
+        }
+        this.caching = caching;
+    }
+
+    public int getBatch() {
+        return batch;
+    }
+
+    /**
+     * Maximum number of cells returned in one result for wide rows, zero means whole rows.
+     */
+    public void setBatch(int batch) {
+        this.batch = batch;
+    }
+
+    public boolean isPrefetch() {
+        return prefetch;
+    }
+
+    /**
+     * Fetch the next batch in the background while the current one is being processed.
+     */
+    public void setPrefetch(boolean prefetch) {
+        this.prefetch = prefetch;
+    }
+
+    public long getOffHeapBytes() {
+        return offHeapBytes;
+    }
+
+    /**
+     * Direct memory an off-heap scan may fill ahead of the caller, the scanner waits or spills when it is used up.
+     */
+    public void setOffHeapBytes(long offHeapBytes) {
+        if (offHeapBytes < 1) {
+            throw new IllegalArgumentException("Off-heap bytes must be positive: " + offHeapBytes);
+        }
+        this.offHeapBytes = offHeapBytes;
+    }
+
+    public String getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    /**
+     * Directory of the memory-mapped file off-heap scans spill to when the direct memory is used up, null disables spilling.
+     */
+    public void setSpillDirectory(String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    public long getMaxSpillBytes() {
+        return maxSpillBytes;
+    }
+
+    /**
+     * Maximum size of the spill file, the scanner waits for the caller when both the direct memory and the spill file are full.
+     */
+    public void setMaxSpillBytes(long maxSpillBytes) {
+        this.maxSpillBytes = maxSpillBytes;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ScanOptions{");
+        sb.append("caching=").append(caching);
+        sb.append(", batch=").append(batch);
+        sb.append(", prefetch=").append(prefetch);
+        sb.append(", offHeapBytes=").append(offHeapBytes);
+        sb.append(", spillDirectory=").append(spillDirectory);
+        sb.append(", maxSpillBytes=").append(maxSpillBytes);
+        sb.append('}');
+        return sb.toString();
+    }
+}
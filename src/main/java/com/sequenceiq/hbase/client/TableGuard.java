@@ -0,0 +1,90 @@
+package com.sequenceiq.hbase.client;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.hbase.metrics.HBaseMetrics;
+
+/**
+ * Bulkhead and circuit breaker of one table. A call has to {@link #acquire(HBaseMetrics) acquire} the guard
+ * before it touches the table and {@link #release(HBaseMetrics, long, Throwable) release} it with its outcome.
+ */
+class TableGuard {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TableGuard.class);
+    private final String tableName;
+    private final IsolationConfig config;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final long slowCallNanos;
+    private volatile CircuitBreaker.State reportedState;
+
+    TableGuard(String tableName, IsolationConfig config) {
+        this.tableName = tableName;
+        this.config = config;
+        this.bulkhead = config.getMaxConcurrentCalls() > 0 ? new Semaphore(config.getMaxConcurrentCalls()) : null;
+        this.circuitBreaker = config.getWindowSize() > 0 ? new CircuitBreaker(config) : null;
+        this.slowCallNanos = config.getSlowCallMillis() > 0 ? TimeUnit.MILLISECONDS.toNanos(config.getSlowCallMillis()) : Long.MAX_VALUE;
+    }
+
+    void acquire(HBaseMetrics metrics) {
+        if (bulkhead != null && !tryAcquireBulkhead()) {
+            metrics.recordBulkheadRejection(tableName);
+            throw new CallRejectedException("Too many concurrent calls on table " + tableName);
+        }
+        if (circuitBreaker != null) {
+            boolean permitted = circuitBreaker.tryAcquire(System.nanoTime());
+            reportState(metrics);
+            if (!permitted) {
+                if (bulkhead != null) {
+                    bulkhead.release();
+                }
+                metrics.recordCircuitRejection(tableName);
+                throw new CallRejectedException("Circuit of table " + tableName + " is open");
+            }
+        }
+    }
+
+    void release(HBaseMetrics metrics, long nanos, Throwable failure) {
+        if (bulkhead != null) {
+            bulkhead.release();
+        }
+        if (circuitBreaker != null) {
+            circuitBreaker.record(isFailure(failure), nanos >= slowCallNanos, System.nanoTime());
+            reportState(metrics);
+        }
+    }
+
+    private boolean tryAcquireBulkhead() {
+        if (config.getMaxWaitMillis() <= 0) {
+            return bulkhead.tryAcquire();
+        }
+        try {
+            return bulkhead.tryAcquire(config.getMaxWaitMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void reportState(HBaseMetrics metrics) {
+        CircuitBreaker.State state = circuitBreaker.getState();
+        if (state != reportedState) {
+            reportedState = state;
+            metrics.recordCircuitState(tableName, state.name());
+            if (state == CircuitBreaker.State.OPEN) {
+                LOGGER.warn("Circuit of HBASE table {} opened", tableName);
+            } else {
+                LOGGER.info("Circuit of HBASE table {} is {}", tableName, state);
+            }
+        }
+    }
+
+    private static boolean isFailure(Throwable failure) {
+        return failure instanceof TimeoutException || PolicyExecutor.isTransient(failure);
+    }
+}
@@ -0,0 +1,75 @@
+package com.sequenceiq.hbase.client;
+
+public class TablePoolConfig {
+
+    public static final int DEFAULT_MAX_SIZE = 16;
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 5000L;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 60000L;
+    public static final long DEFAULT_EVICTION_INTERVAL_MILLIS = 30000L;
+
+    private int maxSize = DEFAULT_MAX_SIZE;
+    private long maxWaitMillis = DEFAULT_MAX_WAIT_MILLIS;
+    private long idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS;
+    private long evictionIntervalMillis = DEFAULT_EVICTION_INTERVAL_MILLIS;
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Maximum number of table handles checked out at the same time for a single table.
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    /**
+     * How long a thread waits for a free table handle before the checkout fails.
+     */
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        if (maxWaitMillis < 1) {
+            throw new IllegalArgumentException("Max wait must be positive: " + maxWaitMillis);
+        }
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    /**
+     * Idle table handles older than this are closed by the evictor, a non positive value keeps them forever.
+     */
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public long getEvictionIntervalMillis() {
+        return evictionIntervalMillis;
+    }
+
+    public void setEvictionIntervalMillis(long evictionIntervalMillis) {
+        if (evictionIntervalMillis < 1) {
+            throw new IllegalArgumentException("Eviction interval must be positive: " + evictionIntervalMillis);
+        }
+        this.evictionIntervalMillis = evictionIntervalMillis;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("TablePoolConfig{");
+        sb.append("maxSize=").append(maxSize);
+        sb.append(", maxWaitMillis=").append(maxWaitMillis);
+        sb.append(", idleTimeoutMillis=").append(idleTimeoutMillis);
+        sb.append(", evictionIntervalMillis=").append(evictionIntervalMillis);
+        sb.append('}');
+        return sb.toString();
+    }
+}
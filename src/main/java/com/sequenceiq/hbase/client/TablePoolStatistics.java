@@ -0,0 +1,70 @@
+package com.sequenceiq.hbase.client;
+
+import java.util.concurrent.TimeUnit;
+
+public class TablePoolStatistics {
+
+    private final String tableName;
+    private final int inUse;
+    private final int idle;
+    private final int waiters;
+    private final long waitCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+
+    public TablePoolStatistics(String tableName, int inUse, int idle, int waiters, long waitCount, long totalWaitNanos, long maxWaitNanos) {
+        this.tableName = tableName;
+        this.inUse = inUse;
+        this.idle = idle;
+        this.waiters = waiters;
+        this.waitCount = waitCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public int getInUse() {
+        return inUse;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getWaiters() {
+        return waiters;
+    }
+
+    public long getWaitCount() {
+        return waitCount;
+    }
+
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos);
+    }
+
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos);
+    }
+
+    public double getAverageWaitMillis() {
+        return waitCount == 0 ? 0 : (double) getTotalWaitMillis() / waitCount;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("TablePoolStatistics{");
+        sb.append("tableName='").append(tableName).append('\'');
+        sb.append(", inUse=").append(inUse);
+        sb.append(", idle=").append(idle);
+        sb.append(", waiters=").append(waiters);
+        sb.append(", waitCount=").append(waitCount);
+        sb.append(", totalWaitMillis=").append(getTotalWaitMillis());
+        sb.append(", maxWaitMillis=").append(getMaxWaitMillis());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,9 @@
+package com.sequenceiq.hbase.client;
+
+import java.util.List;
+
+import com.sequenceiq.hbase.model.HBaseRow;
+
+public interface WriteFailureListener {
+    void onFailure(String tableName, List<HBaseRow> rows, Exception cause);
+}
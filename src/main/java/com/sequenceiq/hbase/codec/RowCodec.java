@@ -0,0 +1,94 @@
+package com.sequenceiq.hbase.codec;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.sequenceiq.hbase.model.HBaseByteRow;
+import com.sequenceiq.hbase.model.HBaseRow;
+
+/**
+ * Compact binary format for streams of {@link HBaseRow} and {@link HBaseByteRow}, written by a {@link RowEncoder}
+ * and read by a {@link RowDecoder}. A stream starts with the format version followed by the rows, every row
+ * starts with its type. Lengths and counts are varints and the family and qualifier names are written in full
+ * only the first time, later they are referenced by their position in the stream's dictionary. Byte rows keep
+ * the row key once and the timestamps as deltas.
+ */
+public final class RowCodec {
+
+    public static final byte VERSION = 1;
+    static final byte STRING_ROW = 1;
+    static final byte BYTE_ROW = 2;
+    static final int LITERAL_NAME = 0;
+    static final int NEW_NAME = 1;
+    static final int FIRST_NAME_ID = 2;
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private RowCodec() {
+        throw new IllegalStateException();
+    }
+
+    public static byte[] encode(Collection<HBaseRow> rows) {
+        RowEncoder encoder = new RowEncoder();
+        ByteBuffer buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+        for (HBaseRow row : rows) {
+            while (!encoder.encode(row, buffer)) {
+                buffer = grow(buffer);
+            }
+        }
+        return toArray(buffer);
+    }
+
+    public static byte[] encodeByteRows(Collection<HBaseByteRow> rows) {
+        RowEncoder encoder = new RowEncoder();
+        ByteBuffer buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+        for (HBaseByteRow row : rows) {
+            while (!encoder.encode(row, buffer)) {
+                buffer = grow(buffer);
+            }
+        }
+        return toArray(buffer);
+    }
+
+    public static List<HBaseRow> decode(byte[] bytes) {
+        RowDecoder decoder = new RowDecoder();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        List<HBaseRow> rows = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            rows.add(checkComplete(decoder.decode(buffer)));
+        }
+        return rows;
+    }
+
+    public static List<HBaseByteRow> decodeByteRows(byte[] bytes) {
+        RowDecoder decoder = new RowDecoder();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        List<HBaseByteRow> rows = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            rows.add(checkComplete(decoder.decodeByteRow(buffer)));
+        }
+        return rows;
+    }
+
+    private static <T> T checkComplete(T row) {
+        if (row == null) {
+            throw new IllegalArgumentException("Truncated row stream");
+        }
+        return row;
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip();
+        buffer.get(bytes);
+        return bytes;
+    }
+}
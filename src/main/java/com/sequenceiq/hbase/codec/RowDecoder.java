@@ -0,0 +1,186 @@
+package com.sequenceiq.hbase.codec;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import com.sequenceiq.hbase.model.Column;
+import com.sequenceiq.hbase.model.Family;
+import com.sequenceiq.hbase.model.HBaseByteRow;
+import com.sequenceiq.hbase.model.HBaseRow;
+import com.sequenceiq.hbase.model.Qualifier;
+
+/**
+ * Reads a stream of rows written by a {@link RowEncoder} from the start, the family and qualifier names are
+ * decoded once per stream. Not thread-safe.
+ */
+public final class RowDecoder {
+
+    private static final float LOAD_FACTOR = 0.75f;
+    private final List<byte[]> names = new ArrayList<>();
+    private final List<Qualifier> qualifiers = new ArrayList<>();
+    private boolean headerRead;
+    private byte[] literal;
+
+    /**
+     * Whether the next row in the buffer is a {@link HBaseByteRow}, the buffer must not be empty.
+     */
+    public boolean isByteRow(ByteBuffer buffer) {
+        int position = buffer.position();
+        return buffer.get(headerRead ? position : position + 1) == RowCodec.BYTE_ROW;
+    }
+
+    /**
+     * Reads the next row from the buffer. Returns null and leaves the buffer unchanged if the buffer ends within
+     * the row, the caller is expected to fill the buffer and try again.
+     */
+    public HBaseRow decode(ByteBuffer buffer) {
+        int position = buffer.position();
+        int dictionarySize = names.size();
+        boolean header = headerRead;
+        try {
+            readHeader(buffer, RowCodec.STRING_ROW);
+            String rowKey = readString(buffer);
+            int familyCount = Varints.readInt(buffer) - 1;
+            Map<Family, Map<Column, String>> families = familyCount < 0 ? null : new HashMap<Family, Map<Column, String>>(capacity(familyCount));
+            for (int i = 0; i < familyCount; i++) {
+                Qualifier family = readQualifier(buffer);
+                int columnCount = Varints.readInt(buffer);
+                Map<Column, String> columns = new HashMap<>(capacity(columnCount));
+                for (int j = 0; j < columnCount; j++) {
+                    Qualifier column = readQualifier(buffer);
+                    columns.put(column, readString(buffer));
+                }
+                families.put(family, columns);
+            }
+            return new HBaseRow(rowKey, families);
+        } catch (BufferUnderflowException e) {
+            rollback(buffer, position, dictionarySize, header);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the next {@link HBaseByteRow} from the buffer, see {@link #decode(ByteBuffer)}.
+     */
+    public HBaseByteRow decodeByteRow(ByteBuffer buffer) {
+        int position = buffer.position();
+        int dictionarySize = names.size();
+        boolean header = headerRead;
+        try {
+            readHeader(buffer, RowCodec.BYTE_ROW);
+            Cell[] cells = new Cell[Varints.readInt(buffer)];
+            byte[] row = cells.length == 0 ? null : readBytes(buffer, Varints.readInt(buffer));
+            long timestamp = 0;
+            for (int i = 0; i < cells.length; i++) {
+                byte[] family = readName(buffer);
+                byte[] qualifier = readName(buffer);
+                timestamp += Varints.unzigzag(Varints.readLong(buffer));
+                KeyValue.Type type = KeyValue.Type.codeToType(buffer.get());
+                byte[] value = readBytes(buffer, Varints.readInt(buffer));
+                cells[i] = new KeyValue(row, family, qualifier, timestamp, type, value);
+            }
+            return new HBaseByteRow(cells);
+        } catch (BufferUnderflowException e) {
+            rollback(buffer, position, dictionarySize, header);
+            return null;
+        }
+    }
+
+    private void readHeader(ByteBuffer buffer, byte expectedType) {
+        if (!headerRead) {
+            byte version = buffer.get();
+            if (version != RowCodec.VERSION) {
+                throw new IllegalArgumentException("Unsupported row codec version: " + version);
+            }
+            headerRead = true;
+        }
+        byte type = buffer.get();
+        if (type != expectedType) {
+            throw new IllegalArgumentException("Unexpected row type " + type + ", expected " + expectedType);
+        }
+    }
+
+    /**
+     * The id of the name in the dictionary, or -1 if the name was written in full without an id.
+     */
+    private int readNameId(ByteBuffer buffer) {
+        int tag = Varints.readInt(buffer);
+        if (tag >= RowCodec.FIRST_NAME_ID) {
+            return tag - RowCodec.FIRST_NAME_ID;
+        }
+        byte[] name = readBytes(buffer, Varints.readInt(buffer));
+        if (tag == RowCodec.LITERAL_NAME) {
+            literal = name;
+            return -1;
+        }
+        names.add(name);
+        qualifiers.add(null);
+        return names.size() - 1;
+    }
+
+    private byte[] readName(ByteBuffer buffer) {
+        int id = readNameId(buffer);
+        return id < 0 ? literal : names.get(id);
+    }
+
+    private Qualifier readQualifier(ByteBuffer buffer) {
+        int id = readNameId(buffer);
+        if (id < 0) {
+            return Qualifier.valueOf(Bytes.toString(literal));
+        }
+        Qualifier qualifier = qualifiers.get(id);
+        if (qualifier == null) {
+            qualifier = Qualifier.valueOf(Bytes.toString(names.get(id)));
+            qualifiers.set(id, qualifier);
+        }
+        return qualifier;
+    }
+
+    private void rollback(ByteBuffer buffer, int position, int dictionarySize, boolean header) {
+        buffer.position(position);
+        headerRead = header;
+        while (names.size() > dictionarySize) {
+            names.remove(names.size() - 1);
+            qualifiers.remove(qualifiers.size() - 1);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = Varints.readInt(buffer) - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (buffer.remaining() < length) {
+            throw new BufferUnderflowException();
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = Bytes.toString(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+            buffer.position(buffer.position() + length);
+        } else {
+            value = Bytes.toString(readBytes(buffer, length));
+        }
+        return value;
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer, int length) {
+        if (buffer.remaining() < length) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static int capacity(int size) {
+        return (int) (size / LOAD_FACTOR) + 1;
+    }
+}
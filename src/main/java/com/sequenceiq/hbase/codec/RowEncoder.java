@@ -0,0 +1,164 @@
+package com.sequenceiq.hbase.codec;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.hbase.Cell;
+
+import com.sequenceiq.hbase.model.Column;
+import com.sequenceiq.hbase.model.Family;
+import com.sequenceiq.hbase.model.HBaseByteRow;
+import com.sequenceiq.hbase.model.HBaseRow;
+
+/**
+ * Writes a stream of rows in the format of {@link RowCodec}. The encoder remembers the family and qualifier names
+ * it has written, so one encoder must write the whole stream and a {@link RowDecoder} must read it from the start.
+ * Not thread-safe.
+ */
+public final class RowEncoder {
+
+    public static final int DEFAULT_MAX_NAMES = 4096;
+    private final Map<ByteBuffer, Integer> ids = new HashMap<>();
+    private final List<ByteBuffer> names = new ArrayList<>();
+    private final int maxNames;
+    private boolean headerWritten;
+
+    public RowEncoder() {
+        this(DEFAULT_MAX_NAMES);
+    }
+
+    /**
+     * Names beyond the first maxNames distinct ones are written in full every time.
+     */
+    public RowEncoder(int maxNames) {
+        if (maxNames < 0) {
+            throw new IllegalArgumentException("Dictionary size must not be negative: " + maxNames);
+        }
+        this.maxNames = maxNames;
+    }
+
+    /**
+     * Appends the row to the buffer. Returns false and leaves the buffer unchanged if the row does not fit, the
+     * caller is expected to drain the buffer and try again.
+     */
+    public boolean encode(HBaseRow row, ByteBuffer buffer) {
+        int position = buffer.position();
+        int dictionarySize = names.size();
+        boolean header = headerWritten;
+        try {
+            writeHeader(buffer);
+            buffer.put(RowCodec.STRING_ROW);
+            writeString(buffer, row.getRowKey());
+            Map<Family, Map<Column, String>> families = row.getColumnFamilies();
+            Varints.writeInt(buffer, families == null ? 0 : families.size() + 1);
+            if (families != null) {
+                for (Map.Entry<Family, Map<Column, String>> family : families.entrySet()) {
+                    writeName(buffer, family.getKey().getNameBytes());
+                    Map<Column, String> columns = family.getValue();
+                    Varints.writeInt(buffer, columns.size());
+                    for (Map.Entry<Column, String> column : columns.entrySet()) {
+                        writeName(buffer, column.getKey().getNameBytes());
+                        writeString(buffer, column.getValue());
+                    }
+                }
+            }
+            return true;
+        } catch (BufferOverflowException e) {
+            rollback(buffer, position, dictionarySize, header);
+            return false;
+        }
+    }
+
+    /**
+     * Appends every cell of the row with its timestamp and type to the buffer, see {@link #encode(HBaseRow, ByteBuffer)}.
+     */
+    public boolean encode(HBaseByteRow row, ByteBuffer buffer) {
+        int position = buffer.position();
+        int dictionarySize = names.size();
+        boolean header = headerWritten;
+        try {
+            writeHeader(buffer);
+            buffer.put(RowCodec.BYTE_ROW);
+            Cell[] cells = row.getCells();
+            Varints.writeInt(buffer, cells.length);
+            if (cells.length > 0) {
+                Varints.writeInt(buffer, cells[0].getRowLength());
+                buffer.put(cells[0].getRowArray(), cells[0].getRowOffset(), cells[0].getRowLength());
+            }
+            long previousTimestamp = 0;
+            for (Cell cell : cells) {
+                writeName(buffer, cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength());
+                writeName(buffer, cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
+                Varints.writeLong(buffer, Varints.zigzag(cell.getTimestamp() - previousTimestamp));
+                previousTimestamp = cell.getTimestamp();
+                buffer.put(cell.getTypeByte());
+                Varints.writeInt(buffer, cell.getValueLength());
+                buffer.put(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+            }
+            return true;
+        } catch (BufferOverflowException e) {
+            rollback(buffer, position, dictionarySize, header);
+            return false;
+        }
+    }
+
+    public int getDictionarySize() {
+        return names.size();
+    }
+
+    private void writeHeader(ByteBuffer buffer) {
+        if (!headerWritten) {
+            buffer.put(RowCodec.VERSION);
+            headerWritten = true;
+        }
+    }
+
+    private void writeName(ByteBuffer buffer, byte[] name) {
+        writeName(buffer, name, 0, name.length);
+    }
+
+    /**
+     * A reference to a known name, or the name itself tagged with whether the decoder has to remember it.
+     */
+    private void writeName(ByteBuffer buffer, byte[] array, int offset, int length) {
+        Integer id = ids.get(ByteBuffer.wrap(array, offset, length));
+        if (id != null) {
+            Varints.writeInt(buffer, id + RowCodec.FIRST_NAME_ID);
+            return;
+        }
+        if (names.size() < maxNames) {
+            ByteBuffer key = ByteBuffer.wrap(Arrays.copyOfRange(array, offset, offset + length));
+            ids.put(key, names.size());
+            names.add(key);
+            Varints.writeInt(buffer, RowCodec.NEW_NAME);
+        } else {
+            Varints.writeInt(buffer, RowCodec.LITERAL_NAME);
+        }
+        Varints.writeInt(buffer, length);
+        buffer.put(array, offset, length);
+    }
+
+    private void rollback(ByteBuffer buffer, int position, int dictionarySize, boolean header) {
+        buffer.position(position);
+        headerWritten = header;
+        while (names.size() > dictionarySize) {
+            ids.remove(names.remove(names.size() - 1));
+        }
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            Varints.writeInt(buffer, 0);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            Varints.writeInt(buffer, bytes.length + 1);
+            buffer.put(bytes);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.sequenceiq.hbase.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Unsigned LEB128 variable length integers, 7 bits per byte with the high bit set on every byte but the last.
+ * Signed values are zigzag encoded first so small negative numbers stay short.
+ */
+final class Varints {
+
+    private static final int PAYLOAD_BITS = 7;
+    private static final int PAYLOAD_MASK = 0x7F;
+    private static final int CONTINUATION = 0x80;
+    private static final int MAX_INT_SHIFT = 28;
+    private static final int MAX_LONG_SHIFT = 63;
+
+    private Varints() {
+        throw new IllegalStateException();
+    }
+
+    static void writeInt(ByteBuffer buffer, int value) {
+        int remaining = value;
+        while ((remaining & ~PAYLOAD_MASK) != 0) {
+            buffer.put((byte) (remaining & PAYLOAD_MASK | CONTINUATION));
+            remaining >>>= PAYLOAD_BITS;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    static int readInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift <= MAX_INT_SHIFT; shift += PAYLOAD_BITS) {
+            byte b = buffer.get();
+            value |= (b & PAYLOAD_MASK) << shift;
+            if ((b & CONTINUATION) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    static void writeLong(ByteBuffer buffer, long value) {
+        long remaining = value;
+        while ((remaining & ~PAYLOAD_MASK) != 0) {
+            buffer.put((byte) (remaining & PAYLOAD_MASK | CONTINUATION));
+            remaining >>>= PAYLOAD_BITS;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    static long readLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift <= MAX_LONG_SHIFT; shift += PAYLOAD_BITS) {
+            byte b = buffer.get();
+            value |= (long) (b & PAYLOAD_MASK) << shift;
+            if ((b & CONTINUATION) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varlong");
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> MAX_LONG_SHIFT);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,211 @@
+package com.sequenceiq.hbase.mapping;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import com.sequenceiq.hbase.client.HBaseOperationException;
+import com.sequenceiq.hbase.client.RowKeyStrategy;
+import com.sequenceiq.hbase.client.RowMapper;
+
+/**
+ * Maps annotated entities to puts and results back to entities. The fields annotated with {@link RowKey}
+ * and {@link HBaseColumn} are resolved once per class into method handles sorted in column order, mapping
+ * a row is a single merge of the sorted cells with the columns that only invokes the handles. Supported
+ * field types are long, int, double, boolean, their wrappers, String and byte[], encoded with {@link Bytes}.
+ * Null fields are not written and missing columns leave the field untouched. The entity needs a no-argument
+ * constructor and its mapped fields must not be final.
+ */
+public final class EntityMapper<T> implements RowMapper<T> {
+
+    private static final ClassValue<EntityMapper<?>> MAPPERS = new ClassValue<EntityMapper<?>>() {
+        @Override
+        protected EntityMapper<?> computeValue(Class<?> type) {
+            return new EntityMapper<>(type);
+        }
+    };
+    private final Class<T> type;
+    private final MethodHandle constructor;
+    private final FieldCodec rowKey;
+    private final FieldCodec[] columns;
+    private final byte[][] families;
+    private final byte[][] qualifiers;
+
+    private EntityMapper(Class<T> type) {
+        this.type = type;
+        this.constructor = findConstructor(type);
+        HBaseEntity entity = type.getAnnotation(HBaseEntity.class);
+        String defaultFamily = entity == null ? "" : entity.family();
+        FieldCodec key = null;
+        List<MappedColumn> mapped = new ArrayList<>();
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                HBaseColumn column = field.getAnnotation(HBaseColumn.class);
+                if (field.isAnnotationPresent(RowKey.class)) {
+                    if (key != null) {
+                        throw new IllegalArgumentException("More than one row key field in " + type);
+                    }
+                    key = createCodec(field);
+                } else if (column != null) {
+                    mapped.add(new MappedColumn(createCodec(field), Bytes.toBytes(getFamily(field, column, defaultFamily)),
+                            Bytes.toBytes(column.qualifier().isEmpty() ? field.getName() : column.qualifier())));
+                }
+            }
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("No row key field in " + type);
+        }
+        this.rowKey = key;
+        Collections.sort(mapped);
+        this.columns = new FieldCodec[mapped.size()];
+        this.families = new byte[mapped.size()][];
+        this.qualifiers = new byte[mapped.size()][];
+        for (int i = 0; i < mapped.size(); i++) {
+            columns[i] = mapped.get(i).codec;
+            families[i] = mapped.get(i).family;
+            qualifiers[i] = mapped.get(i).qualifier;
+        }
+    }
+
+    /**
+     * Mapper of the entity class, created on first use and shared afterwards.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> EntityMapper<T> of(Class<T> type) {
+        return (EntityMapper<T>) MAPPERS.get(type);
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Creates the entity from the latest version of its columns, null for an empty result.
+     */
+    @Override
+    public T mapRow(Result result) {
+        if (result == null || result.isEmpty()) {
+            return null;
+        }
+        T entity = newInstance();
+        Cell[] cells = result.rawCells();
+        rowKey.decode(entity, cells[0].getRowArray(), cells[0].getRowOffset(), cells[0].getRowLength());
+        int column = 0;
+        for (int i = 0; i < cells.length && column < columns.length; i++) {
+            Cell cell = cells[i];
+            int comparison = compare(cell, column);
+            while (comparison > 0 && ++column < columns.length) {
+                comparison = compare(cell, column);
+            }
+            if (comparison == 0) {
+                columns[column++].decode(entity, cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+            }
+        }
+        return entity;
+    }
+
+    /**
+     * Put of the non null fields, null if the entity has no row key.
+     */
+    public Put toPut(T entity) {
+        return toPut(entity, null);
+    }
+
+    /**
+     * Put of the non null fields stored under the row key of the strategy, null if the entity has no row key.
+     */
+    public Put toPut(T entity, RowKeyStrategy strategy) {
+        byte[] row = rowKey.encode(entity);
+        if (row == null || row.length == 0) {
+            return null;
+        }
+        Put put = new Put(strategy == null ? row : strategy.toRowKey(row));
+        for (int i = 0; i < columns.length; i++) {
+            byte[] value = columns[i].encode(entity);
+            if (value != null) {
+                put.add(families[i], qualifiers[i], value);
+            }
+        }
+        return put;
+    }
+
+    /**
+     * Encoded row key of the entity, e.g. to build a get or a delete.
+     */
+    public byte[] toRowKey(T entity) {
+        return rowKey.encode(entity);
+    }
+
+    private int compare(Cell cell, int column) {
+        int result = Bytes.compareTo(cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength(), families[column], 0,
+                families[column].length);
+        if (result == 0) {
+            result = Bytes.compareTo(cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength(), qualifiers[column], 0,
+                    qualifiers[column].length);
+        }
+        return result;
+    }
+
+    private T newInstance() {
+        try {
+            return type.cast((Object) constructor.invokeExact());
+        } catch (Throwable e) {
+            throw new HBaseOperationException(e);
+        }
+    }
+
+    private static FieldCodec createCodec(Field field) {
+        if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+            throw new IllegalArgumentException("Mapped field must not be static or final: " + field);
+        }
+        return FieldCodec.of(field);
+    }
+
+    private static String getFamily(Field field, HBaseColumn column, String defaultFamily) {
+        String family = column.family().isEmpty() ? defaultFamily : column.family();
+        if (family.isEmpty()) {
+            throw new IllegalArgumentException("No family of mapped field " + field);
+        }
+        return family;
+    }
+
+    private static MethodHandle findConstructor(Class<?> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("No accessible no-argument constructor in " + type, e);
+        }
+    }
+
+    private static final class MappedColumn implements Comparable<MappedColumn> {
+
+        private final FieldCodec codec;
+        private final byte[] family;
+        private final byte[] qualifier;
+
+        private MappedColumn(FieldCodec codec, byte[] family, byte[] qualifier) {
+            this.codec = codec;
+            this.family = family;
+            this.qualifier = qualifier;
+        }
+
+        @Override
+        public int compareTo(MappedColumn other) {
+            int result = Bytes.compareTo(family, other.family);
+            return result == 0 ? Bytes.compareTo(qualifier, other.qualifier) : result;
+        }
+    }
+}
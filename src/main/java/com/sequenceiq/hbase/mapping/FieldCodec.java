@@ -0,0 +1,157 @@
+package com.sequenceiq.hbase.mapping;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+import org.apache.hadoop.hbase.util.Bytes;
+
+import com.sequenceiq.hbase.client.HBaseOperationException;
+
+/**
+ * Reads and writes one field of an entity through method handles adapted to the exact type of the field,
+ * primitive values are neither boxed nor looked up reflectively per row.
+ */
+final class FieldCodec {
+
+    private final String name;
+    private final ValueType type;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    private FieldCodec(String name, ValueType type, MethodHandle getter, MethodHandle setter) {
+        this.name = name;
+        this.type = type;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    static FieldCodec of(Field field) {
+        ValueType type = ValueType.of(field.getType());
+        if (type == null) {
+            throw new IllegalArgumentException("Unsupported type of mapped field " + field);
+        }
+        try {
+            field.setAccessible(true);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Class<?> valueType = field.getType().isPrimitive() ? field.getType() : Object.class;
+            MethodHandle getter = lookup.unreflectGetter(field).asType(MethodType.methodType(valueType, Object.class));
+            MethodHandle setter = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, valueType));
+            return new FieldCodec(field.getName(), type, getter, setter);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access mapped field " + field, e);
+        }
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Encoded value of the field or null if the field is null.
+     */
+    byte[] encode(Object entity) {
+        try {
+            switch (type) {
+                case LONG:
+                    return Bytes.toBytes((long) getter.invokeExact(entity));
+                case INT:
+                    return Bytes.toBytes((int) getter.invokeExact(entity));
+                case DOUBLE:
+                    return Bytes.toBytes((double) getter.invokeExact(entity));
+                case BOOLEAN:
+                    return Bytes.toBytes((boolean) getter.invokeExact(entity));
+                default:
+                    return encodeObject((Object) getter.invokeExact(entity));
+            }
+        } catch (Throwable e) {
+            throw new HBaseOperationException(e);
+        }
+    }
+
+    void decode(Object entity, byte[] bytes, int offset, int length) {
+        try {
+            switch (type) {
+                case LONG:
+                    setter.invokeExact(entity, Bytes.toLong(bytes, offset, length));
+                    break;
+                case INT:
+                    setter.invokeExact(entity, Bytes.toInt(bytes, offset, length));
+                    break;
+                case DOUBLE:
+                    setter.invokeExact(entity, toDouble(bytes, offset, length));
+                    break;
+                case BOOLEAN:
+                    setter.invokeExact(entity, length > 0 && bytes[offset] != 0);
+                    break;
+                default:
+                    setter.invokeExact(entity, decodeObject(bytes, offset, length));
+                    break;
+            }
+        } catch (Throwable e) {
+            throw new HBaseOperationException(e);
+        }
+    }
+
+    private byte[] encodeObject(Object value) {
+        if (value == null) {
+            return null;
+        }
+        switch (type) {
+            case STRING:
+                return Bytes.toBytes((String) value);
+            case BOXED_LONG:
+                return Bytes.toBytes((Long) value);
+            case BOXED_INT:
+                return Bytes.toBytes((Integer) value);
+            case BOXED_DOUBLE:
+                return Bytes.toBytes((Double) value);
+            case BOXED_BOOLEAN:
+                return Bytes.toBytes((Boolean) value);
+            default:
+                return (byte[]) value;
+        }
+    }
+
+    private Object decodeObject(byte[] bytes, int offset, int length) {
+        switch (type) {
+            case STRING:
+                return Bytes.toString(bytes, offset, length);
+            case BOXED_LONG:
+                return Bytes.toLong(bytes, offset, length);
+            case BOXED_INT:
+                return Bytes.toInt(bytes, offset, length);
+            case BOXED_DOUBLE:
+                return toDouble(bytes, offset, length);
+            case BOXED_BOOLEAN:
+                return length > 0 && bytes[offset] != 0;
+            default:
+                return Arrays.copyOfRange(bytes, offset, offset + length);
+        }
+    }
+
+    /**
+     * Unlike {@link Bytes#toDouble(byte[], int)} the length is checked, a value of another size is rejected.
+     */
+    private static double toDouble(byte[] bytes, int offset, int length) {
+        return Double.longBitsToDouble(Bytes.toLong(bytes, offset, length));
+    }
+
+    private enum ValueType {
+        LONG, INT, DOUBLE, BOOLEAN, STRING, BYTES, BOXED_LONG, BOXED_INT, BOXED_DOUBLE, BOXED_BOOLEAN;
+
+        private static final Class<?>[] JAVA_TYPES = {long.class, int.class, double.class, boolean.class, String.class, byte[].class,
+            Long.class, Integer.class, Double.class, Boolean.class};
+
+        private static ValueType of(Class<?> javaType) {
+            for (int i = 0; i < JAVA_TYPES.length; i++) {
+                if (JAVA_TYPES[i] == javaType) {
+                    return values()[i];
+                }
+            }
+            return null;
+        }
+    }
+}
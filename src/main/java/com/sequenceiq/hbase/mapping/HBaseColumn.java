@@ -0,0 +1,19 @@
+package com.sequenceiq.hbase.mapping;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maps a field to a column. The family defaults to the family of the {@link HBaseEntity}, the qualifier
+ * to the name of the field.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface HBaseColumn {
+
+    String family() default "";
+
+    String qualifier() default "";
+}
@@ -0,0 +1,19 @@
+package com.sequenceiq.hbase.mapping;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Optional type level settings of a mapped entity.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface HBaseEntity {
+
+    /**
+     * Family of the {@link HBaseColumn}s without a family of their own.
+     */
+    String family() default "";
+}
@@ -0,0 +1,162 @@
+package com.sequenceiq.hbase.memory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.Filter.ReturnCode;
+import org.apache.hadoop.hbase.io.TimeRange;
+
+/**
+ * Selects the cells of a row the way a region server does for a {@link Get} or {@link Scan}:
+ * requested columns, time range, number of versions, per family offset and limit, then the filter.
+ */
+final class CellReader {
+
+    private final Map<byte[], NavigableSet<byte[]>> familyMap;
+    private final TimeRange timeRange;
+    private final int maxVersions;
+    private final int storeLimit;
+    private final int storeOffset;
+    private final Filter filter;
+
+    CellReader(Get get) {
+        familyMap = get.getFamilyMap();
+        timeRange = get.getTimeRange();
+        maxVersions = get.getMaxVersions();
+        storeLimit = get.getMaxResultsPerColumnFamily();
+        storeOffset = get.getRowOffsetPerColumnFamily();
+        filter = get.getFilter();
+    }
+
+    CellReader(Scan scan) {
+        familyMap = scan.getFamilyMap();
+        timeRange = scan.getTimeRange();
+        maxVersions = scan.getMaxVersions();
+        storeLimit = scan.getMaxResultsPerColumnFamily();
+        storeOffset = scan.getRowOffsetPerColumnFamily();
+        filter = scan.getFilter();
+    }
+
+    boolean filterAllRemaining() throws IOException {
+        return filter != null && filter.filterAllRemaining();
+    }
+
+    /**
+     * Cells of the row visible to the read in {@link org.apache.hadoop.hbase.KeyValue#COMPARATOR}
+     * order, or null if nothing is visible or the filter drops the row.
+     */
+    List<Cell> read(byte[] row, Iterable<Cell> rowCells) throws IOException {
+        if (filterRowKey(row)) {
+            return null;
+        }
+        List<Cell> result = new ArrayList<>();
+        Cell column = null;
+        int versions = 0;
+        for (Cell cell : rowCells) {
+            if (!isSameColumn(column, cell)) {
+                column = cell;
+                versions = 0;
+            }
+            if (versions < maxVersions && isSelected(cell)) {
+                ReturnCode code = filterCell(cell);
+                if (code == ReturnCode.NEXT_ROW) {
+                    break;
+                }
+                if (isIncluded(code)) {
+                    result.add(transform(cell));
+                    versions++;
+                }
+                if (isNextColumn(code)) {
+                    versions = maxVersions;
+                }
+            }
+        }
+        return filterRow(limitPerFamily(result));
+    }
+
+    private boolean filterRowKey(byte[] row) throws IOException {
+        if (filter == null) {
+            return false;
+        }
+        filter.reset();
+        return filter.filterRowKey(row, 0, row.length);
+    }
+
+    private boolean isSelected(Cell cell) {
+        if (!timeRange.withinTimeRange(cell.getTimestamp())) {
+            return false;
+        }
+        if (familyMap.isEmpty()) {
+            return true;
+        }
+        byte[] family = CellUtil.cloneFamily(cell);
+        if (!familyMap.containsKey(family)) {
+            return false;
+        }
+        NavigableSet<byte[]> qualifiers = familyMap.get(family);
+        return qualifiers == null || qualifiers.isEmpty() || qualifiers.contains(CellUtil.cloneQualifier(cell));
+    }
+
+    private ReturnCode filterCell(Cell cell) throws IOException {
+        return filter == null ? ReturnCode.INCLUDE : filter.filterKeyValue(cell);
+    }
+
+    private Cell transform(Cell cell) throws IOException {
+        return filter == null ? cell : filter.transformCell(cell);
+    }
+
+    private List<Cell> limitPerFamily(List<Cell> cells) {
+        if (storeLimit < 0 && storeOffset <= 0) {
+            return cells;
+        }
+        List<Cell> result = new ArrayList<>(cells.size());
+        Cell family = null;
+        int index = 0;
+        for (Cell cell : cells) {
+            if (family == null || !CellUtil.matchingFamily(family, cell)) {
+                family = cell;
+                index = 0;
+            }
+            if (index >= storeOffset && (storeLimit < 0 || index < storeOffset + storeLimit)) {
+                result.add(cell);
+            }
+            index++;
+        }
+        return result;
+    }
+
+    private List<Cell> filterRow(List<Cell> cells) throws IOException {
+        if (cells.isEmpty()) {
+            return null;
+        }
+        if (filter != null) {
+            if (filter.hasFilterRow()) {
+                filter.filterRowCells(cells);
+            }
+            if (cells.isEmpty() || filter.filterRow()) {
+                return null;
+            }
+        }
+        return cells;
+    }
+
+    private static boolean isSameColumn(Cell column, Cell cell) {
+        return column != null && CellUtil.matchingFamily(column, cell) && CellUtil.matchingQualifier(column, cell);
+    }
+
+    private static boolean isIncluded(ReturnCode code) {
+        return code == ReturnCode.INCLUDE || code == ReturnCode.INCLUDE_AND_NEXT_COL;
+    }
+
+    private static boolean isNextColumn(ReturnCode code) {
+        return code == ReturnCode.NEXT_COL || code == ReturnCode.INCLUDE_AND_NEXT_COL;
+    }
+}
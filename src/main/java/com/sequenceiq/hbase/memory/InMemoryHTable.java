@@ -0,0 +1,578 @@
+package com.sequenceiq.hbase.memory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Append;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Durability;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Row;
+import org.apache.hadoop.hbase.client.RowMutations;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.coprocessor.Batch;
+import org.apache.hadoop.hbase.ipc.CoprocessorRpcChannel;
+import org.apache.hadoop.hbase.regionserver.NoSuchColumnFamilyException;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import com.google.protobuf.Service;
+
+/**
+ * Thread-safe table kept in a sorted concurrent skip-list of cells. Supports gets, scans, filters,
+ * versions, deletes and the atomic row operations, mutations of a row are serialized by striped
+ * row locks while reads go without locking. Writes are applied immediately regardless of the
+ * auto flush setting, deletes remove the cells instead of writing tombstones.
+ * <p>
+ * If the descriptor has no column families every family is accepted and keeps
+ * {@link HColumnDescriptor#DEFAULT_VERSIONS} versions.
+ */
+public class InMemoryHTable implements HTableInterface {
+
+    private static final int LOCK_STRIPES = 64;
+    private static final String HOST = "localhost";
+    private static final long DEFAULT_WRITE_BUFFER_SIZE = 2097152;
+    private final HTableDescriptor descriptor;
+    private final Configuration configuration;
+    private final NavigableSet<Cell> cells = new ConcurrentSkipListSet<>(KeyValue.COMPARATOR);
+    private final Lock[] rowLocks = new Lock[LOCK_STRIPES];
+    private volatile boolean autoFlush = true;
+    private volatile long writeBufferSize;
+
+    public InMemoryHTable(HTableDescriptor descriptor, Configuration configuration) {
+        this.descriptor = descriptor;
+        this.configuration = configuration;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            rowLocks[i] = new ReentrantLock();
+        }
+        writeBufferSize = configuration.getLong("hbase.client.write.buffer", DEFAULT_WRITE_BUFFER_SIZE);
+    }
+
+    /**
+     * Number of cells stored in the table including all versions.
+     */
+    public int getCellCount() {
+        return cells.size();
+    }
+
+    @Override
+    public byte[] getTableName() {
+        return descriptor.getTableName().getName();
+    }
+
+    @Override
+    public TableName getName() {
+        return descriptor.getTableName();
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        return configuration;
+    }
+
+    @Override
+    public HTableDescriptor getTableDescriptor() {
+        return descriptor;
+    }
+
+    @Override
+    public boolean exists(Get get) throws IOException {
+        return !get(get).isEmpty();
+    }
+
+    @Override
+    public Boolean[] exists(List<Get> gets) throws IOException {
+        Boolean[] results = new Boolean[gets.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = exists(gets.get(i));
+        }
+        return results;
+    }
+
+    @Override
+    public void batch(List<? extends Row> actions, Object[] results) throws IOException {
+        batchCallback(actions, results, null);
+    }
+
+    /**
+     * @deprecated use {@link #batch(List, Object[])}
+     */
+    @Override
+    @Deprecated
+    public Object[] batch(List<? extends Row> actions) throws IOException {
+        Object[] results = new Object[actions.size()];
+        batch(actions, results);
+        return results;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> void batchCallback(List<? extends Row> actions, Object[] results, Batch.Callback<R> callback) throws IOException {
+        List<Throwable> failures = new ArrayList<>();
+        List<Row> failedActions = new ArrayList<>();
+        for (int i = 0; i < actions.size(); i++) {
+            Row action = actions.get(i);
+            try {
+                results[i] = apply(action);
+                if (callback != null) {
+                    callback.update(getTableName(), action.getRow(), (R) results[i]);
+                }
+            } catch (IOException | RuntimeException e) {
+                results[i] = e;
+                failures.add(e);
+                failedActions.add(action);
+            }
+        }
+        if (!failures.isEmpty()) {
+            List<String> hosts = new ArrayList<>(failures.size());
+            for (int i = 0; i < failures.size(); i++) {
+                hosts.add(HOST);
+            }
+            throw new RetriesExhaustedWithDetailsException(failures, failedActions, hosts);
+        }
+    }
+
+    /**
+     * @deprecated use {@link #batchCallback(List, Object[], Batch.Callback)}
+     */
+    @Override
+    @Deprecated
+    public <R> Object[] batchCallback(List<? extends Row> actions, Batch.Callback<R> callback) throws IOException {
+        Object[] results = new Object[actions.size()];
+        batchCallback(actions, results, callback);
+        return results;
+    }
+
+    @Override
+    public Result get(Get get) throws IOException {
+        List<Cell> selected = new CellReader(get).read(get.getRow(), rowCells(get.getRow()));
+        return selected == null ? Result.EMPTY_RESULT : Result.create(selected);
+    }
+
+    @Override
+    public Result[] get(List<Get> gets) throws IOException {
+        Result[] results = new Result[gets.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = get(gets.get(i));
+        }
+        return results;
+    }
+
+    /**
+     * @deprecated use a reversed scan
+     */
+    @Override
+    @Deprecated
+    public Result getRowOrBefore(byte[] row, byte[] family) throws IOException {
+        for (Cell cell : cells.headSet(KeyValue.createLastOnRow(row), true).descendingSet()) {
+            if (CellUtil.matchingFamily(cell, family)) {
+                return get(new Get(CellUtil.cloneRow(cell)).addFamily(family));
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public ResultScanner getScanner(Scan scan) {
+        return new InMemoryResultScanner(cells, scan);
+    }
+
+    @Override
+    public ResultScanner getScanner(byte[] family) {
+        return getScanner(new Scan().addFamily(family));
+    }
+
+    @Override
+    public ResultScanner getScanner(byte[] family, byte[] qualifier) {
+        return getScanner(new Scan().addColumn(family, qualifier));
+    }
+
+    @Override
+    public void put(Put put) throws IOException {
+        Lock lock = lock(put.getRow());
+        try {
+            applyPut(put, System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(List<Put> puts) throws IOException {
+        for (Put put : puts) {
+            put(put);
+        }
+    }
+
+    @Override
+    public boolean checkAndPut(byte[] row, byte[] family, byte[] qualifier, byte[] value, Put put) throws IOException {
+        Lock lock = lock(row);
+        try {
+            boolean matches = matches(row, family, qualifier, value);
+            if (matches) {
+                applyPut(put, System.currentTimeMillis());
+            }
+            return matches;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void delete(Delete delete) throws IOException {
+        Lock lock = lock(delete.getRow());
+        try {
+            applyDelete(delete, System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void delete(List<Delete> deletes) throws IOException {
+        for (Delete delete : deletes) {
+            delete(delete);
+        }
+    }
+
+    @Override
+    public boolean checkAndDelete(byte[] row, byte[] family, byte[] qualifier, byte[] value, Delete delete) throws IOException {
+        Lock lock = lock(row);
+        try {
+            boolean matches = matches(row, family, qualifier, value);
+            if (matches) {
+                applyDelete(delete, System.currentTimeMillis());
+            }
+            return matches;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void mutateRow(RowMutations rowMutations) throws IOException {
+        Lock lock = lock(rowMutations.getRow());
+        try {
+            long now = System.currentTimeMillis();
+            for (Mutation mutation : rowMutations.getMutations()) {
+                if (mutation instanceof Put) {
+                    applyPut((Put) mutation, now);
+                } else {
+                    applyDelete((Delete) mutation, now);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Result append(Append append) throws IOException {
+        Lock lock = lock(append.getRow());
+        try {
+            long now = System.currentTimeMillis();
+            List<Cell> result = new ArrayList<>();
+            for (List<Cell> family : append.getFamilyCellMap().values()) {
+                for (Cell cell : family) {
+                    Cell current = latest(append.getRow(), CellUtil.cloneFamily(cell), CellUtil.cloneQualifier(cell));
+                    byte[] value = current == null ? CellUtil.cloneValue(cell) : Bytes.add(CellUtil.cloneValue(current), CellUtil.cloneValue(cell));
+                    result.add(store(append.getRow(), CellUtil.cloneFamily(cell), CellUtil.cloneQualifier(cell), now, value));
+                }
+            }
+            return append.isReturnResults() ? Result.create(result) : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Result increment(Increment increment) throws IOException {
+        Lock lock = lock(increment.getRow());
+        try {
+            long now = System.currentTimeMillis();
+            List<Cell> result = new ArrayList<>();
+            for (Map.Entry<byte[], NavigableMap<byte[], Long>> family : increment.getFamilyMapOfLongs().entrySet()) {
+                for (Map.Entry<byte[], Long> column : family.getValue().entrySet()) {
+                    Cell current = latest(increment.getRow(), family.getKey(), column.getKey());
+                    long value = current == null ? 0 : Bytes.toLong(current.getValueArray(), current.getValueOffset(), current.getValueLength());
+                    result.add(store(increment.getRow(), family.getKey(), column.getKey(), now, Bytes.toBytes(value + column.getValue())));
+                }
+            }
+            return Result.create(result);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long incrementColumnValue(byte[] row, byte[] family, byte[] qualifier, long amount) throws IOException {
+        Result result = increment(new Increment(row).addColumn(family, qualifier, amount));
+        return Bytes.toLong(result.getValue(family, qualifier));
+    }
+
+    @Override
+    public long incrementColumnValue(byte[] row, byte[] family, byte[] qualifier, long amount, Durability durability) throws IOException {
+        return incrementColumnValue(row, family, qualifier, amount);
+    }
+
+    /**
+     * @deprecated use {@link #incrementColumnValue(byte[], byte[], byte[], long, Durability)}
+     */
+    @Override
+    @Deprecated
+    public long incrementColumnValue(byte[] row, byte[] family, byte[] qualifier, long amount, boolean writeToWAL) throws IOException {
+        return incrementColumnValue(row, family, qualifier, amount);
+    }
+
+    @Override
+    public boolean isAutoFlush() {
+        return autoFlush;
+    }
+
+    @Override
+    public void flushCommits() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public CoprocessorRpcChannel coprocessorService(byte[] row) {
+        throw new UnsupportedOperationException("Coprocessors are not supported by the in-memory table");
+    }
+
+    @Override
+    public <T extends Service, R> Map<byte[], R> coprocessorService(Class<T> service, byte[] startKey, byte[] endKey, Batch.Call<T, R> callable) {
+        throw new UnsupportedOperationException("Coprocessors are not supported by the in-memory table");
+    }
+
+    @Override
+    public <T extends Service, R> void coprocessorService(Class<T> service, byte[] startKey, byte[] endKey, Batch.Call<T, R> callable,
+            Batch.Callback<R> callback) {
+        throw new UnsupportedOperationException("Coprocessors are not supported by the in-memory table");
+    }
+
+    /**
+     * @deprecated use {@link #setAutoFlushTo(boolean)}
+     */
+    @Override
+    @Deprecated
+    public void setAutoFlush(boolean autoFlush) {
+        this.autoFlush = autoFlush;
+    }
+
+    @Override
+    public void setAutoFlush(boolean autoFlush, boolean clearBufferOnFail) {
+        this.autoFlush = autoFlush;
+    }
+
+    @Override
+    public void setAutoFlushTo(boolean autoFlush) {
+        this.autoFlush = autoFlush;
+    }
+
+    @Override
+    public long getWriteBufferSize() {
+        return writeBufferSize;
+    }
+
+    @Override
+    public void setWriteBufferSize(long writeBufferSize) {
+        this.writeBufferSize = writeBufferSize;
+    }
+
+    @Override
+    public <R extends Message> Map<byte[], R> batchCoprocessorService(Descriptors.MethodDescriptor methodDescriptor, Message request,
+            byte[] startKey, byte[] endKey, R responsePrototype) {
+        throw new UnsupportedOperationException("Coprocessors are not supported by the in-memory table");
+    }
+
+    @Override
+    public <R extends Message> void batchCoprocessorService(Descriptors.MethodDescriptor methodDescriptor, Message request,
+            byte[] startKey, byte[] endKey, R responsePrototype, Batch.Callback<R> callback) {
+        throw new UnsupportedOperationException("Coprocessors are not supported by the in-memory table");
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("InMemoryHTable{");
+        sb.append("name=").append(descriptor.getTableName());
+        sb.append(", cells=").append(cells.size());
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private Object apply(Row action) throws IOException {
+        Object result = Result.EMPTY_RESULT;
+        if (action instanceof Get) {
+            result = get((Get) action);
+        } else if (action instanceof Put) {
+            put((Put) action);
+        } else if (action instanceof Delete) {
+            delete((Delete) action);
+        } else if (action instanceof Increment) {
+            result = increment((Increment) action);
+        } else if (action instanceof Append) {
+            result = append((Append) action);
+        } else if (action instanceof RowMutations) {
+            mutateRow((RowMutations) action);
+        } else {
+            throw new UnsupportedOperationException("Unsupported action: " + action.getClass().getName());
+        }
+        return result;
+    }
+
+    private Lock lock(byte[] row) {
+        Lock lock = rowLocks[(Bytes.hashCode(row) & Integer.MAX_VALUE) % LOCK_STRIPES];
+        lock.lock();
+        return lock;
+    }
+
+    private NavigableSet<Cell> rowCells(byte[] row) {
+        return cells.subSet(KeyValue.createFirstOnRow(row), true, KeyValue.createLastOnRow(row), true);
+    }
+
+    private boolean matches(byte[] row, byte[] family, byte[] qualifier, byte[] value) {
+        Cell current = latest(row, family, qualifier);
+        if (value == null || value.length == 0) {
+            return current == null || current.getValueLength() == 0;
+        }
+        return current != null && CellUtil.matchingValue(current, value);
+    }
+
+    private Cell latest(byte[] row, byte[] family, byte[] qualifier) {
+        Cell cell = cells.ceiling(KeyValue.createFirstOnRow(row, family, qualifier));
+        return cell != null && matches(cell, row, family, qualifier) ? cell : null;
+    }
+
+    private void applyPut(Put put, long now) throws IOException {
+        for (Map.Entry<byte[], List<Cell>> family : put.getFamilyCellMap().entrySet()) {
+            for (Cell cell : family.getValue()) {
+                store(put.getRow(), family.getKey(), CellUtil.cloneQualifier(cell), timestamp(cell.getTimestamp(), now), CellUtil.cloneValue(cell));
+            }
+        }
+    }
+
+    private Cell store(byte[] row, byte[] family, byte[] qualifier, long timestamp, byte[] value) throws IOException {
+        int maxVersions = getMaxVersions(family);
+        KeyValue keyValue = new KeyValue(row, family, qualifier, timestamp, KeyValue.Type.Put, value);
+        cells.remove(keyValue);
+        cells.add(keyValue);
+        trimVersions(row, family, qualifier, maxVersions);
+        return keyValue;
+    }
+
+    private void trimVersions(byte[] row, byte[] family, byte[] qualifier, int maxVersions) {
+        int versions = 0;
+        for (Cell cell : cells.tailSet(KeyValue.createFirstOnRow(row, family, qualifier), true)) {
+            if (!matches(cell, row, family, qualifier)) {
+                break;
+            }
+            if (++versions > maxVersions) {
+                cells.remove(cell);
+            }
+        }
+    }
+
+    private void applyDelete(Delete delete, long now) throws IOException {
+        byte[] row = delete.getRow();
+        if (delete.getFamilyCellMap().isEmpty()) {
+            removeCells(row, null, null, timestamp(delete.getTimeStamp(), now), false);
+        }
+        for (Map.Entry<byte[], List<Cell>> family : delete.getFamilyCellMap().entrySet()) {
+            checkFamily(family.getKey());
+            for (Cell cell : family.getValue()) {
+                long timestamp = timestamp(cell.getTimestamp(), now);
+                switch (KeyValue.Type.codeToType(cell.getTypeByte())) {
+                    case DeleteFamily:
+                        removeCells(row, family.getKey(), null, timestamp, false);
+                        break;
+                    case DeleteFamilyVersion:
+                        removeCells(row, family.getKey(), null, timestamp, true);
+                        break;
+                    case DeleteColumn:
+                        removeCells(row, family.getKey(), CellUtil.cloneQualifier(cell), timestamp, false);
+                        break;
+                    default:
+                        removeVersion(row, family.getKey(), CellUtil.cloneQualifier(cell), cell.getTimestamp());
+                        break;
+                }
+            }
+        }
+    }
+
+    private void removeCells(byte[] row, byte[] family, byte[] qualifier, long timestamp, boolean exact) {
+        KeyValue first = family == null ? KeyValue.createFirstOnRow(row) : KeyValue.createFirstOnRow(row, family, qualifier);
+        for (Cell cell : cells.tailSet(first, true)) {
+            if (!CellUtil.matchingRow(cell, row) || family != null && !CellUtil.matchingFamily(cell, family)) {
+                break;
+            }
+            if (qualifier != null && !CellUtil.matchingQualifier(cell, qualifier)) {
+                break;
+            }
+            if (exact ? cell.getTimestamp() == timestamp : cell.getTimestamp() <= timestamp) {
+                cells.remove(cell);
+            }
+        }
+    }
+
+    private void removeVersion(byte[] row, byte[] family, byte[] qualifier, long timestamp) {
+        if (timestamp == HConstants.LATEST_TIMESTAMP) {
+            Cell cell = latest(row, family, qualifier);
+            if (cell != null) {
+                cells.remove(cell);
+            }
+        } else {
+            removeCells(row, family, qualifier, timestamp, true);
+        }
+    }
+
+    private int getMaxVersions(byte[] family) throws NoSuchColumnFamilyException {
+        HColumnDescriptor columnDescriptor = checkFamily(family);
+        return columnDescriptor == null ? HColumnDescriptor.DEFAULT_VERSIONS : columnDescriptor.getMaxVersions();
+    }
+
+    private HColumnDescriptor checkFamily(byte[] family) throws NoSuchColumnFamilyException {
+        if (descriptor.getColumnFamilies().length == 0) {
+            return null;
+        }
+        HColumnDescriptor columnDescriptor = descriptor.getFamily(family);
+        if (columnDescriptor == null) {
+            throw new NoSuchColumnFamilyException("Column family " + Bytes.toString(family) + " does not exist in table "
+                    + descriptor.getTableName().getNameAsString());
+        }
+        return columnDescriptor;
+    }
+
+    private static boolean matches(Cell cell, byte[] row, byte[] family, byte[] qualifier) {
+        return CellUtil.matchingRow(cell, row) && CellUtil.matchingFamily(cell, family) && CellUtil.matchingQualifier(cell, qualifier);
+    }
+
+    private static long timestamp(long timestamp, long now) {
+        return timestamp == HConstants.LATEST_TIMESTAMP ? now : timestamp;
+    }
+}
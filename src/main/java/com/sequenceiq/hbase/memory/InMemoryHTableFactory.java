@@ -0,0 +1,69 @@
+package com.sequenceiq.hbase.memory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.HTableInterfaceFactory;
+
+/**
+ * Hands out {@link InMemoryHTable} instances, one shared instance per table name. Tables not
+ * created up front with {@link #createTable(HTableDescriptor)} are created on first use and accept
+ * any column family.
+ */
+public class InMemoryHTableFactory implements HTableInterfaceFactory {
+
+    private final ConcurrentMap<TableName, InMemoryHTable> tables = new ConcurrentHashMap<>();
+    private final Configuration configuration;
+
+    public InMemoryHTableFactory() {
+        this(new Configuration(false));
+    }
+
+    public InMemoryHTableFactory(Configuration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Creates the table unless it already exists, in which case the existing table is returned.
+     */
+    public InMemoryHTable createTable(HTableDescriptor descriptor) {
+        InMemoryHTable table = new InMemoryHTable(descriptor, configuration);
+        InMemoryHTable previous = tables.putIfAbsent(descriptor.getTableName(), table);
+        return previous == null ? table : previous;
+    }
+
+    /**
+     * Creates the table with the given column families, see {@link #createTable(HTableDescriptor)}.
+     */
+    public InMemoryHTable createTable(String tableName, String... families) {
+        HTableDescriptor descriptor = new HTableDescriptor(TableName.valueOf(tableName));
+        for (String family : families) {
+            descriptor.addFamily(new HColumnDescriptor(family));
+        }
+        return createTable(descriptor);
+    }
+
+    public InMemoryHTable getTable(String tableName) {
+        return tables.get(TableName.valueOf(tableName));
+    }
+
+    public boolean deleteTable(String tableName) {
+        return tables.remove(TableName.valueOf(tableName)) != null;
+    }
+
+    @Override
+    public HTableInterface createHTableInterface(Configuration config, byte[] tableName) {
+        TableName name = TableName.valueOf(tableName);
+        InMemoryHTable table = tables.get(name);
+        return table == null ? createTable(new HTableDescriptor(name)) : table;
+    }
+
+    @Override
+    public void releaseHTableInterface(HTableInterface table) {
+    }
+}
@@ -0,0 +1,168 @@
+package com.sequenceiq.hbase.memory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import com.sequenceiq.hbase.client.HBaseOperationException;
+
+/**
+ * Walks the cells of an {@link InMemoryHTable} row by row. The iteration is weakly consistent,
+ * rows written concurrently may or may not be seen, but every returned row is complete.
+ */
+class InMemoryResultScanner implements ResultScanner {
+
+    private final Iterator<Cell> cells;
+    private final CellReader reader;
+    private final byte[] stopRow;
+    private final boolean reversed;
+    private final boolean getScan;
+    private final int batch;
+    private final Deque<Result> partials = new ArrayDeque<>();
+    private Cell pending;
+    private boolean closed;
+
+    InMemoryResultScanner(NavigableSet<Cell> tableCells, Scan scan) {
+        byte[] startRow = scan.getStartRow();
+        reversed = scan.isReversed();
+        if (reversed) {
+            cells = startRow.length == 0 ? tableCells.descendingIterator()
+                    : tableCells.headSet(KeyValue.createLastOnRow(startRow), true).descendingIterator();
+        } else {
+            cells = tableCells.tailSet(KeyValue.createFirstOnRow(startRow), true).iterator();
+        }
+        reader = new CellReader(scan);
+        stopRow = scan.getStopRow();
+        getScan = scan.isGetScan();
+        batch = scan.getBatch();
+    }
+
+    @Override
+    public Result next() throws IOException {
+        if (!partials.isEmpty()) {
+            return partials.poll();
+        }
+        while (!closed && !reader.filterAllRemaining()) {
+            List<Cell> row = nextRow();
+            if (row == null) {
+                close();
+                break;
+            }
+            List<Cell> selected = reader.read(CellUtil.cloneRow(row.get(0)), row);
+            if (selected != null) {
+                return split(selected);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Result[] next(int nbRows) throws IOException {
+        List<Result> results = new ArrayList<>(nbRows);
+        for (int i = 0; i < nbRows; i++) {
+            Result result = next();
+            if (result == null) {
+                break;
+            }
+            results.add(result);
+        }
+        return results.toArray(new Result[results.size()]);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        pending = null;
+    }
+
+    @Override
+    public Iterator<Result> iterator() {
+        return new Iterator<Result>() {
+            private Result next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = InMemoryResultScanner.this.next();
+                    } catch (IOException e) {
+                        throw new HBaseOperationException(e);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Result next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Result result = next;
+                next = null;
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private List<Cell> nextRow() {
+        Cell first = pending == null && cells.hasNext() ? cells.next() : pending;
+        pending = null;
+        if (first == null || isPastStop(first)) {
+            return null;
+        }
+        List<Cell> row = new ArrayList<>();
+        row.add(first);
+        while (cells.hasNext()) {
+            Cell cell = cells.next();
+            if (!CellUtil.matchingRow(first, cell)) {
+                pending = cell;
+                break;
+            }
+            row.add(cell);
+        }
+        if (reversed) {
+            Collections.reverse(row);
+        }
+        return row;
+    }
+
+    private boolean isPastStop(Cell cell) {
+        if (getScan) {
+            return !CellUtil.matchingRow(cell, stopRow);
+        }
+        if (stopRow.length == 0) {
+            return false;
+        }
+        int result = Bytes.compareTo(cell.getRowArray(), cell.getRowOffset(), cell.getRowLength(), stopRow, 0, stopRow.length);
+        return reversed ? result <= 0 : result >= 0;
+    }
+
+    private Result split(List<Cell> row) {
+        if (batch <= 0 || row.size() <= batch) {
+            return Result.create(row);
+        }
+        for (int from = 0; from < row.size(); from += batch) {
+            partials.add(Result.create(row.subList(from, Math.min(from + batch, row.size()))));
+        }
+        return partials.poll();
+    }
+}
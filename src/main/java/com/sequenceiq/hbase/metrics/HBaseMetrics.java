@@ -0,0 +1,175 @@
+package com.sequenceiq.hbase.metrics;
+
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.hadoop.hbase.util.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.hbase.client.HBaseOperationException;
+
+/**
+ * Per table and per operation metrics. The metrics of a table are created on first use, after
+ * that recording only touches striped counters and atomic histogram buckets so it can stay
+ * enabled in production. The statistics are available through JMX after
+ * {@link #registerMBean(String)} and can be pushed to {@link MetricsReporter}s.
+ */
+public class HBaseMetrics implements HBaseMetricsMXBean, Closeable {
+
+    public static final String JMX_DOMAIN = "com.sequenceiq.hbase";
+    private static final Logger LOGGER = LoggerFactory.getLogger(HBaseMetrics.class);
+    private static final OperationType[] OPERATIONS = OperationType.values();
+    private static final String CIRCUIT_OPEN = "OPEN";
+    private final ConcurrentMap<String, TableMetrics> tables = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reporterExecutor;
+    private ObjectName objectName;
+
+    public OperationMetrics getOperationMetrics(String tableName, OperationType operation) {
+        return getTableMetrics(tableName).operations[operation.ordinal()];
+    }
+
+    public void recordTableCreated(String tableName) {
+        getTableMetrics(tableName).created.increment();
+    }
+
+    public void recordTableReleased(String tableName) {
+        getTableMetrics(tableName).released.increment();
+    }
+
+    /**
+     * Records a state change of the circuit breaker of the table.
+     */
+    public void recordCircuitState(String tableName, String state) {
+        TableMetrics table = getTableMetrics(tableName);
+        table.circuitState = state;
+        if (CIRCUIT_OPEN.equals(state)) {
+            table.circuitOpenings.increment();
+        }
+    }
+
+    public void recordCircuitRejection(String tableName) {
+        getTableMetrics(tableName).circuitRejections.increment();
+    }
+
+    public void recordBulkheadRejection(String tableName) {
+        getTableMetrics(tableName).bulkheadRejections.increment();
+    }
+
+    public TableStatistics getStatistics(String tableName) {
+        return getTableMetrics(tableName).getStatistics();
+    }
+
+    @Override
+    public List<TableStatistics> getTables() {
+        List<TableStatistics> result = new ArrayList<>(tables.size());
+        for (TableMetrics table : tables.values()) {
+            result.add(table.getStatistics());
+        }
+        return result;
+    }
+
+    /**
+     * Registers the statistics in the platform MBean server as {@code com.sequenceiq.hbase:type=HBaseMetrics,name=<name>}.
+     */
+    public synchronized void registerMBean(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName object = new ObjectName(JMX_DOMAIN + ":type=HBaseMetrics,name=" + ObjectName.quote(name));
+            server.registerMBean(this, object);
+            objectName = object;
+        } catch (JMException e) {
+            throw new HBaseOperationException(e);
+        }
+    }
+
+    public synchronized void addReporter(final MetricsReporter reporter, long period, TimeUnit unit) {
+        if (reporterExecutor == null) {
+            reporterExecutor = Executors.newSingleThreadScheduledExecutor(Threads.newDaemonThreadFactory("hbase-metrics-reporter"));
+        }
+        reporterExecutor.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    reporter.report(getTables());
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Metrics reporter failed", e);
+                }
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Stops the reporters and unregisters the MBean.
+     */
+    @Override
+    public synchronized void close() {
+        if (reporterExecutor != null) {
+            reporterExecutor.shutdownNow();
+            reporterExecutor = null;
+        }
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                LOGGER.warn("Cannot unregister HBASE metrics MBean", e);
+            }
+            objectName = null;
+        }
+    }
+
+    private TableMetrics getTableMetrics(String tableName) {
+        TableMetrics table = tables.get(tableName);
+        if (table == null) {
+            table = new TableMetrics(tableName);
+            TableMetrics previous = tables.putIfAbsent(tableName, table);
+            if (previous != null) {
+                table = previous;
+            }
+        }
+        return table;
+    }
+
+    private static final class TableMetrics {
+
+        private final String tableName;
+        private final OperationMetrics[] operations = new OperationMetrics[OPERATIONS.length];
+        private final LongAdder created = new LongAdder();
+        private final LongAdder released = new LongAdder();
+        private final LongAdder circuitOpenings = new LongAdder();
+        private final LongAdder circuitRejections = new LongAdder();
+        private final LongAdder bulkheadRejections = new LongAdder();
+        private volatile String circuitState;
+
+        private TableMetrics(String tableName) {
+            this.tableName = tableName;
+            for (OperationType operation : OPERATIONS) {
+                operations[operation.ordinal()] = new OperationMetrics(tableName, operation);
+            }
+        }
+
+        private TableStatistics getStatistics() {
+            List<OperationStatistics> result = new ArrayList<>();
+            for (OperationMetrics operation : operations) {
+                if (operation.getLatency().getCount() > 0) {
+                    result.add(operation.getStatistics());
+                }
+            }
+            IsolationStatistics isolation = new IsolationStatistics(circuitState, circuitOpenings.sum(), circuitRejections.sum(),
+                    bulkheadRejections.sum());
+            return new TableStatistics(tableName, created.sum(), released.sum(), result, isolation);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.sequenceiq.hbase.metrics;
+
+import java.util.List;
+
+public interface HBaseMetricsMXBean {
+
+    List<TableStatistics> getTables();
+}
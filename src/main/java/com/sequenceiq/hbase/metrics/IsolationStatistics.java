@@ -0,0 +1,49 @@
+package com.sequenceiq.hbase.metrics;
+
+/**
+ * Point in time view of the bulkhead and circuit breaker of one table.
+ */
+public class IsolationStatistics {
+
+    private final String circuitState;
+    private final long circuitOpenings;
+    private final long circuitRejections;
+    private final long bulkheadRejections;
+
+    IsolationStatistics(String circuitState, long circuitOpenings, long circuitRejections, long bulkheadRejections) {
+        this.circuitState = circuitState;
+        this.circuitOpenings = circuitOpenings;
+        this.circuitRejections = circuitRejections;
+        this.bulkheadRejections = bulkheadRejections;
+    }
+
+    /**
+     * CLOSED, OPEN or HALF_OPEN, null if the table has no circuit breaker.
+     */
+    public String getCircuitState() {
+        return circuitState;
+    }
+
+    public long getCircuitOpenings() {
+        return circuitOpenings;
+    }
+
+    public long getCircuitRejections() {
+        return circuitRejections;
+    }
+
+    public long getBulkheadRejections() {
+        return bulkheadRejections;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("IsolationStatistics{");
+        sb.append("circuitState=").append(circuitState);
+        sb.append(", circuitOpenings=").append(circuitOpenings);
+        sb.append(", circuitRejections=").append(circuitRejections);
+        sb.append(", bulkheadRejections=").append(bulkheadRejections);
+        sb.append('}');
+        return sb.toString();
+    }
+}
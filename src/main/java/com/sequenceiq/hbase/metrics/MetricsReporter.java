@@ -0,0 +1,11 @@
+package com.sequenceiq.hbase.metrics;
+
+import java.util.List;
+
+/**
+ * Receives the statistics of every table periodically, see {@link HBaseMetrics#addReporter(MetricsReporter, long, java.util.concurrent.TimeUnit)}.
+ */
+public interface MetricsReporter {
+
+    void report(List<TableStatistics> statistics);
+}
@@ -0,0 +1,114 @@
+package com.sequenceiq.hbase.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histogram of one operation type on one table. Operations sending several rows
+ * in one request also record the size of the batches.
+ */
+public class OperationMetrics {
+
+    private final String tableName;
+    private final OperationType operation;
+    private final Histogram latency = new Histogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder rejectedRetries = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private volatile Histogram batchSizes;
+
+    OperationMetrics(String tableName, OperationType operation) {
+        this.tableName = tableName;
+        this.operation = operation;
+    }
+
+    public void record(long nanos, boolean failed) {
+        latency.record(nanos);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    public void recordTransfer(long rowCount, long byteCount) {
+        rows.add(rowCount);
+        bytes.add(byteCount);
+    }
+
+    public void recordRetry() {
+        retries.increment();
+    }
+
+    /**
+     * A retriable failure that was not retried because the retry budget was exhausted.
+     */
+    public void recordRejectedRetry() {
+        rejectedRetries.increment();
+    }
+
+    public void recordHedge() {
+        hedges.increment();
+    }
+
+    public void recordBatch(int size) {
+        Histogram histogram = batchSizes;
+        if (histogram == null) {
+            synchronized (this) {
+                histogram = batchSizes;
+                if (histogram == null) {
+                    histogram = new Histogram();
+                    batchSizes = histogram;
+                }
+            }
+        }
+        histogram.record(size);
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Sizes of the recorded batches, null if no batch was recorded.
+     */
+    public Histogram getBatchSizes() {
+        return batchSizes;
+    }
+
+    public OperationStatistics getStatistics() {
+        return new OperationStatistics(this);
+    }
+
+    String getTableName() {
+        return tableName;
+    }
+
+    OperationType getOperation() {
+        return operation;
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    long getRows() {
+        return rows.sum();
+    }
+
+    long getBytes() {
+        return bytes.sum();
+    }
+
+    long getRetries() {
+        return retries.sum();
+    }
+
+    long getRejectedRetries() {
+        return rejectedRetries.sum();
+    }
+
+    long getHedges() {
+        return hedges.sum();
+    }
+}
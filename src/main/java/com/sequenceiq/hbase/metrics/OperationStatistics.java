@@ -0,0 +1,157 @@
+package com.sequenceiq.hbase.metrics;
+
+/**
+ * Point in time view of the metrics of one operation type on one table, latencies are in nanoseconds.
+ * The batch sizes are zero for operations that do not record batches.
+ */
+public class OperationStatistics {
+
+    private static final double P50 = 50;
+    private static final double P90 = 90;
+    private static final double P99 = 99;
+    private static final double P999 = 99.9;
+    private final String tableName;
+    private final String operation;
+    private final long calls;
+    private final long errors;
+    private final long rows;
+    private final long bytes;
+    private final long retries;
+    private final long rejectedRetries;
+    private final long hedges;
+    private final long meanNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+    private final long batches;
+    private final double meanBatchSize;
+    private final long p50BatchSize;
+    private final long maxBatchSize;
+
+    OperationStatistics(OperationMetrics metrics) {
+        Histogram latency = metrics.getLatency();
+        Histogram batchSizes = metrics.getBatchSizes();
+        this.tableName = metrics.getTableName();
+        this.operation = metrics.getOperation().name();
+        this.calls = latency.getCount();
+        this.errors = metrics.getErrors();
+        this.rows = metrics.getRows();
+        this.bytes = metrics.getBytes();
+        this.retries = metrics.getRetries();
+        this.rejectedRetries = metrics.getRejectedRetries();
+        this.hedges = metrics.getHedges();
+        this.meanNanos = (long) latency.getMean();
+        this.p50Nanos = latency.getPercentile(P50);
+        this.p90Nanos = latency.getPercentile(P90);
+        this.p99Nanos = latency.getPercentile(P99);
+        this.p999Nanos = latency.getPercentile(P999);
+        this.maxNanos = latency.getMax();
+        this.batches = batchSizes == null ? 0 : batchSizes.getCount();
+        this.meanBatchSize = batchSizes == null ? 0 : batchSizes.getMean();
+        this.p50BatchSize = batchSizes == null ? 0 : batchSizes.getPercentile(P50);
+        this.maxBatchSize = batchSizes == null ? 0 : batchSizes.getMax();
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getRetries() {
+        return retries;
+    }
+
+    public long getRejectedRetries() {
+        return rejectedRetries;
+    }
+
+    public long getHedges() {
+        return hedges;
+    }
+
+    public long getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public double getMeanBatchSize() {
+        return meanBatchSize;
+    }
+
+    public long getP50BatchSize() {
+        return p50BatchSize;
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("OperationStatistics{");
+        sb.append("tableName='").append(tableName).append('\'');
+        sb.append(", operation=").append(operation);
+        sb.append(", calls=").append(calls);
+        sb.append(", errors=").append(errors);
+        sb.append(", rows=").append(rows);
+        sb.append(", bytes=").append(bytes);
+        sb.append(", retries=").append(retries);
+        sb.append(", rejectedRetries=").append(rejectedRetries);
+        sb.append(", hedges=").append(hedges);
+        sb.append(", meanNanos=").append(meanNanos);
+        sb.append(", p50Nanos=").append(p50Nanos);
+        sb.append(", p99Nanos=").append(p99Nanos);
+        sb.append(", maxNanos=").append(maxNanos);
+        if (batches > 0) {
+            sb.append(", batches=").append(batches);
+            sb.append(", meanBatchSize=").append(meanBatchSize);
+            sb.append(", maxBatchSize=").append(maxBatchSize);
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+}
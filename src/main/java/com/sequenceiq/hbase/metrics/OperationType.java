@@ -0,0 +1,5 @@
+package com.sequenceiq.hbase.metrics;
+
+public enum OperationType {
+    GET, MULTI_GET, BATCHED_GET, PUT, SCAN, EXECUTE, INCREMENT, APPEND, CHECK_AND_MUTATE, MUTATE_ROW, DELETE, BATCH
+}
@@ -0,0 +1,29 @@
+package com.sequenceiq.hbase.metrics;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs the statistics of every called operation at info level.
+ */
+public class Slf4jMetricsReporter implements MetricsReporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Slf4jMetricsReporter.class);
+
+    @Override
+    public void report(List<TableStatistics> statistics) {
+        for (TableStatistics table : statistics) {
+            LOGGER.info("HBASE table {}: created {} and released {} table handles", table.getTableName(), table.getTablesCreated(),
+                    table.getTablesReleased());
+            IsolationStatistics isolation = table.getIsolation();
+            if (isolation.getCircuitState() != null || isolation.getBulkheadRejections() > 0) {
+                LOGGER.info("HBASE table {}: {}", table.getTableName(), isolation);
+            }
+            for (OperationStatistics operation : table.getOperations()) {
+                LOGGER.info("HBASE {}", operation);
+            }
+        }
+    }
+}
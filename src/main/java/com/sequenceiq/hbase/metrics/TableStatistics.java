@@ -0,0 +1,57 @@
+package com.sequenceiq.hbase.metrics;
+
+import java.util.List;
+
+/**
+ * Point in time view of the metrics of one table: table handles created and released by the
+ * pool, the statistics of every operation type called at least once and the state of the bulkhead
+ * and circuit breaker.
+ */
+public class TableStatistics {
+
+    private final String tableName;
+    private final long tablesCreated;
+    private final long tablesReleased;
+    private final List<OperationStatistics> operations;
+    private final IsolationStatistics isolation;
+
+    TableStatistics(String tableName, long tablesCreated, long tablesReleased, List<OperationStatistics> operations, IsolationStatistics isolation) {
+        this.tableName = tableName;
+        this.tablesCreated = tablesCreated;
+        this.tablesReleased = tablesReleased;
+        this.operations = operations;
+        this.isolation = isolation;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public long getTablesCreated() {
+        return tablesCreated;
+    }
+
+    public long getTablesReleased() {
+        return tablesReleased;
+    }
+
+    public List<OperationStatistics> getOperations() {
+        return operations;
+    }
+
+    public IsolationStatistics getIsolation() {
+        return isolation;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("TableStatistics{");
+        sb.append("tableName='").append(tableName).append('\'');
+        sb.append(", tablesCreated=").append(tablesCreated);
+        sb.append(", tablesReleased=").append(tablesReleased);
+        sb.append(", operations=").append(operations);
+        sb.append(", isolation=").append(isolation);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,137 @@
+package com.sequenceiq.hbase.model;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Read-only row view over the cells of a {@link Result}. Nothing is copied or decoded up front,
+ * the cells are looked up with a binary search and only the accessed values are decoded.
+ */
+public final class HBaseByteRow {
+
+    private static final Cell[] NO_CELLS = new Cell[0];
+    private final Cell[] cells;
+
+    public HBaseByteRow(Cell[] cells) {
+        this.cells = cells == null ? NO_CELLS : cells;
+    }
+
+    public static HBaseByteRow of(Result result) {
+        return new HBaseByteRow(result == null ? null : result.rawCells());
+    }
+
+    public boolean isEmpty() {
+        return cells.length == 0;
+    }
+
+    public int size() {
+        return cells.length;
+    }
+
+    /**
+     * The underlying cells in family, qualifier and descending timestamp order, must not be modified.
+     */
+    public Cell[] getCells() {
+        return cells;
+    }
+
+    public byte[] getRowKey() {
+        return isEmpty() ? null : CellUtil.cloneRow(cells[0]);
+    }
+
+    public ByteBuffer getRowKeyBuffer() {
+        if (isEmpty()) {
+            return null;
+        }
+        Cell cell = cells[0];
+        return ByteBuffer.wrap(cell.getRowArray(), cell.getRowOffset(), cell.getRowLength()).slice();
+    }
+
+    public String getRowKeyString() {
+        if (isEmpty()) {
+            return null;
+        }
+        Cell cell = cells[0];
+        return Bytes.toString(cell.getRowArray(), cell.getRowOffset(), cell.getRowLength());
+    }
+
+    public boolean contains(byte[] family, byte[] qualifier) {
+        return getCell(family, qualifier) != null;
+    }
+
+    /**
+     * Latest version of the cell or null if the row does not contain the column.
+     */
+    public Cell getCell(byte[] family, byte[] qualifier) {
+        int low = 0;
+        int high = cells.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(cells[mid], family, qualifier) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < cells.length && compare(cells[low], family, qualifier) == 0 ? cells[low] : null;
+    }
+
+    /**
+     * Zero-copy view of the value, or null if the row does not contain the column.
+     */
+    public ByteBuffer getValueBuffer(byte[] family, byte[] qualifier) {
+        Cell cell = getCell(family, qualifier);
+        return cell == null ? null : ByteBuffer.wrap(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength()).slice();
+    }
+
+    public byte[] getValue(byte[] family, byte[] qualifier) {
+        Cell cell = getCell(family, qualifier);
+        return cell == null ? null : CellUtil.cloneValue(cell);
+    }
+
+    public String getString(byte[] family, byte[] qualifier) {
+        Cell cell = getCell(family, qualifier);
+        return cell == null ? null : Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+    }
+
+    public long getLong(byte[] family, byte[] qualifier, long defaultValue) {
+        Cell cell = getCell(family, qualifier);
+        return cell == null ? defaultValue : Bytes.toLong(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+    }
+
+    public int getInt(byte[] family, byte[] qualifier, int defaultValue) {
+        Cell cell = getCell(family, qualifier);
+        return cell == null ? defaultValue : Bytes.toInt(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+    }
+
+    public double getDouble(byte[] family, byte[] qualifier, double defaultValue) {
+        Cell cell = getCell(family, qualifier);
+        return cell == null ? defaultValue : Double.longBitsToDouble(Bytes.toLong(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength()));
+    }
+
+    public boolean getBoolean(byte[] family, byte[] qualifier, boolean defaultValue) {
+        Cell cell = getCell(family, qualifier);
+        return cell == null || cell.getValueLength() == 0 ? defaultValue : cell.getValueArray()[cell.getValueOffset()] != 0;
+    }
+
+    private static int compare(Cell cell, byte[] family, byte[] qualifier) {
+        int result = Bytes.compareTo(cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength(), family, 0, family.length);
+        if (result == 0) {
+            result = Bytes.compareTo(cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength(), qualifier, 0, qualifier.length);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("HBaseByteRow{");
+        sb.append("rowKey='").append(isEmpty() ? null : Bytes.toStringBinary(getRowKey())).append('\'');
+        sb.append(", cells=").append(cells.length);
+        sb.append('}');
+        return sb.toString();
+    }
+}
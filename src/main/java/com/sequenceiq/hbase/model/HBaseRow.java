@@ -46,12 +46,12 @@ public class HBaseRow implements Serializable {
         if (columnFamilies == null) {
             columnFamilies = createValuesMap(family, column, value);
         } else {
-            Family fam = new Qualifier(family);
+            Family fam = Qualifier.valueOf(family);
             Map<Column, String> values = columnFamilies.get(fam);
             if (values == null) {
                 values = new HashMap<>();
             }
-            values.put(new Qualifier(column), value);
+            values.put(Qualifier.valueOf(column), value);
             columnFamilies.put(fam, values);
         }
     }
@@ -59,8 +59,8 @@ public class HBaseRow implements Serializable {
     private Map<Family, Map<Column, String>> createValuesMap(String family, String column, String value) {
         Map<Family, Map<Column, String>> families = new HashMap<>();
         Map<Column, String> values = new HashMap<>();
-        values.put(new Qualifier(column), value);
-        families.put(new Qualifier(family), values);
+        values.put(Qualifier.valueOf(column), value);
+        families.put(Qualifier.valueOf(family), values);
         return families;
     }
 
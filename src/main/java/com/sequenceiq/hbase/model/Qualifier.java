@@ -1,13 +1,43 @@
 package com.sequenceiq.hbase.model;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public final class Qualifier implements Family, Column {
+
+    public static final int MAX_CACHED_NAMES = 10000;
+    private static final long serialVersionUID = 442412552352826136L;
+    private static final ConcurrentMap<String, Qualifier> CACHE = new ConcurrentHashMap<>();
     private final String name;
+    private transient byte[] nameBytes;
+    private transient int hash;
 
     public Qualifier(String name) {
         this.name = name;
+        this.nameBytes = name == null ? null : name.getBytes(StandardCharsets.UTF_8);
+        this.hash = name == null ? 0 : name.hashCode();
+    }
+
+    /**
+     * Returns a shared instance for the name. Up to {@link #MAX_CACHED_NAMES} names are interned,
+     * after that new instances are created.
+     */
+    public static Qualifier valueOf(String name) {
+        if (name == null) {
+            return new Qualifier(null);
+        }
+        Qualifier qualifier = CACHE.get(name);
+        if (qualifier == null) {
+            qualifier = new Qualifier(name);
+            if (CACHE.size() < MAX_CACHED_NAMES) {
+                Qualifier previous = CACHE.putIfAbsent(name, qualifier);
+                if (previous != null) {
+                    qualifier = previous;
+                }
+            }
+        }
+        return qualifier;
     }
 
     @Override
@@ -15,19 +45,33 @@ public final class Qualifier implements Family, Column {
         return name;
     }
 
+    /**
+     * UTF-8 encoded name, the array is shared and must not be modified.
+     */
     @Override
     public byte[] getNameBytes() {
-        return name == null ? null : name.getBytes();
+        return nameBytes;
     }
 
     @Override
     public boolean equals(Object o) {
-        return EqualsBuilder.reflectionEquals(this, o);
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Qualifier)) {
+            return false;
+        }
+        Qualifier other = (Qualifier) o;
+        return hash == other.hash && (name == null ? other.name == null : name.equals(other.name));
     }
 
     @Override
     public int hashCode() {
-        return HashCodeBuilder.reflectionHashCode(this);
+        return hash;
+    }
+
+    private Object readResolve() {
+        return valueOf(name);
     }
 
     @Override
@@ -11,10 +11,15 @@ import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 
+import org.apache.hadoop.hbase.HColumnDescriptor;
 import org.apache.hadoop.hbase.HTableDescriptor;
 import org.apache.hadoop.hbase.MasterNotRunningException;
 import org.apache.hadoop.hbase.TableNotFoundException;
 import org.apache.hadoop.hbase.client.HBaseAdmin;
+import org.apache.hadoop.hbase.io.compress.Compression;
+import org.apache.hadoop.hbase.io.encoding.DataBlockEncoding;
+import org.apache.hadoop.hbase.regionserver.BloomType;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -35,6 +40,8 @@ public class HBaseManagerTest {
     private HTableDescriptor descriptor;
     @Captor
     private ArgumentCaptor<HTableDescriptor> descriptorCaptor;
+    @Captor
+    private ArgumentCaptor<byte[][]> splitKeysCaptor;
 
     @Before
     public void reset() throws IOException {
@@ -146,6 +153,53 @@ public class HBaseManagerTest {
         assertEquals(0, tableDescriptor.getColumnFamilies().length);
     }
 
+    @Test
+    public void testCreateWithFamilyOptions() throws IOException {
+        // GIVEN
+        TableOptions options = new TableOptions();
+        FamilyOptions family = options.addFamily("cf1");
+        family.setCompression(Compression.Algorithm.GZ);
+        family.setDataBlockEncoding(DataBlockEncoding.FAST_DIFF);
+        family.setBloomType(BloomType.ROWCOL);
+        family.setBlockSize(16384);
+        family.setInMemory(true);
+        family.setTimeToLive(3600);
+
+        // WHEN
+        boolean result = hBaseManager.createTable(TABLE_NAME, options);
+
+        // THEN
+        verify(hBaseAdmin).createTable(descriptorCaptor.capture());
+        HColumnDescriptor columnDescriptor = descriptorCaptor.getValue().getFamily("cf1".getBytes());
+        assertTrue(result);
+        assertEquals(Compression.Algorithm.GZ, columnDescriptor.getCompression());
+        assertEquals(DataBlockEncoding.FAST_DIFF, columnDescriptor.getDataBlockEncoding());
+        assertEquals(BloomType.ROWCOL, columnDescriptor.getBloomFilterType());
+        assertEquals(16384, columnDescriptor.getBlocksize());
+        assertTrue(columnDescriptor.isInMemory());
+        assertEquals(3600, columnDescriptor.getTimeToLive());
+    }
+
+    @Test
+    public void testCreateWithSplitKeys() throws IOException {
+        // GIVEN
+        TableOptions options = new TableOptions();
+        options.addFamily("cf1");
+        options.setSplitKeys(new byte[][]{"b".getBytes(), "a".getBytes(), "b".getBytes()});
+
+        // WHEN
+        boolean result = hBaseManager.createTable(TABLE_NAME, options);
+
+        // THEN
+        verify(hBaseAdmin).createTable(descriptorCaptor.capture(), splitKeysCaptor.capture());
+        byte[][] splitKeys = splitKeysCaptor.getValue();
+        assertTrue(result);
+        assertEquals(2, splitKeys.length);
+        assertEquals("a", Bytes.toString(splitKeys[0]));
+        assertEquals("b", Bytes.toString(splitKeys[1]));
+        assertEquals(1, descriptorCaptor.getValue().getColumnFamilies().length);
+    }
+
     @Test
     public void testDeleteIfCannotDisable() throws IOException {
         // GIVEN
@@ -0,0 +1,69 @@
+package com.sequenceiq.hbase.admin;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+public class SplitKeysTest {
+
+    @Test
+    public void testUniformHexSplits() {
+        // WHEN
+        byte[][] keys = SplitKeys.uniformHex(4, 2);
+
+        // THEN
+        assertEquals(3, keys.length);
+        assertEquals("40", Bytes.toString(keys[0]));
+        assertEquals("80", Bytes.toString(keys[1]));
+        assertEquals("c0", Bytes.toString(keys[2]));
+    }
+
+    @Test
+    public void testUniformByteSplits() {
+        // WHEN
+        byte[][] keys = SplitKeys.uniformBytes(3, 1);
+
+        // THEN
+        assertEquals(2, keys.length);
+        assertArrayEquals(new byte[]{(byte) 85}, keys[0]);
+        assertArrayEquals(new byte[]{(byte) 170}, keys[1]);
+    }
+
+    @Test
+    public void testSplitsAreSampledFromKeyFile() throws IOException {
+        // GIVEN
+        List<String> lines = new ArrayList<>();
+        for (int i = 99; i >= 0; i--) {
+            lines.add(String.format("key%03d", i));
+        }
+        Path keyFile = Files.createTempFile("keys", ".txt");
+        Files.write(keyFile, lines, StandardCharsets.UTF_8);
+
+        // WHEN
+        byte[][] keys = SplitKeys.sample(keyFile, 4);
+        byte[][] sampled = SplitKeys.sample(keyFile, 4, 10);
+        Files.delete(keyFile);
+
+        // THEN
+        assertEquals(3, keys.length);
+        assertEquals("key025", Bytes.toString(keys[0]));
+        assertEquals("key050", Bytes.toString(keys[1]));
+        assertEquals("key075", Bytes.toString(keys[2]));
+        assertEquals(3, sampled.length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyRegionsAreRejected() {
+        // WHEN
+        SplitKeys.uniformHex(17, 1);
+    }
+}
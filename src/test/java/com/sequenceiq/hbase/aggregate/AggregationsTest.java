@@ -0,0 +1,193 @@
+package com.sequenceiq.hbase.aggregate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sequenceiq.hbase.client.HBaseOperationException;
+import com.sequenceiq.hbase.client.HBaseOperations;
+import com.sequenceiq.hbase.client.HBaseTablePool;
+import com.sequenceiq.hbase.client.SaltedKeyStrategy;
+import com.sequenceiq.hbase.memory.InMemoryHTableFactory;
+import com.sequenceiq.hbase.model.HBaseRow;
+
+public class AggregationsTest {
+
+    private static final String TABLE_NAME = "table";
+    private static final String FAMILY = "cf";
+    private static final int ROWS = 300;
+    private static final List<String> COUNTRIES = Arrays.asList("hu", "hu", "hu", "de", "de", "us");
+    private HBaseOperations hBaseOperations;
+
+    @Before
+    public void setUp() {
+        InMemoryHTableFactory factory = new InMemoryHTableFactory();
+        factory.createTable(TABLE_NAME, FAMILY);
+        hBaseOperations = new HBaseOperations(new HBaseTablePool(new Configuration(), factory));
+        List<HBaseRow> rows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            HBaseRow row = new HBaseRow("abc".charAt(i % 3) + "|" + i, FAMILY, "amount", Integer.toString(i));
+            row.addValue(FAMILY, "country", COUNTRIES.get(i % COUNTRIES.size()));
+            rows.add(row);
+        }
+        rows.add(new HBaseRow("d|invalid", FAMILY, "amount", "n/a"));
+        hBaseOperations.put(TABLE_NAME, rows, true);
+    }
+
+    @Test
+    public void testCountSumMinAndMax() {
+        // GIVEN
+        Scan scan = new Scan();
+
+        // WHEN
+        long count = hBaseOperations.count(TABLE_NAME, scan);
+        Long sum = hBaseOperations.aggregate(TABLE_NAME, scan, Aggregations.sum(FAMILY, "amount", ValueEncoding.STRING), 2);
+        Long min = hBaseOperations.aggregate(TABLE_NAME, scan, Aggregations.min(FAMILY, "amount", ValueEncoding.STRING), 2);
+        Long max = hBaseOperations.aggregate(TABLE_NAME, scan, Aggregations.max(FAMILY, "amount", ValueEncoding.STRING), 2);
+        Long missing = hBaseOperations.aggregate(TABLE_NAME, scan, Aggregations.max(FAMILY, "missing", ValueEncoding.LONG), 2);
+
+        // THEN
+        assertEquals(ROWS + 1, count);
+        assertEquals(ROWS * (ROWS - 1) / 2, sum.longValue());
+        assertEquals(0, min.longValue());
+        assertEquals(ROWS - 1, max.longValue());
+        assertEquals(null, missing);
+        assertEquals(null, scan.getFilter());
+    }
+
+    @Test
+    public void testExtremeLongsAreDecodedAndOutOfRangeValuesLeftOut() {
+        // GIVEN
+        hBaseOperations.put(TABLE_NAME, Arrays.asList(new HBaseRow("e|max", FAMILY, "big", Long.toString(Long.MAX_VALUE)),
+                new HBaseRow("e|min", FAMILY, "big", Long.toString(Long.MIN_VALUE)),
+                new HBaseRow("e|over", FAMILY, "big", "9223372036854775808"),
+                new HBaseRow("e|under", FAMILY, "big", "-9223372036854775809")), true);
+        Scan scan = new Scan();
+
+        // WHEN
+        Long min = hBaseOperations.aggregate(TABLE_NAME, scan, Aggregations.min(FAMILY, "big", ValueEncoding.STRING), 2);
+        Long max = hBaseOperations.aggregate(TABLE_NAME, scan, Aggregations.max(FAMILY, "big", ValueEncoding.STRING), 2);
+
+        // THEN
+        assertEquals(Long.MIN_VALUE, min.longValue());
+        assertEquals(Long.MAX_VALUE, max.longValue());
+    }
+
+    @Test
+    public void testOverflowingSumFails() {
+        // GIVEN
+        hBaseOperations.put(TABLE_NAME, Arrays.asList(new HBaseRow("e|1", FAMILY, "big", Long.toString(Long.MAX_VALUE)),
+                new HBaseRow("e|2", FAMILY, "big", "1")), true);
+
+        // WHEN
+        try {
+            hBaseOperations.aggregate(TABLE_NAME, new Scan(), Aggregations.sum(FAMILY, "big", ValueEncoding.STRING), 2);
+            fail();
+        } catch (HBaseOperationException e) {
+            // THEN
+            assertTrue(e.getCause() instanceof ArithmeticException);
+        }
+    }
+
+    @Test
+    public void testGroupByRowKeyPrefixAndColumnValue() {
+        // GIVEN
+        Scan scan = new Scan();
+
+        // WHEN
+        Map<String, Long> byPrefix = hBaseOperations.aggregate(TABLE_NAME, scan, Aggregations.groupBy(GroupKeys.rowKeyPrefix("|"),
+                Aggregations.count()), 2);
+        Map<String, Long> byCountry = hBaseOperations.aggregate(TABLE_NAME, scan, Aggregations.groupBy(GroupKeys.column(FAMILY, "country"),
+                Aggregations.sum(FAMILY, "amount", ValueEncoding.STRING)), 2);
+
+        // THEN
+        Map<String, Long> expected = new HashMap<>();
+        expected.put("a", 100L);
+        expected.put("b", 100L);
+        expected.put("c", 100L);
+        expected.put("d", 1L);
+        assertEquals(expected, byPrefix);
+        long total = 0;
+        for (Long sum : byCountry.values()) {
+            total += sum;
+        }
+        assertEquals(Arrays.asList("de", "hu", "us"), new ArrayList<>(byCountry.keySet()));
+        assertEquals(ROWS * (ROWS - 1) / 2, total);
+    }
+
+    @Test
+    public void testDistinctCountAndTopK() {
+        // GIVEN
+        Scan scan = new Scan();
+
+        // WHEN
+        long distinctAmounts = hBaseOperations.aggregate(TABLE_NAME, scan, Aggregations.distinctCount(FAMILY, "amount"), 2);
+        long distinctCountries = hBaseOperations.aggregate(TABLE_NAME, scan, Aggregations.distinctCount(FAMILY, "country"), 2);
+        Map<String, Long> top = hBaseOperations.aggregate(TABLE_NAME, scan, Aggregations.topK(FAMILY, "country", 2), 2);
+
+        // THEN
+        assertTrue(Math.abs(distinctAmounts - (ROWS + 1)) <= 3);
+        assertEquals(3, distinctCountries);
+        assertEquals(Arrays.asList("hu", "de"), new ArrayList<>(top.keySet()));
+        assertEquals(150L, top.get("hu").longValue());
+        assertEquals(100L, top.get("de").longValue());
+    }
+
+    @Test
+    public void testMergedSketchesEstimateLikeOneSketch() {
+        // GIVEN
+        int values = 100000;
+        HyperLogLog single = new HyperLogLog();
+        List<HyperLogLog> partials = Arrays.asList(new HyperLogLog(), new HyperLogLog(), new HyperLogLog(), new HyperLogLog());
+        for (int i = 0; i < values; i++) {
+            byte[] value = Bytes.toBytes("value" + i);
+            single.add(value);
+            partials.get(i % partials.size()).add(value);
+            partials.get((i + 1) % partials.size()).add(value);
+        }
+
+        // WHEN
+        HyperLogLog merged = new HyperLogLog();
+        for (HyperLogLog partial : partials) {
+            merged.merge(partial);
+        }
+
+        // THEN
+        assertEquals(single.estimate(), merged.estimate());
+        assertTrue(Math.abs(merged.estimate() - values) < values * 0.03);
+    }
+
+    @Test
+    public void testCountOfLogicalRangeOnSaltedTable() {
+        // GIVEN
+        hBaseOperations.setRowKeyStrategy(TABLE_NAME, new SaltedKeyStrategy(4));
+        List<HBaseRow> rows = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            rows.add(new HBaseRow(String.format("s%03d", i), FAMILY, "amount", Integer.toString(i)));
+        }
+        hBaseOperations.put(TABLE_NAME, rows, true);
+        Scan scan = new Scan(Bytes.toBytes("s005"), Bytes.toBytes("s015"));
+
+        // WHEN
+        long count = hBaseOperations.count(TABLE_NAME, scan);
+        Map<String, Long> byPrefix = hBaseOperations.aggregate(TABLE_NAME, scan, Aggregations.groupBy(GroupKeys.rowKeyPrefix(2),
+                Aggregations.sum(FAMILY, "amount", ValueEncoding.STRING)), 2);
+
+        // THEN
+        assertEquals(10, count);
+        assertEquals(Collections.singletonMap("s0", 95L), byPrefix);
+    }
+}
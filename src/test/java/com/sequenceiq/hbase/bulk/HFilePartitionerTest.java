@@ -0,0 +1,128 @@
+package com.sequenceiq.hbase.bulk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.io.hfile.CacheConfig;
+import org.apache.hadoop.hbase.io.hfile.HFile;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sequenceiq.hbase.model.HBaseRow;
+
+public class HFilePartitionerTest {
+
+    private static final String FAMILY = "cf";
+    private static final byte[][] START_KEYS = {HConstants.EMPTY_START_ROW, Bytes.toBytes("row3"), Bytes.toBytes("row6")};
+
+    private Configuration configuration;
+    private FileSystem fileSystem;
+    private Path directory;
+    private HTableDescriptor descriptor;
+
+    @Before
+    public void setUp() throws IOException {
+        configuration = new Configuration();
+        fileSystem = FileSystem.getLocal(configuration);
+        directory = new Path(Files.createTempDirectory("bulkload").toString(), "staging");
+        descriptor = new HTableDescriptor(TableName.valueOf("table"));
+        descriptor.addFamily(new HColumnDescriptor(FAMILY));
+        descriptor.addFamily(new HColumnDescriptor("other"));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        fileSystem.delete(directory.getParent(), true);
+    }
+
+    @Test
+    public void testFilesDoNotCrossRegionBoundaries() throws IOException {
+        // GIVEN
+        HFilePartitioner partitioner = new HFilePartitioner(configuration, fileSystem, directory, START_KEYS, descriptor, Long.MAX_VALUE);
+
+        // WHEN
+        for (int i = 7; i >= 0; i--) {
+            HBaseRow row = new HBaseRow("row" + i, FAMILY, "a", "value" + i);
+            row.addValue(FAMILY, "b", "value" + i);
+            partitioner.add(row);
+        }
+        partitioner.add(new KeyValue(Bytes.toBytes("row5"), Bytes.toBytes("other"), Bytes.toBytes("c"), Bytes.toBytes("x")));
+        partitioner.flush();
+
+        // THEN
+        Map<String, String[]> files = readFiles(FAMILY);
+        assertEquals(3, files.size());
+        assertEquals(17, partitioner.getCells());
+        assertEquals(4, partitioner.getFiles());
+        assertEquals(3, partitioner.getRegions());
+        assertEquals("row0", files.get("region0-0")[0]);
+        assertEquals("row2", files.get("region0-0")[1]);
+        assertEquals("row3", files.get("region1-0")[0]);
+        assertEquals("row5", files.get("region1-0")[1]);
+        assertEquals("row6", files.get("region2-0")[0]);
+        assertEquals("row7", files.get("region2-0")[1]);
+        assertEquals(1, readFiles("other").size());
+    }
+
+    @Test
+    public void testFullBufferIsFlushedIntoNewFiles() throws IOException {
+        // GIVEN
+        HFilePartitioner partitioner = new HFilePartitioner(configuration, fileSystem, directory, START_KEYS, descriptor, 1);
+
+        // WHEN
+        partitioner.add(new HBaseRow("row1", FAMILY, "a", "1"));
+        partitioner.add(new HBaseRow("row2", FAMILY, "a", "2"));
+        partitioner.add(new HBaseRow("", FAMILY, "a", "3"));
+        partitioner.flush();
+
+        // THEN
+        Map<String, String[]> files = readFiles(FAMILY);
+        assertEquals(2, partitioner.getFlushes());
+        assertEquals(2, files.size());
+        assertTrue(files.containsKey("region0-0"));
+        assertTrue(files.containsKey("region0-1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownFamilyIsRejected() throws IOException {
+        // GIVEN
+        HFilePartitioner partitioner = new HFilePartitioner(configuration, fileSystem, directory, START_KEYS, descriptor, Long.MAX_VALUE);
+
+        // WHEN
+        partitioner.add(new HBaseRow("row1", "missing", "a", "1"));
+    }
+
+    private Map<String, String[]> readFiles(String family) throws IOException {
+        Map<String, String[]> files = new HashMap<>();
+        for (FileStatus status : fileSystem.listStatus(new Path(directory, family))) {
+            if (status.getPath().getName().startsWith(".")) {
+                continue;
+            }
+            HFile.Reader reader = HFile.createReader(fileSystem, status.getPath(), new CacheConfig(configuration), configuration);
+            try {
+                reader.loadFileInfo();
+                files.put(status.getPath().getName(),
+                        new String[]{Bytes.toString(reader.getFirstRowKey()), Bytes.toString(reader.getLastRowKey())});
+            } finally {
+                reader.close();
+            }
+        }
+        return files;
+    }
+}
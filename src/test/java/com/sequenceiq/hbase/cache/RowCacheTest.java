@@ -0,0 +1,206 @@
+package com.sequenceiq.hbase.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RowCacheTest {
+
+    private static final String TABLE_NAME = "table";
+    private static final String FAMILY = "cf";
+    private static final String COLUMN = "column";
+    private RowCacheConfig config;
+    private AtomicInteger loads;
+
+    @Before
+    public void reset() {
+        config = new RowCacheConfig();
+        config.setSegments(1);
+        config.setTtlMillis(TABLE_NAME, TimeUnit.MINUTES.toMillis(1));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void testOnlyTablesWithTtlAreCached() {
+        // GIVEN
+        RowCache cache = new RowCache(config);
+
+        // THEN
+        assertTrue(cache.isCached(TABLE_NAME));
+        assertFalse(cache.isCached("other"));
+    }
+
+    @Test
+    public void testSecondReadIsServedFromCache() {
+        // GIVEN
+        RowCache cache = new RowCache(config);
+        Result first = cache.get(TABLE_NAME, "row", FAMILY, COLUMN, loader("row"));
+
+        // WHEN
+        Result second = cache.get(TABLE_NAME, "row", FAMILY, COLUMN, loader("row"));
+
+        // THEN
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        RowCacheStatistics statistics = cache.getStatistics();
+        assertEquals(1, statistics.getHits());
+        assertEquals(1, statistics.getMisses());
+        assertEquals(1, statistics.getSize());
+    }
+
+    @Test
+    public void testExpiredEntriesAreReloaded() throws InterruptedException {
+        // GIVEN
+        config.setTtlMillis(TABLE_NAME, 1);
+        RowCache cache = new RowCache(config);
+        cache.get(TABLE_NAME, "row", FAMILY, COLUMN, loader("row"));
+        Thread.sleep(10);
+
+        // WHEN
+        cache.get(TABLE_NAME, "row", FAMILY, COLUMN, loader("row"));
+
+        // THEN
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getStatistics().getExpirations());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesAreEvictedOverTheByteLimit() {
+        // GIVEN
+        config.setMaxBytes(1000);
+        RowCache cache = new RowCache(config);
+
+        // WHEN
+        for (int i = 0; i < 20; i++) {
+            cache.get(TABLE_NAME, "row" + i, FAMILY, COLUMN, loader("row" + i));
+        }
+
+        // THEN
+        RowCacheStatistics statistics = cache.getStatistics();
+        assertTrue(statistics.getBytes() <= 1000);
+        assertTrue(statistics.getEvictions() > 0);
+        assertEquals(20, statistics.getSize() + statistics.getEvictions());
+        cache.get(TABLE_NAME, "row19", FAMILY, COLUMN, loader("row19"));
+        assertEquals(20, loads.get());
+    }
+
+    @Test
+    public void testInvalidateDropsEveryReadOfTheRow() {
+        // GIVEN
+        RowCache cache = new RowCache(config);
+        cache.get(TABLE_NAME, "row", FAMILY, COLUMN, loader("row"));
+        cache.get(TABLE_NAME, "row", null, null, loader("row"));
+
+        // WHEN
+        cache.invalidate(TABLE_NAME, "row");
+
+        // THEN
+        assertEquals(0, cache.getStatistics().getSize());
+        assertEquals(0, cache.getStatistics().getBytes());
+    }
+
+    @Test
+    public void testConcurrentMissesAreCoalesced() throws Exception {
+        // GIVEN
+        final RowCache cache = new RowCache(config);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Callable<Result> slowLoader = new Callable<Result>() {
+            @Override
+            public Result call() throws Exception {
+                loads.incrementAndGet();
+                release.await();
+                return result("row");
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Result>> futures = new ArrayList<>();
+
+        // WHEN
+        for (int i = 0; i < 4; i++) {
+            futures.add(executor.submit(new Callable<Result>() {
+                @Override
+                public Result call() {
+                    return cache.get(TABLE_NAME, "row", FAMILY, COLUMN, slowLoader);
+                }
+            }));
+        }
+        while (cache.getStatistics().getMisses() + cache.getStatistics().getHits() < 4) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        // THEN
+        Result first = futures.get(0).get();
+        for (Future<Result> future : futures) {
+            assertSame(first, future.get());
+        }
+        assertEquals(1, loads.get());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testReadAfterInvalidateDoesNotJoinTheLoadInFlight() throws Exception {
+        // GIVEN
+        final RowCache cache = new RowCache(config);
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Result> stale = executor.submit(new Callable<Result>() {
+            @Override
+            public Result call() {
+                return cache.get(TABLE_NAME, "row", FAMILY, COLUMN, new Callable<Result>() {
+                    @Override
+                    public Result call() throws Exception {
+                        loads.incrementAndGet();
+                        loading.countDown();
+                        release.await();
+                        return result("row");
+                    }
+                });
+            }
+        });
+        assertTrue(loading.await(10, TimeUnit.SECONDS));
+
+        // WHEN
+        cache.invalidate(TABLE_NAME, "row");
+        Result fresh = cache.get(TABLE_NAME, "row", FAMILY, COLUMN, loader("row"));
+        release.countDown();
+        stale.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // THEN
+        assertEquals(2, loads.get());
+        assertSame(fresh, cache.get(TABLE_NAME, "row", FAMILY, COLUMN, loader("row")));
+    }
+
+    private Callable<Result> loader(final String rowKey) {
+        return new Callable<Result>() {
+            @Override
+            public Result call() {
+                loads.incrementAndGet();
+                return result(rowKey);
+            }
+        };
+    }
+
+    private static Result result(String rowKey) {
+        return Result.create(new KeyValue[]{new KeyValue(Bytes.toBytes(rowKey), Bytes.toBytes(FAMILY), Bytes.toBytes(COLUMN), Bytes.toBytes("value"))});
+    }
+}
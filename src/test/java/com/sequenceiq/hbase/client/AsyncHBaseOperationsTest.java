@@ -0,0 +1,104 @@
+package com.sequenceiq.hbase.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.sequenceiq.hbase.model.HBaseRow;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncHBaseOperationsTest {
+
+    private static final String TABLE_NAME = "table";
+    private static final String ROW_KEY = "row1";
+
+    @Mock
+    private HBaseOperations hBaseOperations;
+    @Mock
+    private RowMapper<String> mapper;
+    private AsyncHBaseOperations asyncOperations;
+
+    @Before
+    public void reset() {
+        asyncOperations = new AsyncHBaseOperations(hBaseOperations, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+    }
+
+    @Test
+    public void testGetReleasesTable() throws Exception {
+        // GIVEN
+        HBaseRow row = new HBaseRow(ROW_KEY, "cf", "column", "value");
+        when(hBaseOperations.get(TABLE_NAME, ROW_KEY, true)).thenReturn(row);
+
+        // WHEN
+        HBaseRow result = asyncOperations.get(TABLE_NAME, ROW_KEY).get();
+
+        // THEN
+        assertEquals(row, result);
+    }
+
+    @Test
+    public void testGetAllKeepsRowKeyOrder() throws Exception {
+        // GIVEN
+        List<String> rowKeys = Arrays.asList("b", "a", "c");
+        MultiGetResult<String> multiGetResult = new MultiGetResult<>(rowKeys.size());
+        multiGetResult.addResult("b", "B");
+        multiGetResult.addResult("a", "A");
+        multiGetResult.addMissing("c");
+        when(hBaseOperations.get(TABLE_NAME, rowKeys, "cf", "column", mapper, true)).thenReturn(multiGetResult);
+
+        // WHEN
+        List<String> result = asyncOperations.getAll(TABLE_NAME, rowKeys, "cf", "column", mapper).get();
+
+        // THEN
+        assertEquals(Arrays.asList("B", "A", null), result);
+    }
+
+    @Test
+    public void testFailureCompletesFutureExceptionally() throws Exception {
+        // GIVEN
+        when(hBaseOperations.execute(eq(TABLE_NAME), any(TableCallback.class), eq(true))).thenThrow(new HBaseOperationException("failed"));
+
+        // WHEN
+        CompletableFuture<Object> future = asyncOperations.execute(TABLE_NAME, null);
+
+        // THEN
+        assertTrue(future.isCompletedExceptionally());
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof HBaseOperationException);
+        }
+    }
+
+    @Test
+    public void testPutRunsOnExecutor() throws Exception {
+        // GIVEN
+        HBaseRow row = new HBaseRow(ROW_KEY, "cf", "column", "value");
+
+        // WHEN
+        asyncOperations.put(TABLE_NAME, row).get();
+
+        // THEN
+        verify(hBaseOperations).put(TABLE_NAME, row, true);
+    }
+}
@@ -0,0 +1,114 @@
+package com.sequenceiq.hbase.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.regionserver.NoSuchColumnFamilyException;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sequenceiq.hbase.memory.InMemoryHTable;
+import com.sequenceiq.hbase.memory.InMemoryHTableFactory;
+import com.sequenceiq.hbase.model.HBaseRow;
+
+public class BatchMutationTest {
+
+    private static final String TABLE_NAME = "table";
+    private static final String FAMILY = "cf";
+    private static final RowMapper<String> ROW_KEY_MAPPER = new RowMapper<String>() {
+        @Override
+        public String mapRow(Result result) {
+            return Bytes.toString(result.getRow());
+        }
+    };
+    private InMemoryHTable table;
+    private HBaseOperations hBaseOperations;
+
+    @Before
+    public void setUp() {
+        InMemoryHTableFactory factory = new InMemoryHTableFactory();
+        table = factory.createTable(TABLE_NAME, FAMILY);
+        table.getTableDescriptor().getFamily(Bytes.toBytes(FAMILY)).setMaxVersions(3);
+        hBaseOperations = new HBaseOperations(new HBaseTablePool(new Configuration(), factory));
+    }
+
+    @Test
+    public void testMixedBatchReportsFailuresPerRow() {
+        // GIVEN
+        hBaseOperations.put(TABLE_NAME, Arrays.asList(new HBaseRow("a", FAMILY, "c1", "v"), new HBaseRow("b", FAMILY, "c1", "v")), true);
+        hBaseOperations.put(TABLE_NAME, new HBaseRow("b", FAMILY, "c2", "v"), true);
+        hBaseOperations.setMutationBatchSize(2);
+        List<BatchMutation> mutations = Arrays.asList(
+                BatchMutation.delete("a"),
+                BatchMutation.put(new HBaseRow("c", "missing", "c1", "v")),
+                BatchMutation.delete("b", FAMILY, "c1"),
+                BatchMutation.put(null),
+                BatchMutation.put(new HBaseRow("d", FAMILY, "c1", "v")));
+
+        // WHEN
+        BatchResult result = hBaseOperations.batch(TABLE_NAME, mutations, true);
+
+        // THEN
+        assertEquals(2, result.getBatches());
+        assertEquals(3, result.getSuccessCount());
+        assertTrue(result.getFailure(1) instanceof NoSuchColumnFamilyException);
+        assertTrue(result.getFailure(3) instanceof IllegalArgumentException);
+        assertEquals(Arrays.asList(mutations.get(1), mutations.get(3)), result.getFailedMutations());
+        assertNull(hBaseOperations.get(TABLE_NAME, "a", true));
+        assertEquals(1, hBaseOperations.get(TABLE_NAME, "b", true).getColumnFamilies().values().iterator().next().size());
+        assertNotNull(hBaseOperations.get(TABLE_NAME, "d", true));
+    }
+
+    @Test
+    public void testDeleteVersionKeepsOlderVersions() throws IOException {
+        // GIVEN
+        hBaseOperations.put(TABLE_NAME, new HBaseRow("a", FAMILY, "c1", "old"), true);
+        long timestamp = hBaseOperations.get(TABLE_NAME, "a", new RowMapper<Long>() {
+            @Override
+            public Long mapRow(Result result) {
+                return result.rawCells()[0].getTimestamp();
+            }
+        }, true);
+        table.put(new Put(Bytes.toBytes("a")).add(Bytes.toBytes(FAMILY), Bytes.toBytes("c1"), timestamp + 1,
+                Bytes.toBytes("new")));
+
+        // WHEN
+        hBaseOperations.delete(TABLE_NAME, "a", FAMILY, "c1", timestamp + 1, true);
+
+        // THEN
+        assertEquals("old", hBaseOperations.get(TABLE_NAME, "a", true).getColumnFamilies().values().iterator().next().values().iterator().next());
+    }
+
+    @Test
+    public void testDeleteRangeOfSaltedTable() {
+        // GIVEN
+        hBaseOperations.setRowKeyStrategy(TABLE_NAME, new SaltedKeyStrategy(4));
+        hBaseOperations.setMutationBatchSize(3);
+        List<HBaseRow> rows = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            rows.add(new HBaseRow(String.format("k%02d", i), FAMILY, "c", "v"));
+        }
+        hBaseOperations.put(TABLE_NAME, rows, true);
+
+        // WHEN
+        long deleted = hBaseOperations.deleteRange(TABLE_NAME, "k05", "k15", true);
+
+        // THEN
+        List<String> keys = hBaseOperations.query(TABLE_NAME).list(ROW_KEY_MAPPER);
+        assertEquals(10, deleted);
+        assertEquals(10, keys.size());
+        assertEquals("k04", keys.get(4));
+        assertEquals("k15", keys.get(5));
+    }
+}
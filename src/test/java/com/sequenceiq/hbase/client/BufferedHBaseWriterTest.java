@@ -0,0 +1,241 @@
+package com.sequenceiq.hbase.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Put;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.sequenceiq.hbase.model.HBaseRow;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BufferedHBaseWriterTest {
+
+    private static final String TABLE_NAME = "table";
+    private static final String FAMILY = "cf";
+    private static final String COLUMN = "column";
+
+    @Mock
+    private HBaseTablePool tablePool;
+    @Mock
+    private HTableInterface tableInterface;
+    @Mock
+    private WriteFailureListener failureListener;
+    @Captor
+    private ArgumentCaptor<List<Put>> putCaptor;
+    @Captor
+    private ArgumentCaptor<List<HBaseRow>> rowCaptor;
+    private HBaseOperations hBaseOperations;
+    private BufferedWriterConfig config;
+
+    @Before
+    public void reset() {
+        hBaseOperations = new HBaseOperations(tablePool);
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        config = new BufferedWriterConfig();
+        config.setFlushRows(2);
+        config.setMaxLatencyMillis(0);
+    }
+
+    @Test
+    public void testFlushWhenRowLimitIsReached() throws IOException {
+        // GIVEN
+        BufferedHBaseWriter writer = hBaseOperations.createBufferedWriter(TABLE_NAME, config, failureListener);
+
+        // WHEN
+        writer.write(new HBaseRow("row1", FAMILY, COLUMN, "val1"));
+        writer.write(new HBaseRow("row2", FAMILY, COLUMN, "val2"));
+        writer.write(new HBaseRow("row3", FAMILY, COLUMN, "val3"));
+
+        // THEN
+        verify(tableInterface, times(1)).put(putCaptor.capture());
+        assertEquals(2, putCaptor.getValue().size());
+        assertEquals(1, writer.getBufferedRows());
+        assertEquals(2, writer.getWrittenRows());
+    }
+
+    @Test
+    public void testFlushWhenByteLimitIsReached() throws IOException {
+        // GIVEN
+        config.setFlushRows(Integer.MAX_VALUE);
+        config.setFlushBytes(1);
+        BufferedHBaseWriter writer = hBaseOperations.createBufferedWriter(TABLE_NAME, config, failureListener);
+
+        // WHEN
+        writer.write(new HBaseRow("row1", FAMILY, COLUMN, "val1"));
+
+        // THEN
+        verify(tableInterface, times(1)).put(anyListOf(Put.class));
+        assertEquals(0, writer.getBufferedRows());
+    }
+
+    @Test
+    public void testCloseFlushesRemainingRows() throws IOException {
+        // GIVEN
+        BufferedHBaseWriter writer = hBaseOperations.createBufferedWriter(TABLE_NAME, config, failureListener);
+        writer.write(new HBaseRow("row1", FAMILY, COLUMN, "val1"));
+
+        // WHEN
+        writer.close();
+
+        // THEN
+        verify(tableInterface, times(1)).put(putCaptor.capture());
+        assertEquals(1, putCaptor.getValue().size());
+    }
+
+    @Test
+    public void testTimedFlush() throws Exception {
+        // GIVEN
+        config.setMaxLatencyMillis(10);
+        BufferedHBaseWriter writer = hBaseOperations.createBufferedWriter(TABLE_NAME, config, failureListener);
+
+        // WHEN
+        writer.write(new HBaseRow("row1", FAMILY, COLUMN, "val1"));
+        Thread.sleep(200);
+
+        // THEN
+        verify(tableInterface, times(1)).put(anyListOf(Put.class));
+        writer.close();
+    }
+
+    @Test
+    public void testFailedRowsAreReported() throws IOException {
+        // GIVEN
+        doThrow(new IOException()).when(tableInterface).put(anyListOf(Put.class));
+        BufferedHBaseWriter writer = hBaseOperations.createBufferedWriter(TABLE_NAME, config, failureListener);
+        HBaseRow row = new HBaseRow("row1", FAMILY, COLUMN, "val1");
+        writer.write(row);
+
+        // WHEN
+        writer.flush();
+
+        // THEN
+        verify(failureListener).onFailure(eq(TABLE_NAME), rowCaptor.capture(), any(HBaseOperationException.class));
+        assertEquals(row, rowCaptor.getValue().get(0));
+        assertEquals(1, writer.getFailedRows());
+    }
+
+    @Test
+    public void testInvalidRowsAreSkipped() {
+        // GIVEN
+        BufferedHBaseWriter writer = hBaseOperations.createBufferedWriter(TABLE_NAME, config, failureListener);
+
+        // WHEN
+        writer.write(new HBaseRow());
+
+        // THEN
+        assertEquals(0, writer.getBufferedRows());
+    }
+
+    @Test
+    public void testCloseLetsTimedFlushFinish() throws Exception {
+        // GIVEN
+        config.setMaxLatencyMillis(10);
+        final CountDownLatch sending = new CountDownLatch(1);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws InterruptedException {
+                sending.countDown();
+                Thread.sleep(100);
+                return null;
+            }
+        }).when(tableInterface).put(anyListOf(Put.class));
+        BufferedHBaseWriter writer = hBaseOperations.createBufferedWriter(TABLE_NAME, config, failureListener);
+        writer.write(new HBaseRow("row1", FAMILY, COLUMN, "val1"));
+        assertTrue(sending.await(10, TimeUnit.SECONDS));
+
+        // WHEN
+        writer.close();
+
+        // THEN
+        verify(failureListener, never()).onFailure(eq(TABLE_NAME), anyListOf(HBaseRow.class), any(Exception.class));
+        assertEquals(1, writer.getWrittenRows());
+    }
+
+    @Test
+    public void testWriteWaitingForSpaceFailsWhenWriterIsClosed() throws Exception {
+        // GIVEN
+        config.setMaxBufferedBytes(1);
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch sent = new CountDownLatch(1);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws InterruptedException {
+                sending.countDown();
+                sent.await();
+                return null;
+            }
+        }).when(tableInterface).put(anyListOf(Put.class));
+        final BufferedHBaseWriter writer = hBaseOperations.createBufferedWriter(TABLE_NAME, config, failureListener);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                writer.write(new HBaseRow("row1", FAMILY, COLUMN, "val1"));
+                writer.write(new HBaseRow("row2", FAMILY, COLUMN, "val2"));
+            }
+        });
+        assertTrue(sending.await(10, TimeUnit.SECONDS));
+        writer.write(new HBaseRow("row3", FAMILY, COLUMN, "val3"));
+        final AtomicReference<Thread> blocked = new AtomicReference<>();
+        Future<?> blockedWrite = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                blocked.set(Thread.currentThread());
+                writer.write(new HBaseRow("row4", FAMILY, COLUMN, "val4"));
+            }
+        });
+        while (blocked.get() == null || blocked.get().getState() != Thread.State.WAITING) {
+            Thread.sleep(5);
+        }
+
+        // WHEN
+        Future<?> close = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                writer.close();
+            }
+        });
+        Throwable failure = null;
+        try {
+            blockedWrite.get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            failure = e.getCause();
+        }
+        sent.countDown();
+        close.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // THEN
+        assertTrue(failure instanceof HBaseOperationException);
+        assertEquals(3, writer.getWrittenRows());
+    }
+}
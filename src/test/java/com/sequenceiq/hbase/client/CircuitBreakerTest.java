@@ -0,0 +1,83 @@
+package com.sequenceiq.hbase.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class CircuitBreakerTest {
+
+    private static final long OPEN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testOpensWhenFailureRateIsReached() {
+        // GIVEN
+        CircuitBreaker circuitBreaker = new CircuitBreaker(createConfig());
+
+        // WHEN
+        record(circuitBreaker, false, 2, 0);
+        record(circuitBreaker, true, 1, 0);
+        boolean closedBeforeThreshold = circuitBreaker.getState() == CircuitBreaker.State.CLOSED;
+        record(circuitBreaker, true, 1, 0);
+
+        // THEN
+        assertTrue(closedBeforeThreshold);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire(OPEN_NANOS - 1));
+    }
+
+    @Test
+    public void testClosesAfterSuccessfulTrialCalls() {
+        // GIVEN
+        CircuitBreaker circuitBreaker = new CircuitBreaker(createConfig());
+        record(circuitBreaker, true, 4, 0);
+
+        // WHEN
+        boolean firstTrial = circuitBreaker.tryAcquire(OPEN_NANOS);
+        boolean secondTrial = circuitBreaker.tryAcquire(OPEN_NANOS);
+        boolean thirdTrial = circuitBreaker.tryAcquire(OPEN_NANOS);
+        circuitBreaker.record(false, false, OPEN_NANOS);
+        circuitBreaker.record(false, false, OPEN_NANOS);
+
+        // THEN
+        assertTrue(firstTrial);
+        assertTrue(secondTrial);
+        assertFalse(thirdTrial);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testFailedTrialCallOpensAgain() {
+        // GIVEN
+        CircuitBreaker circuitBreaker = new CircuitBreaker(createConfig());
+        record(circuitBreaker, true, 4, 0);
+        circuitBreaker.tryAcquire(OPEN_NANOS);
+
+        // WHEN
+        circuitBreaker.record(true, false, OPEN_NANOS);
+
+        // THEN
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire(OPEN_NANOS + 1));
+    }
+
+    private static IsolationConfig createConfig() {
+        IsolationConfig config = new IsolationConfig();
+        config.setWindowSize(4);
+        config.setMinimumCalls(4);
+        config.setFailureRateThreshold(0.5);
+        config.setOpenMillis(TimeUnit.NANOSECONDS.toMillis(OPEN_NANOS));
+        config.setHalfOpenCalls(2);
+        return config;
+    }
+
+    private static void record(CircuitBreaker circuitBreaker, boolean failed, int calls, long now) {
+        for (int i = 0; i < calls; i++) {
+            circuitBreaker.tryAcquire(now);
+            circuitBreaker.record(failed, false, now);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.sequenceiq.hbase.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sequenceiq.hbase.memory.InMemoryHTableFactory;
+import com.sequenceiq.hbase.model.HBaseRow;
+import com.sequenceiq.hbase.model.Qualifier;
+
+public class CounterAggregatorTest {
+
+    private static final String TABLE_NAME = "table";
+    private static final String FAMILY = "cf";
+    private static final RowMapper<Long> COUNT_MAPPER = new RowMapper<Long>() {
+        @Override
+        public Long mapRow(Result result) {
+            byte[] value = result.getValue(Bytes.toBytes(FAMILY), Bytes.toBytes("count"));
+            return value == null ? null : Bytes.toLong(value);
+        }
+    };
+    private HBaseOperations hBaseOperations;
+
+    @Before
+    public void setUp() {
+        InMemoryHTableFactory factory = new InMemoryHTableFactory();
+        factory.createTable(TABLE_NAME, FAMILY);
+        hBaseOperations = new HBaseOperations(new HBaseTablePool(new Configuration(), factory));
+    }
+
+    @Test
+    public void testIncrementsAreSentOncePerWindow() throws InterruptedException {
+        // GIVEN
+        CounterAggregatorConfig config = new CounterAggregatorConfig();
+        config.setWindowMillis(0);
+        final CounterAggregator aggregator = hBaseOperations.createCounterAggregator(TABLE_NAME, config);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        aggregator.increment("hot", FAMILY, "count", 1);
+                        aggregator.increment("cold" + j % 2, FAMILY, "count", 2);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // WHEN
+        aggregator.close();
+
+        // THEN
+        assertEquals(8000, aggregator.getEvents());
+        assertEquals(3, aggregator.getSentIncrements());
+        assertEquals(0, aggregator.getPendingCounters());
+        assertEquals(Long.valueOf(4000), hBaseOperations.get(TABLE_NAME, "hot", COUNT_MAPPER, true));
+        assertEquals(Long.valueOf(4000), hBaseOperations.get(TABLE_NAME, "cold1", COUNT_MAPPER, true));
+    }
+
+    @Test
+    public void testIncrementsAreSentWhenTooManyCountersArePending() {
+        // GIVEN
+        CounterAggregatorConfig config = new CounterAggregatorConfig();
+        config.setWindowMillis(0);
+        config.setMaxCounters(2);
+        CounterAggregator aggregator = hBaseOperations.createCounterAggregator(TABLE_NAME, config);
+
+        // WHEN
+        aggregator.increment("a", FAMILY, "count", 1);
+        aggregator.increment("b", FAMILY, "count", 1);
+        aggregator.increment("a", FAMILY, "count", 1);
+
+        // THEN
+        assertEquals(2, aggregator.getSentIncrements());
+        assertEquals(1, aggregator.getPendingCounters());
+        assertEquals(Long.valueOf(1), hBaseOperations.get(TABLE_NAME, "a", COUNT_MAPPER, true));
+    }
+
+    @Test
+    public void testIncrementsAcceptedBeforeCloseAreSent() throws InterruptedException {
+        // GIVEN
+        CounterAggregatorConfig config = new CounterAggregatorConfig();
+        config.setWindowMillis(1);
+        final CounterAggregator aggregator = hBaseOperations.createCounterAggregator(TABLE_NAME, config);
+        final AtomicLong accepted = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while (true) {
+                            aggregator.increment("hot", FAMILY, "count", 1);
+                            accepted.incrementAndGet();
+                        }
+                    } catch (HBaseOperationException e) {
+                        return;
+                    }
+                }
+            });
+        }
+        Thread.sleep(50);
+
+        // WHEN
+        aggregator.close();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // THEN
+        assertEquals(0, aggregator.getPendingCounters());
+        assertEquals(Long.valueOf(accepted.get()), hBaseOperations.get(TABLE_NAME, "hot", COUNT_MAPPER, true));
+    }
+
+    @Test
+    public void testAtomicOperations() {
+        // GIVEN
+        hBaseOperations.incrementColumnValue(TABLE_NAME, "row", FAMILY, "count", 5, true);
+
+        // WHEN
+        long count = hBaseOperations.incrementColumnValue(TABLE_NAME, "row", FAMILY, "count", 2, true);
+        String appended = hBaseOperations.append(TABLE_NAME, "row", FAMILY, "log", "a", true);
+        appended = hBaseOperations.append(TABLE_NAME, "row", FAMILY, "log", "b", true);
+        boolean created = hBaseOperations.checkAndPut(TABLE_NAME, FAMILY, "owner", null, new HBaseRow("row", FAMILY, "owner", "x"), true);
+        boolean stolen = hBaseOperations.checkAndPut(TABLE_NAME, FAMILY, "owner", null, new HBaseRow("row", FAMILY, "owner", "y"), true);
+        hBaseOperations.mutateRow(TABLE_NAME, "row", new RowMutation().delete(FAMILY, "log").put(FAMILY, "state", "done"), true);
+        HBaseRow row = hBaseOperations.get(TABLE_NAME, "row", true);
+
+        // THEN
+        assertEquals(7, count);
+        assertEquals("ab", appended);
+        assertTrue(created);
+        assertFalse(stolen);
+        assertEquals("done", row.getColumnFamilies().values().iterator().next().get(Qualifier.valueOf("state")));
+        assertNull(row.getColumnFamilies().values().iterator().next().get(Qualifier.valueOf("log")));
+        assertTrue(hBaseOperations.checkAndDelete(TABLE_NAME, "row", FAMILY, "owner", "x", true));
+    }
+}
@@ -1,40 +1,73 @@
 package com.sequenceiq.hbase.client;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.DoNotRetryIOException;
 import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.client.Delete;
 import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.HTable;
 import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Increment;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
-
+import org.mockito.stubbing.Answer;
+
+import com.sequenceiq.hbase.cache.RowCache;
+import com.sequenceiq.hbase.cache.RowCacheConfig;
+import com.sequenceiq.hbase.mapping.HBaseColumn;
+import com.sequenceiq.hbase.mapping.HBaseEntity;
+import com.sequenceiq.hbase.mapping.RowKey;
+import com.sequenceiq.hbase.metrics.IsolationStatistics;
+import com.sequenceiq.hbase.metrics.OperationStatistics;
+import com.sequenceiq.hbase.metrics.OperationType;
 import com.sequenceiq.hbase.model.Column;
 import com.sequenceiq.hbase.model.Family;
 import com.sequenceiq.hbase.model.HBaseRow;
@@ -61,6 +94,8 @@ public class HBaseOperationsTest {
     private ArgumentCaptor<Get> getCaptor;
     @Captor
     private ArgumentCaptor<Scan> scanCaptor;
+    @Captor
+    private ArgumentCaptor<List<Get>> getListCaptor;
 
     @Test
     public void testPutForNull() throws IOException {
@@ -441,6 +476,850 @@ public class HBaseOperationsTest {
         verify(callback).doInTable(tableInterface);
     }
 
+    @Test
+    public void testMultiGetKeepsOrderAndReportsMissingRows() throws IOException {
+        // GIVEN
+        Result found = mock(Result.class);
+        Result missing = mock(Result.class);
+        when(found.isEmpty()).thenReturn(false);
+        when(missing.isEmpty()).thenReturn(true);
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.get(anyListOf(Get.class))).thenReturn(new Result[]{found, missing}, new Result[]{found});
+        hBaseOperations.setMultiGetBatchSize(2);
+
+        // WHEN
+        MultiGetResult<String> result = hBaseOperations.get(TABLE_NAME, Arrays.asList("c", "b", "a"), FAMILY, COLUMN, new RowKeyMapper(), true);
+
+        // THEN
+        verify(tableInterface, times(2)).get(getListCaptor.capture());
+        assertEquals(2, getListCaptor.getAllValues().get(0).size());
+        assertEquals(1, getListCaptor.getAllValues().get(1).size());
+        assertEquals(Arrays.asList("c", "a"), new ArrayList<>(result.getResults().keySet()));
+        assertEquals(Arrays.asList("b"), result.getMissingRowKeys());
+        verify(tablePool, times(1)).releaseHTable(TABLE_NAME);
+    }
+
+    @Test
+    public void testMultiGetFetchesDuplicateRowKeysOnce() throws IOException {
+        // GIVEN
+        Result found = mock(Result.class);
+        Result missing = mock(Result.class);
+        when(found.isEmpty()).thenReturn(false);
+        when(missing.isEmpty()).thenReturn(true);
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.get(anyListOf(Get.class))).thenReturn(new Result[]{found, missing});
+
+        // WHEN
+        MultiGetResult<String> result = hBaseOperations.get(TABLE_NAME, Arrays.asList("a", "b", "a", "b"), FAMILY, COLUMN, new RowKeyMapper(), true);
+
+        // THEN
+        verify(tableInterface).get(getListCaptor.capture());
+        assertEquals(2, getListCaptor.getValue().size());
+        assertEquals(Arrays.asList("a"), new ArrayList<>(result.getResults().keySet()));
+        assertEquals(Arrays.asList("b"), result.getMissingRowKeys());
+    }
+
+    @Test
+    public void testMultiGetDispatchesChunksToExecutor() throws IOException {
+        // GIVEN
+        Result found = mock(Result.class);
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.get(anyListOf(Get.class))).thenReturn(new Result[]{found});
+        hBaseOperations.setMultiGetBatchSize(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        hBaseOperations.setExecutor(executor);
+
+        // WHEN
+        MultiGetResult<String> result = hBaseOperations.get(TABLE_NAME, Arrays.asList("a", "b", "c"), FAMILY, COLUMN, new RowKeyMapper(), false);
+
+        // THEN
+        executor.shutdown();
+        verify(tableInterface, times(3)).get(anyListOf(Get.class));
+        verify(tablePool, times(3)).releaseHTable(TABLE_NAME);
+        assertEquals(3, result.getResults().size());
+        assertFalse(result.hasMissingRows());
+    }
+
+    @Test
+    public void testParallelMultiGetReleasesTheTableOfTheCaller() throws IOException {
+        // GIVEN
+        Result found = mock(Result.class);
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.get(anyListOf(Get.class))).thenReturn(new Result[]{found});
+        hBaseOperations.setMultiGetBatchSize(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        hBaseOperations.setExecutor(executor);
+
+        // WHEN
+        hBaseOperations.get(TABLE_NAME, Arrays.asList("a", "b"), FAMILY, COLUMN, new RowKeyMapper(), true);
+
+        // THEN
+        executor.shutdown();
+        verify(tablePool, times(3)).releaseHTable(TABLE_NAME);
+    }
+
+    @Test
+    public void testFailedChunkCancelsTheChunksInFlight() throws Exception {
+        // GIVEN
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.get(anyListOf(Get.class))).thenAnswer(new Answer<Result[]>() {
+            @Override
+            public Result[] answer(InvocationOnMock invocation) throws IOException, InterruptedException {
+                List<?> gets = (List<?>) invocation.getArguments()[0];
+                if ("a".equals(Bytes.toString(((Get) gets.get(0)).getRow()))) {
+                    started.await(10, TimeUnit.SECONDS);
+                    throw new IOException();
+                }
+                started.countDown();
+                try {
+                    new CountDownLatch(1).await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return new Result[]{Result.EMPTY_RESULT};
+            }
+        });
+        hBaseOperations.setMultiGetBatchSize(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        hBaseOperations.setExecutor(executor);
+
+        // WHEN
+        try {
+            hBaseOperations.get(TABLE_NAME, Arrays.asList("a", "b"), FAMILY, COLUMN, new RowKeyMapper(), false);
+            fail();
+        } catch (HBaseOperationException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+
+        // THEN
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testStreamMapsRowsLazilyAndReleasesTableOnClose() throws IOException {
+        // GIVEN
+        ResultScanner resultScanner = mock(ResultScanner.class);
+        Result result = mock(Result.class);
+        when(tablePool.createHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.getScanner(any(Scan.class))).thenReturn(resultScanner);
+        when(resultScanner.next(2)).thenReturn(new Result[]{result, result}, new Result[]{result}, new Result[0]);
+        ScanOptions options = new ScanOptions();
+        options.setCaching(2);
+        options.setBatch(10);
+
+        // WHEN
+        long count;
+        try (Stream<String> stream = hBaseOperations.stream(TABLE_NAME, new Scan(), new RowKeyMapper(), options)) {
+            verify(tablePool, times(0)).releaseHTable(TABLE_NAME, tableInterface);
+            count = stream.count();
+        }
+
+        // THEN
+        verify(tableInterface).getScanner(scanCaptor.capture());
+        verify(resultScanner).close();
+        verify(tablePool).releaseHTable(TABLE_NAME, tableInterface);
+        assertEquals(3, count);
+        assertEquals(2, scanCaptor.getValue().getCaching());
+        assertEquals(10, scanCaptor.getValue().getBatch());
+    }
+
+    @Test
+    public void testIterateWithoutPrefetch() throws IOException {
+        // GIVEN
+        ResultScanner resultScanner = mock(ResultScanner.class);
+        Result result = mock(Result.class);
+        when(tablePool.createHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.getScanner(any(Scan.class))).thenReturn(resultScanner);
+        when(resultScanner.next(ScanOptions.DEFAULT_CACHING)).thenReturn(new Result[]{result}, new Result[0]);
+        ScanOptions options = new ScanOptions();
+        options.setPrefetch(false);
+
+        // WHEN
+        ScanIterator<String> iterator = hBaseOperations.iterate(TABLE_NAME, new Scan(), new RowKeyMapper(), options);
+        String first = iterator.next();
+        verify(resultScanner, times(1)).next(ScanOptions.DEFAULT_CACHING);
+        boolean hasNext = iterator.hasNext();
+        iterator.close();
+
+        // THEN
+        assertEquals("mapped", first);
+        assertFalse(hasNext);
+        verify(resultScanner, times(2)).next(ScanOptions.DEFAULT_CACHING);
+        verify(tablePool).releaseHTable(TABLE_NAME, tableInterface);
+    }
+
+    @Test
+    public void testGetInsideIterationDoesNotReleaseTheHandleOfTheScan() throws IOException {
+        // GIVEN
+        HTableInterface scanTable = mock(HTableInterface.class);
+        ResultScanner resultScanner = mock(ResultScanner.class);
+        Result result = mock(Result.class);
+        when(tablePool.createHTable(TABLE_NAME)).thenReturn(scanTable);
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(scanTable.getScanner(any(Scan.class))).thenReturn(resultScanner);
+        when(resultScanner.next(ScanOptions.DEFAULT_CACHING)).thenReturn(new Result[]{result, result}, new Result[0]);
+        when(tableInterface.get(any(Get.class))).thenReturn(Result.EMPTY_RESULT);
+        ScanOptions options = new ScanOptions();
+        options.setPrefetch(false);
+
+        // WHEN
+        int rows = 0;
+        try (ScanIterator<String> iterator = hBaseOperations.iterate(TABLE_NAME, new Scan(), new RowKeyMapper(), options)) {
+            while (iterator.hasNext()) {
+                iterator.next();
+                hBaseOperations.get(TABLE_NAME, ROW_KEY, true);
+                rows++;
+            }
+            verify(tablePool, never()).releaseHTable(TABLE_NAME, scanTable);
+        }
+
+        // THEN
+        assertEquals(2, rows);
+        verify(tablePool, times(2)).releaseHTable(TABLE_NAME);
+        verify(tablePool).releaseHTable(TABLE_NAME, scanTable);
+        verify(resultScanner).close();
+    }
+
+    @Test
+    public void testIterateLeavesTheScanOfTheCallerUntouched() throws IOException {
+        // GIVEN
+        ResultScanner resultScanner = mock(ResultScanner.class);
+        when(tablePool.createHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.getScanner(any(Scan.class))).thenReturn(resultScanner);
+        when(resultScanner.next(2)).thenReturn(new Result[0]);
+        ScanOptions options = new ScanOptions();
+        options.setCaching(2);
+        options.setBatch(10);
+        Scan scan = new Scan(Bytes.toBytes("a"), Bytes.toBytes("b"));
+
+        // WHEN
+        hBaseOperations.iterate(TABLE_NAME, scan, new RowKeyMapper(), options).close();
+
+        // THEN
+        verify(tableInterface).getScanner(scanCaptor.capture());
+        assertEquals(2, scanCaptor.getValue().getCaching());
+        assertEquals("a", Bytes.toString(scanCaptor.getValue().getStartRow()));
+        assertEquals(-1, scan.getCaching());
+        assertEquals(-1, scan.getBatch());
+    }
+
+    @Test
+    public void testIterateReadsOnTheCallingThreadWhenEveryScanThreadIsBusy() throws Exception {
+        // GIVEN
+        hBaseOperations.setMaxScanThreads(1);
+        final CountDownLatch prefetching = new CountDownLatch(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        ResultScanner busyScanner = mock(ResultScanner.class);
+        ResultScanner resultScanner = mock(ResultScanner.class);
+        Result result = mock(Result.class);
+        when(tablePool.createHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.getScanner(any(Scan.class))).thenReturn(busyScanner, resultScanner);
+        when(busyScanner.next(ScanOptions.DEFAULT_CACHING)).thenReturn(new Result[]{result}).thenAnswer(new Answer<Result[]>() {
+            @Override
+            public Result[] answer(InvocationOnMock invocation) throws InterruptedException {
+                prefetching.countDown();
+                blocked.await();
+                return new Result[0];
+            }
+        });
+        when(resultScanner.next(ScanOptions.DEFAULT_CACHING)).thenReturn(new Result[]{result}, new Result[]{result}, new Result[0]);
+        ScanIterator<String> busy = hBaseOperations.iterate(TABLE_NAME, new Scan(), new RowKeyMapper(), new ScanOptions());
+        busy.hasNext();
+        assertTrue(prefetching.await(10, TimeUnit.SECONDS));
+
+        // WHEN
+        ScanIterator<String> iterator = hBaseOperations.iterate(TABLE_NAME, new Scan(), new RowKeyMapper(), new ScanOptions());
+        int rows = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            rows++;
+        }
+        iterator.close();
+        blocked.countDown();
+        busy.close();
+
+        // THEN
+        assertEquals(2, rows);
+    }
+
+    @Test
+    public void testParallelScanSplitsByRegionAndKeepsKeyOrder() throws IOException {
+        // GIVEN
+        HTable table = mock(HTable.class);
+        byte[][] startKeys = {HConstants.EMPTY_START_ROW, "b".getBytes(), "d".getBytes()};
+        byte[][] endKeys = {"b".getBytes(), "d".getBytes(), HConstants.EMPTY_END_ROW};
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(table);
+        when(table.getStartEndKeys()).thenReturn(new Pair<>(startKeys, endKeys));
+        when(table.getScanner(any(Scan.class))).thenAnswer(new Answer<ResultScanner>() {
+            @Override
+            public ResultScanner answer(InvocationOnMock invocation) throws IOException {
+                Scan scan = (Scan) invocation.getArguments()[0];
+                Result result = mock(Result.class);
+                when(result.getRow()).thenReturn(scan.getStartRow());
+                ResultScanner scanner = mock(ResultScanner.class);
+                when(scanner.next()).thenReturn(result, (Result) null);
+                return scanner;
+            }
+        });
+        Scan scan = new Scan("a".getBytes(), "c".getBytes());
+
+        // WHEN
+        ParallelScanResult<String> result = hBaseOperations.parallelScan(TABLE_NAME, scan, new RowMapper<String>() {
+            @Override
+            public String mapRow(Result result) throws Exception {
+                return Bytes.toString(result.getRow());
+            }
+        }, 2);
+
+        // THEN
+        assertEquals(Arrays.asList("a", "b"), result.getRows());
+        assertEquals(2, result.getRegionStatistics().size());
+        assertEquals("b", Bytes.toString(result.getRegionStatistics().get(0).getEndKey()));
+        assertEquals("c", Bytes.toString(result.getRegionStatistics().get(1).getEndKey()));
+        assertEquals(1, result.getRegionStatistics().get(1).getRows());
+    }
+
+    @Test
+    public void testParallelScanDeliversRowsToHandler() throws Exception {
+        // GIVEN
+        ResultScanner resultScanner = mock(ResultScanner.class);
+        Result row = mock(Result.class);
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.getScanner(any(Scan.class))).thenReturn(resultScanner);
+        when(resultScanner.next()).thenReturn(row, row, null);
+        RowHandler<String> handler = mock(RowHandler.class);
+
+        // WHEN
+        List<RegionScanStatistics> statistics = hBaseOperations.parallelScan(TABLE_NAME, new Scan(), new RowKeyMapper(), handler, 4);
+
+        // THEN
+        verify(handler, times(2)).handleRow("mapped");
+        assertEquals(1, statistics.size());
+        assertEquals(2, statistics.get(0).getRows());
+    }
+
+    @Test
+    public void testRegionScanFailingPartwayResumesAfterTheLastDeliveredRow() throws Exception {
+        // GIVEN
+        OperationPolicy policy = new OperationPolicy();
+        policy.setInitialBackoffMillis(1);
+        hBaseOperations.setOperationPolicy(OperationType.SCAN, policy);
+        ResultScanner failingScanner = mock(ResultScanner.class);
+        ResultScanner resumedScanner = mock(ResultScanner.class);
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.getScanner(any(Scan.class))).thenReturn(failingScanner, resumedScanner);
+        when(failingScanner.next()).thenReturn(row("a")).thenThrow(new IOException());
+        when(resumedScanner.next()).thenReturn(row("b"), (Result) null);
+        RowHandler<String> handler = mock(RowHandler.class);
+
+        // WHEN
+        List<RegionScanStatistics> statistics = hBaseOperations.parallelScan(TABLE_NAME, new Scan(), new RowMapper<String>() {
+            @Override
+            public String mapRow(Result result) {
+                return Bytes.toString(result.getRow());
+            }
+        }, handler, 1);
+
+        // THEN
+        verify(tableInterface, times(2)).getScanner(scanCaptor.capture());
+        assertArrayEquals(Bytes.add(Bytes.toBytes("a"), new byte[]{0}), scanCaptor.getAllValues().get(1).getStartRow());
+        verify(handler, times(1)).handleRow("a");
+        verify(handler, times(1)).handleRow("b");
+        verify(failingScanner).close();
+        assertEquals(2, statistics.get(0).getRows());
+    }
+
+    @Test
+    public void testFailingRowHandlerIsNotRetried() throws Exception {
+        // GIVEN
+        OperationPolicy policy = new OperationPolicy();
+        policy.setInitialBackoffMillis(1);
+        hBaseOperations.setOperationPolicy(OperationType.SCAN, policy);
+        ResultScanner resultScanner = mock(ResultScanner.class);
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.getScanner(any(Scan.class))).thenReturn(resultScanner);
+        when(resultScanner.next()).thenReturn(row("a"), row("b"), null);
+        RowHandler<String> handler = mock(RowHandler.class);
+        doThrow(new IOException()).when(handler).handleRow("mapped");
+
+        // WHEN
+        try {
+            hBaseOperations.parallelScan(TABLE_NAME, new Scan(), new RowKeyMapper(), handler, 1);
+            fail();
+        } catch (CallbackFailedException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+
+        // THEN
+        verify(tableInterface, times(1)).getScanner(any(Scan.class));
+        verify(handler, times(1)).handleRow("mapped");
+        assertEquals(0, hBaseOperations.getMetrics().getOperationMetrics(TABLE_NAME, OperationType.SCAN).getStatistics().getRetries());
+    }
+
+    @Test
+    public void testRetriedRangeDeleteCountsTheRowsOfTheFailedAttempt() throws Exception {
+        // GIVEN
+        OperationPolicy policy = new OperationPolicy();
+        policy.setInitialBackoffMillis(1);
+        hBaseOperations.setOperationPolicy(OperationType.DELETE, policy);
+        hBaseOperations.setMutationBatchSize(2);
+        ResultScanner failingScanner = mock(ResultScanner.class);
+        ResultScanner resumedScanner = mock(ResultScanner.class);
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.getScanner(any(Scan.class))).thenReturn(failingScanner, resumedScanner);
+        when(failingScanner.next()).thenReturn(row("a"), row("b")).thenThrow(new IOException());
+        when(resumedScanner.next()).thenReturn(row("c"), (Result) null);
+
+        // WHEN
+        long deleted = hBaseOperations.deleteRange(TABLE_NAME, null, null, true);
+
+        // THEN
+        assertEquals(3, deleted);
+        verify(tableInterface, times(2)).batch(anyListOf(Delete.class), any(Object[].class));
+    }
+
+    @Test
+    public void testInternalOperationsKeepTheHandleOfTheCaller() throws Exception {
+        // GIVEN
+        ResultScanner resultScanner = mock(ResultScanner.class);
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tablePool.isHeld(TABLE_NAME)).thenReturn(true);
+        when(tableInterface.getScanner(any(Scan.class))).thenReturn(resultScanner);
+
+        // WHEN
+        hBaseOperations.enableSalting(TABLE_NAME, null);
+        hBaseOperations.parallelScan(TABLE_NAME, new Scan(), new RowKeyMapper(), mock(RowHandler.class), 1);
+
+        // THEN
+        verify(tablePool, never()).releaseHTable(TABLE_NAME);
+    }
+
+    @Test
+    public void testPutRecordsMetrics() throws IOException {
+        // GIVEN
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+
+        // WHEN
+        hBaseOperations.put(TABLE_NAME, Arrays.asList(new HBaseRow("row1", FAMILY, COLUMN, "val"), new HBaseRow("row2", FAMILY, COLUMN, "val")), true);
+
+        // THEN
+        OperationStatistics statistics = hBaseOperations.getMetrics().getOperationMetrics(TABLE_NAME, OperationType.PUT).getStatistics();
+        assertEquals(1, statistics.getCalls());
+        assertEquals(0, statistics.getErrors());
+        assertEquals(2, statistics.getRows());
+        assertTrue(statistics.getBytes() > 0);
+        verify(tablePool).setMetrics(hBaseOperations.getMetrics());
+    }
+
+    @Test
+    public void testFailedExecuteRecordsError() throws IOException {
+        // GIVEN
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.get(any(Get.class))).thenThrow(new IOException());
+
+        // WHEN
+        try {
+            hBaseOperations.get(TABLE_NAME, ROW_KEY, true);
+        } catch (HBaseOperationException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+
+        // THEN
+        OperationStatistics statistics = hBaseOperations.getMetrics().getOperationMetrics(TABLE_NAME, OperationType.GET).getStatistics();
+        assertEquals(1, statistics.getCalls());
+        assertEquals(1, statistics.getErrors());
+    }
+
+    @Test
+    public void testCachedGetIsInvalidatedByPut() throws IOException {
+        // GIVEN
+        RowCacheConfig cacheConfig = new RowCacheConfig();
+        cacheConfig.setTtlMillis(TABLE_NAME, 60000);
+        hBaseOperations.setRowCache(new RowCache(cacheConfig));
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.get(any(Get.class))).thenReturn(Result.EMPTY_RESULT);
+        hBaseOperations.get(TABLE_NAME, ROW_KEY, true);
+        hBaseOperations.get(TABLE_NAME, ROW_KEY, true);
+
+        // WHEN
+        hBaseOperations.put(TABLE_NAME, ROW_KEY, FAMILY, COLUMN, "value", true);
+        hBaseOperations.get(TABLE_NAME, ROW_KEY, true);
+
+        // THEN
+        verify(tableInterface, times(2)).get(any(Get.class));
+        assertEquals(1, hBaseOperations.getRowCache().getStatistics().getHits());
+    }
+
+    @Test
+    public void testConcurrentGetsAreBatched() throws Exception {
+        // GIVEN
+        GetBatchingConfig batchingConfig = new GetBatchingConfig();
+        batchingConfig.setMaxBatchSize(4);
+        batchingConfig.setWindowMicros(TimeUnit.SECONDS.toMicros(10));
+        hBaseOperations.setGetBatching(batchingConfig);
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.get(anyListOf(Get.class))).thenAnswer(new Answer<Result[]>() {
+            @Override
+            public Result[] answer(InvocationOnMock invocation) {
+                List<Get> gets = (List<Get>) invocation.getArguments()[0];
+                Result[] results = new Result[gets.size()];
+                for (int i = 0; i < results.length; i++) {
+                    byte[] row = gets.get(i).getRow();
+                    results[i] = Result.create(new Cell[]{CellUtil.createCell(row, FAMILY.getBytes(), COLUMN.getBytes(),
+                            HConstants.LATEST_TIMESTAMP, (byte) 4, row)});
+                }
+                return results;
+            }
+        });
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        List<Future<HBaseRow>> futures = new ArrayList<>();
+
+        // WHEN
+        for (int i = 0; i < 4; i++) {
+            final String rowKey = "row" + i;
+            futures.add(callers.submit(new Callable<HBaseRow>() {
+                @Override
+                public HBaseRow call() {
+                    return hBaseOperations.get(TABLE_NAME, rowKey, true);
+                }
+            }));
+        }
+
+        // THEN
+        for (int i = 0; i < 4; i++) {
+            assertEquals("row" + i, futures.get(i).get(10, TimeUnit.SECONDS).getRowKey());
+        }
+        callers.shutdown();
+        verify(tableInterface).get(getListCaptor.capture());
+        assertEquals(4, getListCaptor.getValue().size());
+        OperationStatistics statistics = hBaseOperations.getMetrics().getOperationMetrics(TABLE_NAME, OperationType.BATCHED_GET).getStatistics();
+        assertEquals(1, statistics.getBatches());
+        assertEquals(4, statistics.getMaxBatchSize());
+        assertEquals(4, hBaseOperations.getMetrics().getOperationMetrics(TABLE_NAME, OperationType.GET).getStatistics().getCalls());
+    }
+
+    @Test
+    public void testFailedGetBatchFailsEveryCaller() throws Exception {
+        // GIVEN
+        GetBatchingConfig batchingConfig = new GetBatchingConfig();
+        batchingConfig.setMaxBatchSize(4);
+        batchingConfig.setWindowMicros(TimeUnit.SECONDS.toMicros(10));
+        hBaseOperations.setGetBatching(batchingConfig);
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.get(anyListOf(Get.class))).thenThrow(new AssertionError("broken batch"));
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        List<Future<HBaseRow>> futures = new ArrayList<>();
+
+        // WHEN
+        for (int i = 0; i < 4; i++) {
+            final String rowKey = "row" + i;
+            futures.add(callers.submit(new Callable<HBaseRow>() {
+                @Override
+                public HBaseRow call() {
+                    return hBaseOperations.get(TABLE_NAME, rowKey, true);
+                }
+            }));
+        }
+
+        // THEN
+        int leaders = 0;
+        for (Future<HBaseRow> future : futures) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof AssertionError) {
+                    leaders++;
+                } else {
+                    assertTrue(e.getCause() instanceof HBaseOperationException);
+                    assertTrue(e.getCause().getMessage().contains("broken batch"));
+                }
+            }
+        }
+        callers.shutdown();
+        assertEquals(1, leaders);
+    }
+
+    @Test
+    public void testRetriableFailureIsRetried() throws IOException {
+        // GIVEN
+        OperationPolicy policy = new OperationPolicy();
+        policy.setInitialBackoffMillis(1);
+        hBaseOperations.setOperationPolicy(policy);
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.get(any(Get.class))).thenThrow(new IOException()).thenReturn(Result.EMPTY_RESULT);
+
+        // WHEN
+        HBaseRow row = hBaseOperations.get(TABLE_NAME, ROW_KEY, true);
+
+        // THEN
+        assertNull(row);
+        verify(tableInterface, times(2)).get(any(Get.class));
+        OperationStatistics statistics = hBaseOperations.getMetrics().getOperationMetrics(TABLE_NAME, OperationType.GET).getStatistics();
+        assertEquals(1, statistics.getCalls());
+        assertEquals(0, statistics.getErrors());
+        assertEquals(1, statistics.getRetries());
+    }
+
+    @Test
+    public void testNonRetriableFailureIsNotRetried() throws IOException {
+        // GIVEN
+        hBaseOperations.setOperationPolicy(OperationType.GET, new OperationPolicy());
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.get(any(Get.class))).thenThrow(new DoNotRetryIOException());
+
+        // WHEN
+        try {
+            hBaseOperations.get(TABLE_NAME, ROW_KEY, true);
+        } catch (HBaseOperationException e) {
+            assertTrue(e.getCause() instanceof DoNotRetryIOException);
+        }
+
+        // THEN
+        verify(tableInterface).get(any(Get.class));
+    }
+
+    @Test
+    public void testIncrementIsNotRetried() throws IOException {
+        // GIVEN
+        hBaseOperations.setOperationPolicy(new OperationPolicy());
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.increment(any(Increment.class))).thenThrow(new IOException());
+
+        // WHEN
+        try {
+            hBaseOperations.incrementColumnValue(TABLE_NAME, ROW_KEY, FAMILY, COLUMN, 1, true);
+            fail();
+        } catch (HBaseOperationException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+
+        // THEN
+        verify(tableInterface).increment(any(Increment.class));
+        assertEquals(0, hBaseOperations.getMetrics().getOperationMetrics(TABLE_NAME, OperationType.INCREMENT).getStatistics().getRetries());
+    }
+
+    @Test
+    public void testCheckAndPutIsNotRetried() throws IOException {
+        // GIVEN
+        hBaseOperations.setOperationPolicy(new OperationPolicy());
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.checkAndPut(any(byte[].class), any(byte[].class), any(byte[].class), any(byte[].class), any(Put.class)))
+                .thenThrow(new IOException());
+
+        // WHEN
+        try {
+            hBaseOperations.checkAndPut(TABLE_NAME, FAMILY, COLUMN, "old", new HBaseRow(ROW_KEY, FAMILY, COLUMN, "val"), true);
+            fail();
+        } catch (HBaseOperationException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+
+        // THEN
+        verify(tableInterface).checkAndPut(any(byte[].class), any(byte[].class), any(byte[].class), any(byte[].class), any(Put.class));
+        assertEquals(0, hBaseOperations.getMetrics().getOperationMetrics(TABLE_NAME, OperationType.CHECK_AND_MUTATE).getStatistics().getRetries());
+    }
+
+    @Test
+    public void testCheckAndPutForMissingCell() throws IOException {
+        // GIVEN
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.checkAndPut(any(byte[].class), any(byte[].class), any(byte[].class), any(byte[].class), any(Put.class)))
+                .thenReturn(true);
+
+        // WHEN
+        boolean written = hBaseOperations.checkAndPut(TABLE_NAME, FAMILY, COLUMN, null, new HBaseRow(ROW_KEY, FAMILY, COLUMN, "val"), true);
+
+        // THEN
+        assertTrue(written);
+        verify(tableInterface).checkAndPut(eq(ROW_KEY.getBytes()), eq(FAMILY.getBytes()), eq(COLUMN.getBytes()), (byte[]) isNull(), any(Put.class));
+    }
+
+    @Test
+    public void testRetriesAreLimitedByBudget() throws IOException {
+        // GIVEN
+        OperationPolicy policy = new OperationPolicy();
+        policy.setRetryBudgetRatio(0);
+        policy.setMinRetriesPerSecond(0);
+        hBaseOperations.setOperationPolicy(OperationType.GET, policy);
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.get(any(Get.class))).thenThrow(new IOException());
+
+        // WHEN
+        try {
+            hBaseOperations.get(TABLE_NAME, ROW_KEY, true);
+        } catch (HBaseOperationException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+
+        // THEN
+        verify(tableInterface).get(any(Get.class));
+        assertEquals(1, hBaseOperations.getMetrics().getOperationMetrics(TABLE_NAME, OperationType.GET).getStatistics().getRejectedRetries());
+    }
+
+    @Test
+    public void testExhaustedBudgetOfGetsDoesNotLimitRetriesOfPuts() throws IOException {
+        // GIVEN
+        OperationPolicy exhausted = new OperationPolicy();
+        exhausted.setRetryBudgetRatio(0);
+        exhausted.setMinRetriesPerSecond(0);
+        hBaseOperations.setOperationPolicy(OperationType.GET, exhausted);
+        OperationPolicy policy = new OperationPolicy();
+        policy.setInitialBackoffMillis(1);
+        hBaseOperations.setOperationPolicy(OperationType.PUT, policy);
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.get(any(Get.class))).thenThrow(new IOException());
+        doThrow(new IOException()).doNothing().when(tableInterface).put(anyListOf(Put.class));
+        try {
+            hBaseOperations.get(TABLE_NAME, ROW_KEY, true);
+        } catch (HBaseOperationException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+
+        // WHEN
+        hBaseOperations.put(TABLE_NAME, ROW_KEY, FAMILY, COLUMN, "val", true);
+
+        // THEN
+        verify(tableInterface, times(2)).put(anyListOf(Put.class));
+        assertEquals(1, hBaseOperations.getMetrics().getOperationMetrics(TABLE_NAME, OperationType.GET).getStatistics().getRejectedRetries());
+        assertEquals(1, hBaseOperations.getMetrics().getOperationMetrics(TABLE_NAME, OperationType.PUT).getStatistics().getRetries());
+    }
+
+    @Test
+    public void testSlowGetIsHedged() throws Exception {
+        // GIVEN
+        final CountDownLatch slowAnswer = new CountDownLatch(1);
+        OperationPolicy policy = new OperationPolicy();
+        policy.setHedgePercentile(99);
+        policy.setMinHedgeDelayMillis(10);
+        hBaseOperations.setOperationPolicy(OperationType.GET, policy);
+        hBaseOperations.setExecutor(Executors.newFixedThreadPool(2));
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        final Result hedgedResult = Result.create(new Cell[]{CellUtil.createCell(ROW_KEY.getBytes(), FAMILY.getBytes(), COLUMN.getBytes(),
+                HConstants.LATEST_TIMESTAMP, (byte) 4, "value".getBytes())});
+        when(tableInterface.get(any(Get.class))).thenAnswer(new Answer<Result>() {
+            private final AtomicInteger calls = new AtomicInteger();
+
+            @Override
+            public Result answer(InvocationOnMock invocation) throws InterruptedException {
+                if (calls.getAndIncrement() == 0) {
+                    slowAnswer.await(10, TimeUnit.SECONDS);
+                    return Result.EMPTY_RESULT;
+                }
+                return hedgedResult;
+            }
+        });
+
+        // WHEN
+        HBaseRow row = hBaseOperations.get(TABLE_NAME, ROW_KEY, true);
+        slowAnswer.countDown();
+
+        // THEN
+        assertEquals(ROW_KEY, row.getRowKey());
+        assertEquals(1, hBaseOperations.getMetrics().getOperationMetrics(TABLE_NAME, OperationType.GET).getStatistics().getHedges());
+    }
+
+    @Test
+    public void testOpenCircuitRejectsCalls() throws IOException {
+        // GIVEN
+        IsolationConfig isolation = new IsolationConfig();
+        isolation.setWindowSize(2);
+        isolation.setMinimumCalls(2);
+        hBaseOperations.setIsolation(TABLE_NAME, isolation);
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.get(any(Get.class))).thenThrow(new IOException());
+        for (int i = 0; i < 2; i++) {
+            try {
+                hBaseOperations.get(TABLE_NAME, ROW_KEY, true);
+            } catch (HBaseOperationException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+        }
+
+        // WHEN
+        try {
+            hBaseOperations.get(TABLE_NAME, ROW_KEY, true);
+            fail("Call should be rejected");
+        } catch (CallRejectedException e) {
+            assertNull(e.getCause());
+        }
+
+        // THEN
+        verify(tableInterface, times(2)).get(any(Get.class));
+        IsolationStatistics statistics = hBaseOperations.getMetrics().getStatistics(TABLE_NAME).getIsolation();
+        assertEquals("OPEN", statistics.getCircuitState());
+        assertEquals(1, statistics.getCircuitOpenings());
+        assertEquals(1, statistics.getCircuitRejections());
+    }
+
+    @Test
+    public void testFullBulkheadRejectsCalls() throws Exception {
+        // GIVEN
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        IsolationConfig isolation = new IsolationConfig();
+        isolation.setMaxConcurrentCalls(1);
+        hBaseOperations.setIsolation(isolation);
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        when(tableInterface.get(any(Get.class))).thenAnswer(new Answer<Result>() {
+            @Override
+            public Result answer(InvocationOnMock invocation) throws InterruptedException {
+                started.countDown();
+                blocked.await(10, TimeUnit.SECONDS);
+                return Result.EMPTY_RESULT;
+            }
+        });
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        Future<HBaseRow> slowGet = caller.submit(new Callable<HBaseRow>() {
+            @Override
+            public HBaseRow call() {
+                return hBaseOperations.get(TABLE_NAME, ROW_KEY, true);
+            }
+        });
+        started.await(10, TimeUnit.SECONDS);
+
+        // WHEN
+        try {
+            hBaseOperations.get(TABLE_NAME, ROW_KEY, true);
+            fail("Call should be rejected");
+        } catch (CallRejectedException e) {
+            blocked.countDown();
+        }
+
+        // THEN
+        assertNull(slowGet.get(10, TimeUnit.SECONDS));
+        caller.shutdown();
+        assertEquals(1, hBaseOperations.getMetrics().getStatistics(TABLE_NAME).getIsolation().getBulkheadRejections());
+        verify(tableInterface).get(any(Get.class));
+    }
+
+    @Test
+    public void testPutEntities() throws IOException {
+        // GIVEN
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        Entity entity = new Entity();
+        entity.id = ROW_KEY;
+        entity.count = 2;
+
+        // WHEN
+        hBaseOperations.putEntities(TABLE_NAME, Entity.class, Arrays.asList(entity, new Entity()), true);
+
+        // THEN
+        verify(tableInterface).put(putCaptor.capture());
+        List<Put> puts = putCaptor.getValue();
+        assertEquals(1, puts.size());
+        assertEquals(ROW_KEY, Bytes.toString(puts.get(0).getRow()));
+        assertEquals(2L, Bytes.toLong(puts.get(0).get(FAMILY.getBytes(), COLUMN.getBytes()).get(0).getValue()));
+    }
+
+    private static Result row(String rowKey) {
+        return Result.create(new Cell[]{CellUtil.createCell(Bytes.toBytes(rowKey), FAMILY.getBytes(), COLUMN.getBytes(), HConstants.LATEST_TIMESTAMP,
+                (byte) 4, "value".getBytes())});
+    }
+
     private class NullMapper implements RowMapper<String> {
         @Override
         public String mapRow(Result result) throws Exception {
@@ -448,6 +1327,21 @@ public class HBaseOperationsTest {
         }
     }
 
+    private class RowKeyMapper implements RowMapper<String> {
+        @Override
+        public String mapRow(Result result) throws Exception {
+            return "mapped";
+        }
+    }
+
+    @HBaseEntity(family = FAMILY)
+    private static class Entity {
+        @RowKey
+        private String id;
+        @HBaseColumn(qualifier = COLUMN)
+        private long count;
+    }
+
     private class NullExtractor implements ResultExtractor<String> {
         @Override
         public String extractData(ResultScanner result) throws Exception {
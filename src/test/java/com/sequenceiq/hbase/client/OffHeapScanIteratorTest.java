@@ -0,0 +1,137 @@
+package com.sequenceiq.hbase.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sequenceiq.hbase.memory.InMemoryHTableFactory;
+import com.sequenceiq.hbase.metrics.OperationType;
+import com.sequenceiq.hbase.model.HBaseRow;
+
+public class OffHeapScanIteratorTest {
+
+    private static final String TABLE_NAME = "table";
+    private static final String FAMILY = "cf";
+    private static final byte[] FAMILY_BYTES = Bytes.toBytes(FAMILY);
+    private static final int CHUNK_BYTES = 1024;
+    private static final int ROWS = 500;
+    private HBaseOperations hBaseOperations;
+    private DirectBufferPool pool;
+    private File spillDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        InMemoryHTableFactory factory = new InMemoryHTableFactory();
+        factory.createTable(TABLE_NAME, FAMILY);
+        hBaseOperations = new HBaseOperations(new HBaseTablePool(new Configuration(), factory));
+        pool = new DirectBufferPool(CHUNK_BYTES, CHUNK_BYTES);
+        hBaseOperations.setDirectBufferPool(pool);
+        List<HBaseRow> rows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            HBaseRow row = new HBaseRow(String.format("row%03d", i), FAMILY, "name", "value" + i);
+            row.addValue(FAMILY, "count", Integer.toString(i));
+            rows.add(row);
+        }
+        hBaseOperations.put(TABLE_NAME, rows, true);
+        spillDirectory = Files.createTempDirectory("offheap").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : spillDirectory.listFiles()) {
+            file.delete();
+        }
+        spillDirectory.delete();
+    }
+
+    @Test
+    public void testRowsAreReadWithinOneRecycledChunk() {
+        // GIVEN
+        ScanOptions options = new ScanOptions();
+        options.setCaching(50);
+        options.setOffHeapBytes(CHUNK_BYTES);
+
+        // WHEN
+        int count = 0;
+        try (OffHeapScanIterator iterator = hBaseOperations.iterateOffHeap(TABLE_NAME, new Scan(), options)) {
+            while (iterator.hasNext()) {
+                OffHeapRow row = iterator.next();
+                assertEquals(String.format("row%03d", count), row.getRowKeyString());
+                assertEquals("value" + count, row.getString(FAMILY_BYTES, Bytes.toBytes("name")));
+                assertEquals(Integer.toString(count), row.getString(FAMILY_BYTES, Bytes.toBytes("count")));
+                assertNull(row.getValue(FAMILY_BYTES, Bytes.toBytes("missing")));
+                assertTrue(iterator.getDirectBytes() <= CHUNK_BYTES);
+                count++;
+            }
+        }
+
+        // THEN
+        assertEquals(ROWS, count);
+        assertEquals(1, pool.getAllocations());
+        assertEquals(CHUNK_BYTES, pool.getPooledBytes());
+        assertEquals(ROWS, hBaseOperations.getMetrics().getOperationMetrics(TABLE_NAME, OperationType.SCAN).getStatistics().getRows());
+    }
+
+    @Test
+    public void testRowsSpillToMappedFileOverTheBudget() throws InterruptedException {
+        // GIVEN
+        ScanOptions options = new ScanOptions();
+        options.setOffHeapBytes(2 * CHUNK_BYTES);
+        options.setSpillDirectory(spillDirectory.getPath());
+
+        // WHEN
+        List<String> rowKeys = new ArrayList<>();
+        try (OffHeapScanIterator iterator = hBaseOperations.iterateOffHeap(TABLE_NAME, new Scan(), options)) {
+            for (int i = 0; i < 100 && iterator.getSpillBytes() == 0; i++) {
+                Thread.sleep(10);
+            }
+            assertTrue(iterator.getSpillBytes() > 0);
+            while (iterator.hasNext()) {
+                OffHeapRow row = iterator.next();
+                rowKeys.add(row.toByteRow().getRowKeyString());
+            }
+        }
+
+        // THEN
+        assertEquals(ROWS, rowKeys.size());
+        assertEquals("row499", rowKeys.get(ROWS - 1));
+        assertEquals(0, spillDirectory.list().length);
+    }
+
+    @Test
+    public void testScanFailsWhenEveryScanThreadIsBusy() {
+        // GIVEN
+        hBaseOperations.setMaxScanThreads(1);
+        ScanOptions options = new ScanOptions();
+        options.setOffHeapBytes(CHUNK_BYTES);
+        Scan scan = new Scan();
+        OffHeapScanIterator busy = hBaseOperations.iterateOffHeap(TABLE_NAME, scan, options);
+        assertTrue(busy.hasNext());
+
+        // WHEN
+        HBaseOperationException failure = null;
+        try {
+            hBaseOperations.iterateOffHeap(TABLE_NAME, scan, options);
+        } catch (HBaseOperationException e) {
+            failure = e;
+        }
+        busy.close();
+
+        // THEN
+        assertTrue(failure.getMessage().contains("busy"));
+        assertEquals(-1, scan.getCaching());
+    }
+}
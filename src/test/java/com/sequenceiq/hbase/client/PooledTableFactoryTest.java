@@ -0,0 +1,170 @@
+package com.sequenceiq.hbase.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.HTableInterfaceFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.sequenceiq.hbase.memory.InMemoryHTableFactory;
+
+public class PooledTableFactoryTest {
+
+    private static final String TABLE_NAME = "table";
+
+    private HTableInterfaceFactory delegate;
+    private TablePoolConfig config;
+    private Configuration configuration;
+
+    @Before
+    public void reset() {
+        delegate = mock(HTableInterfaceFactory.class);
+        when(delegate.createHTableInterface(any(Configuration.class), any(byte[].class))).thenAnswer(new Answer<HTableInterface>() {
+            @Override
+            public HTableInterface answer(InvocationOnMock invocation) {
+                HTableInterface table = mock(HTableInterface.class);
+                when(table.getName()).thenReturn(TableName.valueOf((byte[]) invocation.getArguments()[1]));
+                return table;
+            }
+        });
+        config = new TablePoolConfig();
+        config.setMaxSize(2);
+        config.setMaxWaitMillis(10);
+        config.setIdleTimeoutMillis(0);
+        configuration = new Configuration(false);
+    }
+
+    @Test
+    public void testReleasedTableIsReused() throws IOException {
+        // GIVEN
+        PooledTableFactory factory = new PooledTableFactory(delegate, config);
+        HTableInterface table = factory.createHTableInterface(configuration, TABLE_NAME.getBytes());
+
+        // WHEN
+        factory.releaseHTableInterface(table);
+        HTableInterface result = factory.createHTableInterface(configuration, TABLE_NAME.getBytes());
+
+        // THEN
+        assertSame(table, result);
+        verify(delegate, times(1)).createHTableInterface(any(Configuration.class), any(byte[].class));
+        verify(delegate, times(0)).releaseHTableInterface(table);
+    }
+
+    @Test(expected = HBaseOperationException.class)
+    public void testCheckoutFailsWhenPoolIsExhausted() {
+        // GIVEN
+        PooledTableFactory factory = new PooledTableFactory(delegate, config);
+        factory.createHTableInterface(configuration, TABLE_NAME.getBytes());
+        factory.createHTableInterface(configuration, TABLE_NAME.getBytes());
+
+        // WHEN
+        factory.createHTableInterface(configuration, TABLE_NAME.getBytes());
+    }
+
+    @Test
+    public void testStatistics() throws IOException {
+        // GIVEN
+        PooledTableFactory factory = new PooledTableFactory(delegate, config);
+        HTableInterface table1 = factory.createHTableInterface(configuration, TABLE_NAME.getBytes());
+        HTableInterface table2 = factory.createHTableInterface(configuration, TABLE_NAME.getBytes());
+
+        // WHEN
+        factory.releaseHTableInterface(table1);
+
+        // THEN
+        TablePoolStatistics statistics = factory.getStatistics(TABLE_NAME);
+        assertNotSame(table1, table2);
+        assertEquals(1, statistics.getInUse());
+        assertEquals(1, statistics.getIdle());
+        assertEquals(0, statistics.getWaiters());
+    }
+
+    @Test
+    public void testEvictIdleReleasesExpiredTables() throws Exception {
+        // GIVEN
+        config.setIdleTimeoutMillis(1);
+        config.setEvictionIntervalMillis(Long.MAX_VALUE);
+        PooledTableFactory factory = new PooledTableFactory(delegate, config);
+        HTableInterface table = factory.createHTableInterface(configuration, TABLE_NAME.getBytes());
+        factory.releaseHTableInterface(table);
+        Thread.sleep(5);
+
+        // WHEN
+        factory.evictIdle();
+
+        // THEN
+        verify(delegate).releaseHTableInterface(table);
+        assertEquals(0, factory.getStatistics(TABLE_NAME).getIdle());
+        factory.close();
+    }
+
+    @Test
+    public void testCloseReleasesIdleTables() throws IOException {
+        // GIVEN
+        PooledTableFactory factory = new PooledTableFactory(delegate, config);
+        HTableInterface table = factory.createHTableInterface(configuration, TABLE_NAME.getBytes());
+        factory.releaseHTableInterface(table);
+
+        // WHEN
+        factory.close();
+
+        // THEN
+        verify(delegate).releaseHTableInterface(table);
+    }
+
+    @Test
+    public void testOperationsReturnPooledTablesWithoutRelease() throws Exception {
+        // GIVEN
+        InMemoryHTableFactory tables = new InMemoryHTableFactory();
+        HTableDescriptor descriptor = new HTableDescriptor(TableName.valueOf(TABLE_NAME));
+        descriptor.addFamily(new HColumnDescriptor("cf"));
+        tables.createTable(descriptor);
+        config.setMaxSize(1);
+        config.setMaxWaitMillis(10000);
+        HBaseTablePool pool = new HBaseTablePool(configuration, tables, config);
+        final HBaseOperations operations = new HBaseOperations(pool);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // WHEN
+        for (int i = 0; i < 8; i++) {
+            final String rowKey = "row" + i;
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    operations.put(TABLE_NAME, rowKey, "cf", "column", "value", false);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // THEN
+        assertEquals(0, pool.getStatistics(TABLE_NAME).getInUse());
+        assertEquals("row7", operations.get(TABLE_NAME, "row7", false).getRowKey());
+        assertEquals(0, pool.getStatistics(TABLE_NAME).getInUse());
+    }
+}
@@ -0,0 +1,177 @@
+package com.sequenceiq.hbase.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.ColumnPaginationFilter;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.PageFilter;
+import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class QueryTest {
+
+    private static final String TABLE_NAME = "table";
+    private static final String FAMILY = "cf";
+
+    @Mock
+    private HBaseTablePool tablePool;
+    @Mock
+    private HTableInterface tableInterface;
+    @Mock
+    private ResultScanner scanner;
+    @Captor
+    private ArgumentCaptor<Scan> scanCaptor;
+    @Captor
+    private ArgumentCaptor<Get> getCaptor;
+
+    private HBaseOperations hBaseOperations;
+
+    @Before
+    public void setUp() {
+        when(tablePool.getHTable(TABLE_NAME)).thenReturn(tableInterface);
+        hBaseOperations = new HBaseOperations(tablePool);
+    }
+
+    @Test
+    public void testScanIsBuiltFromQuery() throws IOException {
+        // GIVEN
+        Query query = hBaseOperations.query(TABLE_NAME)
+                .prefix("user")
+                .columns(FAMILY, "a", "b")
+                .whereEquals(FAMILY, "status", "active")
+                .columnPage(10, 20)
+                .timeRange(100, 200)
+                .maxVersions(3)
+                .limit(5);
+
+        // WHEN
+        Scan scan = query.toScan();
+
+        // THEN
+        assertEquals("user", Bytes.toString(scan.getStartRow()));
+        assertEquals("uses", Bytes.toString(scan.getStopRow()));
+        assertEquals(3, scan.getFamilyMap().get(Bytes.toBytes(FAMILY)).size());
+        assertEquals(100, scan.getTimeRange().getMin());
+        assertEquals(200, scan.getTimeRange().getMax());
+        assertEquals(3, scan.getMaxVersions());
+        assertEquals(5, scan.getCaching());
+        List<Filter> filters = ((FilterList) scan.getFilter()).getFilters();
+        assertEquals(FilterList.Operator.MUST_PASS_ALL, ((FilterList) scan.getFilter()).getOperator());
+        assertEquals(3, filters.size());
+        assertTrue(filters.get(0) instanceof SingleColumnValueFilter);
+        assertTrue(((SingleColumnValueFilter) filters.get(0)).getFilterIfMissing());
+        assertTrue(filters.get(1) instanceof ColumnPaginationFilter);
+        assertTrue(filters.get(2) instanceof PageFilter);
+    }
+
+    @Test
+    public void testPrefixOfMaximalBytesScansToTheEnd() {
+        // WHEN
+        byte[] stop = Query.stopRowOf(new byte[]{1, (byte) 0xFF, (byte) 0xFF});
+        byte[] end = Query.stopRowOf(new byte[]{(byte) 0xFF});
+
+        // THEN
+        assertArrayEquals(new byte[]{2}, stop);
+        assertArrayEquals(HConstants.EMPTY_END_ROW, end);
+    }
+
+    @Test
+    public void testGetUsesProjectionAndFilters() throws IOException {
+        // GIVEN
+        when(tableInterface.get(any(Get.class))).thenReturn(Result.EMPTY_RESULT);
+
+        // WHEN
+        Result result = hBaseOperations.query(TABLE_NAME).family(FAMILY).keyOnly().limit(1).get("row1", new RowMapper<Result>() {
+            @Override
+            public Result mapRow(Result result) {
+                return result;
+            }
+        });
+
+        // THEN
+        verify(tableInterface).get(getCaptor.capture());
+        Get get = getCaptor.getValue();
+        assertEquals("row1", Bytes.toString(get.getRow()));
+        assertTrue(get.familySet().contains(Bytes.toBytes(FAMILY)));
+        assertTrue(get.getFilter() instanceof KeyOnlyFilter);
+        assertTrue(result.isEmpty());
+        verify(tablePool).releaseHTable(TABLE_NAME);
+    }
+
+    @Test
+    public void testListStopsAtLimit() throws IOException {
+        // GIVEN
+        when(tableInterface.getScanner(any(Scan.class))).thenReturn(scanner);
+        when(scanner.next()).thenReturn(row("a"), row("b"), row("c"), null);
+
+        // WHEN
+        List<String> keys = hBaseOperations.query(TABLE_NAME).firstKeyOnly().limit(2).list(new RowMapper<String>() {
+            @Override
+            public String mapRow(Result result) {
+                return Bytes.toString(result.getRow());
+            }
+        });
+
+        // THEN
+        verify(tableInterface).getScanner(scanCaptor.capture());
+        assertEquals(2, keys.size());
+        assertEquals("b", keys.get(1));
+        assertNull(scanCaptor.getValue().getFamilyMap().get(Bytes.toBytes(FAMILY)));
+        verify(scanner).close();
+    }
+
+    @Test
+    public void testWhereColumnIsReadButNotMapped() throws IOException {
+        // GIVEN
+        when(tableInterface.getScanner(any(Scan.class))).thenReturn(scanner);
+        when(scanner.next()).thenReturn(Result.create(new KeyValue[]{
+            new KeyValue(Bytes.toBytes("row1"), Bytes.toBytes(FAMILY), Bytes.toBytes("a"), Bytes.toBytes("x")),
+            new KeyValue(Bytes.toBytes("row1"), Bytes.toBytes(FAMILY), Bytes.toBytes("status"), Bytes.toBytes("active"))}), null);
+
+        // WHEN
+        List<Result> results = hBaseOperations.query(TABLE_NAME).column(FAMILY, "a").whereEquals(FAMILY, "status", "active")
+                .list(new RowMapper<Result>() {
+                    @Override
+                    public Result mapRow(Result result) {
+                        return result;
+                    }
+                });
+
+        // THEN
+        verify(tableInterface).getScanner(scanCaptor.capture());
+        assertTrue(scanCaptor.getValue().getFamilyMap().get(Bytes.toBytes(FAMILY)).contains(Bytes.toBytes("status")));
+        assertEquals(1, results.get(0).size());
+        assertEquals("x", Bytes.toString(results.get(0).getValue(Bytes.toBytes(FAMILY), Bytes.toBytes("a"))));
+        assertNull(results.get(0).getValue(Bytes.toBytes(FAMILY), Bytes.toBytes("status")));
+    }
+
+    private static Result row(String rowKey) {
+        return Result.create(new KeyValue[]{new KeyValue(Bytes.toBytes(rowKey), Bytes.toBytes(FAMILY), Bytes.toBytes("q"), Bytes.toBytes(1L))});
+    }
+}
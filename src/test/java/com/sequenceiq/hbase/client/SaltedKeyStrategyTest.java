@@ -0,0 +1,156 @@
+package com.sequenceiq.hbase.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sequenceiq.hbase.memory.InMemoryHTable;
+import com.sequenceiq.hbase.memory.InMemoryHTableFactory;
+import com.sequenceiq.hbase.model.HBaseRow;
+
+public class SaltedKeyStrategyTest {
+
+    private static final String TABLE_NAME = "table";
+    private static final String FAMILY = "cf";
+    private static final RowMapper<String> ROW_KEY_MAPPER = new RowMapper<String>() {
+        @Override
+        public String mapRow(Result result) {
+            return Bytes.toString(result.getRow());
+        }
+    };
+    private InMemoryHTable table;
+    private HBaseOperations hBaseOperations;
+
+    @Before
+    public void setUp() {
+        InMemoryHTableFactory factory = new InMemoryHTableFactory();
+        table = factory.createTable(TABLE_NAME, FAMILY);
+        hBaseOperations = new HBaseOperations(new HBaseTablePool(new Configuration(), factory));
+    }
+
+    @Test
+    public void testSaltedRowsAreSpreadAndReadBackInKeyOrder() throws IOException {
+        // GIVEN
+        hBaseOperations.setRowKeyStrategy(TABLE_NAME, new SaltedKeyStrategy(4));
+        List<HBaseRow> rows = new ArrayList<>();
+        for (int i = 20; i > 0; i--) {
+            rows.add(new HBaseRow(String.format("t%03d", i), FAMILY, "c", "v" + i));
+        }
+
+        // WHEN
+        hBaseOperations.put(TABLE_NAME, rows, true);
+        HBaseRow row = hBaseOperations.get(TABLE_NAME, "t005", true);
+        List<String> keys = hBaseOperations.query(TABLE_NAME).range("t003", "t010").list(ROW_KEY_MAPPER);
+
+        // THEN
+        Set<Byte> salts = new HashSet<>();
+        try (ResultScanner scanner = table.getScanner(new Scan())) {
+            for (Result result : scanner) {
+                salts.add(result.getRow()[0]);
+            }
+        }
+        assertEquals(4, salts.size());
+        assertEquals("t005", row.getRowKey());
+        assertEquals(7, keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(String.format("t%03d", i + 3), keys.get(i));
+        }
+    }
+
+    @Test
+    public void testReversedTimestampsAreScannedNewestFirst() {
+        // GIVEN
+        hBaseOperations.setRowKeyStrategy(TABLE_NAME, new SaltedKeyStrategy(3, new ReversedTimestampKeyStrategy(4)));
+        List<HBaseRow> rows = new ArrayList<>();
+        for (int i = 1000; i < 1010; i++) {
+            rows.add(new HBaseRow(i + "-event", FAMILY, "c", "v"));
+        }
+        hBaseOperations.put(TABLE_NAME, rows, true);
+
+        // WHEN
+        List<String> keys = hBaseOperations.query(TABLE_NAME).range("1002", "1006").list(ROW_KEY_MAPPER);
+
+        // THEN
+        assertEquals(4, keys.size());
+        assertEquals("1005-event", keys.get(0));
+        assertEquals("1002-event", keys.get(3));
+    }
+
+    @Test
+    public void testBucketsAreDerivedFromRegionStartKeys() {
+        // GIVEN
+        byte[][] splitKeys = SaltedKeyStrategy.splitKeys(8);
+        byte[][] startKeys = new byte[splitKeys.length + 2][];
+        startKeys[0] = HConstants.EMPTY_START_ROW;
+        System.arraycopy(splitKeys, 0, startKeys, 1, splitKeys.length);
+        startKeys[startKeys.length - 1] = new byte[]{7, 'x'};
+
+        // WHEN
+        SaltedKeyStrategy strategy = SaltedKeyStrategy.forRegions(startKeys, null);
+        byte[] rowKey = strategy.toRowKey(Bytes.toBytes("key"));
+
+        // THEN
+        assertEquals(8, strategy.getBuckets());
+        assertEquals(8, strategy.toRowRanges(null, null).size());
+        assertTrue(rowKey[0] >= 0 && rowKey[0] < 8);
+        assertArrayEquals(Bytes.toBytes("key"), strategy.toLogicalKey(rowKey));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTableNotSplitAtEverySaltIsRejected() {
+        // GIVEN
+        byte[][] startKeys = {HConstants.EMPTY_START_ROW, Bytes.toBytes("m")};
+
+        // WHEN
+        SaltedKeyStrategy.forRegions(startKeys, null);
+    }
+
+    @Test
+    public void testHashPrefixedKeysRoundTrip() {
+        // GIVEN
+        HashPrefixKeyStrategy strategy = new HashPrefixKeyStrategy(2);
+
+        // WHEN
+        byte[] rowKey = strategy.toRowKey(Bytes.toBytes("key"));
+
+        // THEN
+        assertEquals(5, rowKey.length);
+        assertArrayEquals(Bytes.toBytes("key"), strategy.toLogicalKey(rowKey));
+    }
+
+    @Test
+    public void testParallelScanOfSaltedRangeReturnsLogicalKeysInOrder() {
+        // GIVEN
+        hBaseOperations.setRowKeyStrategy(TABLE_NAME, new SaltedKeyStrategy(4));
+        List<HBaseRow> rows = new ArrayList<>();
+        for (int i = 20; i > 0; i--) {
+            rows.add(new HBaseRow(String.format("t%03d", i), FAMILY, "c", "v" + i));
+        }
+        hBaseOperations.put(TABLE_NAME, rows, true);
+
+        // WHEN
+        List<String> keys = hBaseOperations.parallelScan(TABLE_NAME, new Scan(Bytes.toBytes("t003"), Bytes.toBytes("t010")), ROW_KEY_MAPPER, 2)
+                .getRows();
+
+        // THEN
+        assertEquals(7, keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(String.format("t%03d", i + 3), keys.get(i));
+        }
+    }
+}
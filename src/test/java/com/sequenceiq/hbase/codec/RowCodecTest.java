@@ -0,0 +1,147 @@
+package com.sequenceiq.hbase.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+import com.sequenceiq.hbase.model.HBaseByteRow;
+import com.sequenceiq.hbase.model.HBaseRow;
+
+public class RowCodecTest {
+
+    private static final String FAMILY = "cf";
+
+    @Test
+    public void testRowsRoundTrip() {
+        // GIVEN
+        HBaseRow row = new HBaseRow("row1", FAMILY, "name", "value");
+        row.addValue(FAMILY, "empty", "");
+        row.addValue(FAMILY, "missing", null);
+        row.addValue("other", "name", "\u00e1rv\u00edzt\u0171r\u0151");
+        List<HBaseRow> rows = Arrays.asList(row, new HBaseRow(), new HBaseRow(null, FAMILY, "name", "value2"));
+
+        // WHEN
+        List<HBaseRow> decoded = RowCodec.decode(RowCodec.encode(rows));
+
+        // THEN
+        assertEquals(3, decoded.size());
+        assertEquals(row.getRowKey(), decoded.get(0).getRowKey());
+        assertEquals(row.getColumnFamilies(), decoded.get(0).getColumnFamilies());
+        assertNull(decoded.get(1).getRowKey());
+        assertNull(decoded.get(1).getColumnFamilies());
+        assertEquals(rows.get(2).getColumnFamilies(), decoded.get(2).getColumnFamilies());
+    }
+
+    @Test
+    public void testByteRowsRoundTripWithTimestampsAndTypes() {
+        // GIVEN
+        byte[] row = Bytes.toBytes("row1");
+        byte[] family = Bytes.toBytes(FAMILY);
+        Cell[] cells = {
+            new KeyValue(row, family, Bytes.toBytes("a"), 5L, KeyValue.Type.Put, Bytes.toBytes(42L)),
+            new KeyValue(row, family, Bytes.toBytes("a"), 2L, KeyValue.Type.Put, Bytes.toBytes(41L)),
+            new KeyValue(row, family, Bytes.toBytes("b"), Long.MAX_VALUE, KeyValue.Type.DeleteColumn, new byte[0])
+        };
+
+        // WHEN
+        List<HBaseByteRow> decoded = RowCodec.decodeByteRows(RowCodec.encodeByteRows(Arrays.asList(new HBaseByteRow(cells), new HBaseByteRow(null))));
+
+        // THEN
+        assertEquals(2, decoded.size());
+        assertTrue(decoded.get(1).isEmpty());
+        Cell[] decodedCells = decoded.get(0).getCells();
+        assertEquals(cells.length, decodedCells.length);
+        for (int i = 0; i < cells.length; i++) {
+            assertEquals(0, KeyValue.COMPARATOR.compare(cells[i], decodedCells[i]));
+            assertEquals(cells[i].getTypeByte(), decodedCells[i].getTypeByte());
+            assertArrayEquals(CellUtil.cloneValue(cells[i]), CellUtil.cloneValue(decodedCells[i]));
+        }
+    }
+
+    @Test
+    public void testStreamingThroughSmallBuffer() {
+        // GIVEN
+        List<HBaseRow> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            rows.add(new HBaseRow("row" + i, FAMILY, "column" + i % 10, "value" + i));
+        }
+        RowEncoder encoder = new RowEncoder(5);
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+        // WHEN
+        for (HBaseRow row : rows) {
+            if (!encoder.encode(row, buffer)) {
+                buffer.flip();
+                stream.write(buffer.array(), 0, buffer.limit());
+                buffer.clear();
+                assertTrue(encoder.encode(row, buffer));
+            }
+        }
+        stream.write(buffer.array(), 0, buffer.position());
+        byte[] bytes = stream.toByteArray();
+        RowDecoder decoder = new RowDecoder();
+        ByteBuffer input = ByteBuffer.allocate(64);
+        input.flip();
+        List<HBaseRow> decoded = new ArrayList<>();
+        int offset = 0;
+        while (decoded.size() < rows.size() && offset <= bytes.length) {
+            HBaseRow row = input.hasRemaining() ? decoder.decode(input) : null;
+            if (row == null) {
+                input.compact();
+                int length = Math.min(input.remaining(), Math.min(7, bytes.length - offset));
+                input.put(bytes, offset, length);
+                offset += Math.max(length, 1);
+                input.flip();
+            } else {
+                decoded.add(row);
+            }
+        }
+
+        // THEN
+        assertEquals(5, encoder.getDictionarySize());
+        assertFalse(input.hasRemaining());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(rows.get(i).getRowKey(), decoded.get(i).getRowKey());
+            assertEquals(rows.get(i).getColumnFamilies(), decoded.get(i).getColumnFamilies());
+        }
+    }
+
+    @Test
+    public void testEncodedRowsAreSmallerThanSerializedRows() throws IOException {
+        // GIVEN
+        List<HBaseRow> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            HBaseRow row = new HBaseRow("row" + i, FAMILY, "name", "value" + i);
+            row.addValue(FAMILY, "count", Integer.toString(i));
+            rows.add(row);
+        }
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(serialized)) {
+            output.writeObject(new ArrayList<>(rows));
+        }
+
+        // WHEN
+        byte[] encoded = RowCodec.encode(rows);
+
+        // THEN
+        assertTrue(encoded.length * 3 < serialized.size());
+        assertEquals(rows.get(0).getColumnFamilies(), RowCodec.decode(encoded).get(0).getColumnFamilies());
+    }
+}
@@ -0,0 +1,138 @@
+package com.sequenceiq.hbase.mapping;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+import com.sequenceiq.hbase.client.HBaseOperationException;
+
+public class EntityMapperTest {
+
+    @Test
+    public void testRoundTrip() {
+        // GIVEN
+        User user = new User();
+        user.id = "user1";
+        user.name = "John";
+        user.visits = 42L;
+        user.score = 7;
+        user.ratio = 0.5;
+        user.active = true;
+        user.avatar = new byte[]{1, 2, 3};
+        user.logins = 3L;
+
+        // WHEN
+        Put put = EntityMapper.of(User.class).toPut(user);
+        User mapped = EntityMapper.of(User.class).mapRow(toResult(put));
+
+        // THEN
+        assertEquals("user1", Bytes.toString(put.getRow()));
+        assertTrue(put.has(Bytes.toBytes("stats"), Bytes.toBytes("visit_count")));
+        assertEquals("user1", mapped.id);
+        assertEquals("John", mapped.name);
+        assertEquals(42L, mapped.visits);
+        assertEquals(7, mapped.score);
+        assertEquals(0.5, mapped.ratio, 0);
+        assertTrue(mapped.active);
+        assertArrayEquals(new byte[]{1, 2, 3}, mapped.avatar);
+        assertEquals(Long.valueOf(3), mapped.logins);
+    }
+
+    @Test
+    public void testNullFieldsAreNotWritten() {
+        // GIVEN
+        User user = new User();
+        user.id = "user1";
+
+        // WHEN
+        Put put = EntityMapper.of(User.class).toPut(user);
+        User mapped = EntityMapper.of(User.class).mapRow(toResult(put));
+
+        // THEN
+        assertFalse(put.has(Bytes.toBytes("info"), Bytes.toBytes("name")));
+        assertFalse(put.has(Bytes.toBytes("info"), Bytes.toBytes("logins")));
+        assertNull(mapped.name);
+        assertNull(mapped.logins);
+        assertEquals(0, mapped.visits);
+    }
+
+    @Test
+    public void testEntityWithoutRowKeyIsSkipped() {
+        // GIVEN
+        User user = new User();
+
+        // WHEN
+        Put put = EntityMapper.of(User.class).toPut(user);
+
+        // THEN
+        assertNull(put);
+        assertNull(EntityMapper.of(User.class).mapRow(Result.EMPTY_RESULT));
+        assertSame(EntityMapper.of(User.class), EntityMapper.of(User.class));
+    }
+
+    @Test(expected = HBaseOperationException.class)
+    public void testDoubleOfAnotherSizeIsRejected() {
+        // GIVEN
+        Result result = Result.create(new Cell[]{
+            new KeyValue(Bytes.toBytes("user1"), Bytes.toBytes("stats"), Bytes.toBytes("ratio"), Bytes.toBytes(1))});
+
+        // WHEN
+        EntityMapper.of(User.class).mapRow(result);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingRowKeyIsRejected() {
+        // WHEN
+        EntityMapper.of(Unmapped.class);
+    }
+
+    private static Result toResult(Put put) {
+        List<Cell> cells = new ArrayList<>();
+        for (Map.Entry<byte[], List<Cell>> family : put.getFamilyCellMap().entrySet()) {
+            cells.addAll(family.getValue());
+        }
+        Cell[] sorted = cells.toArray(new Cell[cells.size()]);
+        Arrays.sort(sorted, KeyValue.COMPARATOR);
+        return Result.create(sorted);
+    }
+
+    @HBaseEntity(family = "info")
+    private static class User {
+        @RowKey
+        private String id;
+        @HBaseColumn
+        private String name;
+        @HBaseColumn(family = "stats", qualifier = "visit_count")
+        private long visits;
+        @HBaseColumn(family = "stats")
+        private int score;
+        @HBaseColumn(family = "stats")
+        private double ratio;
+        @HBaseColumn
+        private boolean active;
+        @HBaseColumn
+        private byte[] avatar;
+        @HBaseColumn
+        private Long logins;
+    }
+
+    private static class Unmapped {
+        @HBaseColumn(family = "info")
+        private String name;
+    }
+}
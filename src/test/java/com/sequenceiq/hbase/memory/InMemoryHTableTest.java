@@ -0,0 +1,211 @@
+package com.sequenceiq.hbase.memory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Row;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.PrefixFilter;
+import org.apache.hadoop.hbase.regionserver.NoSuchColumnFamilyException;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sequenceiq.hbase.client.HBaseOperations;
+import com.sequenceiq.hbase.client.HBaseTablePool;
+import com.sequenceiq.hbase.client.TableCallback;
+import com.sequenceiq.hbase.model.HBaseRow;
+
+public class InMemoryHTableTest {
+
+    private static final String TABLE_NAME = "table";
+    private static final byte[] FAMILY = Bytes.toBytes("cf");
+    private static final byte[] COLUMN = Bytes.toBytes("column");
+    private static final byte[] OTHER_COLUMN = Bytes.toBytes("other");
+    private InMemoryHTableFactory factory;
+    private InMemoryHTable table;
+
+    @Before
+    public void reset() {
+        factory = new InMemoryHTableFactory();
+        HTableDescriptor descriptor = new HTableDescriptor(TableName.valueOf(TABLE_NAME));
+        descriptor.addFamily(new HColumnDescriptor(FAMILY).setMaxVersions(2));
+        table = factory.createTable(descriptor);
+    }
+
+    @Test
+    public void testGetReturnsLatestVersionsUpToFamilyLimit() throws IOException {
+        // GIVEN
+        table.put(new Put(Bytes.toBytes("row")).add(FAMILY, COLUMN, 1L, Bytes.toBytes("v1")));
+        table.put(new Put(Bytes.toBytes("row")).add(FAMILY, COLUMN, 2L, Bytes.toBytes("v2")));
+        table.put(new Put(Bytes.toBytes("row")).add(FAMILY, COLUMN, 3L, Bytes.toBytes("v3")));
+
+        // WHEN
+        Result latest = table.get(new Get(Bytes.toBytes("row")));
+        Result all = table.get(new Get(Bytes.toBytes("row")).setMaxVersions());
+
+        // THEN
+        assertEquals("v3", Bytes.toString(latest.getValue(FAMILY, COLUMN)));
+        assertEquals(1, latest.size());
+        assertEquals(2, all.size());
+        assertEquals(2, table.getCellCount());
+    }
+
+    @Test
+    public void testScanHonoursRangeAndFilter() throws IOException {
+        // GIVEN
+        for (String row : Arrays.asList("a1", "a2", "b1", "b2", "c1")) {
+            table.put(new Put(Bytes.toBytes(row)).add(FAMILY, COLUMN, Bytes.toBytes(row)));
+        }
+        Scan scan = new Scan(Bytes.toBytes("a2"), Bytes.toBytes("c1"));
+        scan.setFilter(new PrefixFilter(Bytes.toBytes("b")));
+
+        // WHEN
+        List<String> rows = new ArrayList<>();
+        try (ResultScanner scanner = table.getScanner(scan)) {
+            for (Result result : scanner) {
+                rows.add(Bytes.toString(result.getRow()));
+            }
+        }
+
+        // THEN
+        assertEquals(Arrays.asList("b1", "b2"), rows);
+    }
+
+    @Test
+    public void testReversedScan() throws IOException {
+        // GIVEN
+        for (String row : Arrays.asList("a", "b", "c")) {
+            table.put(new Put(Bytes.toBytes(row)).add(FAMILY, COLUMN, Bytes.toBytes(row)));
+        }
+        Scan scan = new Scan(Bytes.toBytes("c"), Bytes.toBytes("a"));
+        scan.setReversed(true);
+
+        // WHEN
+        Result[] results = table.getScanner(scan).next(10);
+
+        // THEN
+        assertEquals(2, results.length);
+        assertEquals("c", Bytes.toString(results[0].getRow()));
+        assertEquals("b", Bytes.toString(results[1].getRow()));
+    }
+
+    @Test
+    public void testDeleteColumnKeepsOtherColumns() throws IOException {
+        // GIVEN
+        table.put(new Put(Bytes.toBytes("row")).add(FAMILY, COLUMN, Bytes.toBytes("v1")).add(FAMILY, OTHER_COLUMN, Bytes.toBytes("v2")));
+
+        // WHEN
+        table.delete(new Delete(Bytes.toBytes("row")).deleteColumns(FAMILY, COLUMN));
+
+        // THEN
+        Result result = table.get(new Get(Bytes.toBytes("row")));
+        assertFalse(result.containsColumn(FAMILY, COLUMN));
+        assertArrayEquals(Bytes.toBytes("v2"), result.getValue(FAMILY, OTHER_COLUMN));
+    }
+
+    @Test
+    public void testCheckAndPut() throws IOException {
+        // GIVEN
+        byte[] row = Bytes.toBytes("row");
+        Put put = new Put(row).add(FAMILY, COLUMN, Bytes.toBytes("v1"));
+
+        // WHEN
+        boolean first = table.checkAndPut(row, FAMILY, COLUMN, null, put);
+        boolean second = table.checkAndPut(row, FAMILY, COLUMN, null, put);
+
+        // THEN
+        assertTrue(first);
+        assertFalse(second);
+    }
+
+    @Test
+    public void testBatchReportsFailedActions() throws Exception {
+        // GIVEN
+        List<Row> actions = new ArrayList<>();
+        actions.add(new Put(Bytes.toBytes("row")).add(FAMILY, COLUMN, Bytes.toBytes("v1")));
+        actions.add(new Put(Bytes.toBytes("row")).add(Bytes.toBytes("missing"), COLUMN, Bytes.toBytes("v1")));
+        Object[] results = new Object[actions.size()];
+
+        // WHEN
+        int failures = 0;
+        try {
+            table.batch(actions, results);
+        } catch (RetriesExhaustedWithDetailsException e) {
+            failures = e.getNumExceptions();
+        }
+
+        // THEN
+        assertEquals(1, failures);
+        assertTrue(results[0] instanceof Result);
+        assertTrue(results[1] instanceof NoSuchColumnFamilyException);
+    }
+
+    @Test
+    public void testConcurrentIncrementsThroughTablePool() throws Exception {
+        // GIVEN
+        final HBaseOperations operations = new HBaseOperations(new HBaseTablePool(new Configuration(false), factory));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Void>> futures = new ArrayList<>();
+
+        // WHEN
+        for (int i = 0; i < 4; i++) {
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (int j = 0; j < 250; j++) {
+                        operations.execute(TABLE_NAME, new TableCallback<Long>() {
+                            @Override
+                            public Long doInTable(HTableInterface table) throws Exception {
+                                return table.incrementColumnValue(Bytes.toBytes("counter"), FAMILY, COLUMN, 1);
+                            }
+                        }, true);
+                    }
+                    return null;
+                }
+            }));
+        }
+        for (Future<Void> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // THEN
+        assertEquals(1000L, Bytes.toLong(table.get(new Get(Bytes.toBytes("counter"))).getValue(FAMILY, COLUMN)));
+    }
+
+    @Test
+    public void testOperationsRoundTrip() {
+        // GIVEN
+        HBaseOperations operations = new HBaseOperations(new HBaseTablePool(new Configuration(false), factory));
+
+        // WHEN
+        operations.put(TABLE_NAME, new HBaseRow("row", "cf", "column", "value"), true);
+        HBaseRow row = operations.get(TABLE_NAME, "row", true);
+
+        // THEN
+        assertEquals(new HBaseRow("row", "cf", "column", "value").getColumnFamilies(), row.getColumnFamilies());
+    }
+}
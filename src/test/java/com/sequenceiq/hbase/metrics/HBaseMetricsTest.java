@@ -0,0 +1,82 @@
+package com.sequenceiq.hbase.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class HBaseMetricsTest {
+
+    private static final String TABLE_NAME = "table";
+    private HBaseMetrics metrics = new HBaseMetrics();
+
+    @After
+    public void tearDown() {
+        metrics.close();
+    }
+
+    @Test
+    public void testStatisticsContainCalledOperationsOnly() {
+        // GIVEN
+        metrics.getOperationMetrics(TABLE_NAME, OperationType.GET).record(1000, false);
+        metrics.getOperationMetrics(TABLE_NAME, OperationType.GET).recordTransfer(1, 10);
+        metrics.recordTableCreated(TABLE_NAME);
+
+        // WHEN
+        TableStatistics statistics = metrics.getStatistics(TABLE_NAME);
+
+        // THEN
+        assertEquals(1, statistics.getTablesCreated());
+        assertEquals(1, statistics.getOperations().size());
+        OperationStatistics get = statistics.getOperations().get(0);
+        assertEquals("GET", get.getOperation());
+        assertEquals(1, get.getCalls());
+        assertEquals(10, get.getBytes());
+    }
+
+    @Test
+    public void testStatisticsAreExposedThroughJmx() throws Exception {
+        // GIVEN
+        metrics.getOperationMetrics(TABLE_NAME, OperationType.PUT).record(1000, true);
+        metrics.registerMBean("test");
+
+        // WHEN
+        CompositeData[] tables = (CompositeData[]) ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName("com.sequenceiq.hbase:type=HBaseMetrics,name=\"test\""), "Tables");
+
+        // THEN
+        assertEquals(1, tables.length);
+        assertEquals(TABLE_NAME, tables[0].get("tableName"));
+        CompositeData put = ((CompositeData[]) tables[0].get("operations"))[0];
+        assertEquals(1L, put.get("errors"));
+    }
+
+    @Test
+    public void testReporterReceivesStatistics() throws InterruptedException {
+        // GIVEN
+        metrics.getOperationMetrics(TABLE_NAME, OperationType.SCAN).record(1000, false);
+        final CountDownLatch reported = new CountDownLatch(1);
+
+        // WHEN
+        metrics.addReporter(new MetricsReporter() {
+            @Override
+            public void report(List<TableStatistics> statistics) {
+                if (!statistics.isEmpty()) {
+                    reported.countDown();
+                }
+            }
+        }, 10, TimeUnit.MILLISECONDS);
+
+        // THEN
+        assertTrue(reported.await(5, TimeUnit.SECONDS));
+    }
+}
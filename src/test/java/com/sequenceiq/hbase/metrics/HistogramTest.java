@@ -0,0 +1,47 @@
+package com.sequenceiq.hbase.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HistogramTest {
+
+    @Test
+    public void testBucketsCoverValuesWithBoundedError() {
+        for (long value = 1; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 1) {
+            long upperBound = Histogram.upperBound(Histogram.index(value));
+            assertTrue(upperBound >= value);
+            assertTrue(upperBound - value <= value / Histogram.SUB_BUCKETS);
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        // GIVEN
+        Histogram histogram = new Histogram();
+
+        // WHEN
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        // THEN
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(500500, histogram.getMean(), 0.1);
+        assertEquals(500000, histogram.getPercentile(50), 500000 / Histogram.SUB_BUCKETS);
+        assertEquals(990000, histogram.getPercentile(99), 990000 / Histogram.SUB_BUCKETS);
+        assertEquals(1000000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        // GIVEN
+        Histogram histogram = new Histogram();
+
+        // THEN
+        assertEquals(0, histogram.getPercentile(99));
+        assertEquals(0, histogram.getMean(), 0);
+    }
+}
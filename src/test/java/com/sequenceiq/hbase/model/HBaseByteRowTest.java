@@ -0,0 +1,77 @@
+package com.sequenceiq.hbase.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HBaseByteRowTest {
+
+    private static final byte[] ROW = Bytes.toBytes("row1");
+    private static final byte[] FAMILY = Bytes.toBytes("cf");
+    private static final byte[] FAMILY2 = Bytes.toBytes("cf2");
+    private HBaseByteRow row;
+
+    @Before
+    public void reset() {
+        Cell[] cells = {
+            new KeyValue(ROW, FAMILY, Bytes.toBytes("count"), 2L, Bytes.toBytes(42L)),
+            new KeyValue(ROW, FAMILY, Bytes.toBytes("count"), 1L, Bytes.toBytes(41L)),
+            new KeyValue(ROW, FAMILY, Bytes.toBytes("name"), 1L, Bytes.toBytes("test")),
+            new KeyValue(ROW, FAMILY, Bytes.toBytes("ratio"), 1L, Bytes.toBytes(0.5d)),
+            new KeyValue(ROW, FAMILY2, Bytes.toBytes("size"), 1L, Bytes.toBytes(7)),
+            new KeyValue(ROW, FAMILY2, Bytes.toBytes("valid"), 1L, Bytes.toBytes(true))
+        };
+        row = HBaseByteRow.of(Result.create(Arrays.asList(cells)));
+    }
+
+    @Test
+    public void testTypedGettersReturnLatestVersion() {
+        assertEquals("row1", row.getRowKeyString());
+        assertEquals(42L, row.getLong(FAMILY, Bytes.toBytes("count"), 0L));
+        assertEquals("test", row.getString(FAMILY, Bytes.toBytes("name")));
+        assertEquals(0.5d, row.getDouble(FAMILY, Bytes.toBytes("ratio"), 0d), 0d);
+        assertEquals(7, row.getInt(FAMILY2, Bytes.toBytes("size"), 0));
+        assertTrue(row.getBoolean(FAMILY2, Bytes.toBytes("valid"), false));
+    }
+
+    @Test
+    public void testMissingColumnReturnsDefault() {
+        assertFalse(row.contains(FAMILY, Bytes.toBytes("missing")));
+        assertFalse(row.contains(Bytes.toBytes("cf3"), Bytes.toBytes("count")));
+        assertNull(row.getString(FAMILY2, Bytes.toBytes("name")));
+        assertEquals(-1L, row.getLong(FAMILY2, Bytes.toBytes("count"), -1L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDoubleOfShorterValueIsRejected() {
+        row.getDouble(FAMILY2, Bytes.toBytes("size"), 0d);
+    }
+
+    @Test
+    public void testValueBufferIsASliceOfTheCell() {
+        ByteBuffer buffer = row.getValueBuffer(FAMILY, Bytes.toBytes("name"));
+
+        assertEquals(4, buffer.remaining());
+        assertEquals("test", Bytes.toString(Bytes.getBytes(buffer)));
+    }
+
+    @Test
+    public void testEmptyRow() {
+        HBaseByteRow empty = HBaseByteRow.of(null);
+
+        assertTrue(empty.isEmpty());
+        assertNull(empty.getRowKey());
+        assertNull(empty.getCell(FAMILY, Bytes.toBytes("count")));
+    }
+}
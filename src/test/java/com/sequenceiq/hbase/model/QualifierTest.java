@@ -0,0 +1,60 @@
+package com.sequenceiq.hbase.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+public class QualifierTest {
+
+    private static final String NAME = "qualifier";
+    private static final String UNICODE_NAME = "\u00e1rv\u00edzt\u0171r\u0151";
+
+    @Test
+    public void testValueOfReturnsSharedInstance() {
+        // WHEN
+        Qualifier first = Qualifier.valueOf(NAME);
+        Qualifier second = Qualifier.valueOf(NAME);
+
+        // THEN
+        assertSame(first, second);
+        assertEquals(new Qualifier(NAME), first);
+        assertEquals(new Qualifier(NAME).hashCode(), first.hashCode());
+    }
+
+    @Test
+    public void testNameBytesAreUtf8Encoded() {
+        // WHEN
+        Qualifier qualifier = Qualifier.valueOf(UNICODE_NAME);
+
+        // THEN
+        assertArrayEquals(Bytes.toBytes(UNICODE_NAME), qualifier.getNameBytes());
+    }
+
+    @Test
+    public void testDeserializationResolvesToSharedInstance() throws IOException, ClassNotFoundException {
+        // GIVEN
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new Qualifier(NAME));
+        }
+
+        // WHEN
+        Object result;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            result = in.readObject();
+        }
+
+        // THEN
+        assertSame(Qualifier.valueOf(NAME), result);
+        assertArrayEquals(Bytes.toBytes(NAME), ((Qualifier) result).getNameBytes());
+    }
+}